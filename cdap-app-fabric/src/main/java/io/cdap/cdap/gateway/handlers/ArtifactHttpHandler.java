@@ -22,6 +22,7 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
@@ -78,7 +79,11 @@ import io.cdap.http.AbstractHttpHandler;
 import io.cdap.http.BodyConsumer;
 import io.cdap.http.HttpResponder;
 import io.netty.buffer.ByteBufInputStream;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import java.io.File;
@@ -502,7 +507,7 @@ public class ArtifactHttpHandler extends AbstractHttpHandler {
           pluginTypes.add(pluginClass.getType());
         }
       }
-      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(pluginTypes));
+      sendJsonWithETag(request, responder, GSON.toJson(pluginTypes));
     } catch (IOException e) {
       LOG.error("Exception looking up plugins for artifact {}", artifactId, e);
       responder.sendString(HttpResponseStatus.INTERNAL_SERVER_ERROR,
@@ -549,7 +554,7 @@ public class ArtifactHttpHandler extends AbstractHttpHandler {
               pluginArtifactSummary, pluginClass.getDescription()));
         }
       }
-      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(pluginSummaries));
+      sendJsonWithETag(request, responder, GSON.toJson(pluginSummaries));
     } catch (IOException e) {
       LOG.error("Exception looking up plugins for artifact {}", artifactId, e);
       responder.sendString(HttpResponseStatus.INTERNAL_SERVER_ERROR,
@@ -619,7 +624,7 @@ public class ArtifactHttpHandler extends AbstractHttpHandler {
         }
         pluginInfos.add(new PluginInfo(pluginClass, pluginArtifactSummary));
       }
-      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(pluginInfos));
+      sendJsonWithETag(request, responder, GSON.toJson(pluginInfos));
     } catch (PluginNotExistsException e) {
       responder.sendString(HttpResponseStatus.NOT_FOUND, e.getMessage());
     } catch (IOException e) {
@@ -820,6 +825,24 @@ public class ArtifactHttpHandler extends AbstractHttpHandler {
     }
   }
 
+  /**
+   * Responds with the given json and an ETag computed from it, or with a {@code 304 Not Modified}
+   * if the request carries the same ETag in its {@code If-None-Match} header. The ETag is computed
+   * from the response content since the plugins listed depend on the capabilities enabled at the
+   * time of the request, which lets clients revalidate their cached listings without parsing them
+   * again.
+   */
+  private void sendJsonWithETag(HttpRequest request, HttpResponder responder, String json) {
+    String etag = "\"" + Hashing.md5().hashString(json, StandardCharsets.UTF_8) + "\"";
+    HttpHeaders headers = new DefaultHttpHeaders().set(HttpHeaderNames.ETAG, etag);
+    if (etag.equals(request.headers().get(HttpHeaderNames.IF_NONE_MATCH))) {
+      responder.sendStatus(HttpResponseStatus.NOT_MODIFIED, headers);
+      return;
+    }
+    headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+    responder.sendString(HttpResponseStatus.OK, json, headers);
+  }
+
   private ArtifactScope validateScope(String scope) throws BadRequestException {
     try {
       return ArtifactScope.valueOf(scope.toUpperCase());
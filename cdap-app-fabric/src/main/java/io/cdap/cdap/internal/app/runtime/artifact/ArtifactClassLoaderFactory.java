@@ -22,6 +22,7 @@ import com.google.common.io.Closeables;
 import io.cdap.cdap.api.artifact.CloseableClassLoader;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.lang.ClassLoaderLeakDetector;
 import io.cdap.cdap.common.lang.DirectoryClassLoader;
 import io.cdap.cdap.common.lang.FilterClassLoader;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
@@ -51,6 +52,8 @@ final class ArtifactClassLoaderFactory {
   @Nullable
   private final ProgramRuntimeProviderLoader programRuntimeProviderLoader;
   private final File tmpDir;
+  @Nullable
+  private final ClassLoaderLeakDetector leakDetector;
 
   @VisibleForTesting
   ArtifactClassLoaderFactory(CConfiguration cConf) {
@@ -63,6 +66,7 @@ final class ArtifactClassLoaderFactory {
     this.programRuntimeProviderLoader = programRuntimeProviderLoader;
     this.tmpDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
         cConf.get(Constants.AppFabric.TEMP_DIR)).getAbsoluteFile();
+    this.leakDetector = ClassLoaderLeakDetector.get();
   }
 
   /**
@@ -109,6 +113,9 @@ final class ArtifactClassLoaderFactory {
       if (finalSparkClassLoader instanceof Closeable) {
         Closeables.closeQuietly((Closeable) finalSparkClassLoader);
       }
+      if (leakDetector != null) {
+        leakDetector.watch(finalProgramClassLoader, unpackDir.getAbsolutePath());
+      }
     });
   }
 
@@ -125,7 +132,7 @@ final class ArtifactClassLoaderFactory {
       EntityImpersonator entityImpersonator) {
     try {
       ClassLoaderFolder classLoaderFolder = entityImpersonator.impersonate(
-          () -> BundleJarUtil.prepareClassLoaderFolder(artifactLocation,
+          () -> BundleJarUtil.prepareClassLoaderFolder(cConf, artifactLocation,
               () -> DirUtils.createTempDir(tmpDir)));
 
       CloseableClassLoader classLoader = createClassLoader(classLoaderFolder.getDir());
@@ -160,7 +167,7 @@ final class ArtifactClassLoaderFactory {
 
     try {
       ClassLoaderFolder classLoaderFolder = entityImpersonator.impersonate(
-          () -> BundleJarUtil.prepareClassLoaderFolder(artifactLocation,
+          () -> BundleJarUtil.prepareClassLoaderFolder(cConf, artifactLocation,
               () -> DirUtils.createTempDir(tmpDir)));
 
       CloseableClassLoader parentClassLoader = createClassLoader(artifactLocations,
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.artifact;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.Closeables;
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.CloseableClassLoader;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.utils.ImmutablePair;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A pool of the {@link CloseableClassLoader}s of system artifacts, shared by all the requests
+ * served by a task worker in warm pool mode. Released system artifacts never change, so their
+ * class loaders can be reused instead of loading and initializing the same classes for every
+ * request. Class loaders are kept while in use, and the least recently used ones are closed once
+ * the pool holds more than its maximum size.
+ *
+ * This class is thread safe.
+ */
+public final class ArtifactClassLoaderPool {
+
+  private static ArtifactClassLoaderPool instance;
+
+  private final int maxSize;
+  private final Map<ImmutablePair<ArtifactId, URI>, Entry> entries;
+
+  /**
+   * Installs the {@link ArtifactClassLoaderPool} of the process. It is only installed by the task
+   * worker in warm pool mode, before serving any request.
+   */
+  public static synchronized void install(CConfiguration cConf) {
+    if (instance == null) {
+      instance = new ArtifactClassLoaderPool(
+          cConf.getInt(Constants.TaskWorker.WARM_POOL_CLASSLOADER_CACHE_SIZE));
+    }
+  }
+
+  /**
+   * Returns the {@link ArtifactClassLoaderPool} of the process, or {@code null} if none is
+   * installed.
+   */
+  @Nullable
+  static synchronized ArtifactClassLoaderPool get() {
+    return instance;
+  }
+
+  @VisibleForTesting
+  ArtifactClassLoaderPool(int maxSize) {
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns a {@link CloseableClassLoader} for the given artifact. The class loader of a released
+   * system artifact is taken from the pool, or created and added to it, and closing it only
+   * releases it back to the pool. The class loaders of other artifacts are not pooled.
+   *
+   * @param descriptor the artifact to get a class loader for
+   * @param factory a {@link Supplier} creating a new class loader for the artifact
+   */
+  CloseableClassLoader getClassLoader(ArtifactDescriptor descriptor,
+      Supplier<CloseableClassLoader> factory) {
+    ArtifactId artifactId = descriptor.getArtifactId();
+    if (artifactId.getScope() != ArtifactScope.SYSTEM || artifactId.getVersion().isSnapshot()) {
+      return factory.get();
+    }
+
+    ImmutablePair<ArtifactId, URI> key = ImmutablePair.of(artifactId, descriptor.getLocationURI());
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        return acquire(entry);
+      }
+    }
+
+    // create it without holding the lock, keeping the one created concurrently if any
+    CloseableClassLoader classLoader = factory.get();
+    List<CloseableClassLoader> evicted;
+    CloseableClassLoader result;
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        entry = new Entry(classLoader);
+        entries.put(key, entry);
+        classLoader = null;
+      }
+      result = acquire(entry);
+      evicted = evict();
+    }
+    if (classLoader != null) {
+      Closeables.closeQuietly(classLoader);
+    }
+    evicted.forEach(Closeables::closeQuietly);
+    return result;
+  }
+
+  @VisibleForTesting
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private CloseableClassLoader acquire(Entry entry) {
+    entry.refCount++;
+    AtomicBoolean released = new AtomicBoolean();
+    return new CloseableClassLoader(entry.classLoader, () -> {
+      if (released.compareAndSet(false, true)) {
+        release(entry);
+      }
+    });
+  }
+
+  private void release(Entry entry) {
+    List<CloseableClassLoader> evicted;
+    synchronized (this) {
+      entry.refCount--;
+      evicted = evict();
+    }
+    evicted.forEach(Closeables::closeQuietly);
+  }
+
+  /**
+   * Removes the least recently used class loaders that are not in use while the pool is full, and
+   * returns them to be closed without holding the lock.
+   */
+  private List<CloseableClassLoader> evict() {
+    List<CloseableClassLoader> evicted = new ArrayList<>();
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (entries.size() > maxSize && iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.refCount == 0) {
+        iterator.remove();
+        evicted.add(entry.classLoader);
+      }
+    }
+    return evicted;
+  }
+
+  /**
+   * A pooled class loader with the number of its users.
+   */
+  private static final class Entry {
+
+    private final CloseableClassLoader classLoader;
+    private int refCount;
+
+    Entry(CloseableClassLoader classLoader) {
+      this.classLoader = classLoader;
+    }
+  }
+}
@@ -18,6 +18,8 @@ package io.cdap.cdap.internal.app.runtime.artifact;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -77,11 +79,14 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.Spliterators;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -189,6 +194,9 @@ public class ArtifactStore {
   private final Impersonator impersonator;
   private final Set<String> requirementBlacklist;
   private final TransactionRunner transactionRunner;
+  // incremented after every change to the artifacts, to invalidate the plugin index entries
+  private final AtomicLong pluginIndexVersion;
+  private final Cache<PluginIndexKey, PluginIndexEntry> pluginIndex;
 
   @Inject
   ArtifactStore(CConfiguration cConf,
@@ -203,6 +211,13 @@ public class ArtifactStore {
         new HashSet<>(cConf.getTrimmedStringCollection(Constants.REQUIREMENTS_DATASET_TYPE_EXCLUDE))
             .stream().map(String::toLowerCase).collect(Collectors.toSet());
     this.transactionRunner = transactionRunner;
+    this.pluginIndexVersion = new AtomicLong();
+    this.pluginIndex = CacheBuilder.newBuilder()
+        .maximumSize(cConf.getLong(Constants.AppFabric.ARTIFACT_PLUGIN_INDEX_SIZE))
+        .expireAfterWrite(
+            cConf.getLong(Constants.AppFabric.ARTIFACT_PLUGIN_INDEX_EXPIRATION_SECONDS),
+            TimeUnit.SECONDS)
+        .build();
   }
 
   /**
@@ -502,7 +517,10 @@ public class ArtifactStore {
 
   /**
    * Get all plugin classes of the given type that extend the given parent artifact. Results are
-   * returned as a map from plugin artifact to plugins in that artifact.
+   * returned as a map from plugin artifact to plugins in that artifact. Results are served from an
+   * in-memory index, which is invalidated whenever an artifact is changed through this store, and
+   * reloaded after {@link Constants.AppFabric#ARTIFACT_PLUGIN_INDEX_EXPIRATION_SECONDS} to pick
+   * up the changes made by other processes.
    *
    * @param namespace the namespace to search for plugins. The system namespace is always
    *     included
@@ -519,6 +537,24 @@ public class ArtifactStore {
       @Nullable String type)
       throws ArtifactNotFoundException, IOException {
 
+    PluginIndexKey key = new PluginIndexKey(namespace, parentArtifactId.toEntityId(), type);
+    // read the version before scanning, so that a change committed during the scan
+    // invalidates the entry
+    long version = pluginIndexVersion.get();
+    PluginIndexEntry entry = pluginIndex.getIfPresent(key);
+    if (entry != null && entry.version == version) {
+      return entry.plugins;
+    }
+    SortedMap<ArtifactDescriptor, Set<PluginClass>> plugins =
+        scanPluginClasses(namespace, parentArtifactId, type);
+    pluginIndex.put(key, new PluginIndexEntry(version, plugins));
+    return plugins;
+  }
+
+  private SortedMap<ArtifactDescriptor, Set<PluginClass>> scanPluginClasses(
+      NamespaceId namespace, Id.Artifact parentArtifactId, @Nullable String type)
+      throws ArtifactNotFoundException, IOException {
+
     return TransactionRunners.run(transactionRunner, context -> {
       StructuredTable artifactDataTable = getTable(context,
           StoreDefinition.ArtifactStore.ARTIFACT_DATA_TABLE);
@@ -555,6 +591,8 @@ public class ArtifactStore {
         }
       }
 
+      // the result is shared by the callers through the plugin index
+      plugins.replaceAll((artifact, pluginClasses) -> Collections.unmodifiableSet(pluginClasses));
       return Collections.unmodifiableSortedMap(plugins);
     }, ArtifactNotFoundException.class, IOException.class);
   }
@@ -720,6 +758,7 @@ public class ArtifactStore {
           .build();
       artifactDataTable.upsert(fields);
     }, ArtifactNotFoundException.class, IOException.class);
+    pluginIndexVersion.incrementAndGet();
   }
 
   /**
@@ -788,6 +827,7 @@ public class ArtifactStore {
         // write artifact metadata
         writeMeta(context, artifactId, data);
       });
+      pluginIndexVersion.incrementAndGet();
 
       return new ArtifactDetail(new ArtifactDescriptor(artifactId.getNamespace().getId(),
           artifactId.toArtifactId(), destination), artifactMeta);
@@ -841,6 +881,7 @@ public class ArtifactStore {
           GSON.fromJson(optional.get().getString(StoreDefinition.ArtifactStore.ARTIFACT_DATA_FIELD),
               ArtifactData.class));
     }, IOException.class, ArtifactNotFoundException.class);
+    pluginIndexVersion.incrementAndGet();
   }
 
   /**
@@ -901,6 +942,7 @@ public class ArtifactStore {
         }
       }
     }, IOException.class);
+    pluginIndexVersion.incrementAndGet();
   }
 
   private void deleteRangeFromTable(StructuredTable table, Range range) throws IOException {
@@ -960,6 +1002,7 @@ public class ArtifactStore {
     // write pluginClass metadata, we loop twice to only access to one table at a time to prevent deadlock
     StructuredTable pluginTable = getTable(context,
         StoreDefinition.ArtifactStore.PLUGIN_DATA_TABLE);
+    List<Collection<Field<?>>> pluginRows = new ArrayList<>();
     for (PluginClass pluginClass : classes.getPlugins()) {
       // write metadata for each artifact this plugin extends
       for (ArtifactRange artifactRange : data.meta.getUsableBy()) {
@@ -971,14 +1014,16 @@ public class ArtifactStore {
             StoreDefinition.ArtifactStore.PLUGIN_DATA_FIELD,
             GSON.toJson(new PluginData(pluginClass, artifactLocation,
                 artifactRange)));
-        pluginTable.upsert(concatFields(pluginKey.keys, artifactkeys.keys,
+        pluginRows.add(concatFields(pluginKey.keys, artifactkeys.keys,
             Collections.singleton(pluginDataField)));
       }
     }
+    pluginTable.multiUpsert(pluginRows);
 
     // write universal plugin class metadata
     StructuredTable uniPluginTable = getTable(context,
         StoreDefinition.ArtifactStore.UNIV_PLUGIN_DATA_TABLE);
+    List<Collection<Field<?>>> uniPluginRows = new ArrayList<>();
     for (PluginClass pluginClass : classes.getPlugins()) {
       // If the artifact is deployed without any parent, add a special row to indicate that it can be used
       // by any other artifact in the same namespace.
@@ -991,10 +1036,11 @@ public class ArtifactStore {
             StoreDefinition.ArtifactStore.PLUGIN_DATA_FIELD,
             GSON.toJson(new PluginData(pluginClass, artifactLocation,
                 null)));
-        uniPluginTable.upsert(concatFields(pluginKey.keys, artifactkeys.keys,
+        uniPluginRows.add(concatFields(pluginKey.keys, artifactkeys.keys,
             Collections.singleton(pluginDataField)));
       }
     }
+    uniPluginTable.multiUpsert(uniPluginRows);
   }
 
   private Collection<Field<?>> concatFields(Collection<Field<?>> fields1,
@@ -1033,6 +1079,7 @@ public class ArtifactStore {
     // delete old plugins, we loop twice to only access to one table at a time to prevent deadlock
     StructuredTable pluginDataTable = getTable(context,
         StoreDefinition.ArtifactStore.PLUGIN_DATA_TABLE);
+    List<Collection<Field<?>>> pluginKeys = new ArrayList<>();
     for (PluginClass pluginClass : oldMeta.meta.getClasses().getPlugins()) {
       // delete metadata for each artifact this plugin extends
       for (ArtifactRange artifactRange : oldMeta.meta.getUsableBy()) {
@@ -1040,21 +1087,24 @@ public class ArtifactStore {
         PluginKeyPrefix pluginKey = new PluginKeyPrefix(artifactRange.getNamespace(),
             artifactRange.getName(), pluginClass.getType(),
             pluginClass.getName());
-        pluginDataTable.delete(concatFields(pluginKey.keys, artifactCell.keys));
+        pluginKeys.add(concatFields(pluginKey.keys, artifactCell.keys));
       }
     }
+    pluginDataTable.multiDelete(pluginKeys);
 
     // Delete the universal plugin row
     StructuredTable uniPluginTable = getTable(context,
         StoreDefinition.ArtifactStore.UNIV_PLUGIN_DATA_TABLE);
+    List<Collection<Field<?>>> uniPluginKeys = new ArrayList<>();
     for (PluginClass pluginClass : oldMeta.meta.getClasses().getPlugins()) {
       if (oldMeta.meta.getUsableBy().isEmpty()) {
         UniversalPluginKeyPrefix pluginKey = new UniversalPluginKeyPrefix(
             artifactId.getNamespace().getId(),
             pluginClass.getType(), pluginClass.getName());
-        uniPluginTable.delete(concatFields(pluginKey.keys, artifactCell.keys));
+        uniPluginKeys.add(concatFields(pluginKey.keys, artifactCell.keys));
       }
     }
+    uniPluginTable.multiDelete(uniPluginKeys);
 
     // delete the old jar file
     try {
@@ -1333,6 +1383,58 @@ public class ArtifactStore {
     }
   }
 
+  /**
+   * Key of the plugin index, identifying the plugin classes of a type available to an artifact.
+   */
+  private static final class PluginIndexKey {
+
+    private final NamespaceId namespace;
+    private final io.cdap.cdap.proto.id.ArtifactId parentArtifactId;
+    @Nullable
+    private final String type;
+
+    private PluginIndexKey(NamespaceId namespace,
+        io.cdap.cdap.proto.id.ArtifactId parentArtifactId, @Nullable String type) {
+      this.namespace = namespace;
+      this.parentArtifactId = parentArtifactId;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PluginIndexKey that = (PluginIndexKey) o;
+      return namespace.equals(that.namespace)
+          && parentArtifactId.equals(that.parentArtifactId)
+          && Objects.equals(type, that.type);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(namespace, parentArtifactId, type);
+    }
+  }
+
+  /**
+   * Entry of the plugin index, holding the plugin classes read at a given version of the index.
+   */
+  private static final class PluginIndexEntry {
+
+    private final long version;
+    private final SortedMap<ArtifactDescriptor, Set<PluginClass>> plugins;
+
+    private PluginIndexEntry(long version,
+        SortedMap<ArtifactDescriptor, Set<PluginClass>> plugins) {
+      this.version = version;
+      this.plugins = plugins;
+    }
+  }
+
   // utilities for creating and parsing row keys for artifacts. Keys are of the form 'r:{namespace}:{artifact-name}'
   private static class ArtifactKey {
 
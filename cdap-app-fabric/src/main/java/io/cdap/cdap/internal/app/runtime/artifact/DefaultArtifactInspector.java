@@ -150,7 +150,7 @@ final class DefaultArtifactInspector implements ArtifactInspector {
     Path stageDir = Files.createTempDirectory(tmpDir, artifactFile.getName());
     try (
         ClassLoaderFolder clFolder = BundleJarUtil.prepareClassLoaderFolder(
-            artifactLocation,
+            cConf, artifactLocation,
             () -> Files.createTempDirectory(stageDir, "unpacked-").toFile());
         CloseableClassLoader parentClassLoader = createParentClassLoader(parentDescriptor,
             entityImpersonator);
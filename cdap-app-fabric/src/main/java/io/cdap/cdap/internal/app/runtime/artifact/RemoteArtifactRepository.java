@@ -52,6 +52,8 @@ public class RemoteArtifactRepository implements ArtifactRepository {
 
   private final ArtifactRepositoryReader artifactRepositoryReader;
   private final ArtifactClassLoaderFactory artifactClassLoaderFactory;
+  @Nullable
+  private final ArtifactClassLoaderPool artifactClassLoaderPool;
 
   @VisibleForTesting
   @Inject
@@ -60,13 +62,20 @@ public class RemoteArtifactRepository implements ArtifactRepository {
     this.artifactRepositoryReader = artifactRepositoryReader;
     this.artifactClassLoaderFactory = new ArtifactClassLoaderFactory(cConf,
         new ProgramRuntimeProviderLoader(cConf));
+    this.artifactClassLoaderPool = ArtifactClassLoaderPool.get();
   }
 
   @Override
   public CloseableClassLoader createArtifactClassLoader(ArtifactDescriptor artifactDescriptor,
       EntityImpersonator entityImpersonator) throws IOException {
     Location location = getArtifactLocation(artifactDescriptor);
-    return artifactClassLoaderFactory.createClassLoader(location, entityImpersonator);
+    if (artifactClassLoaderPool == null) {
+      return artifactClassLoaderFactory.createClassLoader(location, entityImpersonator);
+    }
+    return artifactClassLoaderPool.getClassLoader(
+        new ArtifactDescriptor(artifactDescriptor.getNamespace(),
+            artifactDescriptor.getArtifactId(), location),
+        () -> artifactClassLoaderFactory.createClassLoader(location, entityImpersonator));
   }
 
   @Override
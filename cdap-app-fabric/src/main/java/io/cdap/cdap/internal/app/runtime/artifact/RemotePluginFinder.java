@@ -17,7 +17,10 @@
 package io.cdap.cdap.internal.app.runtime.artifact;
 
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
+import com.google.common.net.HttpHeaders;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.google.inject.Inject;
@@ -49,6 +52,7 @@ import io.cdap.common.http.HttpResponse;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
@@ -65,11 +69,14 @@ public class RemotePluginFinder implements PluginFinder {
   private static final Gson GSON = new Gson();
   private static final Type PLUGIN_INFO_LIST_TYPE = new TypeToken<List<PluginInfo>>() {
   }.getType();
+  private static final int MAX_CACHED_PLUGIN_LISTINGS = 1000;
 
   final RemoteClient remoteClientInternal;
   private final RemoteClient remoteClient;
   private final LocationFactory locationFactory;
   private final RetryStrategy retryStrategy;
+  // the plugin listings received, keyed by request path, to be revalidated with their ETag
+  private final Cache<String, PluginListing> pluginListings;
 
   @Inject
   public RemotePluginFinder(LocationFactory locationFactory,
@@ -91,6 +98,7 @@ public class RemotePluginFinder implements PluginFinder {
     this.remoteClientInternal = remoteClientInternal;
     this.locationFactory = locationFactory;
     this.retryStrategy = RetryStrategies.limit(30, RetryStrategies.fixDelay(2, TimeUnit.SECONDS));
+    this.pluginListings = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PLUGIN_LISTINGS).build();
   }
 
   @Override
@@ -146,7 +154,8 @@ public class RemotePluginFinder implements PluginFinder {
   }
 
   /**
-   * Gets a list of {@link PluginInfo} from the artifact extension endpoint.
+   * Gets a list of {@link PluginInfo} from the artifact extension endpoint. The last list received
+   * for the same request is revalidated with its ETag, and reused if it didn't change.
    *
    * @param namespaceId namespace of the call happening in
    * @param parentArtifactId the parent artifact id
@@ -164,22 +173,27 @@ public class RemotePluginFinder implements PluginFinder {
     // replace the space in the name
     // TODO: CDAP-18375 improve url encoding the our remote call
     pluginName = pluginName.replace(" ", "%20");
-    HttpRequest.Builder requestBuilder =
-        remoteClient.requestBuilder(
-            HttpMethod.GET,
-            String.format(
-                "namespaces/%s/artifacts/%s/versions/%s/extensions/%s/plugins/%s?scope=%s&pluginScope=%s",
-                namespaceId.getNamespace(), parentArtifactId.getArtifact(),
-                parentArtifactId.getVersion(), pluginType, pluginName,
-                NamespaceId.SYSTEM.equals(parentArtifactId.getNamespaceId())
-                    ? ArtifactScope.SYSTEM : ArtifactScope.USER,
-                NamespaceId.SYSTEM.equals(namespaceId.getNamespaceId())
-                    ? ArtifactScope.SYSTEM : ArtifactScope.USER
-            ));
+    String path = String.format(
+        "namespaces/%s/artifacts/%s/versions/%s/extensions/%s/plugins/%s?scope=%s&pluginScope=%s",
+        namespaceId.getNamespace(), parentArtifactId.getArtifact(),
+        parentArtifactId.getVersion(), pluginType, pluginName,
+        NamespaceId.SYSTEM.equals(parentArtifactId.getNamespaceId())
+            ? ArtifactScope.SYSTEM : ArtifactScope.USER,
+        NamespaceId.SYSTEM.equals(namespaceId.getNamespaceId())
+            ? ArtifactScope.SYSTEM : ArtifactScope.USER
+    );
+    HttpRequest.Builder requestBuilder = remoteClient.requestBuilder(HttpMethod.GET, path);
+    PluginListing cached = pluginListings.getIfPresent(path);
+    if (cached != null) {
+      requestBuilder.addHeader(HttpHeaders.IF_NONE_MATCH, cached.etag);
+    }
 
     HttpResponse response = remoteClient.execute(requestBuilder.build(), Idempotency.AUTO);
 
     int responseCode = response.getResponseCode();
+    if (cached != null && responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+      return cached.plugins;
+    }
     if (responseCode != HttpURLConnection.HTTP_OK) {
       if (HttpCodes.isRetryable(responseCode)) {
         throw new ServiceUnavailableException(
@@ -197,7 +211,15 @@ public class RemotePluginFinder implements PluginFinder {
               + response.getResponseBodyAsString());
     }
 
-    return GSON.fromJson(response.getResponseBodyAsString(), PLUGIN_INFO_LIST_TYPE);
+    List<PluginInfo> plugins = Collections.unmodifiableList(
+        GSON.fromJson(response.getResponseBodyAsString(), PLUGIN_INFO_LIST_TYPE));
+    String etag = response.getHeaders().get(HttpHeaders.ETAG).stream().findFirst().orElse(null);
+    if (etag == null) {
+      pluginListings.invalidate(path);
+    } else {
+      pluginListings.put(path, new PluginListing(etag, plugins));
+    }
+    return plugins;
   }
 
   /**
@@ -236,4 +258,18 @@ public class RemotePluginFinder implements PluginFinder {
     }
     return location;
   }
+
+  /**
+   * A list of {@link PluginInfo} received from the artifact extension endpoint, with its ETag.
+   */
+  private static final class PluginListing {
+
+    private final String etag;
+    private final List<PluginInfo> plugins;
+
+    private PluginListing(String etag, List<PluginInfo> plugins) {
+      this.etag = etag;
+      this.plugins = plugins;
+    }
+  }
 }
@@ -298,7 +298,7 @@ public class MapReduceClassLoader extends CombineClassLoader implements AutoClos
         LOG.info("Create ProgramClassLoader from {}", programLocation);
 
         ClassLoaderFolder classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(
-            programLocation,
+            contextConfig.getCConf(), programLocation,
             () -> DirUtils.createTempDir(new File(System.getProperty("user.dir"))));
         return new ProgramClassLoader(contextConfig.getCConf(), classLoaderFolder.getDir(),
             FilterClassLoader.create(contextConfig.getHConf().getClassLoader()));
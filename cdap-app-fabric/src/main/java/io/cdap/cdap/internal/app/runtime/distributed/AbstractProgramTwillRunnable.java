@@ -243,7 +243,7 @@ public abstract class AbstractProgramTwillRunnable<T extends ProgramRunner> impl
 
     // Expand the program jar for creating classloader
     ClassLoaderFolder classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(
-        programJarLocation,
+        cConf, programJarLocation,
         () -> new File("expanded." + System.currentTimeMillis() + programJarLocation.getName()));
 
     program = Programs.create(cConf, programRunner,
@@ -46,6 +46,7 @@ import io.cdap.cdap.api.plugin.PluginPropertyField;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.io.Locations;
+import io.cdap.cdap.common.lang.ClassLoaderLeakDetector;
 import io.cdap.cdap.common.lang.CombineClassLoader;
 import io.cdap.cdap.common.lang.InstantiatorFactory;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
@@ -107,7 +108,9 @@ public class PluginInstantiator implements Closeable {
   private static final Type MAP_STRING_TYPE = new TypeToken<Map<String, String>>() {
   }.getType();
 
+  private final CConfiguration cConf;
   private final LoadingCache<ClassLoaderKey, PluginClassLoader> classLoaders;
+  private final List<ClassLoaderFolder> classLoaderFolders;
   private final InstantiatorFactory instantiatorFactory;
   private final File tmpDir;
   private final File pluginDir;
@@ -121,6 +124,7 @@ public class PluginInstantiator implements Closeable {
 
   public PluginInstantiator(CConfiguration cConf, ClassLoader parentClassLoader, File pluginDir,
       boolean filterClassloader) {
+    this.cConf = cConf;
     this.instantiatorFactory = new InstantiatorFactory(false);
     File tmpDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
         cConf.get(Constants.AppFabric.TEMP_DIR)).getAbsoluteFile();
@@ -128,8 +132,9 @@ public class PluginInstantiator implements Closeable {
     this.pluginDir = pluginDir;
     this.tmpDir = DirUtils.createTempDir(tmpDir);
     this.classLoaders = CacheBuilder.newBuilder()
-        .removalListener(new ClassLoaderRemovalListener())
+        .removalListener(new ClassLoaderRemovalListener(ClassLoaderLeakDetector.get()))
         .build(new ClassLoaderCacheLoader());
+    this.classLoaderFolders = Collections.synchronizedList(new ArrayList<>());
     this.parentClassLoader =
         filterClassloader ? PluginClassLoader.createParent(parentClassLoader) : parentClassLoader;
     this.ownedParentClassLoader = filterClassloader;
@@ -516,6 +521,10 @@ public class PluginInstantiator implements Closeable {
   public void close() throws IOException {
     // Cleanup the ClassLoader cache and the temporary directory for the expanded plugin jar.
     classLoaders.invalidateAll();
+    synchronized (classLoaderFolders) {
+      classLoaderFolders.forEach(Closeables::closeQuietly);
+      classLoaderFolders.clear();
+    }
     if (ownedParentClassLoader) {
       Closeables.closeQuietly((Closeable) parentClassLoader);
     }
@@ -573,8 +582,9 @@ public class PluginInstantiator implements Closeable {
     @Override
     public PluginClassLoader load(ClassLoaderKey key) throws Exception {
       File artifact = new File(pluginDir, Artifacts.getFileName(key.artifact));
-      ClassLoaderFolder classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(
+      ClassLoaderFolder classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(cConf,
           Locations.toLocation(artifact), () -> DirUtils.createTempDir(tmpDir));
+      classLoaderFolders.add(classLoaderFolder);
 
       Iterator<ArtifactId> parentIter = key.parents.iterator();
       if (!parentIter.hasNext()) {
@@ -611,14 +621,26 @@ public class PluginInstantiator implements Closeable {
   }
 
   /**
-   * A RemovalListener for closing plugin ClassLoader.
+   * A RemovalListener for closing plugin ClassLoader. Closed ClassLoaders are watched for leaks if
+   * a {@link ClassLoaderLeakDetector} is given.
    */
   private static final class ClassLoaderRemovalListener implements
       RemovalListener<ClassLoaderKey, PluginClassLoader> {
 
+    @Nullable
+    private final ClassLoaderLeakDetector leakDetector;
+
+    ClassLoaderRemovalListener(@Nullable ClassLoaderLeakDetector leakDetector) {
+      this.leakDetector = leakDetector;
+    }
+
     @Override
     public void onRemoval(RemovalNotification<ClassLoaderKey, PluginClassLoader> notification) {
-      Closeables.closeQuietly(notification.getValue());
+      PluginClassLoader classLoader = notification.getValue();
+      Closeables.closeQuietly(classLoader);
+      if (leakDetector != null && classLoader != null) {
+        leakDetector.watch(classLoader, "plugin " + notification.getKey().artifact);
+      }
     }
   }
 
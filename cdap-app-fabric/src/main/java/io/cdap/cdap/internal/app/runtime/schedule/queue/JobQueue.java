@@ -21,6 +21,7 @@ import io.cdap.cdap.internal.app.runtime.schedule.ProgramScheduleRecord;
 import io.cdap.cdap.proto.Notification;
 import io.cdap.cdap.proto.id.ScheduleId;
 import java.io.IOException;
+import java.util.Collection;
 import javax.annotation.Nullable;
 
 /**
@@ -63,6 +64,17 @@ public interface JobQueue {
   void addNotification(ProgramScheduleRecord schedule, Notification notification)
       throws IOException;
 
+  /**
+   * Adds the given notification to jobs for each of the given schedules. This is the same as
+   * calling {@link #addNotification(ProgramScheduleRecord, Notification)} for each schedule, but
+   * reads and writes the jobs of all the schedules together.
+   *
+   * @param schedules the schedules for which jobs will be update
+   * @param notification the new notification to update the schedule jobs with
+   */
+  void addNotification(Collection<ProgramScheduleRecord> schedules, Notification notification)
+      throws IOException;
+
   /**
    * Marks all jobs associated with the given schedule Id for deletion, recording the time of
    * deletion.
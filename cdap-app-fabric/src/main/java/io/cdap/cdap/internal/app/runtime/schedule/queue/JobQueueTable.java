@@ -16,7 +16,6 @@
 
 package io.cdap.cdap.internal.app.runtime.schedule.queue;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
@@ -50,7 +49,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -144,41 +146,83 @@ public class JobQueueTable implements JobQueue {
   @Override
   public void addNotification(ProgramScheduleRecord record, Notification notification)
       throws IOException {
-    boolean jobExists = false;
-    ProgramSchedule schedule = record.getSchedule();
+    addNotification(Collections.singleton(record), notification);
+  }
 
+  @Override
+  public void addNotification(Collection<ProgramScheduleRecord> records,
+      Notification notification) throws IOException {
     // Only add notifications for enabled schedules
-    if (record.getMeta().getStatus() != ProgramScheduleStatus.SCHEDULED) {
+    Map<String, ProgramScheduleRecord> enabled = new LinkedHashMap<>();
+    for (ProgramScheduleRecord record : records) {
+      if (record.getMeta().getStatus() == ProgramScheduleStatus.SCHEDULED) {
+        enabled.put(getScheduleKey(record.getSchedule().getScheduleId()), record);
+      }
+    }
+    if (enabled.isEmpty()) {
       return;
     }
 
+    // Read the jobs of all the schedules with one scan
+    Map<String, List<Job>> jobs = new HashMap<>();
+    List<Range> ranges = new ArrayList<>();
+    for (ProgramScheduleRecord record : enabled.values()) {
+      ranges.add(Range.singleton(getScheduleScanKeys(record.getSchedule().getScheduleId())));
+    }
+    try (CloseableIterator<Job> iterator =
+        createJobIterator(jobQueueTable.multiScan(ranges, Integer.MAX_VALUE))) {
+      while (iterator.hasNext()) {
+        Job job = iterator.next();
+        jobs.computeIfAbsent(getScheduleKey(job.getSchedule().getScheduleId()),
+            k -> new ArrayList<>()).add(job);
+      }
+    }
+
+    List<Collection<Field<?>>> rows = new ArrayList<>();
+    for (Map.Entry<String, ProgramScheduleRecord> entry : enabled.entrySet()) {
+      addNotification(entry.getValue(),
+          jobs.getOrDefault(entry.getKey(), Collections.emptyList()), notification, rows);
+    }
+    jobQueueTable.multiUpsert(rows);
+  }
+
+  /**
+   * Adds the given notification to the job of a schedule, collecting the rows to write.
+   *
+   * @param record the schedule to add the notification for
+   * @param jobs the existing jobs of the schedule
+   * @param notification the notification to add
+   * @param rows the list to add the rows to write to
+   */
+  private void addNotification(ProgramScheduleRecord record, List<Job> jobs,
+      Notification notification, List<Collection<Field<?>>> rows) {
+    boolean jobExists = false;
+    ProgramSchedule schedule = record.getSchedule();
+
     int nextGenerationId = 0;
-    try (CloseableIterator<Job> jobs = getJobsForSchedule(schedule.getScheduleId())) {
-      while (jobs.hasNext()) {
-        Job job = jobs.next();
-        if (job.getGenerationId() >= nextGenerationId) {
-          nextGenerationId = job.getGenerationId() + 1;
+    for (Job job : jobs) {
+      if (job.getGenerationId() >= nextGenerationId) {
+        nextGenerationId = job.getGenerationId() + 1;
+      }
+      if (job.getState() == Job.State.PENDING_TRIGGER) {
+        // only update the job's notifications if it is in PENDING_TRIGGER, so as to avoid conflict with the
+        // ConstraintCheckerService
+        if (job.isToBeDeleted()) {
+          // ignore, it will be deleted by ConstraintCheckerService
+          continue;
         }
-        if (job.getState() == Job.State.PENDING_TRIGGER) {
-          // only update the job's notifications if it is in PENDING_TRIGGER, so as to avoid conflict with the
-          // ConstraintCheckerService
-          if (job.isToBeDeleted()) {
-            // ignore, it will be deleted by ConstraintCheckerService
-            continue;
-          }
-          long scheduleLastUpdated = record.getMeta().getLastUpdated();
-          if (job.getScheduleLastUpdatedTime() != scheduleLastUpdated) {
-            // schedule has changed: this job is obsolete
-            writeJobObsolete(job, System.currentTimeMillis());
-          } else if (System.currentTimeMillis() - job.getCreationTime() > job.getSchedule()
-              .getTimeoutMillis()) {
-            // job has timed out; mark it obsolete
-            writeJobObsolete(job, System.currentTimeMillis());
-          } else {
-            jobExists = true;
-            addNotification(job, notification);
-            break;
-          }
+        long scheduleLastUpdated = record.getMeta().getLastUpdated();
+        if (job.getScheduleLastUpdatedTime() != scheduleLastUpdated) {
+          // schedule has changed: this job is obsolete
+          rows.add(getJobObsoleteRow(job, System.currentTimeMillis()));
+        } else if (System.currentTimeMillis() - job.getCreationTime() > job.getSchedule()
+            .getTimeoutMillis()) {
+          // job has timed out; mark it obsolete
+          rows.add(getJobObsoleteRow(job, System.currentTimeMillis()));
+        } else {
+          jobExists = true;
+          addNotification(job, notification, rows);
+          break;
         }
       }
     }
@@ -187,13 +231,13 @@ public class JobQueueTable implements JobQueue {
       List<Notification> notifications = Collections.singletonList(notification);
       Job.State jobState = isTriggerSatisfied(schedule, notifications)
           ? Job.State.PENDING_CONSTRAINT : Job.State.PENDING_TRIGGER;
-      writeJob(new SimpleJob(schedule, nextGenerationId, System.currentTimeMillis(), notifications,
-          jobState,
-          record.getMeta().getLastUpdated()));
+      addJobRows(new SimpleJob(schedule, nextGenerationId, System.currentTimeMillis(),
+          notifications, jobState, record.getMeta().getLastUpdated()), rows);
     }
   }
 
-  private void addNotification(Job job, Notification notification) throws IOException {
+  private void addNotification(Job job, Notification notification,
+      List<Collection<Field<?>>> rows) {
     List<Notification> notifications = new ArrayList<>(job.getNotifications());
     notifications.add(notification);
 
@@ -205,7 +249,7 @@ public class JobQueueTable implements JobQueue {
     Job newJob = new SimpleJob(job.getSchedule(), job.getGenerationId(), job.getCreationTime(),
         notifications, newState,
         job.getScheduleLastUpdatedTime());
-    writeJob(newJob);
+    addJobRows(newJob, rows);
   }
 
   private boolean isTriggerSatisfied(ProgramSchedule schedule, List<Notification> notifications) {
@@ -368,30 +412,40 @@ public class JobQueueTable implements JobQueue {
   }
 
   private void writeJob(Job job) throws IOException {
+    List<Collection<Field<?>>> rows = new ArrayList<>();
+    addJobRows(job, rows);
+    jobQueueTable.multiUpsert(rows);
+  }
+
+  private void addJobRows(Job job, List<Collection<Field<?>>> rows) {
     Collection<Field<?>> fields = getJobKeys(job.getSchedule().getScheduleId(),
         job.getGenerationId(),
         StoreDefinition.JobQueueStore.RowType.JOB);
     fields.add(Fields.stringField(StoreDefinition.JobQueueStore.JOB, GSON.toJson(job)));
-    jobQueueTable.upsert(fields);
+    rows.add(fields);
     if (job.isToBeDeleted()) {
-      writeJobDelete(job, job.getDeleteTimeMillis());
+      rows.add(getJobDeleteRow(job, job.getDeleteTimeMillis()));
     }
   }
 
   private void writeJobDelete(Job job, Long deleteTime) throws IOException {
+    jobQueueTable.upsert(getJobDeleteRow(job, deleteTime));
+  }
+
+  private Collection<Field<?>> getJobDeleteRow(Job job, Long deleteTime) {
     Collection<Field<?>> fields = getJobKeys(job.getSchedule().getScheduleId(),
         job.getGenerationId(),
         StoreDefinition.JobQueueStore.RowType.DELETE);
     fields.add(Fields.longField(StoreDefinition.JobQueueStore.DELETE_TIME, deleteTime));
-    jobQueueTable.upsert(fields);
+    return fields;
   }
 
-  private void writeJobObsolete(Job job, long obsoleteTime) throws IOException {
+  private Collection<Field<?>> getJobObsoleteRow(Job job, long obsoleteTime) {
     Collection<Field<?>> fields = getJobKeys(job.getSchedule().getScheduleId(),
         job.getGenerationId(),
         StoreDefinition.JobQueueStore.RowType.OBSOLETE);
     fields.add(Fields.longField(StoreDefinition.JobQueueStore.OBSOLETE_TIME, obsoleteTime));
-    jobQueueTable.upsert(fields);
+    return fields;
   }
 
   private Collection<Field<?>> getJobKeys(ScheduleId scheduleId, int generationId,
@@ -410,18 +464,24 @@ public class JobQueueTable implements JobQueue {
   private Collection<Field<?>> getScheduleScanKeys(ScheduleId scheduleId) {
     Collection<Field<?>> keys = getPartitionScanKeys(scheduleId);
     keys.add(Fields.stringField(StoreDefinition.JobQueueStore.SCHEDULE_ID,
-        Joiner.on(".").join(scheduleId.toIdParts())));
+        getScheduleKey(scheduleId)));
     return keys;
   }
 
+  private String getScheduleKey(ScheduleId scheduleId) {
+    return Joiner.on(".").join(scheduleId.toIdParts());
+  }
+
   private Collection<Field<?>> getPartitionScanKeys(ScheduleId scheduleId) {
     List<Field<?>> keys = new ArrayList<>();
     keys.add(Fields.intField(StoreDefinition.JobQueueStore.PARTITION_ID, getPartition(scheduleId)));
     return keys;
   }
 
-  @VisibleForTesting
-  int getPartition(ScheduleId scheduleId) {
+  /**
+   * Returns the partition of the jobs of the given schedule.
+   */
+  public int getPartition(ScheduleId scheduleId) {
     // Similar to ScheduleId#hashCode, but that is not consistent across runtimes due to how Enum#hashCode works.
     // Ensure that the hash won't change across runtimes:
     int hash = Hashing.murmur3_32().newHasher()
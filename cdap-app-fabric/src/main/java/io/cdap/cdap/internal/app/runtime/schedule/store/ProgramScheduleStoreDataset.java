@@ -56,6 +56,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -88,7 +89,9 @@ import org.slf4j.LoggerFactory;
  * </ul>
  *
  * Lookup of schedules by trigger key is by first finding the all triggers for that event key (using the index),
- * then mapping each of these triggers to the schedule it belongs to.
+ * then mapping each of these triggers to the schedule it belongs to. The trigger keys of all schedules can also be
+ * kept in memory by a {@link ScheduleTriggerIndex}, using {@link #getAllTriggerKeys()} and
+ * {@link #getTriggerKeyChanges()}, in which case the schedules are read with {@link #getScheduleRecords(Collection)}.
  *
  * Note that deleting a schedule will leave an empty row with a deletion timestamp in the table. The reason for this
  * is that any addition or removal of a schedule also publishes a message about that operation, which includes the
@@ -111,6 +114,8 @@ public class ProgramScheduleStoreDataset {
 
   private final StructuredTable scheduleStore;
   private final StructuredTable triggerStore;
+  // the trigger keys of the schedules added or deleted through this instance
+  private final Map<ScheduleId, Set<String>> triggerKeyChanges = new LinkedHashMap<>();
 
   ProgramScheduleStoreDataset(StructuredTable scheduleStore, StructuredTable triggerStore) {
     this.scheduleStore = scheduleStore;
@@ -162,6 +167,7 @@ public class ProgramScheduleStoreDataset {
           Fields.stringField(StoreDefinition.ProgramScheduleStore.TRIGGER_KEY, triggerKey));
       triggerStore.upsert(triggerFields);
     }
+    triggerKeyChanges.put(schedule.getScheduleId(), new HashSet<>(extractTriggerKeys(schedule)));
   }
 
   /**
@@ -266,6 +272,7 @@ public class ProgramScheduleStoreDataset {
       markScheduleAsDeleted(existingRow, deleteTime);
       Collection<Field<?>> scheduleKeys = getScheduleKeys(scheduleId);
       triggerStore.deleteAll(Range.singleton(scheduleKeys));
+      triggerKeyChanges.put(scheduleId, Collections.emptySet());
     }
   }
 
@@ -292,6 +299,9 @@ public class ProgramScheduleStoreDataset {
     }
     // Then delete all triggers for the app
     triggerStore.deleteAll(range);
+    for (ScheduleId scheduleId : deleted) {
+      triggerKeyChanges.put(scheduleId, Collections.emptySet());
+    }
     return deleted;
   }
 
@@ -317,7 +327,9 @@ public class ProgramScheduleStoreDataset {
             markScheduleAsDeleted(row, deleteTime);
             Collection<Field<?>> deleteKeys = getScheduleKeys(row);
             triggerStore.deleteAll(Range.singleton(deleteKeys));
-            deleted.add(rowToScheduleId(row));
+            ScheduleId scheduleId = rowToScheduleId(row);
+            triggerKeyChanges.put(scheduleId, Collections.emptySet());
+            deleted.add(scheduleId);
           }
         }
       }
@@ -347,6 +359,7 @@ public class ProgramScheduleStoreDataset {
       ProgramSchedule schedule = scheduleRecord.getSchedule();
       markScheduleAsDeleted(schedule.getScheduleId(), deleteTime);
       triggerStore.deleteAll(Range.singleton(getScheduleKeys(schedule.getScheduleId())));
+      triggerKeyChanges.put(schedule.getScheduleId(), Collections.emptySet());
 
       if (schedule.getTrigger() instanceof AbstractSatisfiableCompositeTrigger) {
         // get the updated composite trigger by removing the program status trigger of the given program
@@ -533,6 +546,62 @@ public class ProgramScheduleStoreDataset {
     return schedulesFound.values();
   }
 
+  /**
+   * Read the schedules with the given ids from the store, skipping the ones that don't exist.
+   *
+   * @param scheduleIds the ids of the schedules to read
+   * @return a list of the schedule records found; never null
+   */
+  public List<ProgramScheduleRecord> getScheduleRecords(Collection<ScheduleId> scheduleIds)
+      throws IOException {
+    if (scheduleIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Collection<Field<?>>> keys = new ArrayList<>();
+    for (ScheduleId scheduleId : scheduleIds) {
+      keys.add(getScheduleKeys(scheduleId));
+    }
+    List<ProgramScheduleRecord> result = new ArrayList<>();
+    for (StructuredRow row : scheduleStore.multiRead(keys)) {
+      String serialized = row.getString(StoreDefinition.ProgramScheduleStore.SCHEDULE);
+      // the schedule has been deleted
+      if (serialized == null) {
+        continue;
+      }
+      ScheduleId scheduleId = rowToScheduleId(row);
+      ProgramSchedule schedule = GSON.fromJson(serialized, ProgramSchedule.class);
+      result.add(new ProgramScheduleRecord(schedule, extractMetaFromRow(scheduleId, row)));
+    }
+    return result;
+  }
+
+  /**
+   * Read the trigger keys of all the schedules in the store.
+   *
+   * @return a map from schedule id to the trigger keys of the schedule
+   */
+  public Map<ScheduleId, Set<String>> getAllTriggerKeys() throws IOException {
+    Map<ScheduleId, Set<String>> result = new HashMap<>();
+    try (CloseableIterator<StructuredRow> iterator =
+        triggerStore.scan(Range.all(), Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        StructuredRow row = iterator.next();
+        result.computeIfAbsent(rowToScheduleId(row), k -> new HashSet<>())
+            .add(row.getString(StoreDefinition.ProgramScheduleStore.TRIGGER_KEY));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the trigger keys of the schedules added or deleted through this instance, with an
+   * empty set for the deleted schedules. Once the transaction is committed, these changes can be
+   * applied to a {@link ScheduleTriggerIndex}.
+   */
+  public Map<ScheduleId, Set<String>> getTriggerKeyChanges() {
+    return Collections.unmodifiableMap(triggerKeyChanges);
+  }
+
   /*------------------- private helpers ---------------------*/
 
   /**
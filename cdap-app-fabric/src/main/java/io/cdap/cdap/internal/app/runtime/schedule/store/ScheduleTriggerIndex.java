@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.schedule.store;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Singleton;
+import io.cdap.cdap.proto.id.ScheduleId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import javax.annotation.Nullable;
+
+/**
+ * An in-memory index from trigger key to the ids of the schedules having a trigger for it, which
+ * mirrors the trigger table of the {@link ProgramScheduleStoreDataset}. The index is loaded from
+ * the store by {@link #refresh(Callable)}, and kept up to date by applying the trigger key changes
+ * of every committed transaction with {@link #update(Map)}. Refreshing periodically picks up the
+ * changes made by other processes.
+ *
+ * This class is thread safe.
+ */
+@Singleton
+public class ScheduleTriggerIndex {
+
+  private final Object refreshLock = new Object();
+  private final Map<String, Set<ScheduleId>> schedules = new HashMap<>();
+  private final Map<ScheduleId, Set<String>> triggerKeys = new HashMap<>();
+  private boolean loaded;
+  // the updates applied while a refresh is loading from the store, to be applied again on top
+  private List<Map<ScheduleId, Set<String>>> refreshUpdates;
+
+  /**
+   * Returns the ids of the schedules having a trigger for the given trigger key, or {@code null}
+   * if the index has not been loaded yet.
+   */
+  @Nullable
+  public synchronized Set<ScheduleId> getSchedules(String triggerKey) {
+    if (!loaded) {
+      return null;
+    }
+    Set<ScheduleId> result = schedules.get(triggerKey);
+    return result == null ? Collections.emptySet() : ImmutableSet.copyOf(result);
+  }
+
+  /**
+   * Applies the trigger key changes of a committed transaction.
+   *
+   * @param changes the new trigger keys of the schedules added or deleted, with an empty set
+   *     for the deleted schedules
+   * @see ProgramScheduleStoreDataset#getTriggerKeyChanges()
+   */
+  public synchronized void update(Map<ScheduleId, Set<String>> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    apply(changes);
+    if (refreshUpdates != null) {
+      refreshUpdates.add(new HashMap<>(changes));
+    }
+  }
+
+  /**
+   * Reloads the index from the store.
+   *
+   * @param loader a {@link Callable} that reads the trigger keys of all schedules in a new
+   *     transaction
+   * @see ProgramScheduleStoreDataset#getAllTriggerKeys()
+   */
+  public void refresh(Callable<Map<ScheduleId, Set<String>>> loader) throws Exception {
+    synchronized (refreshLock) {
+      synchronized (this) {
+        refreshUpdates = new ArrayList<>();
+      }
+      Map<ScheduleId, Set<String>> allTriggerKeys;
+      try {
+        allTriggerKeys = loader.call();
+      } catch (Exception e) {
+        synchronized (this) {
+          refreshUpdates = null;
+        }
+        throw e;
+      }
+      synchronized (this) {
+        schedules.clear();
+        triggerKeys.clear();
+        apply(allTriggerKeys);
+        // The loader may or may not have seen the updates committed while it was running.
+        // Since each update sets the trigger keys of a schedule, applying them again is safe.
+        for (Map<ScheduleId, Set<String>> changes : refreshUpdates) {
+          apply(changes);
+        }
+        refreshUpdates = null;
+        loaded = true;
+      }
+    }
+  }
+
+  private void apply(Map<ScheduleId, Set<String>> changes) {
+    for (Map.Entry<ScheduleId, Set<String>> entry : changes.entrySet()) {
+      ScheduleId scheduleId = entry.getKey();
+      Set<String> oldKeys = triggerKeys.remove(scheduleId);
+      if (oldKeys != null) {
+        for (String key : oldKeys) {
+          Set<ScheduleId> ids = schedules.get(key);
+          ids.remove(scheduleId);
+          if (ids.isEmpty()) {
+            schedules.remove(key);
+          }
+        }
+      }
+      if (entry.getValue().isEmpty()) {
+        continue;
+      }
+      triggerKeys.put(scheduleId, new HashSet<>(entry.getValue()));
+      for (String key : entry.getValue()) {
+        schedules.computeIfAbsent(key, k -> new HashSet<>()).add(scheduleId);
+      }
+    }
+  }
+}
@@ -44,6 +44,7 @@ public abstract class AbstractNotificationSubscriberService extends
   private final String name;
   private final MultiThreadMessagingContext messagingContext;
   private final TransactionRunner transactionRunner;
+  private final long pollTimeoutMillis;
 
   protected AbstractNotificationSubscriberService(String name, CConfiguration cConf,
       String topicName,
@@ -78,6 +79,7 @@ public abstract class AbstractNotificationSubscriberService extends
     this.name = name;
     this.messagingContext = new MultiThreadMessagingContext(messagingService);
     this.transactionRunner = transactionRunner;
+    this.pollTimeoutMillis = cConf.getLong(Constants.MessagingSystem.SUBSCRIBER_POLL_TIMEOUT_MS);
   }
 
   @Override
@@ -90,6 +92,11 @@ public abstract class AbstractNotificationSubscriberService extends
     return messagingContext;
   }
 
+  @Override
+  protected long getPollTimeoutMillis() {
+    return pollTimeoutMillis;
+  }
+
   @Override
   protected TransactionRunner getTransactionRunner() {
     return transactionRunner;
@@ -84,6 +84,7 @@ public class AppFabricServer extends AbstractIdleService {
   private final ProgramStopSubscriberService programStopSubscriberService;
   private final RunRecordCorrectorService runRecordCorrectorService;
   private final RunRecordTimeToLiveService runRecordTimeToLiveService;
+  private final RunRecordEncodingMigrationService runRecordEncodingMigrationService;
   private final ProgramRunStatusMonitorService programRunStatusMonitorService;
   private final RunRecordMonitorService runRecordCounterService;
   private final CoreSchedulerService coreSchedulerService;
@@ -132,6 +133,7 @@ public class AppFabricServer extends AbstractIdleService {
       RunRecordMonitorService runRecordCounterService,
       CommonNettyHttpServiceFactory commonNettyHttpServiceFactory,
       RunRecordTimeToLiveService runRecordTimeToLiveService,
+      RunRecordEncodingMigrationService runRecordEncodingMigrationService,
       SourceControlOperationRunner sourceControlOperationRunner,
       RepositoryCleanupService repositoryCleanupService,
       OperationNotificationSubscriberService operationNotificationSubscriberService) {
@@ -159,6 +161,7 @@ public class AppFabricServer extends AbstractIdleService {
     this.transactionRunner = transactionRunner;
     this.runRecordCounterService = runRecordCounterService;
     this.runRecordTimeToLiveService = runRecordTimeToLiveService;
+    this.runRecordEncodingMigrationService = runRecordEncodingMigrationService;
     this.commonNettyHttpServiceFactory = commonNettyHttpServiceFactory;
     this.sourceControlOperationRunner = sourceControlOperationRunner;
     this.repositoryCleanupService = repositoryCleanupService;
@@ -192,6 +195,7 @@ public class AppFabricServer extends AbstractIdleService {
         credentialProviderService.start(),
         runRecordCounterService.start(),
         runRecordTimeToLiveService.start(),
+        runRecordEncodingMigrationService.start(),
         sourceControlOperationRunner.start(),
         repositoryCleanupService.start(),
         operationNotificationSubscriberService.start()
@@ -251,6 +255,7 @@ public class AppFabricServer extends AbstractIdleService {
     provisioningService.stopAndWait();
     runRecordCounterService.stopAndWait();
     runRecordTimeToLiveService.stopAndWait();
+    runRecordEncodingMigrationService.stopAndWait();
     sourceControlOperationRunner.stopAndWait();
     repositoryCleanupService.stopAndWait();
     credentialProviderService.stopAndWait();
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.services;
+
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.internal.app.store.AppMetadataStore;
+import io.cdap.cdap.spi.data.transaction.TransactionRunner;
+import io.cdap.cdap.spi.data.transaction.TransactionRunners;
+import io.cdap.cdap.spi.data.transaction.TxCallable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service which adds the binary encoding to run records stored only in the legacy JSON encoding
+ * in the background. The run records table is scanned once in batches, each in its own
+ * transaction. Run records in either encoding can be read while the migration is in progress.
+ * Completion is recorded in the subscriber state table, so that the migration does not run again
+ * on later startups.
+ *
+ * <p>Does not run if it is disabled by configuration.
+ */
+public final class RunRecordEncodingMigrationService extends AbstractIdleService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+      RunRecordEncodingMigrationService.class);
+  private static final long RETRY_DELAY_SECONDS = 60;
+  private static final String MIGRATION_STATE_TOPIC = "run.record.encoding";
+  private static final String MIGRATION_SUBSCRIBER_NAME = "migration";
+
+  private final TransactionRunner transactionRunner;
+  private final boolean isEnabled;
+  private final int batchSize;
+  private final long batchDelayMillis;
+
+  private ScheduledExecutorService service;
+  private AppMetadataStore.Cursor cursor;
+  private long batches;
+
+  @Inject
+  RunRecordEncodingMigrationService(CConfiguration cConf, TransactionRunner transactionRunner) {
+    this.isEnabled = cConf.getBoolean(Constants.AppFabric.RUN_RECORD_ENCODING_MIGRATION_ENABLED);
+    this.batchSize = Math.max(
+        cConf.getInt(Constants.AppFabric.RUN_RECORD_ENCODING_MIGRATION_BATCH_SIZE), 1);
+    this.batchDelayMillis = Math.max(
+        cConf.getLong(Constants.AppFabric.RUN_RECORD_ENCODING_MIGRATION_BATCH_DELAY_MS), 0L);
+    this.transactionRunner = transactionRunner;
+  }
+
+  @Override
+  protected void startUp() throws IOException {
+    if (!isEnabled) {
+      LOG.info("Run records encoding migration is disabled, "
+          + "skipping starting RunRecordEncodingMigrationService");
+      return;
+    }
+
+    // Checking if the migration had been completed during a previous startup
+    String migrationComplete = TransactionRunners.run(transactionRunner,
+        (TxCallable<String>) context -> AppMetadataStore.create(context)
+            .retrieveSubscriberState(MIGRATION_STATE_TOPIC, MIGRATION_SUBSCRIBER_NAME),
+        IOException.class);
+    if (migrationComplete != null) {
+      LOG.debug("Run records encoding migration was completed during a previous startup, "
+          + "skipping the migration this time.");
+      return;
+    }
+
+    service = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("run-record-encoding-migration").build());
+    cursor = AppMetadataStore.Cursor.EMPTY;
+    service.schedule(this::migrateBatch, batchDelayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected void shutDown() {
+    if (service == null) {
+      // no-op because no services were started.
+      return;
+    }
+    LOG.info("Stopping RunRecordEncodingMigrationService");
+
+    service.shutdownNow();
+  }
+
+  private void migrateBatch() {
+    AppMetadataStore.Cursor nextCursor;
+    try {
+      nextCursor = TransactionRunners.run(transactionRunner,
+          (TxCallable<AppMetadataStore.Cursor>) context -> {
+            AppMetadataStore store = AppMetadataStore.create(context);
+            AppMetadataStore.Cursor next = store.migrateRunRecordEncoding(cursor, batchSize);
+            if (next == null) {
+              store.persistSubscriberState(MIGRATION_STATE_TOPIC, MIGRATION_SUBSCRIBER_NAME,
+                  "true");
+            }
+            return next;
+          },
+          IOException.class);
+    } catch (Exception e) {
+      LOG.warn("Failed to migrate run records to the binary encoding. "
+          + "Will be retried in {} seconds.", RETRY_DELAY_SECONDS, e);
+      service.schedule(this::migrateBatch, RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+      return;
+    }
+
+    batches++;
+    if (nextCursor == null) {
+      LOG.info("Completed migrating run records to the binary encoding in {} batches", batches);
+      return;
+    }
+    cursor = nextCursor;
+    service.schedule(this::migrateBatch, batchDelayMillis, TimeUnit.MILLISECONDS);
+  }
+}
@@ -892,10 +892,8 @@ public class AppMetadataStore {
       // Update the parent Workflow run record by adding node id and program run id in the properties
       Map<String, String> properties = new HashMap<>(record.getProperties());
       properties.put(workflowNodeId, programRunId.getRun());
-      writeToStructuredTableWithPrimaryKeys(
-          runRecordFields,
-          RunRecordDetail.builder(record).setProperties(properties).setSourceId(sourceId).build(),
-          getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+      writeRunRecord(runRecordFields,
+          RunRecordDetail.builder(record).setProperties(properties).setSourceId(sourceId).build());
     }
   }
 
@@ -1025,8 +1023,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.PROVISIONED,
         existing.getProgramRunId());
     return meta;
@@ -1070,8 +1067,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.DEPROVISIONING,
         existing.getProgramRunId());
     return meta;
@@ -1116,8 +1112,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.DEPROVISIONED,
         existing.getProgramRunId());
     return meta;
@@ -1161,8 +1156,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.ORPHANED,
         existing.getProgramRunId());
     return meta;
@@ -1220,8 +1214,7 @@ public class AppMetadataStore {
       throws IOException {
     List<Field<?>> fields = getProgramRunInvertedTimeKey(typeRunRecordCompleted,
         meta.getProgramRunId(), meta.getStartTs());
-    writeToStructuredTableWithPrimaryKeys(fields, meta, getRunRecordsTable(),
-        StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(fields, meta);
     List<Field<?>> countKey = getProgramCountPrimaryKeys(TYPE_COUNT,
         meta.getProgramRunId().getParent());
     getProgramCountsTable().increment(countKey, StoreDefinition.AppMetadataStore.COUNTS, 1L);
@@ -1275,8 +1268,7 @@ public class AppMetadataStore {
         .setTwillRunId(twillRunId)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.STARTING, existing.getProgramRunId());
     return meta;
   }
@@ -1328,8 +1320,7 @@ public class AppMetadataStore {
         .setTwillRunId(twillRunId)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.RUNNING, existing.getProgramRunId());
     return meta;
   }
@@ -1414,8 +1405,7 @@ public class AppMetadataStore {
       }
     }
     RunRecordDetail meta = builder.build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", toStatus, existing.getProgramRunId());
     return meta;
   }
@@ -1470,8 +1460,7 @@ public class AppMetadataStore {
         .setTerminateTs(terminateTsSecs)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.STOPPING, existing.getProgramRunId());
     return meta;
   }
@@ -1524,8 +1513,7 @@ public class AppMetadataStore {
         .setStatus(runStatus)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", runStatus, existing.getProgramRunId());
     return meta;
   }
@@ -1666,6 +1654,42 @@ public class AppMetadataStore {
     }
   }
 
+  /**
+   * Adds the binary encoding to run records stored only in the legacy JSON encoding, or whose
+   * binary encoding is stale because they were updated by an older version since, starting from
+   * the given cursor. Run records with an up-to-date binary encoding are left untouched.
+   *
+   * @param cursor the cursor to start the scan. Use {@link Cursor#EMPTY} to start from the
+   *     beginning of the table, or the cursor returned by the previous call to continue from there.
+   * @param limit maximum number of run records to scan
+   * @return the cursor to continue the migration from, or {@code null} if the end of the table is
+   *     reached
+   * @throws IOException if failed to read or write the storage
+   */
+  @Nullable
+  public Cursor migrateRunRecordEncoding(Cursor cursor, int limit) throws IOException {
+    Range range = Range.from(cursor.fields, cursor.bound);
+    List<List<Field<?>>> rows = new ArrayList<>();
+    Cursor nextCursor = null;
+    int scanned = 0;
+
+    StructuredTable table = getRunRecordsTable();
+    try (CloseableIterator<StructuredRow> iterator = table.scan(range, limit)) {
+      while (iterator.hasNext()) {
+        StructuredRow row = iterator.next();
+        scanned++;
+        nextCursor = new Cursor(row.getPrimaryKeys(), Range.Bound.EXCLUSIVE);
+        if (hasCurrentBinaryData(row)) {
+          continue;
+        }
+        rows.add(addRunRecordData(new ArrayList<>(row.getPrimaryKeys()),
+            deserializeRunRecordMeta(row)));
+      }
+    }
+    table.multiUpsert(rows);
+    return scanned < limit ? null : nextCursor;
+  }
+
   /**
    * Get active runs in all namespaces with a filter, active runs means program run with status
    * STARTING, PENDING, RUNNING or SUSPENDED.
@@ -2074,8 +2098,25 @@ public class AppMetadataStore {
       @Nullable Predicate<StructuredRow> keyPredicate,
       @Nullable Predicate<RunRecordDetail> predicate,
       int limit) throws IOException {
+    return queryProgramRuns(range, orderedByStartTime, keyPredicate, predicate,
+        ProgramRunStatus.ALL, limit);
+  }
+
+  /**
+   * Same as {@link #queryProgramRuns(Range, boolean, Predicate, Predicate, int)}, but also skips
+   * the run records that are not of the given status. Unlike the predicates, the status doesn't
+   * turn the scan into an unbounded one, as the callers already account for it in the limit.
+   */
+  private CloseableIterator<RunRecordDetail> queryProgramRuns(Range range,
+      boolean orderedByStartTime,
+      @Nullable Predicate<StructuredRow> keyPredicate,
+      @Nullable Predicate<RunRecordDetail> predicate,
+      ProgramRunStatus status,
+      int limit) throws IOException {
     // scanLimit is different from passed-in limit(the actual maximum number of entries to return)
     int scanLimit = predicate == null && keyPredicate == null ? limit : Integer.MAX_VALUE;
+    Predicate<StructuredRow> statusPredicate = status == ProgramRunStatus.ALL
+        ? null : getRunStatusRowFilter(status);
     CloseableIterator<StructuredRow> iterator;
     if (orderedByStartTime) {
       iterator = getRunRecordsTable().scan(range, scanLimit,
@@ -2096,6 +2137,9 @@ public class AppMetadataStore {
 
         while (iterator.hasNext()) {
           StructuredRow row = iterator.next();
+          if (statusPredicate != null && !statusPredicate.test(row)) {
+            continue;
+          }
           if (keyPredicate != null && !keyPredicate.test(row)) {
             continue;
           }
@@ -2189,6 +2233,7 @@ public class AppMetadataStore {
     try (CloseableIterator<RunRecordDetail> iterator = queryProgramRuns(range, orderedByStartTime,
         keyFilter,
         valueFilter,
+        status,
         getLimitByStatus(limit, status))) {
       while (iterator.hasNext() && map.size() < limit) {
         RunRecordDetail meta = iterator.next();
@@ -2671,6 +2716,24 @@ public class AppMetadataStore {
     table.upsert(keys);
   }
 
+  private void writeRunRecord(List<Field<?>> keys, RunRecordDetail record) throws IOException {
+    getRunRecordsTable().upsert(addRunRecordData(keys, record));
+  }
+
+  /**
+   * Adds the run record data fields to the given list of fields. The record is written in both the
+   * binary and the legacy JSON encoding, so that older readers and rollbacks still see it. The
+   * JSON encoding is marked so that a later update by an older writer, which only rewrites the JSON
+   * encoding, can be detected.
+   */
+  private static List<Field<?>> addRunRecordData(List<Field<?>> fields, RunRecordDetail record) {
+    fields.add(Fields.stringField(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA,
+        RunRecordDetailCodec.markJson(GSON.toJson(record))));
+    fields.add(Fields.bytesField(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA,
+        RunRecordDetailCodec.encode(record)));
+    return fields;
+  }
+
   private List<Field<?>> getRunRecordStatusPrefix(String status) {
     List<Field<?>> fields = new ArrayList<>();
     fields.add(Fields.stringField(StoreDefinition.AppMetadataStore.RUN_STATUS, status));
@@ -2741,16 +2804,41 @@ public class AppMetadataStore {
   }
 
   private static RunRecordDetail deserializeRunRecordMeta(StructuredRow row) {
-    RunRecordDetail existing =
-        GSON.fromJson(row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA),
-            RunRecordDetail.class);
+    ProgramId programId = getProgramIdFromRunRecordsPrimaryKeys(
+        new ArrayList<>(row.getPrimaryKeys()));
+    String data = row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    byte[] binaryData = row.getBytes(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA);
+    if (binaryData != null && RunRecordDetailCodec.isBinaryCurrent(data)) {
+      return RunRecordDetailCodec.decode(binaryData,
+          programId.run(row.getString(StoreDefinition.AppMetadataStore.RUN_FIELD)));
+    }
+
+    // Run records written before the binary encoding was introduced, or updated by an older
+    // version since, are only up-to-date in the JSON encoding
+    RunRecordDetail existing = GSON.fromJson(data, RunRecordDetail.class);
     return RunRecordDetail.builder(existing)
-        .setProgramRunId(
-            getProgramIdFromRunRecordsPrimaryKeys(new ArrayList<>(row.getPrimaryKeys())).run(
-                existing.getPid()))
+        .setProgramRunId(programId.run(existing.getPid()))
         .build();
   }
 
+  /**
+   * Returns a row filter that only accepts run records of the given status. Run records with an
+   * up-to-date binary encoding are filtered without decoding the whole record.
+   */
+  private static Predicate<StructuredRow> getRunStatusRowFilter(ProgramRunStatus status) {
+    return row -> {
+      byte[] binaryData = row.getBytes(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA);
+      return !hasCurrentBinaryData(row)
+          || RunRecordDetailCodec.decodeStatus(binaryData) == status;
+    };
+  }
+
+  private static boolean hasCurrentBinaryData(StructuredRow row) {
+    return row.getBytes(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA) != null
+        && RunRecordDetailCodec.isBinaryCurrent(
+            row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA));
+  }
+
   private static ProgramId getProgramIdFromRunRecordsPrimaryKeys(List<Field<?>> primaryKeys) {
     // Assume keys are in correct ordering - skip first field since it's run_status
     return new ApplicationId(getStringFromField(primaryKeys.get(1)),
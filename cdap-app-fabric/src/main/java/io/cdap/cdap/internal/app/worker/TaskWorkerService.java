@@ -36,6 +36,7 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import java.net.InetSocketAddress;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.twill.common.Cancellable;
 import org.apache.twill.discovery.DiscoveryService;
 import org.apache.twill.discovery.DiscoveryServiceClient;
@@ -51,6 +52,8 @@ public class TaskWorkerService extends AbstractIdleService {
 
   private final DiscoveryService discoveryService;
   private final NettyHttpService httpService;
+  @Nullable
+  private final WarmPoolPreloader warmPoolPreloader;
   private Cancellable cancelDiscovery;
   private InetSocketAddress bindAddress;
 
@@ -91,11 +94,19 @@ public class TaskWorkerService extends AbstractIdleService {
       new HttpsEnabler().configureKeyStore(cConf, sConf).enable(builder);
     }
     this.httpService = builder.build();
+    this.warmPoolPreloader = cConf.getBoolean(TaskWorker.WARM_POOL_ENABLED)
+        ? new WarmPoolPreloader(cConf, discoveryService, discoveryServiceClient,
+            metricsCollectionService)
+        : null;
   }
 
   @Override
   protected void startUp() throws Exception {
     LOG.debug("Starting TaskWorkerService");
+    if (warmPoolPreloader != null) {
+      // preload before getting discovered, so that the first requests find the worker warm
+      warmPoolPreloader.preload();
+    }
     httpService.start();
     bindAddress = httpService.getBindAddress();
     cancelDiscovery = discoveryService.register(
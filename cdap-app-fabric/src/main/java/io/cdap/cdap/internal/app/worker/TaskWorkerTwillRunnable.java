@@ -36,9 +36,11 @@ import io.cdap.cdap.common.guice.RemoteAuthenticatorModules;
 import io.cdap.cdap.common.guice.SupplierProviderBridge;
 import io.cdap.cdap.common.guice.ZkClientModule;
 import io.cdap.cdap.common.guice.ZkDiscoveryModule;
+import io.cdap.cdap.common.lang.ClassLoaderLeakDetector;
 import io.cdap.cdap.common.logging.LoggingContext;
 import io.cdap.cdap.common.logging.LoggingContextAccessor;
 import io.cdap.cdap.common.logging.ServiceLoggingContext;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactClassLoaderPool;
 import io.cdap.cdap.logging.appender.LogAppenderInitializer;
 import io.cdap.cdap.logging.guice.KafkaLogAppenderModule;
 import io.cdap.cdap.logging.guice.RemoteLogAppenderModule;
@@ -188,6 +190,13 @@ public class TaskWorkerTwillRunnable extends AbstractTwillRunnable {
     // Overwrite the app fabric temp directory with the task worker temp directory
     cConf.set(Constants.CFG_LOCAL_DATA_DIR, cConf.get(Constants.TaskWorker.LOCAL_DATA_DIR));
 
+    if (cConf.getBoolean(Constants.TaskWorker.WARM_POOL_ENABLED)) {
+      // Requests reuse this JVM, so share the class loaders of system artifacts across them and
+      // watch for the class loaders they leave behind
+      ArtifactClassLoaderPool.install(cConf);
+      ClassLoaderLeakDetector.install();
+    }
+
     Configuration hConf = new Configuration();
     hConf.clear();
     hConf.addResource(new File(getArgument("hConf")).toURI().toURL());
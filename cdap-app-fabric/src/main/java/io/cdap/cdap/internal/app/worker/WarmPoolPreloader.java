@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.worker;
+
+import com.google.inject.Injector;
+import io.cdap.cdap.api.artifact.ApplicationClass;
+import io.cdap.cdap.api.artifact.ArtifactRange;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.api.artifact.ArtifactVersionRange;
+import io.cdap.cdap.api.artifact.CloseableClassLoader;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants.TaskWorker;
+import io.cdap.cdap.common.io.Locations;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactDescriptor;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactDetail;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactRepository;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactRepositoryReader;
+import io.cdap.cdap.internal.app.worker.sidecar.ArtifactLocalizerClient;
+import io.cdap.cdap.proto.artifact.ArtifactSortOrder;
+import io.cdap.cdap.proto.id.ArtifactId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.security.impersonation.EntityImpersonator;
+import io.cdap.cdap.security.impersonation.Impersonator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.twill.common.Threads;
+import org.apache.twill.discovery.DiscoveryService;
+import org.apache.twill.discovery.DiscoveryServiceClient;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Preloads the system artifacts used by most requests into a task worker in warm pool mode. Each
+ * artifact is localized, its class loader created and kept in the pool of reused class loaders,
+ * and its application classes loaded, the same way the {@link ConfiguratorTask} does it.
+ */
+final class WarmPoolPreloader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmPoolPreloader.class);
+
+  private final CConfiguration cConf;
+  private final DiscoveryService discoveryService;
+  private final DiscoveryServiceClient discoveryServiceClient;
+  private final MetricsCollectionService metricsCollectionService;
+
+  WarmPoolPreloader(CConfiguration cConf, DiscoveryService discoveryService,
+      DiscoveryServiceClient discoveryServiceClient,
+      MetricsCollectionService metricsCollectionService) {
+    this.cConf = cConf;
+    this.discoveryService = discoveryService;
+    this.discoveryServiceClient = discoveryServiceClient;
+    this.metricsCollectionService = metricsCollectionService;
+  }
+
+  /**
+   * Preloads the artifacts, waiting at most for the configured timeout. Preloading continues in
+   * the background after the timeout.
+   */
+  void preload() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor(
+        Threads.createDaemonThreadFactory("task-worker-preload"));
+    try {
+      Future<?> future = executor.submit(this::preloadArtifacts);
+      future.get(cConf.getLong(TaskWorker.WARM_POOL_PRELOAD_TIMEOUT_SECONDS), TimeUnit.SECONDS);
+    } catch (TimeoutException e) {
+      LOG.warn("Artifacts are not preloaded after {} seconds, continuing in the background",
+          cConf.getLong(TaskWorker.WARM_POOL_PRELOAD_TIMEOUT_SECONDS));
+    } catch (ExecutionException e) {
+      LOG.warn("Failed to preload artifacts", e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void preloadArtifacts() {
+    Injector injector = ConfiguratorTask.createInjector(cConf, discoveryService,
+        discoveryServiceClient, metricsCollectionService);
+    for (String artifact : cConf.getTrimmedStringCollection(
+        TaskWorker.WARM_POOL_PRELOAD_ARTIFACTS)) {
+      try {
+        preloadArtifact(injector, artifact);
+      } catch (Exception e) {
+        LOG.warn("Failed to preload artifact {}", artifact, e);
+      }
+    }
+  }
+
+  /**
+   * Preloads the given system artifact.
+   *
+   * @param artifact the artifact name, optionally followed by a colon and its version. The latest
+   *     version is used if none is given
+   */
+  private void preloadArtifact(Injector injector, String artifact) throws Exception {
+    int idx = artifact.indexOf(':');
+    String name = idx < 0 ? artifact : artifact.substring(0, idx);
+    ArtifactVersionRange versionRange = idx < 0
+        ? new ArtifactVersionRange(new ArtifactVersion("0.0.0"), true,
+            new ArtifactVersion(Integer.MAX_VALUE + ".0.0"), true)
+        : ArtifactVersionRange.parse(artifact.substring(idx + 1));
+    List<ArtifactDetail> details = injector.getInstance(ArtifactRepositoryReader.class)
+        .getArtifactDetails(new ArtifactRange(NamespaceId.SYSTEM.getNamespace(), name,
+            versionRange), 1, ArtifactSortOrder.DESC);
+    if (details.isEmpty()) {
+      LOG.warn("No system artifact {} to preload", artifact);
+      return;
+    }
+
+    ArtifactDetail detail = details.get(0);
+    ArtifactId artifactId = NamespaceId.SYSTEM.artifact(name,
+        detail.getDescriptor().getArtifactId().getVersion().getVersion());
+    // Localize and create the class loader the same way as the ConfiguratorTask,
+    // so that it is taken from the pool by the requests
+    ArtifactLocalizerClient localizerClient = injector.getInstance(ArtifactLocalizerClient.class);
+    Location location = Locations.toLocation(
+        localizerClient.getUnpackedArtifactLocation(artifactId));
+    EntityImpersonator impersonator = new EntityImpersonator(artifactId,
+        injector.getInstance(Impersonator.class));
+    try (CloseableClassLoader classLoader =
+        injector.getInstance(ArtifactRepository.class).createArtifactClassLoader(
+            new ArtifactDescriptor(NamespaceId.SYSTEM.getNamespace(),
+                artifactId.toApiArtifactId(), location), impersonator)) {
+      for (ApplicationClass appClass : detail.getMeta().getClasses().getApps()) {
+        Class.forName(appClass.getClassName(), true, classLoader);
+      }
+    }
+    LOG.info("Preloaded artifact {}", artifactId);
+  }
+}
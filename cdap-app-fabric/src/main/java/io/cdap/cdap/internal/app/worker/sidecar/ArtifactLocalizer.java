@@ -24,8 +24,10 @@ import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.internal.remote.RemoteClient;
 import io.cdap.cdap.common.internal.remote.RemoteClientFactory;
+import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
 import io.cdap.cdap.common.lang.jar.ClassLoaderFolder;
+import io.cdap.cdap.common.lang.jar.UnpackedJarCache;
 import io.cdap.cdap.common.service.Retries;
 import io.cdap.cdap.common.service.RetryStrategies;
 import io.cdap.cdap.common.utils.DirUtils;
@@ -145,6 +147,24 @@ public class ArtifactLocalizer extends AbstractArtifactLocalizer {
               unpackDir.getParentFile().getPath()));
     }
 
+    UnpackedJarCache unpackCache = UnpackedJarCache.get(cConf);
+    if (unpackCache != null) {
+      // The unpack directory is owned by the worker, hence the files are linked from the cache
+      File tempDir = DirUtils.createTempDir(unpackDir.getParentFile());
+      try {
+        unpackCache.copyTo(Locations.toLocation(jarLocation), tempDir);
+        Files.move(tempDir.toPath(), unpackDir.toPath(),
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        // Only left behind if the copy or the move failed
+        if (tempDir.exists()) {
+          DirUtils.deleteDirectoryContents(tempDir);
+        }
+      }
+      return unpackDir;
+    }
+
     // It is guarantee that the jarLocation is a file, not a directory, as this is the class who cache unpacked
     // artifact.
     try (ClassLoaderFolder classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(
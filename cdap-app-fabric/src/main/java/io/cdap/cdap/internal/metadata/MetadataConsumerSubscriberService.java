@@ -127,6 +127,11 @@ public class MetadataConsumerSubscriberService extends AbstractMessagingSubscrib
     return messagingContext;
   }
 
+  @Override
+  protected long getPollTimeoutMillis() {
+    return cConf.getLong(Constants.MessagingSystem.SUBSCRIBER_POLL_TIMEOUT_MS);
+  }
+
   @Override
   protected TransactionRunner getTransactionRunner() {
     return transactionRunner;
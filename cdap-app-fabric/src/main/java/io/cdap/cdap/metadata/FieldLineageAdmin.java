@@ -170,15 +170,21 @@ public class FieldLineageAdmin {
     Map<DatasetId, Set<FieldRelation>> incomingRelations = new HashMap<>();
     Map<DatasetId, Set<FieldRelation>> outgoingRelations = new HashMap<>();
     Map<DatasetId, Integer> fieldCount = new HashMap<>();
+    // read the summaries of all the fields at once
+    boolean includeIncoming = direction == Constants.FieldLineage.Direction.INCOMING
+        || direction == Constants.FieldLineage.Direction.BOTH;
+    boolean includeOutgoing = direction == Constants.FieldLineage.Direction.OUTGOING
+        || direction == Constants.FieldLineage.Direction.BOTH;
+    Map<String, Set<EndPointField>> incomingSummaries = includeIncoming
+        ? fieldLineageReader.getIncomingSummaries(endPoint, start, end) : Collections.emptyMap();
+    Map<String, Set<EndPointField>> outgoingSummaries = includeOutgoing
+        ? fieldLineageReader.getOutgoingSummaries(endPoint, start, end) : Collections.emptyMap();
     for (String field : lineageFields) {
-      EndPointField endPointField = new EndPointField(endPoint, field);
-
       // compute the incoming field level lineage
-      if (direction == Constants.FieldLineage.Direction.INCOMING
-          || direction == Constants.FieldLineage.Direction.BOTH) {
+      if (includeIncoming) {
         Map<DatasetId, Set<String>> incomingSummary =
             convertSummaryToDatasetMap(
-                fieldLineageReader.getIncomingSummary(endPointField, start, end));
+                incomingSummaries.getOrDefault(field, Collections.emptySet()));
         // compute the field count for all incoming datasets
         incomingSummary.keySet().forEach(datasetId -> {
           fieldCount.computeIfAbsent(
@@ -192,11 +198,10 @@ public class FieldLineageAdmin {
       }
 
       // compute the outgoing field level lineage
-      if (direction == Constants.FieldLineage.Direction.OUTGOING
-          || direction == Constants.FieldLineage.Direction.BOTH) {
+      if (includeOutgoing) {
         Map<DatasetId, Set<String>> outgoingSummary =
             convertSummaryToDatasetMap(
-                fieldLineageReader.getOutgoingSummary(endPointField, start, end));
+                outgoingSummaries.getOrDefault(field, Collections.emptySet()));
         // compute the field count for all outgoing datasets
         outgoingSummary.keySet().forEach(datasetId -> {
           fieldCount.computeIfAbsent(
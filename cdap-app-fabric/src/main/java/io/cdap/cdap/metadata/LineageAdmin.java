@@ -144,46 +144,45 @@ public class LineageAdmin {
     for (int i = 0; i < levels; ++i) {
       LOG.trace("Level {}", i);
       toVisitPrograms.clear();
-      for (DatasetId d : toVisitDatasets) {
-        if (visitedDatasets.add(d)) {
-          LOG.trace("Visiting dataset {}", d);
-          // Fetch related programs, the programs will be the inner programs which access the datasets. For example,
-          // mapreduce or spark program in a workflow
-          Set<Relation> programRelations = lineageStoreReader.getRelations(d, scanRange.getStart(),
-              scanRange.getEnd(),
-              scanRange.getFilter());
-          LOG.trace("Got program relations {}", programRelations);
-
-          // if we want to roll up lineage for workflow, we need to figure out what workflow these programs are related
-          // to and find out all the inner programs of that workflow, the workflow run id can also be used to
-          // determine if a dataset is local dataset. The local dataset always ends with the workflow run id
-          if (rollUpWorkflow) {
-            computeWorkflowInnerPrograms(toVisitPrograms, programWorkflowMap, programRelations);
-          }
-
-          // add to the relations, replace the inner program with the workflow using the map, ignore the
-          // local datasets relations, the local dataset always ends with the run id of the workflow
-          filterAndAddRelations(rollUpWorkflow, relations, programWorkflowMap, programRelations);
-          toVisitPrograms.addAll(
-              programRelations.stream().map(Relation::getProgram).collect(Collectors.toSet()));
+      // Fetch related programs of all the datasets of this level at once, the programs will be the inner
+      // programs which access the datasets. For example, mapreduce or spark program in a workflow
+      toVisitDatasets.removeAll(visitedDatasets);
+      visitedDatasets.addAll(toVisitDatasets);
+      LOG.trace("Visiting datasets {}", toVisitDatasets);
+      Map<DatasetId, Set<Relation>> programRelationsByDataset = lineageStoreReader.getDatasetRelations(
+          toVisitDatasets, scanRange.getStart(), scanRange.getEnd(), scanRange.getFilter());
+      for (Set<Relation> programRelations : programRelationsByDataset.values()) {
+        LOG.trace("Got program relations {}", programRelations);
+
+        // if we want to roll up lineage for workflow, we need to figure out what workflow these programs are related
+        // to and find out all the inner programs of that workflow, the workflow run id can also be used to
+        // determine if a dataset is local dataset. The local dataset always ends with the workflow run id
+        if (rollUpWorkflow) {
+          computeWorkflowInnerPrograms(toVisitPrograms, programWorkflowMap, programRelations);
         }
+
+        // add to the relations, replace the inner program with the workflow using the map, ignore the
+        // local datasets relations, the local dataset always ends with the run id of the workflow
+        filterAndAddRelations(rollUpWorkflow, relations, programWorkflowMap, programRelations);
+        toVisitPrograms.addAll(
+            programRelations.stream().map(Relation::getProgram).collect(Collectors.toSet()));
       }
 
       toVisitDatasets.clear();
-      for (ProgramId p : toVisitPrograms) {
-        if (visitedPrograms.add(p)) {
-          LOG.trace("Visiting program {}", p);
-          // Fetch related datasets
-          Set<Relation> datasetRelations = lineageStoreReader.getRelations(p, scanRange.getStart(),
-              scanRange.getEnd(), scanRange.getFilter());
-          LOG.trace("Got data relations {}", datasetRelations);
-          Set<DatasetId> localDatasets = filterAndAddRelations(rollUpWorkflow, relations,
-              programWorkflowMap, datasetRelations);
-          toVisitDatasets.addAll(
-              datasetRelations.stream().map(relation -> (DatasetId) relation.getData())
-                  .filter(datasetId -> !localDatasets.contains(datasetId))
-                  .collect(Collectors.toSet()));
-        }
+      // Fetch related datasets of all the programs of this level at once
+      toVisitPrograms.removeAll(visitedPrograms);
+      visitedPrograms.addAll(toVisitPrograms);
+      LOG.trace("Visiting programs {}", toVisitPrograms);
+      Map<ProgramId, Set<Relation>> datasetRelationsByProgram = lineageStoreReader.getProgramRelations(
+          toVisitPrograms, scanRange.getStart(), scanRange.getEnd(), scanRange.getFilter());
+      for (Set<Relation> datasetRelations : datasetRelationsByProgram.values()) {
+        LOG.trace("Got data relations {}", datasetRelations);
+        Set<DatasetId> localDatasets = filterAndAddRelations(rollUpWorkflow, relations,
+            programWorkflowMap, datasetRelations);
+        toVisitDatasets.addAll(
+            datasetRelations.stream().map(relation -> (DatasetId) relation.getData())
+                .filter(datasetId -> !localDatasets.contains(datasetId))
+                .collect(Collectors.toSet()));
       }
     }
 
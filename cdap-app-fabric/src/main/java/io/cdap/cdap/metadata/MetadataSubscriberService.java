@@ -154,6 +154,11 @@ public class MetadataSubscriberService extends AbstractMessagingSubscriberServic
     return messagingContext;
   }
 
+  @Override
+  protected long getPollTimeoutMillis() {
+    return cConf.getLong(Constants.MessagingSystem.SUBSCRIBER_POLL_TIMEOUT_MS);
+  }
+
   @Override
   protected TransactionRunner getTransactionRunner() {
     return transactionRunner;
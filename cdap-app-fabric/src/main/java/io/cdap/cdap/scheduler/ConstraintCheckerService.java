@@ -37,6 +37,7 @@ import io.cdap.cdap.internal.app.runtime.schedule.constraint.CheckableConstraint
 import io.cdap.cdap.internal.app.runtime.schedule.constraint.ConstraintContext;
 import io.cdap.cdap.internal.app.runtime.schedule.constraint.ConstraintResult;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.Job;
+import io.cdap.cdap.internal.app.runtime.schedule.queue.JobKey;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.JobQueue;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.JobQueueTable;
 import io.cdap.cdap.internal.app.runtime.schedule.store.Schedulers;
@@ -58,7 +59,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Polls the JobQueue, checks the jobs for constraint satisfaction, and launches them.
+ * Checks the jobs in the JobQueue for constraint satisfaction, and launches them. Each partition of
+ * the JobQueue is scanned when it is woken up through the {@link JobQueueWakeup}, or periodically
+ * for changes made without a wakeup. In between, only the jobs that reach the time at which they
+ * need to be checked again, such as when their delay passes, are read from the JobQueue.
  */
 class ConstraintCheckerService extends AbstractIdleService {
 
@@ -70,6 +74,8 @@ class ConstraintCheckerService extends AbstractIdleService {
   private final NamespaceQueryAdmin namespaceQueryAdmin;
   private final CConfiguration cConf;
   private final TransactionRunner transactionRunner;
+  private final JobQueueWakeup wakeup;
+  private final long pollIntervalMillis;
   private ScheduleTaskRunner taskRunner;
   private ListeningExecutorService taskExecutorService;
   private volatile boolean stopping;
@@ -81,7 +87,8 @@ class ConstraintCheckerService extends AbstractIdleService {
       NamespaceQueryAdmin namespaceQueryAdmin,
       CConfiguration cConf,
       TransactionRunner transactionRunner,
-      MetricsCollectionService metricsCollectionService) {
+      MetricsCollectionService metricsCollectionService,
+      JobQueueWakeup wakeup) {
     this.store = store;
     this.lifecycleService = lifecycleService;
     this.propertiesResolver = propertiesResolver;
@@ -89,6 +96,9 @@ class ConstraintCheckerService extends AbstractIdleService {
     this.cConf = cConf;
     this.transactionRunner = transactionRunner;
     this.metricsCollectionService = metricsCollectionService;
+    this.wakeup = wakeup;
+    this.pollIntervalMillis = cConf.getLong(
+        Constants.Scheduler.CONSTRAINT_CHECKER_POLL_INTERVAL_MILLIS);
   }
 
   @Override
@@ -111,6 +121,11 @@ class ConstraintCheckerService extends AbstractIdleService {
   protected void shutDown() throws Exception {
     stopping = true;
     LOG.info("Stopping ConstraintCheckerService.");
+    // wake up all the checker threads so that they notice the stopping flag
+    int numPartitions = cConf.getInt(Constants.Scheduler.JOB_QUEUE_NUM_PARTITIONS);
+    for (int partition = 0; partition < numPartitions; partition++) {
+      wakeup.wakeup(partition);
+    }
     try {
       // Shutdown the executor and wait for all pending task to be completed for max of 5 seconds
       taskExecutorService.shutdown();
@@ -130,8 +145,12 @@ class ConstraintCheckerService extends AbstractIdleService {
     private final RetryStrategy scheduleStrategy;
     private final int partition;
     private final Deque<Job> readyJobs = new ArrayDeque<>();
+    private final JobDeadlineIndex deadlineIndex = new JobDeadlineIndex();
     private Job lastConsumed;
     private int failureCount;
+    // whether all the jobs of the partition need to be checked, instead of only the due ones
+    private boolean scanRequired = true;
+    private long lastScanTime;
 
     ConstraintCheckerThread(int partition) {
       // TODO: [CDAP-11370] Need to be configured in cdap-default.xml. Retry with delay ranging from 0.1s to 30s
@@ -149,8 +168,9 @@ class ConstraintCheckerService extends AbstractIdleService {
         try {
           long sleepTime = checkJobQueue();
           // Don't sleep if sleepTime returned is 0
-          if (sleepTime > 0) {
-            TimeUnit.MILLISECONDS.sleep(sleepTime);
+          if (sleepTime > 0 && wakeup.await(partition, sleepTime)) {
+            // jobs in the partition have been added or updated
+            scanRequired = true;
           }
         } catch (InterruptedException e) {
           // sleep is interrupted, just exit without doing anything
@@ -164,11 +184,24 @@ class ConstraintCheckerService extends AbstractIdleService {
      * @return sleep time in milliseconds before next fetch
      */
     private long checkJobQueue() {
-      boolean emptyFetch = false;
+      if (System.currentTimeMillis() - lastScanTime >= pollIntervalMillis) {
+        // rescan the partition periodically for the jobs changed without a wakeup
+        scanRequired = true;
+      }
+      boolean scan = scanRequired;
       try {
-        emptyFetch = TransactionRunners.run(transactionRunner, context -> {
-          return checkJobConstraints(JobQueueTable.getJobQueue(context, cConf));
+        boolean scanCompleted = TransactionRunners.run(transactionRunner, context -> {
+          JobQueueTable jobQueue = JobQueueTable.getJobQueue(context, cConf);
+          if (scan) {
+            return checkJobConstraints(jobQueue);
+          }
+          checkDueJobs(jobQueue);
+          return false;
         });
+        if (scanCompleted) {
+          scanRequired = false;
+          lastScanTime = System.currentTimeMillis();
+        }
 
         // run any ready jobs
         runReadyJobs();
@@ -176,6 +209,8 @@ class ConstraintCheckerService extends AbstractIdleService {
       } catch (Exception e) {
         LOG.warn("Failed to check Job constraints. Will retry in next run", e);
         failureCount++;
+        // the deadline index may not match the job queue if the transaction failed
+        scanRequired = true;
       }
 
       // If there is any failure, delay the next fetch based on the strategy
@@ -184,12 +219,27 @@ class ConstraintCheckerService extends AbstractIdleService {
         return scheduleStrategy.nextRetry(failureCount, 0);
       }
 
-      // Sleep for 2 seconds if there's no jobs in the queue
-      return emptyFetch && readyJobs.isEmpty() ? 2000L : 0L;
+      // Continue the scan without sleeping if it is not completed yet
+      if (scanRequired) {
+        return 0L;
+      }
+
+      // Otherwise sleep until the next job needs to be checked, unless woken up before that
+      long nextCheckTime = Math.min(deadlineIndex.getNextDeadline(),
+          lastScanTime + pollIntervalMillis);
+      return Math.max(0L, nextCheckTime - System.currentTimeMillis());
     }
 
+    /**
+     * Checks the jobs of the partition, starting after the last consumed job.
+     *
+     * @return whether all the jobs of the partition have been checked
+     */
     private boolean checkJobConstraints(JobQueue jobQueue) throws IOException {
-      boolean emptyScan = true;
+      if (lastConsumed == null) {
+        // all the jobs will be indexed again by the scan
+        deadlineIndex.clear();
+      }
 
       try (CloseableIterator<Job> jobQueueIter = jobQueue.getJobs(partition, lastConsumed)) {
         Stopwatch stopWatch = new Stopwatch().start();
@@ -197,19 +247,32 @@ class ConstraintCheckerService extends AbstractIdleService {
         while (!stopping && stopWatch.elapsedMillis() < 1000) {
           if (!jobQueueIter.hasNext()) {
             lastConsumed = null;
-            return emptyScan;
+            return true;
           }
           Job job = jobQueueIter.next();
           lastConsumed = job;
-          emptyScan = false;
           checkAndUpdateJob(jobQueue, job);
         }
       }
-      return emptyScan;
+      return false;
+    }
+
+    /**
+     * Checks the jobs that have reached the time at which they need to be checked again.
+     */
+    private void checkDueJobs(JobQueue jobQueue) throws IOException {
+      for (JobKey jobKey : deadlineIndex.pollDue(System.currentTimeMillis())) {
+        Job job = jobQueue.getJob(jobKey);
+        // the job may have been deleted since it was indexed
+        if (job != null) {
+          checkAndUpdateJob(jobQueue, job);
+        }
+      }
     }
 
     private void checkAndUpdateJob(JobQueue jobQueue, Job job) throws IOException {
       long now = System.currentTimeMillis();
+      deadlineIndex.remove(job.getJobKey());
       if (job.isToBeDeleted()) {
         // only delete jobs that are pending trigger or pending constraint. If pending launch, the launcher will delete
         if ((job.getState() == Job.State.PENDING_CONSTRAINT
@@ -223,6 +286,9 @@ class ConstraintCheckerService extends AbstractIdleService {
                 && now - job.getDeleteTimeMillis()
                 > 2 * Schedulers.SUBSCRIBER_TX_TIMEOUT_MILLIS))) {
           jobQueue.deleteJob(job);
+        } else if (job.getState() == Job.State.PENDING_TRIGGER) {
+          deadlineIndex.put(job.getJobKey(),
+              job.getDeleteTimeMillis() + 2 * Schedulers.SUBSCRIBER_TX_TIMEOUT_MILLIS + 1);
         }
         return;
       }
@@ -233,11 +299,17 @@ class ConstraintCheckerService extends AbstractIdleService {
         jobQueue.deleteJob(job);
         return;
       }
+      // avoid overflow for schedules that practically never time out
+      long timeoutTime = job.getCreationTime() + 2 * Schedulers.SUBSCRIBER_TX_TIMEOUT_MILLIS
+          + Math.min(job.getSchedule().getTimeoutMillis(), Long.MAX_VALUE / 2);
       if (job.getState() != Job.State.PENDING_CONSTRAINT) {
+        deadlineIndex.put(job.getJobKey(), timeoutTime);
         return;
       }
-      ConstraintResult.SatisfiedState satisfiedState = constraintsSatisfied(job, now);
+      ConstraintResult result = checkConstraints(job, now);
+      ConstraintResult.SatisfiedState satisfiedState = result.getSatisfiedState();
       if (satisfiedState == ConstraintResult.SatisfiedState.NOT_SATISFIED) {
+        deadlineIndex.put(job.getJobKey(), Math.min(result.getNextCheckTime(), timeoutTime));
         return;
       }
       if (satisfiedState == ConstraintResult.SatisfiedState.NEVER_SATISFIED) {
@@ -306,8 +378,12 @@ class ConstraintCheckerService extends AbstractIdleService {
       return true;
     }
 
-    private ConstraintResult.SatisfiedState constraintsSatisfied(Job job, long now) {
-      ConstraintResult.SatisfiedState satisfiedState = ConstraintResult.SatisfiedState.SATISFIED;
+    /**
+     * Checks the constraints of the given job. If any of the constraints is not satisfied, the
+     * result with the earliest next check time is returned.
+     */
+    private ConstraintResult checkConstraints(Job job, long now) {
+      ConstraintResult notSatisfied = null;
 
       ConstraintContext constraintContext = new ConstraintContext(job, now, store);
       for (Constraint constraint : job.getSchedule().getConstraints()) {
@@ -322,13 +398,15 @@ class ConstraintCheckerService extends AbstractIdleService {
         ConstraintResult result = abstractConstraint.check(job.getSchedule(), constraintContext);
         if (result.getSatisfiedState() == ConstraintResult.NEVER_SATISFIED.getSatisfiedState()) {
           // if any of the constraints are NEVER_SATISFIED, return NEVER_SATISFIED
-          return ConstraintResult.NEVER_SATISFIED.getSatisfiedState();
+          return ConstraintResult.NEVER_SATISFIED;
         }
-        if (result.getSatisfiedState() == ConstraintResult.SatisfiedState.NOT_SATISFIED) {
-          satisfiedState = ConstraintResult.SatisfiedState.NOT_SATISFIED;
+        if (result.getSatisfiedState() == ConstraintResult.SatisfiedState.NOT_SATISFIED
+            && (notSatisfied == null
+            || result.getNextCheckTime() < notSatisfied.getNextCheckTime())) {
+          notSatisfied = result;
         }
       }
-      return satisfiedState;
+      return notSatisfied == null ? ConstraintResult.SATISFIED : notSatisfied;
     }
 
     private void emitScheduleJobSuccessAndLatencyMetric(String application, String schedule,
@@ -45,6 +45,7 @@ import io.cdap.cdap.internal.app.runtime.schedule.TimeSchedulerService;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.Job;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.JobQueueTable;
 import io.cdap.cdap.internal.app.runtime.schedule.store.ProgramScheduleStoreDataset;
+import io.cdap.cdap.internal.app.runtime.schedule.store.ScheduleTriggerIndex;
 import io.cdap.cdap.internal.app.runtime.schedule.store.Schedulers;
 import io.cdap.cdap.internal.app.store.profile.ProfileStore;
 import io.cdap.cdap.internal.profile.AdminEventPublisher;
@@ -58,6 +59,7 @@ import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ScheduleId;
 import io.cdap.cdap.runtime.spi.profile.ProfileStatus;
 import io.cdap.cdap.security.impersonation.Impersonator;
+import io.cdap.cdap.spi.data.StructuredTableContext;
 import io.cdap.cdap.spi.data.transaction.TransactionException;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
@@ -73,6 +75,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -95,6 +98,7 @@ public class CoreSchedulerService extends AbstractIdleService implements Schedul
   private final Store appMetaStore;
   private final Impersonator impersonator;
   private final TransactionRunner transactionRunner;
+  private final ScheduleTriggerIndex triggerIndex;
 
   @Inject
   CoreSchedulerService(TimeSchedulerService timeSchedulerService,
@@ -102,7 +106,7 @@ public class CoreSchedulerService extends AbstractIdleService implements Schedul
       ConstraintCheckerService constraintCheckerService,
       MessagingService messagingService,
       CConfiguration cConf, Store store, Impersonator impersonator,
-      TransactionRunner transactionRunner) {
+      TransactionRunner transactionRunner, ScheduleTriggerIndex triggerIndex) {
     this.startedLatch = new CountDownLatch(1);
     MultiThreadMessagingContext messagingContext = new MultiThreadMessagingContext(
         messagingService);
@@ -111,6 +115,7 @@ public class CoreSchedulerService extends AbstractIdleService implements Schedul
     this.appMetaStore = store;
     this.impersonator = impersonator;
     this.transactionRunner = transactionRunner;
+    this.triggerIndex = triggerIndex;
     // Use a retry on failure service to make it resilience to transient service unavailability during startup
     this.internalService = new RetryOnStartFailureService(() -> new AbstractIdleService() {
 
@@ -647,18 +652,14 @@ public class CoreSchedulerService extends AbstractIdleService implements Schedul
 
   private <V, T extends Exception> V execute(StoreTxRunnable<V, ? extends Exception> runnable,
       Class<? extends T> tClass) throws T {
-    return TransactionRunners.run(transactionRunner, context -> {
-      ProgramScheduleStoreDataset store = Schedulers.getScheduleStore(context);
-      return runnable.run(store);
-    }, tClass);
+    return executeAndUpdateIndex((context, store) -> runnable.run(store), tClass);
   }
 
   @SuppressWarnings("UnusedReturnValue")
   private <V, T extends Exception> V execute(
       StoreAndQueueTxRunnable<V, ? extends Exception> runnable,
       Class<? extends T> tClass) throws T {
-    return TransactionRunners.run(transactionRunner, context -> {
-      ProgramScheduleStoreDataset store = Schedulers.getScheduleStore(context);
+    return executeAndUpdateIndex((context, store) -> {
       JobQueueTable queue = JobQueueTable.getJobQueue(context, cConf);
       return runnable.run(store, queue);
     }, tClass);
@@ -668,8 +669,7 @@ public class CoreSchedulerService extends AbstractIdleService implements Schedul
   private <V, T extends Exception> V execute(
       StoreAndProfileTxRunnable<V, ? extends Exception> runnable,
       Class<? extends T> tClass) throws T {
-    return TransactionRunners.run(transactionRunner, context -> {
-      ProgramScheduleStoreDataset store = Schedulers.getScheduleStore(context);
+    return executeAndUpdateIndex((context, store) -> {
       ProfileStore profileStore = ProfileStore.get(context);
       return runnable.run(store, profileStore);
     }, tClass);
@@ -679,11 +679,32 @@ public class CoreSchedulerService extends AbstractIdleService implements Schedul
   private <V, T extends Exception> V execute(
       StoreQueueAndProfileTxRunnable<V, ? extends Exception> runnable,
       Class<? extends T> tClass) throws T {
-    return TransactionRunners.run(transactionRunner, context -> {
-      ProgramScheduleStoreDataset store = Schedulers.getScheduleStore(context);
+    return executeAndUpdateIndex((context, store) -> {
       ProfileStore profileStore = ProfileStore.get(context);
       JobQueueTable queue = JobQueueTable.getJobQueue(context, cConf);
       return runnable.run(store, queue, profileStore);
     }, tClass);
   }
+
+  /**
+   * Runs the given callable in a transaction, and once the transaction is committed, applies the
+   * trigger key changes made through the schedule store to the {@link ScheduleTriggerIndex}.
+   */
+  private <V, T extends Exception> V executeAndUpdateIndex(StoreTxCallable<V> callable,
+      Class<? extends T> tClass) throws T {
+    // the transaction may be retried, only the store of the last attempt has the committed changes
+    AtomicReference<ProgramScheduleStoreDataset> storeRef = new AtomicReference<>();
+    V result = TransactionRunners.run(transactionRunner, context -> {
+      ProgramScheduleStoreDataset store = Schedulers.getScheduleStore(context);
+      storeRef.set(store);
+      return callable.call(context, store);
+    }, tClass);
+    triggerIndex.update(storeRef.get().getTriggerKeyChanges());
+    return result;
+  }
+
+  private interface StoreTxCallable<V> {
+
+    V call(StructuredTableContext context, ProgramScheduleStoreDataset store) throws Exception;
+  }
 }
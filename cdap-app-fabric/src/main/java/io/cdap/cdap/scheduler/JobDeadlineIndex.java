@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import io.cdap.cdap.internal.app.runtime.schedule.queue.JobKey;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An in-memory index of the jobs in a job queue partition, ordered by the time at which each job
+ * needs to be checked again, such as when its delay passes or its time range starts. This class is
+ * not thread safe.
+ */
+final class JobDeadlineIndex {
+
+  private final Map<JobKey, Long> deadlines = new HashMap<>();
+  private final NavigableMap<Long, Set<JobKey>> jobs = new TreeMap<>();
+
+  /**
+   * Sets the time at which the given job needs to be checked, replacing any previous one.
+   */
+  void put(JobKey jobKey, long deadline) {
+    remove(jobKey);
+    deadlines.put(jobKey, deadline);
+    jobs.computeIfAbsent(deadline, k -> new LinkedHashSet<>()).add(jobKey);
+  }
+
+  /**
+   * Removes the given job from the index.
+   */
+  void remove(JobKey jobKey) {
+    Long deadline = deadlines.remove(jobKey);
+    if (deadline == null) {
+      return;
+    }
+    Set<JobKey> keys = jobs.get(deadline);
+    keys.remove(jobKey);
+    if (keys.isEmpty()) {
+      jobs.remove(deadline);
+    }
+  }
+
+  /**
+   * Returns the earliest time at which a job needs to be checked, or {@link Long#MAX_VALUE} if
+   * the index is empty.
+   */
+  long getNextDeadline() {
+    return jobs.isEmpty() ? Long.MAX_VALUE : jobs.firstKey();
+  }
+
+  /**
+   * Removes and returns the jobs which need to be checked at or before the given time, in the
+   * order of their deadlines.
+   */
+  List<JobKey> pollDue(long time) {
+    List<JobKey> result = new ArrayList<>();
+    while (!jobs.isEmpty() && jobs.firstKey() <= time) {
+      for (JobKey jobKey : jobs.pollFirstEntry().getValue()) {
+        deadlines.remove(jobKey);
+        result.add(jobKey);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes all the jobs from the index.
+   */
+  void clear() {
+    deadlines.clear();
+    jobs.clear();
+  }
+
+  int size() {
+    return deadlines.size();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakes up the constraint checker thread of a job queue partition when the jobs in that partition
+ * are added or updated, so that the thread doesn't need to keep polling the partition.
+ */
+@Singleton
+class JobQueueWakeup {
+
+  private final Semaphore[] signals;
+
+  @Inject
+  JobQueueWakeup(CConfiguration cConf) {
+    this(cConf.getInt(Constants.Scheduler.JOB_QUEUE_NUM_PARTITIONS));
+  }
+
+  JobQueueWakeup(int numPartitions) {
+    this.signals = new Semaphore[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      signals[i] = new Semaphore(0);
+    }
+  }
+
+  /**
+   * Wakes up the thread waiting on the given partition, or the next thread to wait on it if no
+   * thread is waiting.
+   */
+  void wakeup(int partition) {
+    Semaphore signal = signals[partition];
+    // There is no need for more than one pending wakeup
+    if (signal.availablePermits() == 0) {
+      signal.release();
+    }
+  }
+
+  /**
+   * Waits until the given partition is woken up, or the timeout elapsed. All pending wakeups of
+   * the partition are consumed.
+   *
+   * @return {@code true} if the partition was woken up, {@code false} if the timeout elapsed
+   */
+  boolean await(int partition, long timeoutMillis) throws InterruptedException {
+    Semaphore signal = signals[partition];
+    boolean woken = signal.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+    signal.drainPermits();
+    return woken;
+  }
+}
@@ -34,6 +34,7 @@ import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
 import io.cdap.cdap.internal.app.runtime.schedule.ProgramScheduleRecord;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.JobQueueTable;
 import io.cdap.cdap.internal.app.runtime.schedule.store.ProgramScheduleStoreDataset;
+import io.cdap.cdap.internal.app.runtime.schedule.store.ScheduleTriggerIndex;
 import io.cdap.cdap.internal.app.runtime.schedule.store.Schedulers;
 import io.cdap.cdap.internal.app.services.AbstractNotificationSubscriberService;
 import io.cdap.cdap.messaging.spi.MessagingService;
@@ -46,14 +47,20 @@ import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.id.ScheduleId;
 import io.cdap.cdap.spi.data.StructuredTableContext;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
+import io.cdap.cdap.spi.data.transaction.TransactionRunners;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.twill.common.Threads;
@@ -72,16 +79,24 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
   private final CConfiguration cConf;
   private final MessagingService messagingService;
   private final MetricsCollectionService metricsCollectionService;
+  private final JobQueueWakeup jobQueueWakeup;
+  private final ScheduleTriggerIndex triggerIndex;
+  private final TransactionRunner transactionRunner;
   private final List<Service> subscriberServices;
   private ScheduledExecutorService subscriberExecutor;
+  private ScheduledExecutorService triggerIndexExecutor;
 
   @Inject
   ScheduleNotificationSubscriberService(CConfiguration cConf, MessagingService messagingService,
       MetricsCollectionService metricsCollectionService,
-      TransactionRunner transactionRunner) {
+      TransactionRunner transactionRunner, JobQueueWakeup jobQueueWakeup,
+      ScheduleTriggerIndex triggerIndex) {
     this.cConf = cConf;
     this.messagingService = messagingService;
     this.metricsCollectionService = metricsCollectionService;
+    this.jobQueueWakeup = jobQueueWakeup;
+    this.triggerIndex = triggerIndex;
+    this.transactionRunner = transactionRunner;
     this.subscriberServices = Arrays.asList(new SchedulerEventSubscriberService(transactionRunner),
         new DataEventSubscriberService(transactionRunner),
         new ProgramStatusEventSubscriberService(transactionRunner));
@@ -95,6 +110,15 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
     subscriberExecutor = Executors.newScheduledThreadPool(
         1, Threads.createDaemonThreadFactory("scheduler-notification-subscriber-%d"));
 
+    // Load the trigger index, and refresh it periodically for the schedules changed outside of the
+    // scheduler. Until it is loaded, the schedules are looked up from the store. It scans the whole
+    // schedule store, hence it runs in its own thread to not block the subscribers.
+    triggerIndexExecutor = Executors.newSingleThreadScheduledExecutor(
+        Threads.createDaemonThreadFactory("scheduler-trigger-index-refresh"));
+    triggerIndexExecutor.scheduleWithFixedDelay(this::refreshTriggerIndex, 0,
+        cConf.getLong(Constants.Scheduler.TRIGGER_INDEX_REFRESH_INTERVAL_SECONDS),
+        TimeUnit.SECONDS);
+
     // Start all subscriber services. All of them has no-op in start, so they shouldn't fail.
     Futures.successfulAsList(
         subscriberServices.stream().map(Service::start).collect(Collectors.toList())).get();
@@ -117,9 +141,20 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
     }
 
     subscriberExecutor.shutdownNow();
+    triggerIndexExecutor.shutdownNow();
     LOG.info("Stopped {}", getClass().getSimpleName());
   }
 
+  private void refreshTriggerIndex() {
+    try {
+      triggerIndex.refresh(() -> TransactionRunners.run(transactionRunner,
+          context -> Schedulers.getScheduleStore(context).getAllTriggerKeys(),
+          IOException.class));
+    } catch (Exception e) {
+      LOG.warn("Failed to refresh the schedule trigger index. Will retry in next run", e);
+    }
+  }
+
   /**
    * Abstract base class for implementing job queue logic for various kind of notifications. No
    * transactions should be started in any of the overrided methods since they are already wrapped
@@ -128,6 +163,9 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
   private abstract class AbstractSchedulerSubscriberService extends
       AbstractNotificationSubscriberService {
 
+    // the job queue partitions with jobs updated by the messages being processed
+    private final Set<Integer> updatedPartitions = new HashSet<>();
+
     AbstractSchedulerSubscriberService(String name, String topic, int fetchSize,
         TransactionRunner transactionRunner) {
       super(name, cConf, topic, fetchSize,
@@ -158,6 +196,15 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
       }
     }
 
+    @Override
+    protected void postProcess() {
+      // The job updates are committed, wake up the constraint checker of the partitions
+      for (int partition : updatedPartitions) {
+        jobQueueWakeup.wakeup(partition);
+      }
+      updatedPartitions.clear();
+    }
+
     @Override
     protected ScheduledExecutorService executor() {
       return subscriberExecutor;
@@ -169,6 +216,32 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
     protected abstract void processNotification(ProgramScheduleStoreDataset scheduleStore,
         JobQueueTable jobQueue, Notification notification) throws IOException;
 
+    /**
+     * Adds the given {@link Notification} to the jobs of the given schedules, and remembers the
+     * job queue partitions to wake up once the update is committed.
+     */
+    protected void addNotification(JobQueueTable jobQueue,
+        Collection<ProgramScheduleRecord> records, Notification notification)
+        throws IOException {
+      jobQueue.addNotification(records, notification);
+      for (ProgramScheduleRecord record : records) {
+        updatedPartitions.add(jobQueue.getPartition(record.getSchedule().getScheduleId()));
+      }
+    }
+
+    /**
+     * Finds the schedules having a trigger for the given trigger key, using the
+     * {@link ScheduleTriggerIndex} once it is loaded.
+     */
+    protected Collection<ProgramScheduleRecord> findSchedules(
+        ProgramScheduleStoreDataset scheduleStore, String triggerKey) throws IOException {
+      Set<ScheduleId> scheduleIds = triggerIndex.getSchedules(triggerKey);
+      if (scheduleIds == null) {
+        return scheduleStore.findSchedules(triggerKey);
+      }
+      return scheduleStore.getScheduleRecords(scheduleIds);
+    }
+
     private JobQueueTable getJobQueue(StructuredTableContext context) {
       return JobQueueTable.getJobQueue(context, cConf);
     }
@@ -217,7 +290,7 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
         return;
       }
       try {
-        jobQueue.addNotification(record, notification);
+        addNotification(jobQueue, Collections.singleton(record), notification);
       } catch (Exception e) {
         emitScheduleJobNotificationFailureMetrics(
             record.getSchedule().getScheduleId().getApplication(),
@@ -256,10 +329,9 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
         return;
       }
       DatasetId datasetId = DatasetId.fromString(datasetIdString);
-      for (ProgramScheduleRecord schedule :
-          scheduleStore.findSchedules(Schedulers.triggerKeyForPartition(datasetId))) {
-        jobQueue.addNotification(schedule, notification);
-      }
+      addNotification(jobQueue,
+          findSchedules(scheduleStore, Schedulers.triggerKeyForPartition(datasetId)),
+          notification);
     }
   }
 
@@ -303,10 +375,8 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
       String triggerKeyForProgramStatus = Schedulers.triggerKeyForProgramStatus(programId,
           programStatus);
 
-      for (ProgramScheduleRecord schedule : scheduleStore.findSchedules(
-          triggerKeyForProgramStatus)) {
-        jobQueue.addNotification(schedule, notification);
-      }
+      addNotification(jobQueue, findSchedules(scheduleStore, triggerKeyForProgramStatus),
+          notification);
     }
   }
 }
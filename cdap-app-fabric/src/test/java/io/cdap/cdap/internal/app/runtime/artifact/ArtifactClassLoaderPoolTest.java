@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.artifact;
+
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.api.artifact.CloseableClassLoader;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ArtifactClassLoaderPool}.
+ */
+public class ArtifactClassLoaderPoolTest {
+
+  private final Map<ClassLoader, Integer> closeCounts = new HashMap<>();
+
+  @Test
+  public void testReuse() throws IOException {
+    ArtifactClassLoaderPool pool = new ArtifactClassLoaderPool(10);
+    ArtifactDescriptor system = createDescriptor("app", "1.0.0", ArtifactScope.SYSTEM);
+
+    CloseableClassLoader classLoader1 = pool.getClassLoader(system, this::createClassLoader);
+    CloseableClassLoader classLoader2 = pool.getClassLoader(system, this::createClassLoader);
+    Assert.assertSame(classLoader1.getParent(), classLoader2.getParent());
+    classLoader1.close();
+    classLoader2.close();
+
+    // Released class loaders are kept open in the pool
+    Assert.assertEquals(0, getCloseCount(classLoader1.getParent()));
+    try (CloseableClassLoader classLoader = pool.getClassLoader(system, this::createClassLoader)) {
+      Assert.assertSame(classLoader1.getParent(), classLoader.getParent());
+    }
+
+    // The same artifact at a different location is pooled separately
+    ArtifactDescriptor moved = new ArtifactDescriptor(system.getNamespace(),
+        system.getArtifactId(), URI.create("file:/other/app"));
+    try (CloseableClassLoader classLoader = pool.getClassLoader(moved, this::createClassLoader)) {
+      Assert.assertNotSame(classLoader1.getParent(), classLoader.getParent());
+    }
+    Assert.assertEquals(2, pool.size());
+  }
+
+  @Test
+  public void testNotPooled() throws IOException {
+    ArtifactClassLoaderPool pool = new ArtifactClassLoaderPool(10);
+    for (ArtifactDescriptor descriptor : new ArtifactDescriptor[] {
+      createDescriptor("app", "1.0.0", ArtifactScope.USER),
+      createDescriptor("app", "1.0.0-SNAPSHOT", ArtifactScope.SYSTEM)
+    }) {
+      CloseableClassLoader classLoader = pool.getClassLoader(descriptor, this::createClassLoader);
+      Assert.assertNotSame(classLoader, pool.getClassLoader(descriptor, this::createClassLoader));
+      classLoader.close();
+      Assert.assertEquals(1, getCloseCount(classLoader));
+    }
+    Assert.assertEquals(0, pool.size());
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    ArtifactClassLoaderPool pool = new ArtifactClassLoaderPool(1);
+    ArtifactDescriptor app1 = createDescriptor("app1", "1.0.0", ArtifactScope.SYSTEM);
+    ArtifactDescriptor app2 = createDescriptor("app2", "1.0.0", ArtifactScope.SYSTEM);
+
+    // Class loaders in use are not evicted
+    CloseableClassLoader classLoader1 = pool.getClassLoader(app1, this::createClassLoader);
+    CloseableClassLoader classLoader2 = pool.getClassLoader(app2, this::createClassLoader);
+    Assert.assertEquals(2, pool.size());
+
+    // Class loaders are closed once released while the pool is full
+    classLoader1.close();
+    Assert.assertEquals(1, pool.size());
+    Assert.assertEquals(1, getCloseCount(classLoader1.getParent()));
+    Assert.assertEquals(0, getCloseCount(classLoader2.getParent()));
+
+    // Closing again doesn't release it again
+    classLoader1.close();
+    CloseableClassLoader classLoader3 = pool.getClassLoader(app2, this::createClassLoader);
+    Assert.assertSame(classLoader2.getParent(), classLoader3.getParent());
+    classLoader2.close();
+    classLoader2.close();
+    classLoader3.close();
+    Assert.assertEquals(1, pool.size());
+    Assert.assertEquals(0, getCloseCount(classLoader2.getParent()));
+  }
+
+  @Test
+  public void testNotInstalled() {
+    // Only the task worker installs it, regardless of the configuration seen by other processes
+    Assert.assertNull(ArtifactClassLoaderPool.get());
+  }
+
+  private ArtifactDescriptor createDescriptor(String name, String version, ArtifactScope scope) {
+    ArtifactId artifactId = new ArtifactId(name, new ArtifactVersion(version), scope);
+    return new ArtifactDescriptor(scope.name().toLowerCase(), artifactId,
+        URI.create("file:/artifacts/" + name + "/" + version));
+  }
+
+  private CloseableClassLoader createClassLoader() {
+    ClassLoader[] classLoader = new ClassLoader[1];
+    classLoader[0] = new CloseableClassLoader(getClass().getClassLoader(),
+        () -> closeCounts.merge(classLoader[0], 1, Integer::sum));
+    return (CloseableClassLoader) classLoader[0];
+  }
+
+  private int getCloseCount(ClassLoader classLoader) {
+    return closeCounts.getOrDefault(classLoader, 0);
+  }
+}
@@ -20,6 +20,7 @@ import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.CharStreams;
@@ -298,6 +299,53 @@ public abstract class ArtifactStoreTest {
     Assert.assertTrue(artifactStore.getApplicationClasses(NamespaceId.DEFAULT, appClass.getClassName()).isEmpty());
   }
 
+  @Test
+  public void testPluginIndex() throws Exception {
+    Id.Artifact parentId = Id.Artifact.from(Id.Namespace.DEFAULT, "parent", "1.0.0");
+    writeArtifact(parentId, new ArtifactMeta(ArtifactClasses.builder().build()), "parent contents");
+
+    Set<ArtifactRange> parents = ImmutableSet.of(new ArtifactRange(
+      parentId.getNamespace().getId(), parentId.getName(),
+      new ArtifactVersion("1.0.0"), new ArtifactVersion("2.0.0")));
+    PluginClass plugin1 = PluginClass.builder().setName("plugin1").setType("atype").setDescription("")
+      .setClassName("c.c.c.plugin1").setConfigFieldName("cfg").setProperties(ImmutableMap.of()).build();
+    PluginClass plugin2 = PluginClass.builder().setName("plugin2").setType("btype").setDescription("")
+      .setClassName("c.c.c.plugin2").setConfigFieldName("cfg").setProperties(ImmutableMap.of()).build();
+    Id.Artifact plugins1Id = Id.Artifact.from(Id.Namespace.DEFAULT, "plugins1", "1.0.0");
+    writeArtifact(plugins1Id, new ArtifactMeta(ArtifactClasses.builder().addPlugin(plugin1).build(), parents),
+                  "plugins1 contents");
+
+    // repeated lookups are served from the index until an artifact changes
+    SortedMap<ArtifactDescriptor, Set<PluginClass>> plugins =
+      artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, "atype");
+    Assert.assertEquals(1, plugins.size());
+    Assert.assertSame(plugins, artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, "atype"));
+    Assert.assertTrue(artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, "btype").isEmpty());
+    Assert.assertEquals(1, artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId).size());
+    try {
+      plugins.values().iterator().next().clear();
+      Assert.fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+
+    // adding an artifact invalidates the index
+    Id.Artifact plugins2Id = Id.Artifact.from(Id.Namespace.SYSTEM, "plugins2", "1.0.0");
+    writeArtifact(plugins2Id, new ArtifactMeta(ArtifactClasses.builder().addPlugin(plugin2).build(), parents),
+                  "plugins2 contents");
+    Assert.assertEquals(ImmutableSet.of(plugin2), Iterables.getOnlyElement(
+      artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, "btype").values()));
+    Assert.assertEquals(plugins, artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, "atype"));
+    Assert.assertEquals(2, artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId).size());
+
+    // deleting an artifact invalidates the index
+    artifactStore.delete(plugins1Id);
+    Assert.assertTrue(artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, "atype").isEmpty());
+    Assert.assertEquals(1, artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId).size());
+    artifactStore.delete(plugins2Id);
+    Assert.assertTrue(artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId).isEmpty());
+  }
+
   @Test(expected = ArtifactAlreadyExistsException.class)
   public void testImmutability() throws Exception {
     Id.Artifact artifactId = Id.Artifact.from(Id.Namespace.DEFAULT, "myplugins", "1.0.0");
@@ -292,6 +292,43 @@ public abstract class JobQueueTableTest {
     });
   }
 
+  @Test
+  public void testAddNotificationsToSchedules() {
+    ProgramScheduleMeta scheduled = new ProgramScheduleMeta(ProgramScheduleStatus.SCHEDULED, 0L);
+    List<ProgramScheduleRecord> records = ImmutableList.of(
+      new ProgramScheduleRecord(SCHED1, scheduled),
+      new ProgramScheduleRecord(SCHED2, new ProgramScheduleMeta(ProgramScheduleStatus.SUSPENDED, 0L)),
+      new ProgramScheduleRecord(SCHED3, scheduled));
+    Notification notification = Notification.forPartitions(DATASET_ID, ImmutableList.of());
+
+    TransactionRunners.run(transactionRunner, context -> {
+      JobQueueTable jobQueue = JobQueueTable.getJobQueue(context, getCConf());
+      jobQueue.put(SCHED1_JOB);
+      // the notification is added to the existing job of SCHED1, and to a new job for SCHED3.
+      // SCHED2 is not enabled, hence no job is created for it.
+      jobQueue.addNotification(records, notification);
+    });
+
+    TransactionRunners.run(transactionRunner, context -> {
+      JobQueueTable jobQueue = JobQueueTable.getJobQueue(context, getCConf());
+      Assert.assertEquals(ImmutableList.of(notification), jobQueue.getJob(SCHED1_JOB.getJobKey()).getNotifications());
+      Assert.assertTrue(toSet(jobQueue.getJobsForSchedule(SCHED2.getScheduleId())).isEmpty());
+      Set<Job> sched3Jobs = toSet(jobQueue.getJobsForSchedule(SCHED3.getScheduleId()));
+      Assert.assertEquals(1, sched3Jobs.size());
+      Assert.assertEquals(ImmutableList.of(notification), sched3Jobs.iterator().next().getNotifications());
+
+      // adding again updates the same jobs
+      jobQueue.addNotification(records, notification);
+      Assert.assertEquals(ImmutableList.of(notification, notification),
+                          jobQueue.getJob(SCHED1_JOB.getJobKey()).getNotifications());
+      sched3Jobs = toSet(jobQueue.getJobsForSchedule(SCHED3.getScheduleId()));
+      Assert.assertEquals(1, sched3Jobs.size());
+      Assert.assertEquals(ImmutableList.of(notification, notification),
+                          sched3Jobs.iterator().next().getNotifications());
+      Assert.assertTrue(toSet(jobQueue.getJobsForSchedule(SCHED2.getScheduleId())).isEmpty());
+    });
+  }
+
   @Test
   public void testAddConcurrentNotifications() throws Exception {
     TransactionRunners.run(transactionRunner, context -> {
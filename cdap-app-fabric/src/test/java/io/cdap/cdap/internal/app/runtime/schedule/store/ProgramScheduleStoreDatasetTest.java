@@ -313,6 +313,89 @@ public abstract class ProgramScheduleStoreDatasetTest extends AppFabricTestBase
     );
   }
 
+  @Test
+  public void testTriggerIndex() throws Exception {
+    TransactionRunner transactionRunner = getTransactionRunner();
+
+    ProgramSchedule sched11 = new ProgramSchedule("sched11", "one partition schedule", PROG1_ID,
+                                                  ImmutableMap.of("prop3", "abc"),
+                                                  new PartitionTrigger(DS1_ID, 1),
+                                                  ImmutableList.<Constraint>of());
+    ProgramSchedule sched12 = new ProgramSchedule("sched12", "two partition schedule", PROG1_ID,
+                                                  ImmutableMap.of("propper", "popper"),
+                                                  new PartitionTrigger(DS2_ID, 2),
+                                                  ImmutableList.<Constraint>of());
+    ProgramSchedule sched22 = new ProgramSchedule("sched22", "twentytwo partition schedule", PROG2_ID,
+                                                  ImmutableMap.of("nn", "4"),
+                                                  new PartitionTrigger(DS2_ID, 22),
+                                                  ImmutableList.<Constraint>of());
+    ProgramSchedule sched31 = new ProgramSchedule("sched31", "a program status trigger", PROG3_ID,
+                                                  ImmutableMap.of("propper", "popper"),
+                                                  new ProgramStatusTrigger(PROG1_ID, ProgramStatus.COMPLETED),
+                                                  ImmutableList.<Constraint>of());
+    String ds1Key = Schedulers.triggerKeyForPartition(DS1_ID);
+    String ds2Key = Schedulers.triggerKeyForPartition(DS2_ID);
+    String prog1Key = Schedulers.triggerKeyForProgramStatus(PROG1_ID, ProgramStatus.COMPLETED);
+
+    ScheduleTriggerIndex index = new ScheduleTriggerIndex();
+    // the index is not usable before it is loaded
+    Assert.assertNull(index.getSchedules(ds1Key));
+
+    TransactionRunners.run(transactionRunner, context -> {
+      Schedulers.getScheduleStore(context).addSchedules(ImmutableList.of(sched11, sched12, sched22));
+    });
+
+    // an update applied while the index is loading must be retained by the refresh
+    index.refresh(() -> {
+      index.update(ImmutableMap.of(sched31.getScheduleId(), ImmutableSet.of(prog1Key)));
+      return TransactionRunners.run(transactionRunner, context -> {
+        return Schedulers.getScheduleStore(context).getAllTriggerKeys();
+      });
+    });
+    Assert.assertEquals(ImmutableSet.of(sched11.getScheduleId()), index.getSchedules(ds1Key));
+    Assert.assertEquals(ImmutableSet.of(sched12.getScheduleId(), sched22.getScheduleId()),
+                        index.getSchedules(ds2Key));
+    Assert.assertEquals(ImmutableSet.of(sched31.getScheduleId()), index.getSchedules(prog1Key));
+
+    // the changes made in a transaction are reflected in the index once applied
+    ProgramSchedule sched12New = new ProgramSchedule(sched12.getName(), "one partition schedule", PROG1_ID,
+                                                     ImmutableMap.of("pp", "p"),
+                                                     new PartitionTrigger(DS1_ID, 2),
+                                                     ImmutableList.<Constraint>of());
+    index.update(TransactionRunners.run(transactionRunner, context -> {
+      ProgramScheduleStoreDataset store = Schedulers.getScheduleStore(context);
+      store.updateSchedule(sched12New);
+      store.deleteSchedule(sched22.getScheduleId());
+      store.addSchedule(sched31);
+      return store.getTriggerKeyChanges();
+    }));
+    Assert.assertEquals(ImmutableSet.of(sched11.getScheduleId(), sched12.getScheduleId()),
+                        index.getSchedules(ds1Key));
+    Assert.assertEquals(Collections.emptySet(), index.getSchedules(ds2Key));
+
+    TransactionRunners.run(transactionRunner, context -> {
+      ProgramScheduleStoreDataset store = Schedulers.getScheduleStore(context);
+      // the schedules found through the index are the same as the ones found in the store
+      for (String key : ImmutableList.of(ds1Key, ds2Key, prog1Key)) {
+        Assert.assertEquals(toScheduleSet(store.findSchedules(key)),
+                            toScheduleSet(store.getScheduleRecords(index.getSchedules(key))));
+      }
+      // schedules that no longer exist are skipped
+      Assert.assertEquals(ImmutableSet.of(sched11),
+                          toScheduleSet(store.getScheduleRecords(ImmutableList.of(sched11.getScheduleId(),
+                                                                                  sched22.getScheduleId()))));
+    });
+
+    // a refresh gives the same result as the updates
+    index.refresh(() -> TransactionRunners.run(transactionRunner, context -> {
+      return Schedulers.getScheduleStore(context).getAllTriggerKeys();
+    }));
+    Assert.assertEquals(ImmutableSet.of(sched11.getScheduleId(), sched12.getScheduleId()),
+                        index.getSchedules(ds1Key));
+    Assert.assertEquals(Collections.emptySet(), index.getSchedules(ds2Key));
+    Assert.assertEquals(ImmutableSet.of(sched31.getScheduleId()), index.getSchedules(prog1Key));
+  }
+
   private Set<ProgramSchedule> toScheduleSet(Collection<ProgramScheduleRecord> records) {
     return records.stream().map(ProgramScheduleRecord::getSchedule).collect(Collectors.toSet());
   }
@@ -24,6 +24,7 @@ import com.google.gson.GsonBuilder;
 import io.cdap.cdap.AllProgramsApp;
 import io.cdap.cdap.api.app.ApplicationSpecification;
 import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
 import io.cdap.cdap.app.store.ScanApplicationsRequest;
 import io.cdap.cdap.common.app.RunIds;
 import io.cdap.cdap.common.utils.ProjectInfo;
@@ -43,9 +44,11 @@ import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramReference;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.spi.data.SortOrder;
+import io.cdap.cdap.spi.data.StructuredRow;
 import io.cdap.cdap.spi.data.StructuredTable;
 import io.cdap.cdap.spi.data.table.field.Field;
 import io.cdap.cdap.spi.data.table.field.Fields;
+import io.cdap.cdap.spi.data.table.field.Range;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
 import io.cdap.cdap.store.StoreDefinition;
@@ -1535,6 +1538,134 @@ public abstract class AppMetadataStoreTest {
         });
   }
 
+  @Test
+  public void testRunRecordEncodingMigration() throws Exception {
+    ProgramId programId = NamespaceId.DEFAULT.app("app").workflow("workflow");
+    Set<ProgramRunId> runIds = IntStream.range(0, 10)
+        .mapToObj(i -> createCompletedRun(programId, Instant.ofEpochSecond(1000 + i)))
+        .collect(Collectors.toSet());
+
+    Map<ProgramRunId, RunRecordDetail> expected = TransactionRunners.run(transactionRunner, context -> {
+      return AppMetadataStore.create(context).getRuns(runIds);
+    });
+
+    // Rewrite the run records with the legacy JSON encoding
+    Gson gson = new Gson();
+    TransactionRunners.run(transactionRunner, context -> {
+      StructuredTable table = context.getTable(StoreDefinition.AppMetadataStore.RUN_RECORDS);
+      List<Collection<Field<?>>> rows = new ArrayList<>();
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          StructuredRow row = iterator.next();
+          List<Field<?>> fields = new ArrayList<>(row.getPrimaryKeys());
+          String runId = row.getString(StoreDefinition.AppMetadataStore.RUN_FIELD);
+          RunRecordDetail record = expected.get(programId.run(runId));
+          fields.add(Fields.stringField(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA,
+                                        gson.toJson(record)));
+          fields.add(Fields.bytesField(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA, null));
+          rows.add(fields);
+        }
+      }
+      table.multiUpsert(rows);
+    });
+
+    // The legacy rows should be readable
+    TransactionRunners.run(transactionRunner, context -> {
+      AppMetadataStore store = AppMetadataStore.create(context);
+      Assert.assertEquals(expected, store.getRuns(runIds));
+      Assert.assertEquals(expected, store.getRuns(programId, ProgramRunStatus.COMPLETED, 0, Long.MAX_VALUE,
+                                                  Integer.MAX_VALUE, null));
+    });
+
+    // Migrate with a batch size smaller than the number of rows
+    AtomicReference<AppMetadataStore.Cursor> cursor = new AtomicReference<>(AppMetadataStore.Cursor.EMPTY);
+    int batches = 0;
+    while (cursor.get() != null) {
+      cursor.set(TransactionRunners.run(transactionRunner, context -> {
+        return AppMetadataStore.create(context).migrateRunRecordEncoding(cursor.get(), 3);
+      }));
+      batches++;
+    }
+    Assert.assertEquals(4, batches);
+
+    TransactionRunners.run(transactionRunner, context -> {
+      StructuredTable table = context.getTable(StoreDefinition.AppMetadataStore.RUN_RECORDS);
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          StructuredRow row = iterator.next();
+          Assert.assertNotNull(row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA));
+          Assert.assertNotNull(row.getBytes(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA));
+        }
+      }
+      Assert.assertEquals(expected, AppMetadataStore.create(context).getRuns(runIds));
+    });
+  }
+
+  @Test
+  public void testRunRecordStaleBinaryEncoding() throws Exception {
+    ProgramId programId = NamespaceId.DEFAULT.app("app").workflow("staleWorkflow");
+    Set<ProgramRunId> runIds = IntStream.range(0, 5)
+        .mapToObj(i -> createCompletedRun(programId, Instant.ofEpochSecond(1000 + i)))
+        .collect(Collectors.toSet());
+
+    Map<ProgramRunId, RunRecordDetail> completed = TransactionRunners.run(transactionRunner, context -> {
+      return AppMetadataStore.create(context).getRuns(runIds);
+    });
+    Map<ProgramRunId, RunRecordDetail> expected = new HashMap<>();
+    completed.forEach((runId, record) -> expected.put(
+        runId, RunRecordDetail.builder(record).setStatus(ProgramRunStatus.FAILED).build()));
+
+    // Update only the JSON encoding, the same way an older version does after a rollback
+    Gson gson = new Gson();
+    TransactionRunners.run(transactionRunner, context -> {
+      StructuredTable table = context.getTable(StoreDefinition.AppMetadataStore.RUN_RECORDS);
+      List<Collection<Field<?>>> rows = new ArrayList<>();
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          StructuredRow row = iterator.next();
+          RunRecordDetail record = expected.get(
+              programId.run(row.getString(StoreDefinition.AppMetadataStore.RUN_FIELD)));
+          if (record == null) {
+            continue;
+          }
+          Assert.assertNotNull(row.getBytes(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA));
+          List<Field<?>> fields = new ArrayList<>(row.getPrimaryKeys());
+          fields.add(Fields.stringField(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA,
+                                        gson.toJson(record)));
+          rows.add(fields);
+        }
+      }
+      table.multiUpsert(rows);
+    });
+
+    // The stale binary encoding should be ignored
+    TransactionRunners.run(transactionRunner, context -> {
+      AppMetadataStore store = AppMetadataStore.create(context);
+      Assert.assertEquals(expected, store.getRuns(runIds));
+      Assert.assertEquals(expected, store.getRuns(programId, ProgramRunStatus.FAILED, 0, Long.MAX_VALUE,
+                                                  Integer.MAX_VALUE, null));
+      Assert.assertTrue(store.getRuns(programId, ProgramRunStatus.COMPLETED, 0, Long.MAX_VALUE,
+                                      Integer.MAX_VALUE, null).isEmpty());
+    });
+
+    // The migration should re-encode the stale rows
+    TransactionRunners.run(transactionRunner, context -> {
+      Assert.assertNull(AppMetadataStore.create(context)
+                          .migrateRunRecordEncoding(AppMetadataStore.Cursor.EMPTY, Integer.MAX_VALUE));
+    });
+    TransactionRunners.run(transactionRunner, context -> {
+      StructuredTable table = context.getTable(StoreDefinition.AppMetadataStore.RUN_RECORDS);
+      try (CloseableIterator<StructuredRow> iterator = table.scan(Range.all(), Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          StructuredRow row = iterator.next();
+          Assert.assertTrue(RunRecordDetailCodec.isBinaryCurrent(
+            row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA)));
+        }
+      }
+      Assert.assertEquals(expected, AppMetadataStore.create(context).getRuns(runIds));
+    });
+  }
+
   /**
    * Testcase for getting the latest application, where the application was deployed
    * before 6.8.0 (where the latest column is not set).
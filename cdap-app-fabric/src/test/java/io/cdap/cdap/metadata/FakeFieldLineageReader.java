@@ -77,6 +77,22 @@ public class FakeFieldLineageReader implements FieldLineageReader {
     return outgoingSummary.getOrDefault(endPointField.getField(), summary);
   }
 
+  @Override
+  public Map<String, Set<EndPointField>> getIncomingSummaries(EndPoint endPoint, long start, long end) {
+    Map<String, Set<EndPointField>> result = new HashMap<>();
+    getFields(endPoint, start, end).forEach(
+      field -> result.put(field, getIncomingSummary(new EndPointField(endPoint, field), start, end)));
+    return result;
+  }
+
+  @Override
+  public Map<String, Set<EndPointField>> getOutgoingSummaries(EndPoint endPoint, long start, long end) {
+    Map<String, Set<EndPointField>> result = new HashMap<>();
+    getFields(endPoint, start, end).forEach(
+      field -> result.put(field, getOutgoingSummary(new EndPointField(endPoint, field), start, end)));
+    return result;
+  }
+
   @Override
   public List<ProgramRunOperations> getIncomingOperations(EndPointField endPointField, long start, long end) {
     return programRunOperations;
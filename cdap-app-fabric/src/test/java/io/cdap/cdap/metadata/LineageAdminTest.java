@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.metadata;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -49,25 +50,38 @@ import io.cdap.cdap.proto.artifact.ChangeDetail;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.DatasetId;
 import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.NamespacedEntityId;
 import io.cdap.cdap.proto.id.ProfileId;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
+import io.cdap.cdap.test.SlowTests;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import org.apache.twill.api.RunId;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Tests lineage computation.
  */
 public class LineageAdminTest extends AppFabricTestBase {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LineageAdminTest.class);
+
   // Define data
   private final DatasetId dataset1 = new DatasetId("default", "dataset1");
   private final DatasetId dataset2 = new DatasetId("default", "dataset2");
@@ -611,6 +625,55 @@ public class LineageAdminTest extends AppFabricTestBase {
                                                     System.currentTimeMillis() + 10000, 100));
   }
 
+  @Test
+  @Category(SlowTests.class)
+  public void testBatchedLineageBenchmark() {
+    // Synthetic graph of 10k datasets, where each program reads and writes random datasets
+    int numDatasets = 10000;
+    int numPrograms = 1000;
+    int datasetsPerAccess = 10;
+    Random random = new Random(0);
+    TransactionRunner transactionRunner = getInjector().getInstance(TransactionRunner.class);
+    Store store = getInjector().getInstance(Store.class);
+
+    List<ProgramRunId> runs = new ArrayList<>();
+    for (int i = 0; i < numPrograms; i++) {
+      ProgramId program = new ProgramId("default", "app" + (i % 10), ProgramType.SPARK, "spark" + i);
+      runs.add(program.run(RunIds.generate(System.currentTimeMillis()).getId()));
+    }
+    addRuns(store, runs.toArray(new ProgramRunId[0]));
+    TransactionRunners.run(transactionRunner, context -> {
+      LineageTable lineageTable = LineageTable.create(context);
+      for (ProgramRunId run : runs) {
+        for (int i = 0; i < datasetsPerAccess; i++) {
+          DatasetId input = new DatasetId("default", "dataset" + random.nextInt(numDatasets));
+          DatasetId output = new DatasetId("default", "dataset" + random.nextInt(numDatasets));
+          lineageTable.addAccess(run, input, AccessType.READ, System.currentTimeMillis());
+          lineageTable.addAccess(run, output, AccessType.WRITE, System.currentTimeMillis());
+        }
+      }
+    });
+
+    // Compare with the lineage computed with one scan per dataset and program
+    LineageAdmin perEntityAdmin = new LineageAdmin(
+      new PerEntityLineageStoreReader(new DefaultLineageStoreReader(transactionRunner)), store);
+    LineageAdmin batchedAdmin = new LineageAdmin(new DefaultLineageStoreReader(transactionRunner, 100, 4), store);
+    DatasetId source = new DatasetId("default", "dataset0");
+    long end = System.currentTimeMillis() + 10000;
+
+    Stopwatch stopwatch = new Stopwatch().start();
+    Lineage expected = perEntityAdmin.computeLineage(source, 500, end, 10);
+    long perEntityMillis = stopwatch.elapsedMillis();
+    stopwatch.reset().start();
+    Lineage lineage = batchedAdmin.computeLineage(source, 500, end, 10);
+    long batchedMillis = stopwatch.elapsedMillis();
+
+    Assert.assertFalse(expected.getRelations().isEmpty());
+    Assert.assertEquals(expected, lineage);
+    LOG.info("Computed lineage of {} relations in {} ms with per entity scans and in {} ms with batched scans",
+             lineage.getRelations().size(), perEntityMillis, batchedMillis);
+  }
+
   @Test
   public void testScanRange() {
     Set<RunId> runIds = ImmutableSet.of(
@@ -804,4 +867,47 @@ public class LineageAdminTest extends AppFabricTestBase {
   private RunId twillRunId(ProgramRunId run) {
     return RunIds.fromString(run.getEntityName());
   }
+
+  /**
+   * A {@link LineageStoreReader} that reads the relations of each dataset and program with a separate scan.
+   */
+  private static final class PerEntityLineageStoreReader implements LineageStoreReader {
+
+    private final LineageStoreReader delegate;
+
+    PerEntityLineageStoreReader(LineageStoreReader delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Set<NamespacedEntityId> getEntitiesForRun(ProgramRunId run) {
+      return delegate.getEntitiesForRun(run);
+    }
+
+    @Override
+    public Set<Relation> getRelations(DatasetId datasetInstance, long start, long end, Predicate<Relation> filter) {
+      return delegate.getRelations(datasetInstance, start, end, filter);
+    }
+
+    @Override
+    public Set<Relation> getRelations(ProgramId program, long start, long end, Predicate<Relation> filter) {
+      return delegate.getRelations(program, start, end, filter);
+    }
+
+    @Override
+    public Map<DatasetId, Set<Relation>> getDatasetRelations(Collection<DatasetId> datasetInstances, long start,
+                                                             long end, Predicate<Relation> filter) {
+      Map<DatasetId, Set<Relation>> result = new HashMap<>();
+      datasetInstances.forEach(dataset -> result.put(dataset, getRelations(dataset, start, end, filter)));
+      return result;
+    }
+
+    @Override
+    public Map<ProgramId, Set<Relation>> getProgramRelations(Collection<ProgramId> programs, long start, long end,
+                                                             Predicate<Relation> filter) {
+      Map<ProgramId, Set<Relation>> result = new HashMap<>();
+      programs.forEach(program -> result.put(program, getRelations(program, start, end, filter)));
+      return result;
+    }
+  }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import io.cdap.cdap.internal.app.runtime.schedule.queue.JobKey;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ScheduleId;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JobDeadlineIndex}.
+ */
+public class JobDeadlineIndexTest {
+
+  private static final ScheduleId SCHEDULE = NamespaceId.DEFAULT.app("app").schedule("schedule");
+
+  @Test
+  public void testDeadlines() {
+    JobKey job1 = new JobKey(SCHEDULE, 1);
+    JobKey job2 = new JobKey(SCHEDULE, 2);
+    JobKey job3 = new JobKey(SCHEDULE, 3);
+
+    JobDeadlineIndex index = new JobDeadlineIndex();
+    Assert.assertEquals(Long.MAX_VALUE, index.getNextDeadline());
+    Assert.assertTrue(index.pollDue(Long.MAX_VALUE).isEmpty());
+
+    index.put(job1, 300L);
+    index.put(job2, 100L);
+    index.put(job3, 100L);
+    Assert.assertEquals(3, index.size());
+    Assert.assertEquals(100L, index.getNextDeadline());
+
+    // replacing the deadline of a job removes the old one
+    index.put(job2, 200L);
+    Assert.assertEquals(3, index.size());
+    Assert.assertEquals(100L, index.getNextDeadline());
+    index.remove(job3);
+    Assert.assertEquals(200L, index.getNextDeadline());
+
+    Assert.assertTrue(index.pollDue(199L).isEmpty());
+    Assert.assertEquals(Collections.singletonList(job2), index.pollDue(250L));
+    Assert.assertEquals(1, index.size());
+    Assert.assertEquals(300L, index.getNextDeadline());
+
+    index.put(job3, 150L);
+    Assert.assertEquals(Arrays.asList(job3, job1), index.pollDue(300L));
+    Assert.assertEquals(0, index.size());
+    Assert.assertEquals(Long.MAX_VALUE, index.getNextDeadline());
+
+    index.put(job1, 10L);
+    index.clear();
+    Assert.assertEquals(0, index.size());
+    Assert.assertTrue(index.pollDue(Long.MAX_VALUE).isEmpty());
+  }
+}
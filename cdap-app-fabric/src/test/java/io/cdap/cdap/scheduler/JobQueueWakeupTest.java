@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JobQueueWakeup}.
+ */
+public class JobQueueWakeupTest {
+
+  @Test
+  public void testWakeup() throws Exception {
+    JobQueueWakeup wakeup = new JobQueueWakeup(2);
+
+    // no wakeup, the timeout elapses
+    Assert.assertFalse(wakeup.await(0, 10));
+
+    // pending wakeups are consumed by a single wait, and don't affect other partitions
+    wakeup.wakeup(0);
+    wakeup.wakeup(0);
+    Assert.assertFalse(wakeup.await(1, 10));
+    Assert.assertTrue(wakeup.await(0, 10));
+    Assert.assertFalse(wakeup.await(0, 10));
+
+    // a waiting thread is woken up before the timeout
+    CompletableFuture<Boolean> woken = CompletableFuture.supplyAsync(() -> {
+      try {
+        return wakeup.await(1, TimeUnit.MINUTES.toMillis(1));
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    wakeup.wakeup(1);
+    Assert.assertTrue(woken.get(10, TimeUnit.SECONDS));
+  }
+}
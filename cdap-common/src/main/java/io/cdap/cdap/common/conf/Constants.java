@@ -263,6 +263,11 @@ public final class Constants {
     public static final String ARTIFACTS_COMPUTE_HASH_SNAPSHOT = "app.artifact.compute.hash.snapshot";
     public static final String SYSTEM_ARTIFACTS_DIR = "app.artifact.dir";
     public static final String SYSTEM_ARTIFACTS_MAX_PARALLELISM = "app.artifact.parallelism.max";
+    public static final String UNPACK_CACHE_ENABLED = "app.artifact.unpack.cache.enabled";
+    public static final String UNPACK_CACHE_DIR = "app.artifact.unpack.cache.dir";
+    public static final String UNPACK_CACHE_MAX_SIZE_MB = "app.artifact.unpack.cache.max.size.mb";
+    public static final String ARTIFACT_PLUGIN_INDEX_SIZE = "app.artifact.plugin.index.size";
+    public static final String ARTIFACT_PLUGIN_INDEX_EXPIRATION_SECONDS = "app.artifact.plugin.index.expiration.seconds";
     public static final String PROGRAM_EXTRA_CLASSPATH = "app.program.extra.classpath";
     public static final String SPARK_YARN_CLIENT_REWRITE = "app.program.spark.yarn.client.rewrite.enabled";
     public static final String SPARK_EVENT_LOGS_ENABLED = "app.program.spark.event.logs.enabled";
@@ -290,6 +295,12 @@ public final class Constants {
         "app.run.records.ttl.frequency.hours";
     public static final String RUN_DATA_CLEANUP_TTL_INITIAL_DELAY_MINUTES =
         "app.run.records.ttl.initial.delay.minutes";
+    public static final String RUN_RECORD_ENCODING_MIGRATION_ENABLED =
+        "app.run.records.encoding.migration.enabled";
+    public static final String RUN_RECORD_ENCODING_MIGRATION_BATCH_SIZE =
+        "app.run.records.encoding.migration.batch.size";
+    public static final String RUN_RECORD_ENCODING_MIGRATION_BATCH_DELAY_MS =
+        "app.run.records.encoding.migration.batch.delay.ms";
 
     // A boolean value cConf entry to tell whether a ProgramRunner is running remotely (i.e. not inside app-fabric)
     // This config is not present in the cdap-default.xml as it is only set internally by CDAP.
@@ -511,6 +522,17 @@ public final class Constants {
     public static final String CONTAINER_DISK_READONLY = "task.worker.container.disk.readonly";
     public static final String CONTAINER_JVM_OPTS = "task.worker.container.jvm.opts";
 
+    /**
+     * Task worker warm pool configurations.
+     */
+    public static final String WARM_POOL_ENABLED = "task.worker.warm.pool.enabled";
+    public static final String WARM_POOL_PRELOAD_ARTIFACTS = "task.worker.warm.pool.preload.artifacts";
+    public static final String WARM_POOL_PRELOAD_TIMEOUT_SECONDS = "task.worker.warm.pool.preload.timeout.seconds";
+    public static final String WARM_POOL_CLASSLOADER_CACHE_SIZE = "task.worker.warm.pool.classloader.cache.size";
+    public static final String WARM_POOL_MAX_HEAP_GROWTH_MB = "task.worker.warm.pool.max.heap.growth.mb";
+    public static final String WARM_POOL_MAX_METASPACE_GROWTH_MB = "task.worker.warm.pool.max.metaspace.growth.mb";
+    public static final String WARM_POOL_MAX_LEAKED_CLASSLOADERS = "task.worker.warm.pool.max.leaked.classloaders";
+
     public static final String CONFIGURATOR_HTTP_CLIENT_READ_TIMEOUT_MS =
         "task.worker.configurator.http.client.read.timeout.ms";
     public static final String CONFIGURATOR_HTTP_CLIENT_CONNECTION_TIMEOUT_MS =
@@ -617,6 +639,10 @@ public final class Constants {
     public static final String PROGRAM_STATUS_EVENT_FETCH_SIZE = "scheduler.program.status.event.fetch.size";
 
     public static final String JOB_QUEUE_NUM_PARTITIONS = "scheduler.job.queue.num.partitions";
+    public static final String CONSTRAINT_CHECKER_POLL_INTERVAL_MILLIS =
+        "scheduler.constraint.checker.poll.interval.millis";
+    public static final String TRIGGER_INDEX_REFRESH_INTERVAL_SECONDS =
+        "scheduler.trigger.index.refresh.interval.seconds";
   }
 
   /**
@@ -915,9 +941,19 @@ public final class Constants {
     public static final String PROCESSOR_MAX_DELAY_MS = "metrics.processor.max.delay.ms";
     public static final String QUEUE_SIZE = "metrics.processor.queue.size";
     public static final String OFFER_TIMEOUT_MS = "metrics.processor.offer.timeout.ms";
+    // Window in milliseconds for pre-aggregating metrics in memory before writing. 0 to disable.
+    public static final String PROCESSOR_COALESCE_WINDOW_MS = "metrics.processor.coalesce.window.ms";
 
     public static final String ENTITY_TABLE_NAME = "metrics.data.entity.tableName";
     public static final String METRICS_TABLE_WRITE_PARRALELISM = "metrics.data.table.write.parallelism";
+    // Max number of parallel scans for a metrics query
+    public static final String METRICS_QUERY_PARALLELISM = "metrics.query.parallelism";
+    // Time in milliseconds to cache metrics query results. 0 to disable.
+    public static final String METRICS_QUERY_CACHE_TTL_MS = "metrics.query.cache.ttl.ms";
+    // Whether to compute the coarser resolutions by rolling up the finer ones instead of at ingestion
+    public static final String ROLLUP_ENABLED = "metrics.rollup.enabled";
+    public static final String ROLLUP_LAG_SECONDS = "metrics.rollup.lag.seconds";
+    public static final String ROLLUP_INTERVAL_SECONDS = "metrics.rollup.interval.seconds";
     public static final String METRICS_TABLE_PREFIX = "metrics.data.table.prefix";
     public static final String TIME_SERIES_TABLE_ROLL_TIME = "metrics.data.table.ts.rollTime";
 
@@ -1118,6 +1154,7 @@ public final class Constants {
         public static final String OP_COUNT = "dataset.store.ops";
         public static final String WRITE_COUNT = "dataset.store.writes";
         public static final String WRITE_BYTES = "dataset.store.bytes";
+        public static final String BUFFER_BYTES = "dataset.buffer.bytes";
       }
 
       /**
@@ -1365,6 +1402,7 @@ public final class Constants {
 
     public static final String ADDRESS = "log.query.server.bind.address";
     public static final String PORT = "log.query.server.bind.port";
+    public static final String READ_PARALLEL_FILES = "log.query.read.parallel.files";
   }
 
   /**
@@ -2065,6 +2103,9 @@ public final class Constants {
     public static final String MESSAGING_RETRIES_ON_CONFLICT = "metadata.messaging.retries.on.conflict";
     public static final String MESSAGING_PUBLISH_SIZE_LIMIT = "metadata.messaging.publish.size.limit";
 
+    public static final String LINEAGE_SCAN_BATCH_SIZE = "metadata.lineage.scan.batch.size";
+    public static final String LINEAGE_SCAN_PARALLELISM = "metadata.lineage.scan.parallelism";
+
     public static final String STORAGE_PROVIDER_IMPLEMENTATION = "metadata.storage.implementation";
     public static final String STORAGE_PROVIDER_NOSQL = "nosql";
     public static final String STORAGE_PROVIDER_ELASTICSEARCH = "elastic";
@@ -2113,11 +2154,21 @@ public final class Constants {
     public static final String COPROCESSOR_METADATA_CACHE_UPDATE_FREQUENCY_SECONDS =
         "messaging.coprocessor.metadata.cache.update.frequency.seconds";
 
+    public static final String WRITER_GROUP_COMMIT_ENABLED = "messaging.writer.group.commit.enabled";
+    public static final String WRITER_GROUP_COMMIT_MAX_BATCH_SIZE = "messaging.writer.group.commit.max.batch.size";
+    public static final String WRITER_GROUP_COMMIT_LINGER_MICROS = "messaging.writer.group.commit.linger.micros";
+
     public static final String HTTP_SERVER_WORKER_THREADS = "messaging.http.server.worker.threads";
     public static final String HTTP_SERVER_EXECUTOR_THREADS = "messaging.http.server.executor.threads";
     public static final String HTTP_SERVER_MAX_REQUEST_SIZE_MB = "messaging.http.server.max.request.size.mb";
     public static final String HTTP_SERVER_CONSUME_CHUNK_SIZE = "messaging.http.server.consume.chunk.size";
     public static final String HTTP_COMPRESS_PAYLOAD = "messaging.http.compress.payload";
+    public static final String HTTP_SERVER_LONG_POLL_THREADS = "messaging.http.server.long.poll.threads";
+    public static final String HTTP_SERVER_LONG_POLL_MAX_TIMEOUT_MS = "messaging.http.server.long.poll.max.timeout.ms";
+    public static final String HTTP_SERVER_MULTI_POLL_MAX_TOPICS = "messaging.http.server.multi.poll.max.topics";
+    public static final String HTTP_SERVER_MULTI_POLL_MAX_LIMIT = "messaging.http.server.multi.poll.max.limit";
+    public static final String HTTP_SERVER_MULTI_POLL_MAX_RESPONSE_SIZE_MB = "messaging.http.server.multi.poll.max.response.size.mb";
+    public static final String SUBSCRIBER_POLL_TIMEOUT_MS = "messaging.subscriber.poll.timeout.ms";
 
     // Distributed mode related configurations
     public static final String HA_FENCING_DELAY_SECONDS = "messaging.ha.fencing.delay.seconds";
@@ -117,7 +117,35 @@ public class TaskWorkerHttpHandlerInternal extends AbstractHttpHandler {
         Constants.TaskWorker.METADATA_SERVICE_END_POINT);
     boolean enableUserCodeIsolationEnabled = cConf.getBoolean(
         TaskWorker.USER_CODE_ISOLATION_ENABLED);
-    if (enableUserCodeIsolationEnabled) {
+    if (enableUserCodeIsolationEnabled
+        && cConf.getBoolean(TaskWorker.WARM_POOL_ENABLED)) {
+      // Run only one request at a time, but keep the worker warm across requests.
+      this.requestLimit = 1;
+      // Restart the service once its measured memory usage grows too much or
+      // class loaders leak, instead of after a number of requests.
+      WarmPoolMonitor warmPoolMonitor = new WarmPoolMonitor(cConf);
+      this.taskCompletionConsumer = (succeeded, taskDetails) -> {
+        taskDetails.emitMetrics(succeeded);
+        requestProcessedCount.incrementAndGet();
+
+        if (!mustRestart.get()) {
+          // Check before decrementing the running request count, so that no
+          // request runs during the garbage collection.
+          String reason = warmPoolMonitor.checkRestart();
+          if (reason != null) {
+            LOG.info("Restarting task worker after {} requests because {}",
+                requestProcessedCount.get(), reason);
+            mustRestart.set(true);
+          }
+        }
+        runningRequestCount.decrementAndGet();
+        if (mustRestart.get()) {
+          stopper.accept(taskDetails.getClassName());
+        }
+      };
+
+      enablePeriodicRestart(cConf, stopper);
+    } else if (enableUserCodeIsolationEnabled) {
       // Run only one request at a time in user code isolation mode.
       this.requestLimit = 1;
       // Restart the service to clean up and re-claim resources after user code
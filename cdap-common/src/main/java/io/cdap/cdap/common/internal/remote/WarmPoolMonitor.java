@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.internal.remote;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants.TaskWorker;
+import io.cdap.cdap.common.lang.ClassLoaderLeakDetector;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides when a task worker in warm pool mode needs to be restarted, based on the growth of the
+ * heap and metaspace it uses after garbage collection, and on the class loaders it leaked. The
+ * growth is measured from the end of the first request, once the worker is warm.
+ *
+ * This class is thread safe.
+ */
+final class WarmPoolMonitor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmPoolMonitor.class);
+
+  private final long maxHeapGrowth;
+  private final long maxMetaspaceGrowth;
+  private final int maxLeakedClassLoaders;
+  private final Runnable gc;
+  private final LongSupplier heapUsage;
+  private final LongSupplier metaspaceUsage;
+  private final Supplier<List<String>> leakedClassLoaders;
+  private long baseHeapUsage = -1L;
+  private long baseMetaspaceUsage = -1L;
+
+  WarmPoolMonitor(CConfiguration cConf) {
+    this(cConf.getLong(TaskWorker.WARM_POOL_MAX_HEAP_GROWTH_MB) * 1024 * 1024,
+        cConf.getLong(TaskWorker.WARM_POOL_MAX_METASPACE_GROWTH_MB) * 1024 * 1024,
+        cConf.getInt(TaskWorker.WARM_POOL_MAX_LEAKED_CLASSLOADERS),
+        System::gc,
+        () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+        WarmPoolMonitor::getMetaspaceUsage,
+        getLeakedClassLoadersSupplier());
+  }
+
+  @VisibleForTesting
+  WarmPoolMonitor(long maxHeapGrowth, long maxMetaspaceGrowth, int maxLeakedClassLoaders,
+      Runnable gc, LongSupplier heapUsage, LongSupplier metaspaceUsage,
+      Supplier<List<String>> leakedClassLoaders) {
+    this.maxHeapGrowth = maxHeapGrowth;
+    this.maxMetaspaceGrowth = maxMetaspaceGrowth;
+    this.maxLeakedClassLoaders = maxLeakedClassLoaders;
+    this.gc = gc;
+    this.heapUsage = heapUsage;
+    this.metaspaceUsage = metaspaceUsage;
+    this.leakedClassLoaders = leakedClassLoaders;
+  }
+
+  /**
+   * Runs a garbage collection and checks whether the worker needs to be restarted. This is called
+   * after each request completes.
+   *
+   * @return the reason for restarting the worker, or {@code null} if it doesn't need to be
+   *     restarted
+   */
+  @Nullable
+  synchronized String checkRestart() {
+    gc.run();
+    long heap = heapUsage.getAsLong();
+    long metaspace = metaspaceUsage.getAsLong();
+    if (baseHeapUsage < 0) {
+      LOG.debug("Task worker warm with heap usage {} and metaspace usage {}", heap, metaspace);
+      baseHeapUsage = heap;
+      baseMetaspaceUsage = metaspace;
+      return null;
+    }
+
+    if (heap - baseHeapUsage > maxHeapGrowth) {
+      return String.format("heap usage grew from %d to %d bytes", baseHeapUsage, heap);
+    }
+    if (metaspace - baseMetaspaceUsage > maxMetaspaceGrowth) {
+      return String.format("metaspace usage grew from %d to %d bytes", baseMetaspaceUsage,
+          metaspace);
+    }
+    if (maxLeakedClassLoaders >= 0) {
+      List<String> leaked = leakedClassLoaders.get();
+      if (leaked.size() > maxLeakedClassLoaders) {
+        return String.format("%d class loaders leaked: %s", leaked.size(), leaked);
+      }
+    }
+    return null;
+  }
+
+  private static long getMetaspaceUsage() {
+    long usage = 0L;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if ("Metaspace".equals(pool.getName())) {
+        usage += pool.getUsage().getUsed();
+      }
+    }
+    return usage;
+  }
+
+  private static Supplier<List<String>> getLeakedClassLoadersSupplier() {
+    ClassLoaderLeakDetector leakDetector = ClassLoaderLeakDetector.get();
+    return leakDetector == null ? Collections::emptyList : leakDetector::getLeaked;
+  }
+}
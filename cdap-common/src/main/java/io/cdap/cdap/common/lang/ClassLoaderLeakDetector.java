@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Keeps track of the {@link ClassLoader}s that have been closed, to find the ones which are still
+ * reachable and therefore leaked, together with all the classes they loaded. A process reusing its
+ * JVM across requests uses it to detect when the requests leave class loaders behind.
+ *
+ * This class is thread safe.
+ */
+public final class ClassLoaderLeakDetector {
+
+  private static volatile ClassLoaderLeakDetector instance;
+
+  private final ReferenceQueue<ClassLoader> collected = new ReferenceQueue<>();
+  private final Set<NamedReference> watched = Collections.synchronizedSet(new HashSet<>());
+
+  /**
+   * Installs the {@link ClassLoaderLeakDetector} of the process. It is only installed by the task
+   * worker in warm pool mode, before serving any request.
+   *
+   * @return the installed {@link ClassLoaderLeakDetector}
+   */
+  public static synchronized ClassLoaderLeakDetector install() {
+    if (instance == null) {
+      instance = new ClassLoaderLeakDetector();
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the {@link ClassLoaderLeakDetector} of the process, or {@code null} if none is
+   * installed, in which case nothing checks for leaks.
+   */
+  @Nullable
+  public static ClassLoaderLeakDetector get() {
+    return instance;
+  }
+
+  @VisibleForTesting
+  ClassLoaderLeakDetector() {
+  }
+
+  /**
+   * Watches a {@link ClassLoader} that has been closed and is expected to be garbage collected.
+   *
+   * @param classLoader the closed class loader
+   * @param name a name for the class loader, used to report the leak
+   */
+  public void watch(ClassLoader classLoader, String name) {
+    removeCollected();
+    watched.add(new NamedReference(classLoader, name, collected));
+  }
+
+  /**
+   * Returns the names of the watched {@link ClassLoader}s that have not been garbage collected. It
+   * is only meaningful right after a full garbage collection.
+   */
+  public List<String> getLeaked() {
+    removeCollected();
+    List<String> result = new ArrayList<>();
+    synchronized (watched) {
+      for (NamedReference namedRef : watched) {
+        if (namedRef.get() != null) {
+          result.add(namedRef.name);
+        }
+      }
+    }
+    return result;
+  }
+
+  private void removeCollected() {
+    Reference<? extends ClassLoader> ref = collected.poll();
+    while (ref != null) {
+      watched.remove(ref);
+      ref = collected.poll();
+    }
+  }
+
+  /**
+   * A {@link WeakReference} to a {@link ClassLoader} with the name to report it with.
+   */
+  private static final class NamedReference extends WeakReference<ClassLoader> {
+
+    private final String name;
+
+    NamedReference(ClassLoader classLoader, String name, ReferenceQueue<ClassLoader> queue) {
+      super(classLoader, queue);
+      this.name = name;
+    }
+  }
+}
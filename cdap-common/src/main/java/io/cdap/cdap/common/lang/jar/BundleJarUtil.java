@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.common.lang.jar;
 
+import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.lang.ThrowingSupplier;
 import java.io.BufferedInputStream;
@@ -239,6 +240,24 @@ public class BundleJarUtil {
     return prepareClassLoaderFolder(Locations.toLocation(jarFile), destinationSupplier);
   }
 
+  /**
+   * Performs the same operation as the
+   * {@link #prepareClassLoaderFolder(Location, ThrowingSupplier)} method, except that a jar is
+   * unpacked into the {@link UnpackedJarCache} shared by the process if it is enabled in the given
+   * configuration. In that case, the directory of the returned {@link ClassLoaderFolder} is shared
+   * and must not be modified.
+   */
+  public static ClassLoaderFolder prepareClassLoaderFolder(CConfiguration cConf,
+      Location jarLocation, ThrowingSupplier<File, IOException> destinationSupplier)
+      throws IOException {
+    UnpackedJarCache cache = UnpackedJarCache.get(cConf);
+    if (cache == null
+        || ("file".equals(jarLocation.toURI().getScheme()) && jarLocation.isDirectory())) {
+      return prepareClassLoaderFolder(jarLocation, destinationSupplier);
+    }
+    return cache.getClassLoaderFolder(jarLocation);
+  }
+
   /**
    * Unpack a jar file in the given location to a directory.
    *
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.jar.JarFile;
+import javax.annotation.Nullable;
 import org.apache.twill.filesystem.Location;
 
 /**
@@ -34,12 +35,15 @@ public final class ClassLoaderFolder implements Closeable {
 
   private final File dir;
   private final boolean needDelete;
+  @Nullable
+  private final Closeable releaser;
 
   ClassLoaderFolder(Location location, ThrowingSupplier<File, IOException> targetDirSupplier)
       throws IOException {
     if ("file".equals(location.toURI().getScheme()) && location.isDirectory()) {
       this.dir = new File(location.toURI());
       this.needDelete = false;
+      this.releaser = null;
     } else {
       File targetDir = targetDirSupplier.get();
       Files.createDirectories(targetDir.toPath());
@@ -53,15 +57,30 @@ public final class ClassLoaderFolder implements Closeable {
 
       this.dir = targetDir;
       this.needDelete = true;
+      this.releaser = null;
     }
   }
 
+  /**
+   * Creates an instance for a directory that is not owned by this instance, such as an entry in
+   * the {@link UnpackedJarCache}. The given {@link Closeable} is called on {@link #close()}
+   * instead of deleting the directory.
+   */
+  ClassLoaderFolder(File dir, Closeable releaser) {
+    this.dir = dir;
+    this.needDelete = false;
+    this.releaser = releaser;
+  }
+
   public File getDir() {
     return dir;
   }
 
   @Override
   public void close() throws IOException {
+    if (releaser != null) {
+      releaser.close();
+    }
     if (needDelete && dir.exists()) {
       DirUtils.deleteDirectoryContents(dir);
     }
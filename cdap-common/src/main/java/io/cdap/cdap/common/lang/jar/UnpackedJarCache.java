@@ -0,0 +1,519 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang.jar;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closeables;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.io.Locations;
+import io.cdap.cdap.common.utils.DirUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarFile;
+import javax.annotation.Nullable;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of unpacked jars, shared by all the {@link ClassLoaderFolder} created in the same process
+ * through {@link BundleJarUtil#prepareClassLoaderFolder(CConfiguration, Location,
+ * io.cdap.cdap.common.lang.ThrowingSupplier)}. Each jar is unpacked once into a subdirectory of the
+ * cache directory named after the SHA-256 hash of the jar content, so that the same jar is only
+ * unpacked again once it has been evicted.
+ *
+ * <p>
+ * A jar is unpacked into a temporary directory, which is then atomically renamed, so that a
+ * partially unpacked directory is never used, even by other processes sharing the same cache
+ * directory. Each entry is reference counted by the {@link ClassLoaderFolder} returned for it, and
+ * the least recently used entries that are not referenced are deleted once the total size of the
+ * cache exceeds the maximum size.
+ * </p>
+ *
+ * <p>
+ * The cache directory can be shared by processes running concurrently. A process holds a shared
+ * lock on the lock file of an entry while it references the entry, and an entry is only evicted
+ * while holding an exclusive lock on it, so that an entry used by another process is never
+ * deleted. Lock files are never deleted, so that all processes always lock the same file.
+ * File locks are held on behalf of the whole process, hence each lock file is only opened once in
+ * the process, and shared by all the cache instances and entries using it.
+ * </p>
+ *
+ * <p>
+ * The directories in the cache are shared, hence must not be modified by the callers.
+ * </p>
+ */
+public final class UnpackedJarCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(UnpackedJarCache.class);
+
+  // Note: We start with space to ensure this file goes first in case resources order is important
+  private static final String ARTIFACT_JAR_NAME = " artifact.jar";
+  private static final String TEMP_DIR_PREFIX = ".tmp-";
+  private static final String LOCK_FILE_SUFFIX = ".lock";
+  // Temporary directories older than this are left over by processes that stopped while unpacking
+  private static final long STALE_TEMP_DIR_MILLIS = TimeUnit.HOURS.toMillis(1);
+  private static final ConcurrentMap<File, UnpackedJarCache> CACHES = new ConcurrentHashMap<>();
+  // The lock files opened by this process. Closing any channel of a file releases all the locks
+  // that the process holds on it, hence each file is only opened once. Guarded by itself.
+  private static final Map<Path, LockFile> LOCK_FILES = new HashMap<>();
+
+  private final File cacheDir;
+  private final long maxSize;
+  // From the jar location, size and last modified time to the content hash, to avoid hashing a jar
+  // every time it is used.
+  private final Cache<String, String> contentHashes;
+  // The entries in least recently used order
+  private final LinkedHashMap<String, Entry> entries;
+  private long totalSize;
+
+  /**
+   * Returns the {@link UnpackedJarCache} for the cache directory set in the given configuration,
+   * or {@code null} if the cache is disabled.
+   */
+  @Nullable
+  public static UnpackedJarCache get(CConfiguration cConf) {
+    if (!cConf.getBoolean(Constants.AppFabric.UNPACK_CACHE_ENABLED)) {
+      return null;
+    }
+    File cacheDir = new File(cConf.get(Constants.AppFabric.UNPACK_CACHE_DIR)).getAbsoluteFile();
+    long maxSize = cConf.getLong(Constants.AppFabric.UNPACK_CACHE_MAX_SIZE_MB) * 1024 * 1024;
+    return CACHES.computeIfAbsent(cacheDir, dir -> new UnpackedJarCache(dir, maxSize));
+  }
+
+  @VisibleForTesting
+  UnpackedJarCache(File cacheDir, long maxSize) {
+    this.cacheDir = cacheDir;
+    this.maxSize = maxSize;
+    this.contentHashes = CacheBuilder.newBuilder().maximumSize(1000).build();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    loadEntries();
+  }
+
+  /**
+   * Returns a {@link ClassLoaderFolder} for the given jar, unpacking it into the cache if needed.
+   * The entry is kept in the cache until the returned {@link ClassLoaderFolder} is closed.
+   *
+   * @param jarLocation the {@link Location} of the jar file
+   * @return a {@link ClassLoaderFolder} with the directory containing the unpacked jar, which must
+   *     not be modified
+   * @throws IOException if failed to unpack the jar
+   */
+  public ClassLoaderFolder getClassLoaderFolder(Location jarLocation) throws IOException {
+    String hashKey = jarLocation.toURI() + "@" + jarLocation.length() + "@"
+        + jarLocation.lastModified();
+    String hash = contentHashes.getIfPresent(hashKey);
+    if (hash != null) {
+      // The memoized hash saves reading the jar, but callers may impersonate different users, so
+      // the jar is still opened to check that the caller can read it
+      jarLocation.getInputStream().close();
+      ClassLoaderFolder folder = acquire(hash);
+      if (folder != null) {
+        return folder;
+      }
+    }
+
+    Files.createDirectories(cacheDir.toPath());
+    File tempDir = new File(cacheDir, TEMP_DIR_PREFIX + UUID.randomUUID());
+    try {
+      // Link or copy the jar first, so that a remote jar is only read once
+      File jarFile = Locations.linkOrCopy(jarLocation, new File(tempDir, ARTIFACT_JAR_NAME));
+      hash = computeHash(jarFile);
+      contentHashes.put(hashKey, hash);
+
+      ClassLoaderFolder folder = acquire(hash);
+      if (folder != null) {
+        return folder;
+      }
+
+      BundleJarUtil.unJar(Locations.toLocation(jarFile), tempDir,
+          name -> name.equals(JarFile.MANIFEST_NAME) || name.endsWith(".jar"));
+      File entryDir = new File(cacheDir, hash);
+      try {
+        Files.move(tempDir.toPath(), entryDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        // Fails if the same jar was unpacked concurrently, in which case the existing one is used
+        if (!entryDir.isDirectory()) {
+          throw e;
+        }
+        LOG.trace("Jar {} was unpacked concurrently into {}", jarLocation, entryDir);
+      }
+      folder = acquire(hash);
+      if (folder == null) {
+        throw new IOException("Unpacked directory " + entryDir + " of jar " + jarLocation
+            + " was removed concurrently");
+      }
+      return folder;
+    } finally {
+      if (tempDir.exists()) {
+        DirUtils.deleteDirectoryContents(tempDir);
+      }
+    }
+  }
+
+  /**
+   * Populates the given directory with the unpacked content of the given jar, which is the same as
+   * the directory of the {@link ClassLoaderFolder} returned by {@link
+   * #getClassLoaderFolder(Location)}. Files are hard linked from the cache entry if possible, or
+   * copied otherwise. Unlike the cache entry, the target directory is owned by the caller.
+   *
+   * @param jarLocation the {@link Location} of the jar file
+   * @param targetDir the directory to populate
+   * @throws IOException if failed to unpack the jar or to populate the directory
+   */
+  public void copyTo(Location jarLocation, File targetDir) throws IOException {
+    try (ClassLoaderFolder folder = getClassLoaderFolder(jarLocation)) {
+      Path sourcePath = folder.getDir().toPath();
+      Path targetPath = targetDir.toPath();
+      Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+            throws IOException {
+          Files.createDirectories(targetPath.resolve(sourcePath.relativize(dir)));
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+            throws IOException {
+          Locations.linkOrCopy(Locations.toLocation(file.toFile()),
+              targetPath.resolve(sourcePath.relativize(file)).toFile());
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+  }
+
+  /**
+   * Returns the total size in bytes of the entries in the cache.
+   */
+  @VisibleForTesting
+  synchronized long getSize() {
+    return totalSize;
+  }
+
+  /**
+   * Returns a {@link ClassLoaderFolder} for the entry of the given hash, or {@code null} if there
+   * is no such entry.
+   */
+  @Nullable
+  private ClassLoaderFolder acquire(String hash) throws IOException {
+    List<File> evicted;
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(hash);
+      if (entry == null) {
+        entry = new Entry(new File(cacheDir, hash), -1L);
+      }
+      if (entry.refCount == 0) {
+        lockShared(getLockPath(hash));
+        // The entry may have been evicted by another process
+        if (!entry.dir.isDirectory()) {
+          unlock(getLockPath(hash));
+          if (entries.remove(hash) != null) {
+            totalSize -= entry.size;
+          }
+          return null;
+        }
+      }
+      if (entry.size < 0) {
+        try {
+          entry.size = getSize(entry.dir);
+        } catch (IOException e) {
+          unlock(getLockPath(hash));
+          throw e;
+        }
+        entries.put(hash, entry);
+        totalSize += entry.size;
+      }
+      entry.refCount++;
+      evicted = evict();
+    }
+    deleteEvicted(evicted);
+
+    Entry acquired = entry;
+    AtomicBoolean released = new AtomicBoolean();
+    return new ClassLoaderFolder(entry.dir, () -> {
+      if (released.compareAndSet(false, true)) {
+        release(acquired);
+      }
+    });
+  }
+
+  private void release(Entry entry) {
+    List<File> evicted;
+    synchronized (this) {
+      entry.refCount--;
+      if (entry.refCount == 0) {
+        unlock(getLockPath(entry.dir.getName()));
+      }
+      evicted = evict();
+    }
+    deleteEvicted(evicted);
+  }
+
+  /**
+   * Removes the least recently used entries that are not referenced by any process until the total
+   * size is within the maximum size. Each evicted directory is renamed while holding the exclusive
+   * lock of the entry before it gets deleted, so that it is never used while being deleted.
+   *
+   * @return the directories to delete
+   */
+  private List<File> evict() {
+    List<File> evicted = new ArrayList<>();
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (totalSize > maxSize && iterator.hasNext()) {
+      Map.Entry<String, Entry> mapEntry = iterator.next();
+      Entry entry = mapEntry.getValue();
+      if (entry.refCount > 0) {
+        continue;
+      }
+      Path lockPath = getLockPath(mapEntry.getKey());
+      try {
+        if (!tryLockExclusive(lockPath)) {
+          // Used by another process, or by another cache instance in this process
+          continue;
+        }
+      } catch (IOException e) {
+        LOG.warn("Failed to lock unpacked jar directory {} for eviction", entry.dir, e);
+        continue;
+      }
+      try {
+        if (entry.dir.isDirectory()) {
+          File evictedDir = new File(cacheDir, TEMP_DIR_PREFIX + UUID.randomUUID());
+          if (!entry.dir.renameTo(evictedDir)) {
+            LOG.warn("Failed to evict unpacked jar directory {}", entry.dir);
+            continue;
+          }
+          evicted.add(evictedDir);
+        }
+        // Otherwise it was evicted by another process already
+        iterator.remove();
+        totalSize -= entry.size;
+      } finally {
+        unlock(lockPath);
+      }
+    }
+    return evicted;
+  }
+
+  private Path getLockPath(String hash) {
+    return new File(cacheDir, hash + LOCK_FILE_SUFFIX).toPath().toAbsolutePath();
+  }
+
+  /**
+   * Acquires a shared lock on the given lock file for this process, blocking until it is acquired.
+   * The lock is reference counted, and is released once {@link #unlock(Path)} has been called as
+   * many times as it was acquired.
+   *
+   * @throws IOException if failed to lock the file
+   */
+  private static void lockShared(Path path) throws IOException {
+    synchronized (LOCK_FILES) {
+      LockFile lockFile = LOCK_FILES.get(path);
+      // Wait for an eviction in this process, which only holds the exclusive lock briefly
+      while (lockFile != null && lockFile.exclusive) {
+        try {
+          LOCK_FILES.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for the lock " + path);
+        }
+        lockFile = LOCK_FILES.get(path);
+      }
+      if (lockFile != null) {
+        lockFile.holders++;
+        return;
+      }
+
+      // Blocks while another process evicts the entry, which only takes a rename
+      FileChannel channel = open(path);
+      try {
+        channel.lock(0L, Long.MAX_VALUE, true);
+      } catch (IOException | RuntimeException e) {
+        Closeables.closeQuietly(channel);
+        throw e;
+      }
+      LOCK_FILES.put(path, new LockFile(channel, false));
+    }
+  }
+
+  /**
+   * Tries to acquire an exclusive lock on the given lock file for this process, which must be
+   * released with {@link #unlock(Path)}.
+   *
+   * @return {@code true} if the lock is acquired, or {@code false} if it is held by this process
+   *     or by another process
+   * @throws IOException if failed to lock the file
+   */
+  private static boolean tryLockExclusive(Path path) throws IOException {
+    synchronized (LOCK_FILES) {
+      if (LOCK_FILES.containsKey(path)) {
+        return false;
+      }
+      FileChannel channel = open(path);
+      try {
+        if (channel.tryLock() == null) {
+          channel.close();
+          return false;
+        }
+      } catch (IOException | RuntimeException e) {
+        Closeables.closeQuietly(channel);
+        throw e;
+      }
+      LOCK_FILES.put(path, new LockFile(channel, true));
+      return true;
+    }
+  }
+
+  /**
+   * Releases a lock acquired by {@link #lockShared(Path)} or {@link #tryLockExclusive(Path)}.
+   */
+  private static void unlock(Path path) {
+    synchronized (LOCK_FILES) {
+      LockFile lockFile = LOCK_FILES.get(path);
+      if (lockFile == null || --lockFile.holders > 0) {
+        return;
+      }
+      LOCK_FILES.remove(path);
+      Closeables.closeQuietly(lockFile.channel);
+      LOCK_FILES.notifyAll();
+    }
+  }
+
+  private static FileChannel open(Path path) throws IOException {
+    Files.createDirectories(path.getParent());
+    return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  private void deleteEvicted(List<File> evicted) {
+    for (File dir : evicted) {
+      try {
+        DirUtils.deleteDirectoryContents(dir);
+      } catch (IOException e) {
+        LOG.warn("Failed to delete evicted unpacked jar directory {}", dir, e);
+      }
+    }
+  }
+
+  /**
+   * Loads the entries left in the cache directory by previous processes, and deletes the stale
+   * temporary directories.
+   */
+  private void loadEntries() {
+    long staleTime = System.currentTimeMillis() - STALE_TEMP_DIR_MILLIS;
+    for (File file : DirUtils.listFiles(cacheDir, File::isDirectory)) {
+      try {
+        if (file.getName().startsWith(TEMP_DIR_PREFIX)) {
+          if (file.lastModified() < staleTime) {
+            DirUtils.deleteDirectoryContents(file);
+          }
+          continue;
+        }
+        Entry entry = new Entry(file, getSize(file));
+        entries.put(file.getName(), entry);
+        totalSize += entry.size;
+      } catch (IOException e) {
+        LOG.warn("Failed to load unpacked jar directory {}", file, e);
+      }
+    }
+    deleteEvicted(evict());
+  }
+
+  private static String computeHash(File file) throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream is = Files.newInputStream(file.toPath())) {
+      int len = is.read(buffer);
+      while (len >= 0) {
+        hasher.putBytes(buffer, 0, len);
+        len = is.read(buffer);
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  private static long getSize(File dir) throws IOException {
+    long[] size = new long[1];
+    Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        size[0] += attrs.size();
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return size[0];
+  }
+
+  /**
+   * An unpacked jar in the cache.
+   */
+  private static final class Entry {
+
+    private final File dir;
+    private long size;
+    private int refCount;
+
+    Entry(File dir, long size) {
+      this.dir = dir;
+      this.size = size;
+    }
+  }
+
+  /**
+   * A lock file opened by this process, with the number of holders of its lock.
+   */
+  private static final class LockFile {
+
+    private final FileChannel channel;
+    private final boolean exclusive;
+    private int holders;
+
+    LockFile(FileChannel channel, boolean exclusive) {
+      this.channel = channel;
+      this.exclusive = exclusive;
+      this.holders = 1;
+    }
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.store;
+
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.common.io.BinaryDecoder;
+import io.cdap.cdap.common.io.BinaryEncoder;
+import io.cdap.cdap.proto.ProgramRunCluster;
+import io.cdap.cdap.proto.ProgramRunClusterStatus;
+import io.cdap.cdap.proto.ProgramRunStatus;
+import io.cdap.cdap.proto.id.ProfileId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Compact, versioned binary encoding of {@link RunRecordDetail}, used by the run records table
+ * alongside the JSON encoding, which is kept for older readers.
+ *
+ * The encoded bytes start with the format version, followed by the run status, so that the status
+ * can be read without decoding the whole record. The scalar fields come next, and the properties
+ * and system arguments maps, which are the bulk of a record, are encoded last. The
+ * {@link ProgramRunId} is not encoded, since it is part of the row key.
+ *
+ * <p>Writers that store both encodings mark the JSON encoding with {@link #markJson(String)}.
+ * Older writers only update the JSON encoding, and drop the marker since they don't know about
+ * it, so a JSON encoding without the marker means the binary encoding next to it is stale.
+ */
+public final class RunRecordDetailCodec {
+
+  /**
+   * The current encoding format version.
+   */
+  public static final int VERSION = 1;
+
+  private static final String JSON_MARKER_SUFFIX = ",\"binaryEncoded\":true}";
+
+  /**
+   * Marks the given JSON encoding of a {@link RunRecordDetail} as written together with the
+   * binary encoding.
+   *
+   * @param json the JSON object encoding of the run record, which always has fields
+   * @return the JSON encoding with the marker field appended
+   */
+  public static String markJson(String json) {
+    if (!json.endsWith("}")) {
+      throw new IllegalArgumentException("Run record JSON is not an object: " + json);
+    }
+    return json.substring(0, json.length() - 1) + JSON_MARKER_SUFFIX;
+  }
+
+  /**
+   * Returns whether the binary encoding stored next to the given JSON encoding is up-to-date,
+   * which is the case if the JSON encoding is marked by {@link #markJson(String)}.
+   *
+   * @param json the JSON encoding of the run record, or {@code null} if there is none
+   */
+  public static boolean isBinaryCurrent(@Nullable String json) {
+    return json == null || json.endsWith(JSON_MARKER_SUFFIX);
+  }
+
+  /**
+   * Encodes the given {@link RunRecordDetail}.
+   */
+  public static byte[] encode(RunRecordDetail record) {
+    ByteArrayOutputStream os = new ByteArrayOutputStream(512);
+    BinaryEncoder encoder = new BinaryEncoder(os);
+    try {
+      encoder.writeInt(VERSION);
+      encoder.writeString(record.getStatus().name());
+      encoder.writeLong(record.getStartTs());
+      writeNullableLong(encoder, record.getRunTs());
+      writeNullableLong(encoder, record.getStopTs());
+      writeNullableLong(encoder, record.getSuspendTs());
+      writeNullableLong(encoder, record.getResumeTs());
+      writeNullableLong(encoder, record.getStoppingTs());
+      writeNullableLong(encoder, record.getTerminateTs());
+
+      ProgramRunCluster cluster = record.getCluster();
+      encoder.writeBool(cluster != null);
+      if (cluster != null) {
+        encoder.writeString(cluster.getStatus().name());
+        writeNullableLong(encoder, cluster.getEnd());
+        Integer numNodes = cluster.getNumNodes();
+        writeNullableLong(encoder, numNodes == null ? null : numNodes.longValue());
+      }
+
+      ProfileId profileId = record.getProfileId();
+      encoder.writeBool(profileId != null);
+      if (profileId != null) {
+        encoder.writeString(profileId.getNamespace());
+        encoder.writeString(profileId.getProfile());
+      }
+
+      writeNullableString(encoder, record.getPeerName());
+      writeNullableString(encoder, record.getTwillRunId());
+
+      byte[] sourceId = record.getSourceId();
+      encoder.writeBool(sourceId != null);
+      if (sourceId != null) {
+        encoder.writeBytes(sourceId);
+      }
+
+      ArtifactId artifactId = record.getArtifactId();
+      encoder.writeBool(artifactId != null);
+      if (artifactId != null) {
+        encoder.writeString(artifactId.getName());
+        encoder.writeString(artifactId.getVersion().getVersion());
+        encoder.writeString(artifactId.getScope().name());
+      }
+
+      writeNullableString(encoder, record.getPrincipal());
+      writeMap(encoder, record.getProperties());
+      writeMap(encoder, record.getSystemArgs());
+    } catch (IOException e) {
+      // Shouldn't happen since it is writing to memory
+      throw new IllegalStateException("Failed to encode run record " + record, e);
+    }
+    return os.toByteArray();
+  }
+
+  /**
+   * Decodes a {@link RunRecordDetail} from the given bytes.
+   *
+   * @param bytes the bytes as returned by {@link #encode(RunRecordDetail)}
+   * @param programRunId the {@link ProgramRunId} of the run record
+   * @return the decoded {@link RunRecordDetail}
+   * @throws IllegalArgumentException if the bytes cannot be decoded
+   */
+  public static RunRecordDetail decode(byte[] bytes, ProgramRunId programRunId) {
+    BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes));
+    try {
+      checkVersion(decoder);
+
+      RunRecordDetail.Builder builder = RunRecordDetail.builder()
+          .setProgramRunId(programRunId)
+          .setStatus(ProgramRunStatus.valueOf(decoder.readString()))
+          .setStartTime(decoder.readLong())
+          .setRunTime(readNullableLong(decoder))
+          .setStopTime(readNullableLong(decoder))
+          .setSuspendTime(readNullableLong(decoder))
+          .setResumeTime(readNullableLong(decoder))
+          .setStoppingTime(readNullableLong(decoder))
+          .setTerminateTs(readNullableLong(decoder));
+
+      if (decoder.readBool()) {
+        ProgramRunClusterStatus clusterStatus = ProgramRunClusterStatus.valueOf(
+            decoder.readString());
+        Long end = readNullableLong(decoder);
+        Long numNodes = readNullableLong(decoder);
+        builder.setCluster(new ProgramRunCluster(clusterStatus, end,
+            numNodes == null ? null : numNodes.intValue()));
+      }
+      if (decoder.readBool()) {
+        builder.setProfileId(new ProfileId(decoder.readString(), decoder.readString()));
+      }
+
+      builder.setPeerName(readNullableString(decoder));
+      builder.setTwillRunId(readNullableString(decoder));
+
+      if (decoder.readBool()) {
+        builder.setSourceId(toBytes(decoder.readBytes()));
+      }
+      if (decoder.readBool()) {
+        builder.setArtifactId(new ArtifactId(decoder.readString(),
+            new ArtifactVersion(decoder.readString()),
+            ArtifactScope.valueOf(decoder.readString())));
+      }
+
+      builder.setPrincipal(readNullableString(decoder));
+      builder.setProperties(readMap(decoder));
+      builder.setSystemArgs(readMap(decoder));
+      return builder.build();
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decode run record for " + programRunId, e);
+    }
+  }
+
+  /**
+   * Decodes only the {@link ProgramRunStatus} from the given bytes, without decoding the rest of
+   * the run record.
+   *
+   * @param bytes the bytes as returned by {@link #encode(RunRecordDetail)}
+   * @return the run status
+   * @throws IllegalArgumentException if the bytes cannot be decoded
+   */
+  public static ProgramRunStatus decodeStatus(byte[] bytes) {
+    BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes));
+    try {
+      checkVersion(decoder);
+      return ProgramRunStatus.valueOf(decoder.readString());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decode run record status", e);
+    }
+  }
+
+  private static void checkVersion(BinaryDecoder decoder) throws IOException {
+    int version = decoder.readInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported run record encoding version " + version);
+    }
+  }
+
+  private static void writeNullableLong(BinaryEncoder encoder,
+      @Nullable Long value) throws IOException {
+    encoder.writeBool(value != null);
+    if (value != null) {
+      encoder.writeLong(value);
+    }
+  }
+
+  @Nullable
+  private static Long readNullableLong(BinaryDecoder decoder) throws IOException {
+    return decoder.readBool() ? decoder.readLong() : null;
+  }
+
+  private static void writeNullableString(BinaryEncoder encoder,
+      @Nullable String value) throws IOException {
+    encoder.writeBool(value != null);
+    if (value != null) {
+      encoder.writeString(value);
+    }
+  }
+
+  @Nullable
+  private static String readNullableString(BinaryDecoder decoder) throws IOException {
+    return decoder.readBool() ? decoder.readString() : null;
+  }
+
+  private static void writeMap(BinaryEncoder encoder, Map<String, String> map) throws IOException {
+    encoder.writeInt(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      encoder.writeString(entry.getKey());
+      writeNullableString(encoder, entry.getValue());
+    }
+  }
+
+  private static Map<String, String> readMap(BinaryDecoder decoder) throws IOException {
+    int size = decoder.readInt();
+    Map<String, String> map = new HashMap<>(size * 4 / 3 + 1);
+    for (int i = 0; i < size; i++) {
+      map.put(decoder.readString(), readNullableString(decoder));
+    }
+    return map;
+  }
+
+  private static byte[] toBytes(ByteBuffer buffer) {
+    // BinaryDecoder always returns a buffer that wraps the whole array
+    return buffer.array();
+  }
+
+  private RunRecordDetailCodec() {
+    // no-op
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.internal.remote;
+
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link WarmPoolMonitor}.
+ */
+public class WarmPoolMonitorTest {
+
+  @Test
+  public void testMemoryGrowth() {
+    AtomicInteger gcCount = new AtomicInteger();
+    AtomicLong heap = new AtomicLong(1000L);
+    AtomicLong metaspace = new AtomicLong(100L);
+    WarmPoolMonitor monitor = new WarmPoolMonitor(500L, 50L, -1, gcCount::incrementAndGet,
+        heap::get, metaspace::get, Collections::emptyList);
+
+    // The first check sets the baseline
+    Assert.assertNull(monitor.checkRestart());
+    Assert.assertEquals(1, gcCount.get());
+
+    heap.set(1500L);
+    metaspace.set(150L);
+    Assert.assertNull(monitor.checkRestart());
+    Assert.assertEquals(2, gcCount.get());
+
+    heap.set(1501L);
+    Assert.assertNotNull(monitor.checkRestart());
+
+    heap.set(1000L);
+    metaspace.set(151L);
+    Assert.assertNotNull(monitor.checkRestart());
+  }
+
+  @Test
+  public void testLeakedClassLoaders() {
+    List<String> leaked = new ArrayList<>();
+    WarmPoolMonitor monitor = new WarmPoolMonitor(Long.MAX_VALUE, Long.MAX_VALUE, 1, () -> { },
+        () -> 0L, () -> 0L, () -> leaked);
+    Assert.assertNull(monitor.checkRestart());
+
+    leaked.add("cl1");
+    Assert.assertNull(monitor.checkRestart());
+    leaked.add("cl2");
+    Assert.assertNotNull(monitor.checkRestart());
+
+    // A negative maximum disables the check
+    monitor = new WarmPoolMonitor(Long.MAX_VALUE, Long.MAX_VALUE, -1, () -> { },
+        () -> 0L, () -> 0L, () -> leaked);
+    Assert.assertNull(monitor.checkRestart());
+    Assert.assertNull(monitor.checkRestart());
+  }
+
+  @Test
+  public void testDefaultMeasurements() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setBoolean(Constants.TaskWorker.WARM_POOL_ENABLED, true);
+    WarmPoolMonitor monitor = new WarmPoolMonitor(cConf);
+    Assert.assertNull(monitor.checkRestart());
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ClassLoaderLeakDetector}.
+ */
+public class ClassLoaderLeakDetectorTest {
+
+  @Test
+  public void testLeak() throws InterruptedException {
+    ClassLoaderLeakDetector detector = new ClassLoaderLeakDetector();
+    ClassLoader leaked = new URLClassLoader(new URL[0], null);
+    detector.watch(leaked, "leaked");
+    detector.watch(new URLClassLoader(new URL[0], null), "collected");
+
+    // The class loader that is no longer referenced is eventually collected
+    for (int i = 0; i < 10 && detector.getLeaked().size() > 1; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    Assert.assertEquals(Collections.singletonList("leaked"), detector.getLeaked());
+    Assert.assertNotNull(leaked);
+  }
+
+  @Test
+  public void testNotInstalled() {
+    // Only the task worker installs it, regardless of the configuration seen by other processes
+    Assert.assertNull(ClassLoaderLeakDetector.get());
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang.jar;
+
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.io.Locations;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link UnpackedJarCache}.
+ */
+public class UnpackedJarCacheTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testSharedEntry() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    UnpackedJarCache cache = new UnpackedJarCache(cacheDir, Long.MAX_VALUE);
+
+    // Jars with the same content are unpacked once
+    File jar1 = createJar(TEMP_FOLDER.newFile("jar1.jar"), "content");
+    File jar2 = new File(TEMP_FOLDER.newFolder(), "jar2.jar");
+    Files.copy(jar1.toPath(), jar2.toPath());
+    try (ClassLoaderFolder folder1 = cache.getClassLoaderFolder(Locations.toLocation(jar1));
+        ClassLoaderFolder folder2 = cache.getClassLoaderFolder(Locations.toLocation(jar2))) {
+      Assert.assertEquals(folder1.getDir(), folder2.getDir());
+      Assert.assertEquals(cacheDir, folder1.getDir().getParentFile());
+      Assert.assertEquals(ImmutableSet.of(" artifact.jar", JarFile.MANIFEST_NAME, "lib/nested.jar"),
+                          listFiles(folder1.getDir()));
+    }
+
+    // Closing the folders keeps the unpacked directory in the cache
+    Assert.assertEquals(1, cacheDir.listFiles(File::isDirectory).length);
+
+    // A jar with a different content is unpacked separately
+    File jar3 = createJar(TEMP_FOLDER.newFile("jar3.jar"), "other content");
+    try (ClassLoaderFolder folder1 = cache.getClassLoaderFolder(Locations.toLocation(jar1));
+        ClassLoaderFolder folder3 = cache.getClassLoaderFolder(Locations.toLocation(jar3))) {
+      Assert.assertNotEquals(folder1.getDir(), folder3.getDir());
+    }
+    Assert.assertEquals(2, cacheDir.listFiles(File::isDirectory).length);
+
+    // The entries are loaded by a new cache on the same directory
+    long size = cache.getSize();
+    Assert.assertTrue(size > 0);
+    Assert.assertEquals(size, new UnpackedJarCache(cacheDir, Long.MAX_VALUE).getSize());
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    UnpackedJarCache cache = new UnpackedJarCache(cacheDir, 0L);
+
+    File jar1 = createJar(TEMP_FOLDER.newFile(), "content1");
+    File jar2 = createJar(TEMP_FOLDER.newFile(), "content2");
+    ClassLoaderFolder folder1 = cache.getClassLoaderFolder(Locations.toLocation(jar1));
+    ClassLoaderFolder folder2 = cache.getClassLoaderFolder(Locations.toLocation(jar2));
+
+    // The entries in use are not evicted, even if the cache is full
+    Assert.assertTrue(folder1.getDir().isDirectory());
+    Assert.assertTrue(folder2.getDir().isDirectory());
+
+    // The entry is evicted once it is no longer used
+    folder1.close();
+    Assert.assertFalse(folder1.getDir().exists());
+    Assert.assertTrue(folder2.getDir().isDirectory());
+
+    // Closing again doesn't release the entry again
+    ClassLoaderFolder folder3 = cache.getClassLoaderFolder(Locations.toLocation(jar2));
+    folder2.close();
+    folder2.close();
+    Assert.assertTrue(folder3.getDir().isDirectory());
+    folder3.close();
+    Assert.assertFalse(folder3.getDir().exists());
+    Assert.assertEquals(0L, cache.getSize());
+  }
+
+  @Test
+  public void testEvictedByAnotherProcess() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    UnpackedJarCache cache = new UnpackedJarCache(cacheDir, Long.MAX_VALUE);
+    File jar = createJar(TEMP_FOLDER.newFile(), "content");
+    File dir;
+    try (ClassLoaderFolder folder = cache.getClassLoaderFolder(Locations.toLocation(jar))) {
+      dir = folder.getDir();
+    }
+
+    // Another cache with a smaller size evicts the entry that is no longer used
+    Assert.assertEquals(0L, new UnpackedJarCache(cacheDir, 0L).getSize());
+    Assert.assertFalse(dir.exists());
+
+    // The jar is unpacked again
+    try (ClassLoaderFolder folder = cache.getClassLoaderFolder(Locations.toLocation(jar))) {
+      Assert.assertEquals(dir, folder.getDir());
+      Assert.assertEquals(ImmutableSet.of(" artifact.jar", JarFile.MANIFEST_NAME, "lib/nested.jar"),
+                          listFiles(folder.getDir()));
+    }
+    Assert.assertEquals(cache.getSize(), new UnpackedJarCache(cacheDir, Long.MAX_VALUE).getSize());
+  }
+
+  @Test
+  public void testSharedByCachesInProcess() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    UnpackedJarCache cache1 = new UnpackedJarCache(cacheDir, Long.MAX_VALUE);
+    UnpackedJarCache cache2 = new UnpackedJarCache(cacheDir, 0L);
+    File jar = createJar(TEMP_FOLDER.newFile(), "content");
+
+    try (ClassLoaderFolder folder1 = cache1.getClassLoaderFolder(Locations.toLocation(jar))) {
+      // Both caches hold the lock of the entry at the same time
+      try (ClassLoaderFolder folder2 = cache2.getClassLoaderFolder(Locations.toLocation(jar))) {
+        Assert.assertEquals(folder1.getDir(), folder2.getDir());
+      }
+
+      // Releasing it in one cache doesn't release it for the other one
+      Assert.assertTrue(folder1.getDir().isDirectory());
+      Assert.assertTrue(new UnpackedJarCache(cacheDir, 0L).getSize() > 0L);
+      Assert.assertTrue(folder1.getDir().isDirectory());
+    }
+
+    // The entry is evicted once no cache uses it
+    Assert.assertEquals(0L, new UnpackedJarCache(cacheDir, 0L).getSize());
+    Assert.assertEquals(0, cacheDir.listFiles(File::isDirectory).length);
+  }
+
+  @Test
+  public void testCopyTo() throws IOException {
+    UnpackedJarCache cache = new UnpackedJarCache(TEMP_FOLDER.newFolder(), Long.MAX_VALUE);
+    File jar = createJar(TEMP_FOLDER.newFile(), "content");
+    File targetDir = TEMP_FOLDER.newFolder();
+    cache.copyTo(Locations.toLocation(jar), targetDir);
+
+    Assert.assertEquals(ImmutableSet.of(" artifact.jar", JarFile.MANIFEST_NAME, "lib/nested.jar"),
+                        listFiles(targetDir));
+    Assert.assertEquals(jar.length(), new File(targetDir, " artifact.jar").length());
+  }
+
+  @Test
+  public void testDisabled() throws IOException {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.set(Constants.AppFabric.UNPACK_CACHE_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
+    Assert.assertSame(UnpackedJarCache.get(cConf), UnpackedJarCache.get(cConf));
+
+    cConf.setBoolean(Constants.AppFabric.UNPACK_CACHE_ENABLED, false);
+    Assert.assertNull(UnpackedJarCache.get(cConf));
+
+    // Without the cache, the jar is unpacked into the given directory
+    File jar = createJar(TEMP_FOLDER.newFile(), "content");
+    File targetDir = TEMP_FOLDER.newFolder();
+    try (ClassLoaderFolder folder = BundleJarUtil.prepareClassLoaderFolder(
+      cConf, Locations.toLocation(jar), () -> targetDir)) {
+      Assert.assertEquals(targetDir, folder.getDir());
+    }
+  }
+
+  private File createJar(File file, String content) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    try (JarOutputStream output = new JarOutputStream(new FileOutputStream(file), manifest)) {
+      output.putNextEntry(new JarEntry("lib/nested.jar"));
+      output.write(content.getBytes(StandardCharsets.UTF_8));
+      output.closeEntry();
+      output.putNextEntry(new JarEntry("test/Test.class"));
+      output.write(content.getBytes(StandardCharsets.UTF_8));
+      output.closeEntry();
+    }
+    return file;
+  }
+
+  private Set<String> listFiles(File dir) throws IOException {
+    Path path = dir.toPath();
+    try (Stream<Path> files = Files.walk(path)) {
+      return files.filter(Files::isRegularFile)
+        .map(file -> path.relativize(file).toString())
+        .collect(Collectors.toSet());
+    }
+  }
+}
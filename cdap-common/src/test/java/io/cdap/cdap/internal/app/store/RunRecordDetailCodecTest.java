@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.store;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.proto.ProgramRunCluster;
+import io.cdap.cdap.proto.ProgramRunClusterStatus;
+import io.cdap.cdap.proto.ProgramRunStatus;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProfileId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RunRecordDetailCodec}.
+ */
+public class RunRecordDetailCodecTest {
+
+  private static final ProgramRunId PROGRAM_RUN_ID =
+      NamespaceId.DEFAULT.app("app").workflow("workflow").run(RunIds.generate());
+
+  @Test
+  public void testAllFields() {
+    RunRecordDetail record = RunRecordDetail.builder()
+        .setProgramRunId(PROGRAM_RUN_ID)
+        .setStatus(ProgramRunStatus.COMPLETED)
+        .setStartTime(100L)
+        .setRunTime(110L)
+        .setStopTime(200L)
+        .setSuspendTime(120L)
+        .setResumeTime(130L)
+        .setStoppingTime(190L)
+        .setTerminateTs(300L)
+        .setProperties(ImmutableMap.of("runtimeArgs", "{\"k\":\"v\"}", "node", "run"))
+        .setSystemArgs(ImmutableMap.of("profile", "native", "unicode", "\u00e9\u4e2d"))
+        .setCluster(new ProgramRunCluster(ProgramRunClusterStatus.DEPROVISIONED, 210L, 3))
+        .setProfileId(NamespaceId.SYSTEM.profile("native"))
+        .setPeerName("peer")
+        .setTwillRunId("twill")
+        .setSourceId("source".getBytes(StandardCharsets.UTF_8))
+        .setArtifactId(new ArtifactId("artifact", new ArtifactVersion("1.0.0"),
+            ArtifactScope.SYSTEM))
+        .setPrincipal("principal")
+        .build();
+
+    byte[] encoded = RunRecordDetailCodec.encode(record);
+    Assert.assertEquals(record, RunRecordDetailCodec.decode(encoded, PROGRAM_RUN_ID));
+    Assert.assertEquals(ProgramRunStatus.COMPLETED, RunRecordDetailCodec.decodeStatus(encoded));
+
+    // The binary encoding should be more compact than the JSON encoding
+    Assert.assertTrue(encoded.length < new Gson().toJson(record).length());
+  }
+
+  @Test
+  public void testNullFields() {
+    RunRecordDetail record = RunRecordDetail.builder()
+        .setProgramRunId(PROGRAM_RUN_ID)
+        .setStatus(ProgramRunStatus.PENDING)
+        .setStartTime(100L)
+        .setCluster(new ProgramRunCluster(ProgramRunClusterStatus.PROVISIONING, null, null))
+        .setProfileId(ProfileId.NATIVE)
+        .setSourceId(new byte[] { 1, 2, 3 })
+        .build();
+
+    byte[] encoded = RunRecordDetailCodec.encode(record);
+    RunRecordDetail decoded = RunRecordDetailCodec.decode(encoded, PROGRAM_RUN_ID);
+    Assert.assertEquals(record,
+        RunRecordDetail.builder(decoded).setProgramRunId(PROGRAM_RUN_ID).build());
+    Assert.assertEquals(record.getCluster().getStatus(), decoded.getCluster().getStatus());
+    Assert.assertNull(decoded.getCluster().getNumNodes());
+    Assert.assertEquals(ProfileId.NATIVE, decoded.getProfileId());
+    Assert.assertTrue(decoded.getSystemArgs().isEmpty());
+    Assert.assertEquals(ProgramRunStatus.PENDING, RunRecordDetailCodec.decodeStatus(encoded));
+  }
+
+  @Test
+  public void testJsonMarker() {
+    RunRecordDetail record = RunRecordDetail.builder()
+        .setProgramRunId(PROGRAM_RUN_ID)
+        .setStatus(ProgramRunStatus.RUNNING)
+        .setStartTime(100L)
+        .build();
+    Gson gson = new Gson();
+    String marked = RunRecordDetailCodec.markJson(gson.toJson(record));
+    Assert.assertTrue(RunRecordDetailCodec.isBinaryCurrent(marked));
+    Assert.assertTrue(RunRecordDetailCodec.isBinaryCurrent(null));
+
+    // Readers that don't know about the marker ignore it, and drop it when rewriting the record
+    RunRecordDetail decoded = gson.fromJson(marked, RunRecordDetail.class);
+    Assert.assertEquals(record,
+        RunRecordDetail.builder(decoded).setProgramRunId(PROGRAM_RUN_ID).build());
+    Assert.assertFalse(RunRecordDetailCodec.isBinaryCurrent(gson.toJson(decoded)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedVersion() {
+    // Zig-zag encoding of the int 2
+    RunRecordDetailCodec.decodeStatus(new byte[] { 4 });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncated() {
+    RunRecordDetail record = RunRecordDetail.builder()
+        .setProgramRunId(PROGRAM_RUN_ID)
+        .setStatus(ProgramRunStatus.RUNNING)
+        .setStartTime(100L)
+        .setCluster(new ProgramRunCluster(ProgramRunClusterStatus.PROVISIONED, null, 1))
+        .setSourceId(new byte[] { 1 })
+        .build();
+    byte[] encoded = RunRecordDetailCodec.encode(record);
+    byte[] truncated = new byte[encoded.length / 2];
+    System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+    RunRecordDetailCodec.decode(truncated, PROGRAM_RUN_ID);
+  }
+}
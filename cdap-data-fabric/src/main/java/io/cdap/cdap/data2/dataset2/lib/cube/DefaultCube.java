@@ -16,15 +16,18 @@
 
 package io.cdap.cdap.data2.dataset2.lib.cube;
 
-import com.google.common.collect.HashBasedTable;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.PeekingIterator;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
 import io.cdap.cdap.api.dataset.lib.cube.AggregationOption;
@@ -34,6 +37,10 @@ import io.cdap.cdap.api.dataset.lib.cube.CubeExploreQuery;
 import io.cdap.cdap.api.dataset.lib.cube.CubeFact;
 import io.cdap.cdap.api.dataset.lib.cube.CubeQuery;
 import io.cdap.cdap.api.dataset.lib.cube.DimensionValue;
+import io.cdap.cdap.api.dataset.lib.cube.Interpolator;
+import io.cdap.cdap.api.dataset.lib.cube.Interpolators;
+import io.cdap.cdap.api.dataset.lib.cube.MeasureType;
+import io.cdap.cdap.api.dataset.lib.cube.Measurement;
 import io.cdap.cdap.api.dataset.lib.cube.TimeSeries;
 import io.cdap.cdap.api.dataset.lib.cube.TimeValue;
 import io.cdap.cdap.api.dataset.metrics.MeteredDataset;
@@ -53,9 +60,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -63,8 +73,10 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
@@ -82,6 +94,8 @@ public class DefaultCube implements Cube, MeteredDataset {
   private static final DimensionValueComparator DIMENSION_VALUE_COMPARATOR = new DimensionValueComparator();
   // hard-limit on max records to scan
   private static final int MAX_RECORDS_TO_SCAN = 100 * 1000;
+  // max number of query results to cache
+  private static final int MAX_CACHED_QUERIES = 1000;
   private static final EnumSet<AggregationOption> PARTITION_AGG_OPTIONS = EnumSet.of(
       AggregationOption.LATEST,
       AggregationOption.SUM);
@@ -91,6 +105,13 @@ public class DefaultCube implements Cube, MeteredDataset {
   private final Map<String, AggregationAlias> aggregationAliasMap;
   private final ExecutorService executorService;
   private final int writeParallelism;
+  private final int queryParallelism;
+  // resolutions which are computed by rollup instead of being written by add
+  private final Set<Integer> rollupResolutions;
+  @Nullable
+  private final Cache<QueryKey, CachedResult> queryCache;
+  // incremented on every write, to avoid caching results of queries concurrent with writes
+  private final AtomicLong cacheVersion = new AtomicLong();
 
   @Nullable
   private MetricsCollector metrics;
@@ -112,6 +133,24 @@ public class DefaultCube implements Cube, MeteredDataset {
       Map<String, ? extends Aggregation> aggregations,
       Map<String, AggregationAlias> aggregationAliasMap,
       int writeParallelism) {
+    this(resolutions, factTableSupplier, aggregations, aggregationAliasMap, writeParallelism,
+        1, 0L, Collections.emptySet());
+  }
+
+  /**
+   * Creates a cube that can do up to writeParallelism parallel computations when writing data to
+   * each resolution table, and up to queryParallelism parallel scans for a query. Query results
+   * are cached for queryCacheTTLMillis, or not cached if it is not positive. A cached result
+   * expires when the cube writes data in its time range, and when a new time window of the query
+   * resolution starts. Writes from other processes only become visible when the cached result
+   * expires, hence the result cache should only be enabled if the data can be stale for that long.
+   * Facts are not written to the rollupResolutions, which are computed by {@link #rollup}.
+   */
+  public DefaultCube(int[] resolutions, FactTableSupplier factTableSupplier,
+      Map<String, ? extends Aggregation> aggregations,
+      Map<String, AggregationAlias> aggregationAliasMap,
+      int writeParallelism, int queryParallelism, long queryCacheTTLMillis,
+      Set<Integer> rollupResolutions) {
     this.aggregations = aggregations;
     this.resolutionToFactTable = Maps.newHashMap();
     for (int resolution : resolutions) {
@@ -119,6 +158,12 @@ public class DefaultCube implements Cube, MeteredDataset {
     }
     this.aggregationAliasMap = aggregationAliasMap;
     this.writeParallelism = writeParallelism;
+    this.queryParallelism = Math.max(queryParallelism, 1);
+    this.rollupResolutions = ImmutableSet.copyOf(rollupResolutions);
+    this.queryCache = queryCacheTTLMillis <= 0 ? null : CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_QUERIES)
+        .expireAfterWrite(queryCacheTTLMillis, TimeUnit.MILLISECONDS)
+        .build();
     ThreadPoolExecutor executor = new ThreadPoolExecutor(resolutions.length * this.writeParallelism,
         resolutions.length * this.writeParallelism,
         30, TimeUnit.SECONDS,
@@ -175,6 +220,9 @@ public class DefaultCube implements Cube, MeteredDataset {
     Map<Integer, List<Future<?>>> futures = new HashMap<>();
     Consumer<List<Fact>> batchWriter = batch -> {
       for (Map.Entry<Integer, FactTable> table : resolutionToFactTable.entrySet()) {
+        if (rollupResolutions.contains(table.getKey())) {
+          continue;
+        }
         Future<?> future = executorService.submit(
             () -> numUpdates.addAndGet(table.getValue().add(batch)));
         futures.computeIfAbsent(table.getKey(), k -> new ArrayList<>()).add(future);
@@ -221,6 +269,10 @@ public class DefaultCube implements Cube, MeteredDataset {
       }
     }
 
+    if (numFacts > 0) {
+      invalidateQueryCache(minTimestamp, maxTimestamp);
+    }
+
     if (failed) {
       throw new RuntimeException(failedMessage.append(".").toString(), failedException);
     }
@@ -229,7 +281,8 @@ public class DefaultCube implements Cube, MeteredDataset {
     incrementMetric("cube.cubeFact.added.count", facts.size());
     incrementMetric("cube.tsFact.created.count", numFacts);
     incrementMetric("cube.tsFact.created.dimValues.count", dimValuesCount);
-    incrementMetric("cube.tsFact.added.count", numFacts * resolutionToFactTable.size());
+    incrementMetric("cube.tsFact.added.count",
+        numFacts * (resolutionToFactTable.size() - rollupResolutions.size()));
     if (numFacts > 0) {
       long avgTimestamp = sumTimestamp / numFacts;
       PROGRESS_LOG.debug(
@@ -288,6 +341,18 @@ public class DefaultCube implements Cube, MeteredDataset {
               query.toString());
     }
 
+    QueryKey cacheKey = queryCache == null ? null : QueryKey.of(query);
+    // the version must be read before scanning, so that the result of a scan concurrent with a
+    // write is not cached
+    long version = cacheVersion.get();
+    if (cacheKey != null) {
+      CachedResult cached = queryCache.getIfPresent(cacheKey);
+      if (cached != null && cached.window == getResolutionWindow(query.getResolution())) {
+        incrementMetric("cube.query.cache.hit.count", 1);
+        return new ArrayList<>(cached.timeSeries);
+      }
+    }
+
     // 1) find aggregation to query
     Aggregation agg;
     String aggName;
@@ -323,23 +388,105 @@ public class DefaultCube implements Cube, MeteredDataset {
           new DimensionValue(dimensionName, query.getDimensionValues().get(dimensionName)));
     }
 
-    FactScan scan = new FactScan(query.getStartTs(), query.getEndTs(),
-        query.getMeasurements().keySet(), dimensionValues);
-
     // 3) execute scan query
     FactTable table = resolutionToFactTable.get(query.getResolution());
-    FactScanner scanner = table.scan(scan);
-    Table<Map<String, String>, String, Map<Long, Long>> resultMap = getTimeSeries(query, scanner);
+    Map<Map<String, String>, Map<String, TimeValueAggregator>> resultMap =
+        scanTimeSeries(query, table, dimensionValues);
 
     incrementMetric("cube.query.request.success.count", 1);
-    incrementMetric("cube.query.result.size", resultMap.size());
+    incrementMetric("cube.query.result.size",
+        resultMap.values().stream().mapToInt(Map::size).sum());
 
     Collection<TimeSeries> timeSeries = convertToQueryResult(query, resultMap);
     incrementMetric("cube.query.result.timeseries.count", timeSeries.size());
 
+    if (cacheKey != null && cacheVersion.get() == version) {
+      queryCache.put(cacheKey, new CachedResult(getResolutionWindow(query.getResolution()),
+          ImmutableList.copyOf(timeSeries)));
+    }
     return timeSeries;
   }
 
+  /**
+   * Computes the facts of a rollup resolution in the given time range from the facts of a finer
+   * resolution. The facts in the time range are replaced, hence the rollup of a time range can be
+   * repeated. Values of gauges are the latest values in each interval of the rollup resolution, and
+   * values of other measures are summed. The time range must only contain complete intervals, and
+   * the facts of the finer resolution must be complete in the time range.
+   *
+   * @param sourceResolution resolution to read the facts from
+   * @param targetResolution resolution to write the facts to, a multiple of the source resolution
+   * @param startTs start of the time range in seconds, inclusive
+   * @param endTs end of the time range in seconds, exclusive
+   * @param isGauge tells if a measure name is a gauge
+   * @return number of values written
+   */
+  public int rollup(int sourceResolution, int targetResolution, long startTs, long endTs,
+      Predicate<String> isGauge) {
+    FactTable source = resolutionToFactTable.get(sourceResolution);
+    FactTable target = resolutionToFactTable.get(targetResolution);
+    Preconditions.checkArgument(source != null && target != null,
+        "Cannot rollup from resolution %s to %s, the cube resolutions are %s",
+        sourceResolution, targetResolution, resolutionToFactTable.keySet());
+    Preconditions.checkArgument(targetResolution % sourceResolution == 0
+            && startTs % targetResolution == 0 && endTs % targetResolution == 0,
+        "Cannot rollup from resolution %s to %s in time range [%s, %s)",
+        sourceResolution, targetResolution, startTs, endTs);
+
+    int count = 0;
+    // aggregations with the same dimensions are stored in the same rows
+    Set<List<String>> dimensionNamesScanned = new HashSet<>();
+    for (Aggregation agg : aggregations.values()) {
+      if (!dimensionNamesScanned.add(agg.getDimensionNames())) {
+        continue;
+      }
+      List<DimensionValue> dimensionValues = new ArrayList<>();
+      for (String dimensionName : agg.getDimensionNames()) {
+        dimensionValues.add(new DimensionValue(dimensionName, null));
+      }
+
+      // {dimension values, measure} -> {time -> value}s
+      Map<ImmutablePair<List<DimensionValue>, String>, TimeValueAggregator> values =
+          new HashMap<>();
+      FactScanner scanner = source.scan(new FactScan(startTs, endTs - 1, dimensionValues));
+      try {
+        while (scanner.hasNext()) {
+          FactScanResult next = scanner.next();
+          TimeValueAggregator timeValues = values.computeIfAbsent(
+              new ImmutablePair<>(next.getDimensionValues(), next.getMeasureName()),
+              k -> new TimeValueAggregator(isGauge.test(k.getSecond())
+                  ? AggregationFunction.LATEST : AggregationFunction.SUM));
+          // values of a series are scanned in time order, hence the latest value is added last
+          for (TimeValue timeValue : next) {
+            timeValues.add(timeValue.getTimestamp() / targetResolution * targetResolution,
+                timeValue.getValue());
+          }
+        }
+      } finally {
+        scanner.close();
+      }
+
+      List<Fact> facts = new ArrayList<>();
+      for (Map.Entry<ImmutablePair<List<DimensionValue>, String>, TimeValueAggregator> entry
+          : values.entrySet()) {
+        for (TimeValue timeValue : entry.getValue().getTimeValues()) {
+          facts.add(new Fact(timeValue.getTimestamp(), entry.getKey().getFirst(),
+              new Measurement(entry.getKey().getSecond(), MeasureType.GAUGE,
+                  timeValue.getValue())));
+        }
+      }
+      if (!facts.isEmpty()) {
+        count += target.put(facts);
+      }
+    }
+
+    if (count > 0) {
+      invalidateQueryCache(startTs, endTs - 1);
+    }
+    incrementMetric("cube.rollup." + targetResolution + ".count", count);
+    return count;
+  }
+
   @Override
   public void delete(CubeDeleteQuery query) {
     //this may be very inefficient and its better to use TTL, this is to only support existing old functionality.
@@ -359,6 +506,10 @@ public class DefaultCube implements Cube, MeteredDataset {
         factTable.delete(scan);
       }
     }
+    if (queryCache != null) {
+      cacheVersion.incrementAndGet();
+      queryCache.invalidateAll();
+    }
   }
 
   @Override
@@ -432,6 +583,30 @@ public class DefaultCube implements Cube, MeteredDataset {
     }
   }
 
+  /**
+   * Invalidates the cached query results which may include facts with timestamps in the given
+   * range.
+   */
+  private void invalidateQueryCache(long minTimestamp, long maxTimestamp) {
+    if (queryCache == null) {
+      return;
+    }
+    cacheVersion.incrementAndGet();
+    // timestamps are rounded down to the resolution when stored
+    queryCache.asMap().keySet().removeIf(
+        key -> key.startTs <= maxTimestamp
+            && key.endTs >= minTimestamp / key.resolution * key.resolution);
+  }
+
+  /**
+   * Returns the index of the current time window of the given resolution. A cached query result is
+   * only used in the window it was computed in, since new data is aggregated into the latest
+   * window.
+   */
+  private static long getResolutionWindow(int resolution) {
+    return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) / resolution;
+  }
+
   @Nullable
   private ImmutablePair<String, Aggregation> findAggregation(CubeQuery query) {
     ImmutablePair<String, Aggregation> currentBest = null;
@@ -452,97 +627,156 @@ public class DefaultCube implements Cube, MeteredDataset {
     return currentBest;
   }
 
-  private Table<Map<String, String>, String, Map<Long, Long>> getTimeSeries(CubeQuery query,
-      FactScanner scanner) {
-    // {dimension values, measure} -> {time -> value}s
-    Table<Map<String, String>, String, Map<Long, Long>> result = HashBasedTable.create();
+  /**
+   * Scans the fact table for the given query, and returns the aggregated values of the time
+   * series by the group by dimension values and the measure name.
+   */
+  private Map<Map<String, String>, Map<String, TimeValueAggregator>> scanTimeSeries(
+      CubeQuery query, FactTable table, List<DimensionValue> dimensionValues) {
+    // shared by the sub-scans, to bound the total number of records scanned
+    AtomicInteger scannedRecords = new AtomicInteger();
+    List<FactScan> scans = createSubScans(query, dimensionValues);
+    if (scans.size() == 1) {
+      return scanTimeSeries(query, table, scans.get(0), scannedRecords);
+    }
+
+    // the last sub-scan is done in the calling thread
+    List<Future<Map<Map<String, String>, Map<String, TimeValueAggregator>>>> futures =
+        new ArrayList<>();
+    Map<Map<String, String>, Map<String, TimeValueAggregator>> result;
+    try {
+      for (FactScan scan : scans.subList(0, scans.size() - 1)) {
+        futures.add(executorService.submit(
+            () -> scanTimeSeries(query, table, scan, scannedRecords)));
+      }
+      result = scanTimeSeries(query, table, scans.get(scans.size() - 1), scannedRecords);
+
+      for (Future<Map<Map<String, String>, Map<String, TimeValueAggregator>>> future : futures) {
+        for (Map.Entry<Map<String, String>, Map<String, TimeValueAggregator>> series
+            : Uninterruptibles.getUninterruptibly(future).entrySet()) {
+          Map<String, TimeValueAggregator> measures =
+              result.computeIfAbsent(series.getKey(), k -> new HashMap<>());
+          series.getValue().forEach((measure, timeValues) -> measures.merge(measure, timeValues,
+              (existing, other) -> {
+                existing.addAll(other);
+                return existing;
+              }));
+        }
+      }
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Splits the scan for the given query into up to queryParallelism sub-scans, by measure names
+   * and by time range. Facts are stored in rows keyed by the aggregation and the time base,
+   * followed by the dimension values and the measure name, hence each sub-scan reads a different
+   * key range, except for the rows at the time range boundaries.
+   */
+  private List<FactScan> createSubScans(CubeQuery query, List<DimensionValue> dimensionValues) {
+    List<String> measureNames = new ArrayList<>(query.getMeasurements().keySet());
+    List<List<String>> measurePartitions = measureNames.size() < 2
+        ? Collections.singletonList(measureNames)
+        : Lists.partition(measureNames,
+            (measureNames.size() + queryParallelism - 1) / queryParallelism);
+
+    long startTs = query.getStartTs();
+    long endTs = query.getEndTs();
+    long steps = Math.max((endTs - startTs) / query.getResolution() + 1, 1L);
+    int timeSplits = (int) Math.min(queryParallelism / measurePartitions.size(), steps);
+
+    List<FactScan> scans = new ArrayList<>();
+    for (List<String> measures : measurePartitions) {
+      for (int i = 0; i < timeSplits; i++) {
+        long splitStartTs = startTs + steps * i / timeSplits * query.getResolution();
+        long splitEndTs = i == timeSplits - 1
+            ? endTs : startTs + steps * (i + 1) / timeSplits * query.getResolution() - 1;
+        scans.add(new FactScan(splitStartTs, splitEndTs, measures, dimensionValues));
+      }
+    }
+    return scans;
+  }
 
+  private Map<Map<String, String>, Map<String, TimeValueAggregator>> scanTimeSeries(
+      CubeQuery query, FactTable table, FactScan scan, AtomicInteger scannedRecords) {
+    // {dimension values} -> {measure -> {time -> value}s}
+    Map<Map<String, String>, Map<String, TimeValueAggregator>> result = new HashMap<>();
+
+    FactScanner scanner = table.scan(scan);
     int count = 0;
-    while (scanner.hasNext()) {
-      FactScanResult next = scanner.next();
-      incrementMetric("cube.query.scan.records.count", 1);
-
-      boolean skip = false;
-      // using tree map, as we are using it as a key for a map
-      Map<String, String> seriesDimensions = Maps.newTreeMap();
-      for (String dimensionName : query.getGroupByDimensions()) {
-        // todo: use Map<String, String> instead of List<DimensionValue> into a String, String, everywhere
-        for (DimensionValue dimensionValue : next.getDimensionValues()) {
-          if (dimensionName.equals(dimensionValue.getName())) {
-            if (dimensionValue.getValue() == null) {
-              // Currently, we do NOT return null as grouped by value.
-              // Depending on whether dimension is required or not the records with null value in it may or may not be
-              // in aggregation. At this moment, the choosing of the aggregation for query doesn't look at this, so
-              // potentially null may or may not be included in results, depending on the aggregation selected
-              // querying. We don't want to produce inconsistent results varying due to different aggregations selected,
-              // so don't return nulls in any of those cases.
-              skip = true;
-              continue;
+    int skipped = 0;
+    try {
+      while (scanner.hasNext()) {
+        FactScanResult next = scanner.next();
+        count++;
+
+        boolean skip = false;
+        // using tree map, as we are using it as a key for a map
+        Map<String, String> seriesDimensions = Maps.newTreeMap();
+        for (String dimensionName : query.getGroupByDimensions()) {
+          // todo: use Map<String, String> instead of List<DimensionValue> into a String, String, everywhere
+          for (DimensionValue dimensionValue : next.getDimensionValues()) {
+            if (dimensionName.equals(dimensionValue.getName())) {
+              if (dimensionValue.getValue() == null) {
+                // Currently, we do NOT return null as grouped by value.
+                // Depending on whether dimension is required or not the records with null value in it may or may not
+                // be in aggregation. At this moment, the choosing of the aggregation for query doesn't look at this,
+                // so potentially null may or may not be included in results, depending on the aggregation selected
+                // querying. We don't want to produce inconsistent results varying due to different aggregations
+                // selected, so don't return nulls in any of those cases.
+                skip = true;
+                continue;
+              }
+              seriesDimensions.put(dimensionName, dimensionValue.getValue());
+              break;
             }
-            seriesDimensions.put(dimensionName, dimensionValue.getValue());
-            break;
           }
         }
-      }
-
-      if (skip) {
-        incrementMetric("cube.query.scan.skipped.count", 1);
-        continue;
-      }
 
-      for (TimeValue timeValue : next) {
-        Map<Long, Long> timeValues = result.get(seriesDimensions, next.getMeasureName());
-        if (timeValues == null) {
-          result.put(seriesDimensions, next.getMeasureName(), Maps.<Long, Long>newHashMap());
+        if (skip) {
+          skipped++;
+          continue;
         }
 
-        AggregationFunction function = query.getMeasurements().get(next.getMeasureName());
-        if (AggregationFunction.SUM == function) {
-          Long value = result.get(seriesDimensions, next.getMeasureName())
-              .get(timeValue.getTimestamp());
-          value = value == null ? 0 : value;
-          value += timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
-        } else if (AggregationFunction.MAX == function) {
-          Long value = result.get(seriesDimensions, next.getMeasureName())
-              .get(timeValue.getTimestamp());
-          value = value != null && value > timeValue.getValue() ? value : timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
-        } else if (AggregationFunction.MIN == function) {
-          Long value = result.get(seriesDimensions, next.getMeasureName())
-              .get(timeValue.getTimestamp());
-          value = value != null && value < timeValue.getValue() ? value : timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
-        } else if (AggregationFunction.LATEST == function) {
-          result.get(seriesDimensions, next.getMeasureName())
-              .put(timeValue.getTimestamp(), timeValue.getValue());
-        } else {
-          // should never happen: developer error
-          throw new RuntimeException("Unknown MeasureType: " + function);
+        TimeValueAggregator timeValues = null;
+        for (TimeValue timeValue : next) {
+          if (timeValues == null) {
+            timeValues = result.computeIfAbsent(seriesDimensions, k -> new HashMap<>())
+                .computeIfAbsent(next.getMeasureName(),
+                    k -> new TimeValueAggregator(query.getMeasurements().get(k)));
+          }
+          timeValues.add(timeValue.getTimestamp(), timeValue.getValue());
+        }
+        if (scannedRecords.incrementAndGet() >= MAX_RECORDS_TO_SCAN) {
+          break;
         }
       }
-      if (++count >= MAX_RECORDS_TO_SCAN) {
-        break;
-      }
+    } finally {
+      scanner.close();
+      incrementMetric("cube.query.scan.records.count", count);
+      incrementMetric("cube.query.scan.skipped.count", skipped);
     }
     return result;
   }
 
   private Collection<TimeSeries> convertToQueryResult(
-      CubeQuery query, Table<Map<String, String>, String, Map<Long, Long>> resultTable) {
+      CubeQuery query, Map<Map<String, String>, Map<String, TimeValueAggregator>> resultMap) {
     List<TimeSeries> result = new ArrayList<>();
     // iterating each groupValue dimensions
-    for (Map.Entry<Map<String, String>, Map<String, Map<Long, Long>>> row : resultTable.rowMap()
-        .entrySet()) {
+    for (Map.Entry<Map<String, String>, Map<String, TimeValueAggregator>> row
+        : resultMap.entrySet()) {
       // iterating each measure
-      for (Map.Entry<String, Map<Long, Long>> measureEntry : row.getValue().entrySet()) {
+      for (Map.Entry<String, TimeValueAggregator> measureEntry : row.getValue().entrySet()) {
         // generating time series for a grouping and a measure
         int count = 0;
-        List<TimeValue> timeValues = new ArrayList<>();
-        for (Map.Entry<Long, Long> timeValue : measureEntry.getValue().entrySet()) {
-          timeValues.add(new TimeValue(timeValue.getKey(), timeValue.getValue()));
-        }
-        Collections.sort(timeValues);
+        // sorted by timestamp
+        List<TimeValue> timeValues = measureEntry.getValue().getTimeValues();
         List<TimeValue> resultTimeValues = new ArrayList<>();
 
         AggregationOption aggregationOption = query.getAggregationOption();
@@ -606,6 +840,95 @@ public class DefaultCube implements Cube, MeteredDataset {
     }
   }
 
+  /**
+   * A cached query result.
+   */
+  private static final class CachedResult {
+
+    private final long window;
+    private final List<TimeSeries> timeSeries;
+
+    CachedResult(long window, List<TimeSeries> timeSeries) {
+      this.window = window;
+      this.timeSeries = timeSeries;
+    }
+  }
+
+  /**
+   * Cache key of a {@link CubeQuery}, which is independent of the order of the measures and
+   * dimensions in the query.
+   */
+  private static final class QueryKey {
+
+    private final String aggregation;
+    private final long startTs;
+    private final long endTs;
+    private final int resolution;
+    private final int limit;
+    private final Map<String, AggregationFunction> measurements;
+    private final Map<String, String> dimensionValues;
+    private final Set<String> groupByDimensions;
+    private final AggregationOption aggregationOption;
+    private final Class<?> interpolatorClass;
+    private final long maxAllowedGap;
+
+    private QueryKey(CubeQuery query) {
+      this.aggregation = query.getAggregation();
+      this.startTs = query.getStartTs();
+      this.endTs = query.getEndTs();
+      this.resolution = query.getResolution();
+      this.limit = query.getLimit();
+      this.measurements = new HashMap<>(query.getMeasurements());
+      this.dimensionValues = new HashMap<>(query.getDimensionValues());
+      this.groupByDimensions = new HashSet<>(query.getGroupByDimensions());
+      this.aggregationOption = query.getAggregationOption();
+      Interpolator interpolator = query.getInterpolator();
+      this.interpolatorClass = interpolator == null ? null : interpolator.getClass();
+      this.maxAllowedGap = interpolator == null ? 0L : interpolator.getMaxAllowedGap();
+    }
+
+    /**
+     * Returns the key of the given query, or {@code null} if the query cannot be cached because
+     * it uses a custom {@link Interpolator}.
+     */
+    @Nullable
+    static QueryKey of(CubeQuery query) {
+      Interpolator interpolator = query.getInterpolator();
+      if (interpolator != null && !(interpolator instanceof Interpolators.BaseInterpolator)) {
+        return null;
+      }
+      return new QueryKey(query);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      QueryKey that = (QueryKey) o;
+      return startTs == that.startTs
+          && endTs == that.endTs
+          && resolution == that.resolution
+          && limit == that.limit
+          && maxAllowedGap == that.maxAllowedGap
+          && Objects.equals(aggregation, that.aggregation)
+          && measurements.equals(that.measurements)
+          && dimensionValues.equals(that.dimensionValues)
+          && groupByDimensions.equals(that.groupByDimensions)
+          && aggregationOption == that.aggregationOption
+          && Objects.equals(interpolatorClass, that.interpolatorClass);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(aggregation, startTs, endTs, resolution, limit, measurements,
+          dimensionValues, groupByDimensions, aggregationOption, interpolatorClass, maxAllowedGap);
+    }
+  }
+
   private static final class DimensionValueComparator implements Comparator<DimensionValue> {
 
     @Override
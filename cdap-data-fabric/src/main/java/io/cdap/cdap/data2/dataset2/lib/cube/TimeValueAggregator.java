@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.cube;
+
+import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
+import io.cdap.cdap.api.dataset.lib.cube.TimeValue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregates the values of a time series by timestamp with an {@link AggregationFunction}.
+ *
+ * Values are kept in primitive arrays. New values are appended, and the arrays are sorted and the
+ * values with the same timestamp are combined whenever the arrays are full, hence the memory used
+ * is bounded by about twice the number of distinct timestamps. For {@link
+ * AggregationFunction#LATEST}, the value added last wins.
+ */
+final class TimeValueAggregator {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final AggregationFunction function;
+  private long[] timestamps;
+  private long[] values;
+  private int size;
+  // number of leading entries which are sorted by timestamp without duplicates
+  private int sortedSize;
+
+  TimeValueAggregator(AggregationFunction function) {
+    if (function != AggregationFunction.SUM && function != AggregationFunction.MAX
+        && function != AggregationFunction.MIN && function != AggregationFunction.LATEST) {
+      // should never happen: developer error
+      throw new RuntimeException("Unknown MeasureType: " + function);
+    }
+    this.function = function;
+    this.timestamps = new long[INITIAL_CAPACITY];
+    this.values = new long[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Adds a value at the given timestamp.
+   */
+  void add(long timestamp, long value) {
+    if (size > 0 && timestamps[size - 1] == timestamp) {
+      values[size - 1] = combine(values[size - 1], value);
+      return;
+    }
+    if (size == timestamps.length) {
+      compact();
+      // grow if compaction did not free enough space, to keep the amortized cost low
+      if (size > timestamps.length / 2) {
+        timestamps = Arrays.copyOf(timestamps, timestamps.length * 2);
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+    }
+    if (sortedSize == size && (size == 0 || timestamps[size - 1] < timestamp)) {
+      sortedSize++;
+    }
+    timestamps[size] = timestamp;
+    values[size] = value;
+    size++;
+  }
+
+  /**
+   * Adds all the values of the given aggregator, as if they were added after the values of this
+   * aggregator.
+   */
+  void addAll(TimeValueAggregator other) {
+    other.compact();
+    for (int i = 0; i < other.size; i++) {
+      add(other.timestamps[i], other.values[i]);
+    }
+  }
+
+  /**
+   * Returns the number of distinct timestamps.
+   */
+  int size() {
+    compact();
+    return size;
+  }
+
+  /**
+   * Returns the aggregated values sorted by timestamp.
+   */
+  List<TimeValue> getTimeValues() {
+    compact();
+    List<TimeValue> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(new TimeValue(timestamps[i], values[i]));
+    }
+    return result;
+  }
+
+  private long combine(long existing, long value) {
+    switch (function) {
+      case SUM:
+        return existing + value;
+      case MAX:
+        return Math.max(existing, value);
+      case MIN:
+        return Math.min(existing, value);
+      default:
+        // LATEST
+        return value;
+    }
+  }
+
+  /**
+   * Sorts the entries by timestamp and combines the ones with the same timestamp.
+   */
+  private void compact() {
+    if (sortedSize == size) {
+      return;
+    }
+    long[] tmpTimestamps = new long[size];
+    long[] tmpValues = new long[size];
+    // the sort is stable, so that the values with the same timestamp are combined in order
+    sort(sortedSize, size, tmpTimestamps, tmpValues);
+    merge(0, sortedSize, size, tmpTimestamps, tmpValues);
+
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (count > 0 && timestamps[count - 1] == timestamps[i]) {
+        values[count - 1] = combine(values[count - 1], values[i]);
+      } else {
+        timestamps[count] = timestamps[i];
+        values[count] = values[i];
+        count++;
+      }
+    }
+    size = count;
+    sortedSize = count;
+  }
+
+  private void sort(int from, int to, long[] tmpTimestamps, long[] tmpValues) {
+    if (to - from < 2) {
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    sort(from, mid, tmpTimestamps, tmpValues);
+    sort(mid, to, tmpTimestamps, tmpValues);
+    merge(from, mid, to, tmpTimestamps, tmpValues);
+  }
+
+  /**
+   * Merges the sorted ranges [from, mid) and [mid, to), keeping the order of equal timestamps.
+   */
+  private void merge(int from, int mid, int to, long[] tmpTimestamps, long[] tmpValues) {
+    if (from == mid || mid == to || timestamps[mid - 1] <= timestamps[mid]) {
+      return;
+    }
+    System.arraycopy(timestamps, from, tmpTimestamps, from, to - from);
+    System.arraycopy(values, from, tmpValues, from, to - from);
+    int left = from;
+    int right = mid;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < mid && tmpTimestamps[left] <= tmpTimestamps[right])) {
+        timestamps[i] = tmpTimestamps[left];
+        values[i] = tmpValues[left++];
+      } else {
+        timestamps[i] = tmpTimestamps[right];
+        values[i] = tmpValues[right++];
+      }
+    }
+  }
+}
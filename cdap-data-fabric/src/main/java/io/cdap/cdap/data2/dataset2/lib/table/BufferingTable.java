@@ -73,9 +73,13 @@ import org.slf4j.LoggerFactory;
  * persistent store. Given the snapshot isolation tx model, this can be improved in future
  * implementations.
  * <p>
- * NOTE: current implementation persists changes only at the end of transaction. Beware of OOME.
- * There should be better implementation for MapReduce case (YMMV though, for counters/aggregations
- * this implementation looks sweet)
+ * NOTE: by default, changes are only persisted at the end of transaction. Beware of OOME. The
+ * estimated heap size of the buffer is tracked and reported as the
+ * {@link Constants.Metrics.Name.Dataset#BUFFER_BYTES} metric. If the
+ * {@link #PROPERTY_BUFFER_FLUSH_BYTES} table property is set, the buffer is persisted whenever its
+ * estimated size reaches that many bytes, and all the persisted changes are undone on rollback.
+ * This is not supported with readless increments, since buffered increments cannot be persisted
+ * more than once in a transaction.
  * <p>
  * NOTE: Using {@link #get(byte[], byte[], byte[], int)} is generally always not efficient since it
  * always hits the persisted store even if all needed data is in-memory buffer. See more info at
@@ -88,6 +92,17 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
 
   protected static final byte[] DELETE_MARKER = new byte[0];
 
+  /**
+   * Table property for the estimated size in bytes of the in-memory buffer at which the buffered
+   * changes are persisted before the transaction commits. Zero or negative, which is the default,
+   * means the changes are only persisted on commit.
+   */
+  public static final String PROPERTY_BUFFER_FLUSH_BYTES = "dataset.table.buffer.flush.bytes";
+
+  // Estimated heap overhead in bytes of a buffered row and of a buffered column
+  private static final int ROW_OVERHEAD_BYTES = 96;
+  private static final int COLUMN_OVERHEAD_BYTES = 64;
+
   // name of the table
   private final String name;
   // conflict detection level
@@ -96,6 +111,8 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
   private final byte[] nameAsTxChangePrefix;
   // Whether read-less increments should be used when increment() is called
   private final boolean enableReadlessIncrements;
+  // Estimated size of the buffer at which it is persisted before commit, disabled if <= 0
+  private final long bufferFlushBytes;
 
   // In-memory buffer that keeps not yet persisted data. It is row->(column->value) map. Value can be null which means
   // that the corresponded column was removed.
@@ -104,6 +121,9 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
   // Keeps track of what was persisted so far
   private NavigableMap<byte[], NavigableMap<byte[], Update>> toUndo;
 
+  // Estimated heap size in bytes of the in-memory buffer
+  private long bufferedBytes;
+
   // Report data ops metrics to
   private MetricsCollector metricsCollector;
 
@@ -149,6 +169,14 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     this.name = name;
     this.conflictLevel = TableProperties.getConflictDetection(properties, ConflictDetection.ROW);
     this.enableReadlessIncrements = enableReadlessIncrements;
+    String flushBytes = properties == null ? null : properties.get(PROPERTY_BUFFER_FLUSH_BYTES);
+    long bufferFlushBytes = flushBytes == null ? 0L : Long.parseLong(flushBytes.trim());
+    if (bufferFlushBytes > 0 && enableReadlessIncrements) {
+      LOG.warn("Property {} is ignored for table {} since readless increments are enabled",
+          PROPERTY_BUFFER_FLUSH_BYTES, name);
+      bufferFlushBytes = 0L;
+    }
+    this.bufferFlushBytes = bufferFlushBytes;
     // TODO: having central dataset management service will allow us to use table ids instead of names, which will
     //       reduce changeset size transferred to/from server
     // we want it to be of format length+value to avoid conflicts like table="ab", row="cd" vs table="abc", row="d"
@@ -271,6 +299,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     // releasing resources
     buff = null;
     toUndo = null;
+    bufferedBytes = 0L;
   }
 
   @Override
@@ -282,6 +311,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     }
     // starting with fresh buffer when tx starts
     buff.clear();
+    bufferedBytes = 0L;
     toUndo = null;
     this.tx = tx;
   }
@@ -315,11 +345,21 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     }
   }
 
+  /**
+   * Returns the changes of the transaction, which are the changes persisted before commit and the
+   * changes in the buffer.
+   */
+  private List<NavigableMap<byte[], NavigableMap<byte[], Update>>> getChanges() {
+    return toUndo == null ? Collections.singletonList(buff) : Arrays.asList(toUndo, buff);
+  }
+
   private Collection<byte[]> getRowChanges() {
     // we resolve conflicts on row level of individual table
     List<byte[]> changes = new ArrayList<>(buff.size());
-    for (byte[] changedRow : buff.keySet()) {
-      changes.add(Bytes.add(getNameAsTxChangePrefix(), changedRow));
+    for (NavigableMap<byte[], NavigableMap<byte[], Update>> txChanges : getChanges()) {
+      for (byte[] changedRow : txChanges.keySet()) {
+        changes.add(Bytes.add(getNameAsTxChangePrefix(), changedRow));
+      }
     }
     return changes;
   }
@@ -327,7 +367,15 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
   private Collection<byte[]> getColumnChanges() {
     // we resolve conflicts on row level of individual table
     List<byte[]> changes = new ArrayList<>(buff.size());
-    for (Map.Entry<byte[], NavigableMap<byte[], Update>> rowChange : buff.entrySet()) {
+    for (NavigableMap<byte[], NavigableMap<byte[], Update>> txChanges : getChanges()) {
+      addColumnChanges(txChanges, changes);
+    }
+    return changes;
+  }
+
+  private void addColumnChanges(NavigableMap<byte[], NavigableMap<byte[], Update>> txChanges,
+      List<byte[]> changes) {
+    for (Map.Entry<byte[], NavigableMap<byte[], Update>> rowChange : txChanges.entrySet()) {
       if (rowChange.getValue() == null) {
         // NOTE: as of now we cannot detect conflict between delete whole row and row's column value change.
         //       this is not a big problem as of now, as row deletion is now act as deletion of every column, but this
@@ -342,30 +390,69 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
         changes.add(Bytes.add(getNameAsTxChangePrefix(), rowTxChange, column));
       }
     }
-    return changes;
   }
 
   @Override
   public boolean commitTx() throws Exception {
     if (!buff.isEmpty()) {
-      // We first assume that all data will be persisted. So that if exception happen during persist we try to
-      // rollback everything we had in in-memory buffer.
-      toUndo = buff;
-      // clearing up in-memory buffer by initializing new map.
-      // NOTE: we want to init map here so that if no changes are made we re-use same instance of the map in next tx
-      // NOTE: we could cache two maps and swap them to avoid creation of map instances, but code would be ugly
-      buff = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
-      // TODO: tracking of persisted items can be optimized by returning a pair {succeededOrNot, persisted} which
-      //       tells if persisting succeeded and what was persisted (i.e. what we will have to undo in case of rollback)
-      persist(toUndo);
+      persistBuffer();
     }
     return true;
   }
 
+  /**
+   * Persists the in-memory buffer and starts a new one. The changes are added to the changes to
+   * undo on rollback before they are persisted.
+   */
+  private void persistBuffer() throws Exception {
+    NavigableMap<byte[], NavigableMap<byte[], Update>> changes = buff;
+    // We first assume that all data will be persisted. So that if exception happen during persist we try to
+    // rollback everything we had in in-memory buffer.
+    if (toUndo == null) {
+      toUndo = changes;
+    } else {
+      for (Map.Entry<byte[], NavigableMap<byte[], Update>> rowChange : changes.entrySet()) {
+        NavigableMap<byte[], Update> undoCols = toUndo.get(rowChange.getKey());
+        if (undoCols == null) {
+          toUndo.put(rowChange.getKey(), rowChange.getValue());
+        } else {
+          undoCols.putAll(rowChange.getValue());
+        }
+      }
+    }
+    // clearing up in-memory buffer by initializing new map.
+    // NOTE: we want to init map here so that if no changes are made we re-use same instance of the map in next tx
+    // NOTE: we could cache two maps and swap them to avoid creation of map instances, but code would be ugly
+    buff = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+    if (metricsCollector != null) {
+      metricsCollector.gauge(Constants.Metrics.Name.Dataset.BUFFER_BYTES, bufferedBytes);
+    }
+    bufferedBytes = 0L;
+    // TODO: tracking of persisted items can be optimized by returning a pair {succeededOrNot, persisted} which
+    //       tells if persisting succeeded and what was persisted (i.e. what we will have to undo in case of rollback)
+    persist(changes);
+  }
+
+  /**
+   * Persists the in-memory buffer if its estimated size reached {@link #bufferFlushBytes}.
+   */
+  private void persistBufferIfNeeded() {
+    if (bufferFlushBytes <= 0 || bufferedBytes < bufferFlushBytes) {
+      return;
+    }
+    try {
+      persistBuffer();
+    } catch (Exception e) {
+      LOG.debug("persist failed for table: " + getTransactionAwareName(), e);
+      throw new DataSetException("persist failed", e);
+    }
+  }
+
   @Override
   public void postTxCommit() {
     // don't need buffer anymore: tx has been committed
     buff.clear();
+    bufferedBytes = 0L;
     toUndo = null;
     tx = null;
   }
@@ -373,6 +460,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
   @Override
   public boolean rollbackTx() throws Exception {
     buff.clear();
+    bufferedBytes = 0L;
     if (toUndo != null) {
       undo(toUndo);
       toUndo = null;
@@ -514,6 +602,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     putInternal(row, columns, values);
     // report metrics _after_ write was performed
     reportWrite(1, getSize(row) + getSize(columns) + getSize(values));
+    persistBufferIfNeeded();
   }
 
   private void putInternal(byte[] row, byte[][] columns, byte[][] values) {
@@ -529,11 +618,14 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
       if (values[i] != null && values[i].length == 0) {
         warnAboutEmptyValue(columns[i]);
       }
-      colVals.put(copy(columns[i]), new PutValue(copy(values[i])));
+      Update value = new PutValue(copy(values[i]));
+      Update previous = colVals.put(copy(columns[i]), value);
+      bufferedBytes += getBufferedSize(columns[i], value) - getBufferedSize(columns[i], previous);
     }
     if (newRow) {
       // NOTE: we copy passed row's byte arrays to protect buffer against possible changes of this array on client
       buff.put(copy(row), colVals);
+      bufferedBytes += ROW_OVERHEAD_BYTES + row.length;
     }
   }
 
@@ -578,6 +670,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     putInternal(row, columns, new byte[columns.length][]);
     // "0" because we don't know what gets deleted
     reportWrite(1, 0);
+    persistBufferIfNeeded();
   }
 
   @ReadWrite
@@ -631,6 +724,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
 
     putInternal(row, columns, updatedValues);
     reportWrite(1, getSize(row) + getSize(columns) + getSize(amounts));
+    persistBufferIfNeeded();
 
     return new Result(row, result);
   }
@@ -644,10 +738,13 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
       if (colVals == null) {
         colVals = Maps.newTreeMap(Bytes.BYTES_COMPARATOR);
         buff.put(row, colVals);
+        bufferedBytes += ROW_OVERHEAD_BYTES + row.length;
       }
       for (int i = 0; i < columns.length; i++) {
-        colVals.put(columns[i],
-            Updates.mergeUpdates(colVals.get(columns[i]), new IncrementValue(amounts[i])));
+        Update previous = colVals.get(columns[i]);
+        Update value = Updates.mergeUpdates(previous, new IncrementValue(amounts[i]));
+        colVals.put(columns[i], value);
+        bufferedBytes += getBufferedSize(columns[i], value) - getBufferedSize(columns[i], previous);
       }
       reportWrite(1, getSize(row) + getSize(columns) + getSize(amounts));
     } else {
@@ -671,6 +768,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
       if (Arrays.equals(expectedValue, currentValue)) {
         putInternal(row, columns, new byte[][]{newValue});
         reportWrite(1, getSize(row) + getSize(column) + getSize(newValue));
+        persistBufferIfNeeded();
         return true;
       }
     } catch (Exception e) {
@@ -987,6 +1085,18 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     return item == null ? 0 : item.length;
   }
 
+  /**
+   * Returns the estimated heap size of a buffered column, or zero if there is no update.
+   */
+  private static long getBufferedSize(byte[] column, @Nullable Update update) {
+    if (update == null) {
+      return 0L;
+    }
+    int valueSize = update instanceof IncrementValue ? Bytes.SIZEOF_LONG
+        : getSize(update.getBytes());
+    return COLUMN_OVERHEAD_BYTES + column.length + valueSize;
+  }
+
   private static byte[] copy(byte[] bytes) {
     return bytes == null ? null : Arrays.copyOf(bytes, bytes.length);
   }
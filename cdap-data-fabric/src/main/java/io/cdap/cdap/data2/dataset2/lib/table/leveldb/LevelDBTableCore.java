@@ -17,6 +17,7 @@
 package io.cdap.cdap.data2.dataset2.lib.table.leveldb;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Striped;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.dataset.table.Result;
 import io.cdap.cdap.api.dataset.table.Row;
@@ -24,19 +25,21 @@ import io.cdap.cdap.api.dataset.table.Scanner;
 import io.cdap.cdap.common.utils.ImmutablePair;
 import io.cdap.cdap.data2.dataset2.lib.table.FuzzyRowFilter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
 import javax.annotation.Nullable;
 import org.apache.tephra.Transaction;
 import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBIterator;
-import org.iq80.leveldb.ReadOptions;
-import org.iq80.leveldb.Snapshot;
 import org.iq80.leveldb.WriteBatch;
 import org.iq80.leveldb.WriteOptions;
 import org.slf4j.Logger;
@@ -44,6 +47,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Provides common operations for levelDB tables and queues.
+ *
+ * Read-modify-write operations ({@link #swap} and the increments) lock the rows they modify, with
+ * locks shared by all instances of the same table. Other writes are applied directly with LevelDB
+ * write batches, which are atomic and need no locking.
  */
 public class LevelDBTableCore {
 
@@ -69,10 +76,12 @@ public class LevelDBTableCore {
 
   private final String tableName;
   private final LevelDBTableService service;
+  private final Striped<Lock> rowLocks;
 
   public LevelDBTableCore(String tableName, LevelDBTableService service) {
     this.tableName = tableName;
     this.service = service;
+    this.rowLocks = service.getRowLocks(tableName);
   }
 
   private DB getDB() throws IOException {
@@ -84,51 +93,60 @@ public class LevelDBTableCore {
   }
 
 
-  public synchronized boolean swap(byte[] row, byte[] column, byte[] oldValue, byte[] newValue)
+  public boolean swap(byte[] row, byte[] column, byte[] oldValue, byte[] newValue)
       throws IOException {
-    byte[] existing = getRow(row, new byte[][]{column}, null, null, -1, null).get(column);
-    // verify
-    if (oldValue == null && existing != null) {
-      return false;
-    }
-    if (oldValue != null && (existing == null || !Bytes.equals(oldValue, existing))) {
-      return false;
-    }
-    // write
-    if (newValue == null) {
-      // to-do
-      deleteColumn(row, column);
-    } else {
-      persist(Collections.singletonMap(row, Collections.singletonMap(column, newValue)),
-          Long.MAX_VALUE);
+    Lock lock = rowLocks.get(ByteBuffer.wrap(row));
+    lock.lock();
+    try {
+      byte[] existing = getRow(row, new byte[][]{column}, null, null, -1, null).get(column);
+      // verify
+      if (oldValue == null && existing != null) {
+        return false;
+      }
+      if (oldValue != null && (existing == null || !Bytes.equals(oldValue, existing))) {
+        return false;
+      }
+      // write
+      if (newValue == null) {
+        // to-do
+        deleteColumn(row, column);
+      } else {
+        persist(Collections.singletonMap(row, Collections.singletonMap(column, newValue)),
+            Long.MAX_VALUE);
+      }
+      return true;
+    } finally {
+      lock.unlock();
     }
-    return true;
   }
 
-  public synchronized Map<byte[], Long> increment(byte[] row, Map<byte[], Long> increments)
+  public Map<byte[], Long> increment(byte[] row, Map<byte[], Long> increments)
       throws IOException {
     Map<byte[], Long> result = new TreeMap<>(Bytes.BYTES_COMPARATOR);
 
     DB db = getDB();
     WriteBatch writeBatch = db.createWriteBatch();
-    try (Snapshot snapshot = db.getSnapshot()) {
-      ReadOptions readOptions = new ReadOptions().snapshot(snapshot);
-
+    Lock lock = rowLocks.get(ByteBuffer.wrap(row));
+    lock.lock();
+    try {
+      // No snapshot is needed for reading, since the row is locked
       for (Map.Entry<byte[], Long> entry : increments.entrySet()) {
         byte[] rowKey = createPutKey(row, entry.getKey(), Long.MAX_VALUE);
-        byte[] existingValue = db.get(rowKey, readOptions);
+        byte[] existingValue = db.get(rowKey);
         long newValue = incrementValue(entry.getValue(), existingValue, row, entry.getKey());
         result.put(entry.getKey(), newValue);
         writeBatch.put(rowKey, Bytes.toBytes(newValue));
       }
       db.write(writeBatch, service.getWriteOptions());
+    } finally {
+      lock.unlock();
     }
 
     return result;
   }
 
 
-  public synchronized void increment(NavigableMap<byte[], NavigableMap<byte[], Long>> updates)
+  public void increment(NavigableMap<byte[], NavigableMap<byte[], Long>> updates)
       throws IOException {
     if (updates.isEmpty()) {
       return;
@@ -136,20 +154,40 @@ public class LevelDBTableCore {
 
     DB db = getDB();
     WriteBatch writeBatch = db.createWriteBatch();
-    try (Snapshot snapshot = db.getSnapshot()) {
-      ReadOptions readOptions = new ReadOptions().snapshot(snapshot);
-
+    Iterable<Lock> locks = lockRows(updates.keySet());
+    try {
       for (Map.Entry<byte[], NavigableMap<byte[], Long>> updateEntry : updates.entrySet()) {
         for (Map.Entry<byte[], Long> entry : updateEntry.getValue().entrySet()) {
           byte[] rowKey = createPutKey(updateEntry.getKey(), entry.getKey(), Long.MAX_VALUE);
-          byte[] existingValue = db.get(rowKey, readOptions);
+          byte[] existingValue = db.get(rowKey);
           long newValue = incrementValue(entry.getValue(), existingValue, updateEntry.getKey(),
               entry.getKey());
           writeBatch.put(rowKey, Bytes.toBytes(newValue));
         }
       }
       db.write(writeBatch, service.getWriteOptions());
+    } finally {
+      for (Lock lock : locks) {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Locks the given rows. The locks are acquired in a consistent order to avoid deadlocks.
+   *
+   * @return the locks acquired, which may contain the same lock multiple times
+   */
+  private Iterable<Lock> lockRows(Collection<byte[]> rows) {
+    List<ByteBuffer> keys = new ArrayList<>(rows.size());
+    for (byte[] row : rows) {
+      keys.add(ByteBuffer.wrap(row));
+    }
+    Iterable<Lock> locks = rowLocks.bulkGet(keys);
+    for (Lock lock : locks) {
+      lock.lock();
     }
+    return locks;
   }
 
   private long incrementValue(long value, @Nullable byte[] existingValue, byte[] row, byte[] col) {
@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.Striped;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.cdap.cdap.common.conf.CConfiguration;
@@ -44,6 +45,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import org.apache.twill.common.Threads;
 import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.DB;
@@ -76,7 +78,11 @@ public class LevelDBTableService implements AutoCloseable {
   private WriteOptions writeOptions;
   private boolean isClosed;
 
+  // Number of lock stripes for the rows of a table
+  private static final int ROW_LOCK_STRIPES = 256;
+
   private final ConcurrentMap<String, DB> tables = Maps.newConcurrentMap();
+  private final ConcurrentMap<String, Striped<Lock>> rowLocks = Maps.newConcurrentMap();
 
   private final ScheduledExecutorService executor;
   private ScheduledFuture<?> scheduledFuture;
@@ -302,6 +308,15 @@ public class LevelDBTableService implements AutoCloseable {
     return db;
   }
 
+  /**
+   * Returns the striped locks for the rows of the given table. The same locks are shared by all the
+   * {@link LevelDBTableCore} of a table, such that read-modify-write operations on a row are
+   * serialized across them.
+   */
+  Striped<Lock> getRowLocks(String tableName) {
+    return rowLocks.computeIfAbsent(tableName, name -> Striped.lazyWeakLock(ROW_LOCK_STRIPES));
+  }
+
   public void ensureTableExists(String tableName) throws IOException {
     ensureOpen();
     DB db = tables.get(tableName);
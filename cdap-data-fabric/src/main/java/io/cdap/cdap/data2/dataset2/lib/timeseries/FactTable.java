@@ -189,6 +189,40 @@ public final class FactTable implements Closeable {
     return gaugesTable.size() + incrementsTable.size();
   }
 
+  /**
+   * Writes the given facts, replacing the existing values regardless of the {@link MeasureType}.
+   * Unlike {@link #add(List)}, the timestamps of late facts are not coarsened, which makes it
+   * suitable for writing values that are already aggregated, such as rollups from a finer
+   * resolution, repeatedly.
+   *
+   * @return number of values written
+   */
+  public int put(List<Fact> facts) {
+    NavigableMap<byte[], NavigableMap<byte[], Long>> updates = Maps.newTreeMap(
+        Bytes.BYTES_COMPARATOR);
+    Map<EntityTable.EntityName, Long> cache = new HashMap<>();
+    BiFunction<EntityTable.EntityName, Supplier<Long>, Long> cacheFunction = (name, loader) ->
+        cache.computeIfAbsent(name, nm -> loader.get());
+    int count = 0;
+    for (Fact fact : facts) {
+      long ts = fact.getTimestamp();
+      for (Measurement measurement : fact.getMeasurements()) {
+        // the timestamp is used as the current time, so that it is not coarsened
+        updates.computeIfAbsent(
+            codec.createRowKey(fact.getDimensionValues(), measurement.getName(), ts, ts,
+                cacheFunction),
+            k -> Maps.newTreeMap(Bytes.BYTES_COMPARATOR))
+            .put(codec.createColumn(ts, ts), measurement.getValue());
+        count++;
+      }
+    }
+    timeSeriesTable.put(updates);
+    if (metrics != null) {
+      metrics.increment(putCountMetric, count);
+    }
+    return count;
+  }
+
   private NavigableMap<byte[], NavigableMap<byte[], Long>> toColumnarFormat(
       Map<FactMeasurementKey, Long> data, long nowSeconds,
       BiFunction<EntityTable.EntityName, Supplier<Long>, Long> fastCache) {
@@ -17,29 +17,76 @@
 package io.cdap.cdap.data2.metadata.lineage;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.proto.id.DatasetId;
 import io.cdap.cdap.proto.id.NamespacedEntityId;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.apache.tephra.TransactionExecutor;
+import org.apache.twill.common.Threads;
 
 /**
  * Implementation of {@link LineageStoreReader} for reading lineage information from {@link
  * LineageTable}.
+ *
+ * Relations of a collection of entities are read with one multi-range scan per batch of {@link
+ * Constants.Metadata#LINEAGE_SCAN_BATCH_SIZE} entities, and up to {@link
+ * Constants.Metadata#LINEAGE_SCAN_PARALLELISM} batches are read in parallel.
  */
 public class DefaultLineageStoreReader implements LineageStoreReader {
 
   private final TransactionRunner transactionRunner;
+  private final int batchSize;
+  @Nullable
+  private final ExecutorService executor;
 
-  @Inject
   @VisibleForTesting
   public DefaultLineageStoreReader(TransactionRunner transactionRunner) {
+    this(transactionRunner, 100, 1);
+  }
+
+  @Inject
+  DefaultLineageStoreReader(TransactionRunner transactionRunner, CConfiguration cConf) {
+    this(transactionRunner, cConf.getInt(Constants.Metadata.LINEAGE_SCAN_BATCH_SIZE),
+        cConf.getInt(Constants.Metadata.LINEAGE_SCAN_PARALLELISM));
+  }
+
+  @VisibleForTesting
+  public DefaultLineageStoreReader(TransactionRunner transactionRunner, int batchSize,
+      int parallelism) {
     this.transactionRunner = transactionRunner;
+    this.batchSize = Math.max(1, batchSize);
+    if (parallelism > 1) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(
+          parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          Threads.createDaemonThreadFactory("lineage-reader-%d"));
+      executor.allowCoreThreadTimeOut(true);
+      this.executor = executor;
+    } else {
+      this.executor = null;
+    }
   }
 
   /**
@@ -81,6 +128,52 @@ public class DefaultLineageStoreReader implements LineageStoreReader {
     return execute(input -> input.getRelations(program, start, end, filter));
   }
 
+  @Override
+  public Map<DatasetId, Set<Relation>> getDatasetRelations(Collection<DatasetId> datasetInstances,
+      long start, long end, Predicate<Relation> filter) {
+    return executeBatches(datasetInstances,
+        batch -> execute(input -> input.getDatasetRelations(batch, start, end, filter)));
+  }
+
+  @Override
+  public Map<ProgramId, Set<Relation>> getProgramRelations(Collection<ProgramId> programs,
+      long start, long end, Predicate<Relation> filter) {
+    return executeBatches(programs,
+        batch -> execute(input -> input.getProgramRelations(batch, start, end, filter)));
+  }
+
+  /**
+   * Reads the relations of the given keys in batches, each in its own transaction. The first batch
+   * is read in the calling thread and the others in the executor, if there is one.
+   */
+  private <T> Map<T, Set<Relation>> executeBatches(Collection<T> keys,
+      Function<List<T>, Map<T, Set<Relation>>> func) {
+    List<List<T>> batches = Lists.partition(new ArrayList<>(keys), batchSize);
+    Map<T, Set<Relation>> result = new HashMap<>();
+    if (executor == null || batches.size() <= 1) {
+      batches.forEach(batch -> result.putAll(func.apply(batch)));
+      return result;
+    }
+
+    List<Future<Map<T, Set<Relation>>>> futures = new ArrayList<>();
+    try {
+      for (List<T> batch : batches.subList(1, batches.size())) {
+        futures.add(executor.submit(() -> func.apply(batch)));
+      }
+      result.putAll(func.apply(batches.get(0)));
+      for (Future<Map<T, Set<Relation>>> future : futures) {
+        result.putAll(Uninterruptibles.getUninterruptibly(future));
+      }
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return result;
+  }
+
   private <T> T execute(TransactionExecutor.Function<LineageTable, T> func) {
     return TransactionRunners.run(transactionRunner, context -> {
       LineageTable lineageTable = LineageTable.create(context);
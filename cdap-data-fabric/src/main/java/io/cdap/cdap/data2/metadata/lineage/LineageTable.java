@@ -36,9 +36,15 @@ import io.cdap.cdap.spi.data.table.field.Range;
 import io.cdap.cdap.store.StoreDefinition;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import org.apache.twill.api.RunId;
 import org.slf4j.Logger;
@@ -177,6 +183,44 @@ public class LineageTable {
         filter);
   }
 
+  /**
+   * Fetch program-dataset access information for a collection of datasets for a given period, with
+   * a single scan over the key ranges of all the datasets.
+   *
+   * @param datasetInstances datasets for which to fetch access information
+   * @param start start time period
+   * @param end end time period
+   * @param filter filter to be applied on result set
+   * @return program-dataset access information of each dataset
+   */
+  public Map<DatasetId, Set<Relation>> getDatasetRelations(Collection<DatasetId> datasetInstances,
+      long start, long end, Predicate<Relation> filter) throws IOException {
+    return multiScanRelations(getDatasetTable(), datasetInstances,
+        datasetInstance -> Range.create(getDatasetScanStartKey(datasetInstance, end),
+            Range.Bound.INCLUSIVE,
+            getDatasetScanEndKey(datasetInstance, start), Range.Bound.INCLUSIVE),
+        Function.identity(), this::getDatasetFromRow, filter);
+  }
+
+  /**
+   * Fetch program-dataset access information for a collection of programs for a given period, with
+   * a single scan over the key ranges of all the programs.
+   *
+   * @param programs programs for which to fetch access information
+   * @param start start time period
+   * @param end end time period
+   * @param filter filter to be applied on result set
+   * @return program-dataset access information of each program
+   */
+  public Map<ProgramId, Set<Relation>> getProgramRelations(Collection<ProgramId> programs,
+      long start, long end, Predicate<Relation> filter) throws IOException {
+    return multiScanRelations(getProgramTable(), programs,
+        program -> Range.create(getProgramScanStartKey(program, end), Range.Bound.INCLUSIVE,
+            getProgramScanEndKey(program, start), Range.Bound.INCLUSIVE),
+        ProgramId::getProgramReference, row -> getProgramFromRow(row).getProgramReference(),
+        filter);
+  }
+
   /**
    * @return a set of access times (for program and data it accesses) associated with a program run.
    */
@@ -215,6 +259,42 @@ public class LineageTable {
     return builder.build();
   }
 
+  /**
+   * Scans the key range of each of the given keys with one multi-range scan, and groups the
+   * relations by key. The keys are matched with the rows by the identity returned by the key and
+   * row functions, since the program keys in the table do not have the application version.
+   */
+  private <T> Map<T, Set<Relation>> multiScanRelations(StructuredTable table, Collection<T> keys,
+      Function<T, Range> rangeFunction, Function<T, ?> keyFunction,
+      Function<StructuredRow, ?> rowKeyFunction, Predicate<Relation> filter) throws IOException {
+    Map<T, Set<Relation>> result = new HashMap<>();
+    Map<Object, List<Set<Relation>>> resultsByKey = new HashMap<>();
+    List<Range> ranges = new ArrayList<>();
+    for (T key : keys) {
+      if (result.containsKey(key)) {
+        continue;
+      }
+      Set<Relation> relations = new HashSet<>();
+      result.put(key, relations);
+      resultsByKey.computeIfAbsent(keyFunction.apply(key), k -> new ArrayList<>()).add(relations);
+      ranges.add(rangeFunction.apply(key));
+    }
+    if (ranges.isEmpty()) {
+      return result;
+    }
+    try (CloseableIterator<StructuredRow> iterator = table.multiScan(ranges, Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        StructuredRow row = iterator.next();
+        Relation relation = toRelation(row);
+        if (filter.test(relation)) {
+          resultsByKey.getOrDefault(rowKeyFunction.apply(row), Collections.emptyList())
+              .forEach(relations -> relations.add(relation));
+        }
+      }
+    }
+    return result;
+  }
+
   private List<Field<?>> getDatasetKey(DatasetId datasetInstance, ProgramRunId run,
       AccessType accessType) {
     List<Field<?>> fields = new ArrayList<>();
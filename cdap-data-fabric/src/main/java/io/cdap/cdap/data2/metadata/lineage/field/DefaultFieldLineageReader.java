@@ -27,6 +27,7 @@ import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.twill.api.RunId;
 
@@ -68,6 +69,24 @@ public class DefaultFieldLineageReader implements FieldLineageReader {
     });
   }
 
+  @Override
+  public Map<String, Set<EndPointField>> getIncomingSummaries(EndPoint endPoint, long start,
+      long end) {
+    return TransactionRunners.run(transactionRunner, context -> {
+      FieldLineageTable fieldLineageTable = FieldLineageTable.create(context);
+      return fieldLineageTable.getIncomingSummaries(endPoint, start, end);
+    });
+  }
+
+  @Override
+  public Map<String, Set<EndPointField>> getOutgoingSummaries(EndPoint endPoint, long start,
+      long end) {
+    return TransactionRunners.run(transactionRunner, context -> {
+      FieldLineageTable fieldLineageTable = FieldLineageTable.create(context);
+      return fieldLineageTable.getOutgoingSummaries(endPoint, start, end);
+    });
+  }
+
   @Override
   public List<ProgramRunOperations> getIncomingOperations(EndPointField endPointField, long start,
       long end) {
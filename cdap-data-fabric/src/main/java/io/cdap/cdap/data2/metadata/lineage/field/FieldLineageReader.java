@@ -21,6 +21,7 @@ import io.cdap.cdap.api.lineage.field.WriteOperation;
 import io.cdap.cdap.proto.id.ProgramReference;
 import io.cdap.cdap.proto.metadata.lineage.ProgramRunOperations;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.twill.api.RunId;
 
@@ -64,6 +65,28 @@ public interface FieldLineageReader {
    */
   Set<EndPointField> getOutgoingSummary(EndPointField endPointField, long start, long end);
 
+  /**
+   * Get the incoming summaries of all the fields of the specified EndPoint over a given time range.
+   *
+   * @param endPoint the EndPoint for which incoming summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the incoming summary of each field of the EndPoint, fields without incoming summary
+   *     may be absent
+   */
+  Map<String, Set<EndPointField>> getIncomingSummaries(EndPoint endPoint, long start, long end);
+
+  /**
+   * Get the outgoing summaries of all the fields of the specified EndPoint over a given time range.
+   *
+   * @param endPoint the EndPoint for which outgoing summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the outgoing summary of each field of the EndPoint, fields without outgoing summary
+   *     may be absent
+   */
+  Map<String, Set<EndPointField>> getOutgoingSummaries(EndPoint endPoint, long start, long end);
+
   /**
    * Get the list of operations which were responsible for computing the given field of the
    * specified EndPoint over a given time range. Along with the operations, program runs are also
@@ -43,6 +43,7 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -83,6 +84,7 @@ public class FieldLineageTable {
   private StructuredTable operationsTable;
   private StructuredTable destinationFieldsTable;
   private StructuredTable summaryFieldsTable;
+  private StructuredTable endpointSummaryTable;
 
   private FieldLineageTable(StructuredTableContext structuredTableContext) {
     this.structuredTableContext = structuredTableContext;
@@ -133,6 +135,14 @@ public class FieldLineageTable {
     return summaryFieldsTable;
   }
 
+  private StructuredTable getEndpointSummaryTable() {
+    if (endpointSummaryTable == null) {
+      endpointSummaryTable =
+          structuredTableContext.getTable(StoreDefinition.FieldLineageStore.ENDPOINT_SUMMARY_TABLE);
+    }
+    return endpointSummaryTable;
+  }
+
   /**
    * Store the field lineage information.
    *
@@ -145,9 +155,12 @@ public class FieldLineageTable {
       writeOperation(checksum, info.getOperations());
 
       Map<EndPoint, Set<String>> destinationFields = info.getDestinationFields();
+      List<List<Field<?>>> destinationRows = new ArrayList<>(destinationFields.size());
       for (Map.Entry<EndPoint, Set<String>> entry : destinationFields.entrySet()) {
-        addDestinationEntry(checksum, entry.getKey(), GSON.toJson(entry.getValue()));
+        destinationRows.add(getDestinationEntry(checksum, entry.getKey(),
+            GSON.toJson(entry.getValue())));
       }
+      getDestinationFieldsTable().multiUpsert(destinationRows);
 
       addSummary(checksum, INCOMING_DIRECTION_MARKER, info.getIncomingSummary());
       addSummary(checksum, OUTGOING_DIRECTION_MARKER, info.getOutgoingSummary());
@@ -162,6 +175,7 @@ public class FieldLineageTable {
     getDestinationFieldsTable().deleteAll(Range.all());
     getOperationsTable().deleteAll(Range.all());
     getSummaryFieldsTable().deleteAll(Range.all());
+    getEndpointSummaryTable().deleteAll(Range.all());
   }
 
   @Nullable
@@ -186,9 +200,17 @@ public class FieldLineageTable {
   private void addSummary(long checksum, String direction,
       Map<EndPointField, Set<EndPointField>> summary)
       throws IOException {
+    List<List<Field<?>>> rows = new ArrayList<>(summary.size());
+    List<List<Field<?>>> endpointRows = new ArrayList<>(summary.size());
     for (Map.Entry<EndPointField, Set<EndPointField>> entry : summary.entrySet()) {
-      addSummaryEntry(checksum, direction, entry.getKey(), GSON.toJson(entry.getValue()));
+      String data = GSON.toJson(entry.getValue());
+      rows.add(getSummaryEntry(checksum, direction, entry.getKey(), data));
+      endpointRows.add(getEndpointSummaryEntry(checksum, direction, entry.getKey(), data));
     }
+    getSummaryFieldsTable().multiUpsert(rows);
+    // the summaries are also indexed by endpoint field, for reading the summaries of an endpoint
+    // without reading each checksum
+    getEndpointSummaryTable().multiUpsert(endpointRows);
   }
 
   /**
@@ -202,44 +224,51 @@ public class FieldLineageTable {
    */
   private void addFieldLineageInfoReferenceRecords(ProgramRunId programRunId, FieldLineageInfo info)
       throws IOException {
+    List<List<Field<?>>> rows = new ArrayList<>();
     // For all the destinations, operations represents incoming lineage
     for (EndPoint destination : info.getDestinations()) {
-      addOperationReferenceRecord(INCOMING_DIRECTION_MARKER, destination, programRunId,
-          info.getChecksum());
+      rows.add(getOperationReferenceRecord(INCOMING_DIRECTION_MARKER, destination, programRunId,
+          info.getChecksum()));
     }
 
     // For all the sources, operations represents the outgoing lineage
     for (EndPoint source : info.getSources()) {
-      addOperationReferenceRecord(OUTGOING_DIRECTION_MARKER, source, programRunId,
-          info.getChecksum());
+      rows.add(getOperationReferenceRecord(OUTGOING_DIRECTION_MARKER, source, programRunId,
+          info.getChecksum()));
     }
+    getEndpointChecksumTable().multiUpsert(rows);
   }
 
-  private void addOperationReferenceRecord(String direction, EndPoint endPoint,
-      ProgramRunId programRunId,
-      long checksum) throws IOException {
+  private List<Field<?>> getOperationReferenceRecord(String direction, EndPoint endPoint,
+      ProgramRunId programRunId, long checksum) {
     List<Field<?>> fields = getOperationReferenceRowKey(direction, endPoint, programRunId);
     fields.add(Fields.longField(StoreDefinition.FieldLineageStore.CHECKSUM_FIELD, checksum));
     fields.add(Fields.stringField(StoreDefinition.FieldLineageStore.PROGRAM_RUN_FIELD,
         GSON.toJson(programRunId)));
     fields.add(Fields.stringField(StoreDefinition.FieldLineageStore.ENDPOINT_PROPERTIES_FIELD,
         GSON.toJson(endPoint.getProperties())));
-    getEndpointChecksumTable().upsert(fields);
+    return fields;
   }
 
-  private void addSummaryEntry(long checksum, String direction, EndPointField endPointField,
-      String data)
-      throws IOException {
+  private List<Field<?>> getSummaryEntry(long checksum, String direction,
+      EndPointField endPointField, String data) {
     List<Field<?>> fields = getSummaryKey(checksum, direction, endPointField);
     fields.add(Fields.stringField(StoreDefinition.FieldLineageStore.DESTINATION_DATA_FIELD, data));
-    getSummaryFieldsTable().upsert(fields);
+    return fields;
+  }
+
+  private List<Field<?>> getEndpointSummaryEntry(long checksum, String direction,
+      EndPointField endPointField, String data) {
+    List<Field<?>> fields = getEndpointSummaryPrefix(direction, endPointField);
+    fields.add(Fields.longField(StoreDefinition.FieldLineageStore.CHECKSUM_FIELD, checksum));
+    fields.add(Fields.stringField(StoreDefinition.FieldLineageStore.DESTINATION_DATA_FIELD, data));
+    return fields;
   }
 
-  private void addDestinationEntry(long checksum, EndPoint endPoint, String data)
-      throws IOException {
+  private List<Field<?>> getDestinationEntry(long checksum, EndPoint endPoint, String data) {
     List<Field<?>> fields = getDestinationKeys(checksum, endPoint);
     fields.add(Fields.stringField(StoreDefinition.FieldLineageStore.DESTINATION_DATA_FIELD, data));
-    getDestinationFieldsTable().upsert(fields);
+    return fields;
   }
 
   /**
@@ -290,7 +319,28 @@ public class FieldLineageTable {
     Set<Long> checksums = getChecksumsWithProgramRunsInRange(OUTGOING_DIRECTION_MARKER, endPoint,
         start, end).keySet();
     Set<String> fields = new HashSet<>();
+    if (checksums.isEmpty()) {
+      return fields;
+    }
+    Set<Long> indexedChecksums = new HashSet<>();
+    try (CloseableIterator<StructuredRow> iterator = getEndpointSummaryTable().scan(
+        Range.singleton(getEndpointSummaryPrefix(OUTGOING_DIRECTION_MARKER, endPoint)),
+        Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        StructuredRow row = iterator.next();
+        long checksum = row.getLong(StoreDefinition.FieldLineageStore.CHECKSUM_FIELD);
+        if (checksums.contains(checksum)) {
+          indexedChecksums.add(checksum);
+          fields.add(row.getString(StoreDefinition.FieldLineageStore.ENDPOINT_FIELD));
+        }
+      }
+    }
+
+    // lineage recorded before the endpoint summary table existed has no rows in it
     for (long checksum : checksums) {
+      if (indexedChecksums.contains(checksum)) {
+        continue;
+      }
       List<Field<?>> prefix = getSummaryPrefix(checksum, OUTGOING_DIRECTION_MARKER, endPoint);
       try (CloseableIterator<StructuredRow> iterator =
           getSummaryFieldsTable().scan(Range.singleton(prefix), Integer.MAX_VALUE)) {
@@ -333,27 +383,54 @@ public class FieldLineageTable {
     return getSummary(OUTGOING_DIRECTION_MARKER, endPointField, start, end);
   }
 
+  /**
+   * Get the incoming summaries of all the fields of the specified EndPoint over a given time range.
+   *
+   * @param endPoint the EndPoint for which incoming summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the incoming summary of each field which has one
+   */
+  public Map<String, Set<EndPointField>> getIncomingSummaries(EndPoint endPoint, long start,
+      long end) throws IOException {
+    return getSummaries(INCOMING_DIRECTION_MARKER, endPoint, start, end);
+  }
+
+  /**
+   * Get the outgoing summaries of all the fields of the specified EndPoint over a given time range.
+   *
+   * @param endPoint the EndPoint for which outgoing summaries to be returned
+   * @param start start time (inclusive) in milliseconds
+   * @param end end time (exclusive) in milliseconds
+   * @return the outgoing summary of each field which has one
+   */
+  public Map<String, Set<EndPointField>> getOutgoingSummaries(EndPoint endPoint, long start,
+      long end) throws IOException {
+    return getSummaries(OUTGOING_DIRECTION_MARKER, endPoint, start, end);
+  }
+
   private Set<EndPointField> getSummary(String direction, EndPointField endPointField, long start,
       long end)
       throws IOException {
     Set<Long> checksums = getChecksumsWithProgramRunsInRange(direction, endPointField.getEndPoint(),
         start, end).keySet();
-    Set<EndPointField> result = new HashSet<>();
+    Map<String, Set<EndPointField>> summaries = new HashMap<>();
+    Set<Long> indexedChecksums = scanEndpointSummaries(
+        getEndpointSummaryPrefix(direction, endPointField), checksums, summaries);
+    Set<EndPointField> result = summaries.getOrDefault(endPointField.getField(), new HashSet<>());
 
+    // the field may not be in the lineage of some checksums, or the lineage may have been recorded
+    // before the endpoint summary table existed
     for (long checksum : checksums) {
+      if (indexedChecksums.contains(checksum)) {
+        continue;
+      }
       List<Field<?>> keys = getSummaryKey(checksum, direction, endPointField);
       Optional<StructuredRow> row = getSummaryFieldsTable().read(keys);
       if (!row.isPresent()) {
         continue;
       }
-      String value = row.get().getString(StoreDefinition.FieldLineageStore.DESTINATION_DATA_FIELD);
-      Set<EndPointField> endPointFields;
-      try {
-        endPointFields = GSON.fromJson(value, SET_ENDPOINT_FIELD_TYPE);
-      } catch (JsonSyntaxException e) {
-        LOG.warn(String.format("Failed to parse json from checksum %d.", checksum));
-        continue;
-      }
+      Set<EndPointField> endPointFields = parseSummary(row.get(), checksum);
       if (endPointFields != null) {
         result.addAll(endPointFields);
       }
@@ -362,6 +439,80 @@ public class FieldLineageTable {
     return result;
   }
 
+  private Map<String, Set<EndPointField>> getSummaries(String direction, EndPoint endPoint,
+      long start, long end) throws IOException {
+    Set<Long> checksums = getChecksumsWithProgramRunsInRange(direction, endPoint, start, end)
+        .keySet();
+    Map<String, Set<EndPointField>> result = new HashMap<>();
+    if (checksums.isEmpty()) {
+      return result;
+    }
+    Set<Long> indexedChecksums = scanEndpointSummaries(
+        getEndpointSummaryPrefix(direction, endPoint), checksums, result);
+
+    // lineage recorded before the endpoint summary table existed has no rows in it
+    for (long checksum : checksums) {
+      if (indexedChecksums.contains(checksum)) {
+        continue;
+      }
+      List<Field<?>> prefix = getSummaryPrefix(checksum, direction, endPoint);
+      try (CloseableIterator<StructuredRow> iterator =
+          getSummaryFieldsTable().scan(Range.singleton(prefix), Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          StructuredRow row = iterator.next();
+          Set<EndPointField> endPointFields = parseSummary(row, checksum);
+          if (endPointFields != null) {
+            result.computeIfAbsent(row.getString(StoreDefinition.FieldLineageStore.ENDPOINT_FIELD),
+                k -> new HashSet<>()).addAll(endPointFields);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Scans the endpoint summary table with the given prefix and adds the summaries of the given
+   * checksums to the result by field.
+   *
+   * @return the checksums which have summaries in the endpoint summary table
+   */
+  private Set<Long> scanEndpointSummaries(List<Field<?>> prefix, Set<Long> checksums,
+      Map<String, Set<EndPointField>> result) throws IOException {
+    Set<Long> indexedChecksums = new HashSet<>();
+    if (checksums.isEmpty()) {
+      return indexedChecksums;
+    }
+    try (CloseableIterator<StructuredRow> iterator =
+        getEndpointSummaryTable().scan(Range.singleton(prefix), Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        StructuredRow row = iterator.next();
+        long checksum = row.getLong(StoreDefinition.FieldLineageStore.CHECKSUM_FIELD);
+        if (!checksums.contains(checksum)) {
+          continue;
+        }
+        indexedChecksums.add(checksum);
+        Set<EndPointField> endPointFields = parseSummary(row, checksum);
+        if (endPointFields != null) {
+          result.computeIfAbsent(row.getString(StoreDefinition.FieldLineageStore.ENDPOINT_FIELD),
+              k -> new HashSet<>()).addAll(endPointFields);
+        }
+      }
+    }
+    return indexedChecksums;
+  }
+
+  @Nullable
+  private Set<EndPointField> parseSummary(StructuredRow row, long checksum) {
+    String value = row.getString(StoreDefinition.FieldLineageStore.DESTINATION_DATA_FIELD);
+    try {
+      return GSON.fromJson(value, SET_ENDPOINT_FIELD_TYPE);
+    } catch (JsonSyntaxException e) {
+      LOG.warn(String.format("Failed to parse json from checksum %d.", checksum));
+      return null;
+    }
+  }
+
   /**
    * Get the set of operations which were responsible for computing the fields of the specified
    * EndPoint over a given time range. Along with the operations, program runs are also returned
@@ -473,6 +624,20 @@ public class FieldLineageTable {
     return fields;
   }
 
+  private List<Field<?>> getEndpointSummaryPrefix(String direction, EndPoint endPoint) {
+    List<Field<?>> fields = new ArrayList<>();
+    fields.add(Fields.stringField(StoreDefinition.FieldLineageStore.DIRECTION_FIELD, direction));
+    addEndPoint(fields, endPoint);
+    return fields;
+  }
+
+  private List<Field<?>> getEndpointSummaryPrefix(String direction, EndPointField endPointField) {
+    List<Field<?>> fields = getEndpointSummaryPrefix(direction, endPointField.getEndPoint());
+    fields.add(Fields.stringField(StoreDefinition.FieldLineageStore.ENDPOINT_FIELD,
+        endPointField.getField()));
+    return fields;
+  }
+
   private List<Field<?>> getOperationReferenceRowKey(String direction, EndPoint endPoint,
       ProgramRunId programRunId) {
     long invertedStartTime = getInvertedStartTime(programRunId);
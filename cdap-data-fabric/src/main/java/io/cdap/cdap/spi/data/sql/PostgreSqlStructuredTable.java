@@ -47,6 +47,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
@@ -88,6 +89,26 @@ public class PostgreSqlStructuredTable implements StructuredTable {
     upsertInternal(fields);
   }
 
+  @Override
+  public void multiUpsert(Collection<? extends Collection<Field<?>>> multiFields)
+      throws InvalidFieldException, IOException {
+    LOG.trace("Table {}: Write multiple rows {}", tableSchema.getTableId(), multiFields);
+    for (Collection<Field<?>> fields : multiFields) {
+      Set<String> fieldNames = fields.stream().map(Field::getName).collect(Collectors.toSet());
+      if (!fieldNames.containsAll(tableSchema.getPrimaryKeys())) {
+        throw new InvalidFieldException(tableSchema.getTableId(), fields,
+            String.format("Given fields %s do not contain all the "
+                + "primary keys %s", fieldNames, tableSchema.getPrimaryKeys()));
+      }
+    }
+    try {
+      executeBatch(multiFields, fields -> getWriteSqlQuery(fields, null));
+    } catch (SQLException e) {
+      throw new IOException(String.format("Failed to write to table %s with multiple rows %s",
+          tableSchema.getTableId().getName(), multiFields), e);
+    }
+  }
+
   @Override
   public void update(Collection<Field<?>> fields) throws InvalidFieldException, IOException {
     LOG.trace("Table {}: Update fields {}", tableSchema.getTableId(), fields);
@@ -552,6 +573,21 @@ public class PostgreSqlStructuredTable implements StructuredTable {
     }
   }
 
+  @Override
+  public void multiDelete(Collection<? extends Collection<Field<?>>> multiKeys)
+      throws InvalidFieldException, IOException {
+    LOG.trace("Table {}: Delete with multiple keys {}", tableSchema.getTableId(), multiKeys);
+    for (Collection<Field<?>> keys : multiKeys) {
+      fieldValidator.validatePrimaryKeys(keys, false);
+    }
+    try {
+      executeBatch(multiKeys, this::getDeleteQuery);
+    } catch (SQLException e) {
+      throw new IOException(String.format("Failed to delete rows from table %s with multi keys %s",
+          tableSchema.getTableId().getName(), multiKeys), e);
+    }
+  }
+
   @Override
   public void deleteAll(Range keyRange) throws InvalidFieldException, IOException {
     LOG.trace("Table {}: DeleteAll with range {}", tableSchema.getTableId(), keyRange);
@@ -628,6 +664,43 @@ public class PostgreSqlStructuredTable implements StructuredTable {
     }
   }
 
+  /**
+   * Executes a statement for each of the given rows using JDBC batching. Consecutive rows that
+   * produce the same SQL are added to the same batch, so that the rows are applied in order.
+   *
+   * @param rows the fields of each row, which are set into the statement in iteration order
+   * @param sqlFunction function to generate the SQL for a row
+   */
+  private void executeBatch(Collection<? extends Collection<Field<?>>> rows,
+      Function<Collection<Field<?>>, String> sqlFunction) throws SQLException {
+    PreparedStatement statement = null;
+    String currentSql = null;
+    try {
+      for (Collection<Field<?>> fields : rows) {
+        String sql = sqlFunction.apply(fields);
+        if (!sql.equals(currentSql)) {
+          if (statement != null) {
+            LOG.trace("SQL batch statement: {}", currentSql);
+            statement.executeBatch();
+            statement.close();
+          }
+          statement = connection.prepareStatement(sql);
+          currentSql = sql;
+        }
+        setFields(statement, fields, 1);
+        statement.addBatch();
+      }
+      if (statement != null) {
+        LOG.trace("SQL batch statement: {}", currentSql);
+        statement.executeBatch();
+      }
+    } finally {
+      if (statement != null) {
+        statement.close();
+      }
+    }
+  }
+
   private void updateRangeInternal(Range keyRange, Collection<Field<?>> fields) throws IOException {
     String sqlQuery = getUpdateRangeSqlQuery(keyRange, fields);
     try (PreparedStatement statement = connection.prepareStatement(sqlQuery)) {
@@ -445,6 +445,7 @@ public final class StoreDefinition {
     public static final String RUN_STATUS = "run_status";
     public static final String RUN_START_TIME = "run_start_time";
     public static final String RUN_RECORD_DATA = "run_record_data";
+    public static final String RUN_RECORD_BINARY_DATA = "run_record_binary_data";
     public static final String WORKFLOW_DATA = "workflow_data";
     public static final String COUNT_TYPE = "count_type";
     public static final String COUNTS = "counts";
@@ -508,7 +509,8 @@ public final class StoreDefinition {
                 Fields.stringType(PROGRAM_FIELD),
                 Fields.longType(RUN_START_TIME),
                 Fields.stringType(RUN_FIELD),
-                Fields.stringType(RUN_RECORD_DATA))
+                Fields.stringType(RUN_RECORD_DATA),
+                Fields.bytesType(RUN_RECORD_BINARY_DATA))
             .withPrimaryKeys(RUN_STATUS, NAMESPACE_FIELD, APPLICATION_FIELD, VERSION_FIELD,
                 PROGRAM_TYPE_FIELD,
                 PROGRAM_FIELD, RUN_START_TIME, RUN_FIELD)
@@ -1048,7 +1050,8 @@ public final class StoreDefinition {
    * Checksum can then be used the query the other tables. Also contains the program run info for
    * that checksum.
    *
-   * <p>The remaining tables store various endpoint data keyed by checksum.
+   * <p>The remaining tables store various endpoint data keyed by checksum, except for the endpoint
+   * summary table, which indexes the field summaries by endpoint field.
    */
   public static final class FieldLineageStore {
 
@@ -1060,6 +1063,8 @@ public final class StoreDefinition {
         "destination_fields_table");
     public static final StructuredTableId SUMMARY_FIELDS_TABLE = new StructuredTableId(
         "summary_fields_table");
+    public static final StructuredTableId ENDPOINT_SUMMARY_TABLE = new StructuredTableId(
+        "endpoint_summary_table");
 
     public static final String DIRECTION_FIELD = "direction";
     public static final String ENDPOINT_NAMESPACE_FIELD = "endpoint_namespace";
@@ -1114,6 +1119,20 @@ public final class StoreDefinition {
                 ENDPOINT_NAME_FIELD,
                 ENDPOINT_FIELD)
             .build();
+    // Same content as the summary fields table, keyed by the endpoint field first, so that the
+    // summaries of all the fields of an endpoint can be read with one scan
+    public static final StructuredTableSpecification ENDPOINT_SUMMARY_SPEC =
+        new StructuredTableSpecification.Builder()
+            .withId(ENDPOINT_SUMMARY_TABLE)
+            .withFields(Fields.stringType(DIRECTION_FIELD),
+                Fields.stringType(ENDPOINT_NAMESPACE_FIELD),
+                Fields.stringType(ENDPOINT_NAME_FIELD),
+                Fields.stringType(ENDPOINT_FIELD),
+                Fields.longType(CHECKSUM_FIELD),
+                Fields.stringType(DESTINATION_DATA_FIELD))
+            .withPrimaryKeys(DIRECTION_FIELD, ENDPOINT_NAMESPACE_FIELD, ENDPOINT_NAME_FIELD,
+                ENDPOINT_FIELD, CHECKSUM_FIELD)
+            .build();
 
     /**
      * Creates field lineage store tables.
@@ -1126,6 +1145,7 @@ public final class StoreDefinition {
       createIfNotExists(tableAdmin, OPERATIONS_SPEC);
       createIfNotExists(tableAdmin, DESTINATION_FIELDS_SPEC);
       createIfNotExists(tableAdmin, SUMMARY_FIELDS_SPEC);
+      createIfNotExists(tableAdmin, ENDPOINT_SUMMARY_SPEC);
     }
   }
 
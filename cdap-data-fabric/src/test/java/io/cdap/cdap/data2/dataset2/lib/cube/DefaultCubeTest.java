@@ -16,13 +16,25 @@
 
 package io.cdap.cdap.data2.dataset2.lib.cube;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
 import io.cdap.cdap.api.dataset.lib.cube.Cube;
+import io.cdap.cdap.api.dataset.lib.cube.CubeQuery;
+import io.cdap.cdap.api.dataset.lib.cube.TimeSeries;
 import io.cdap.cdap.data2.dataset2.lib.table.inmemory.InMemoryMetricsTable;
 import io.cdap.cdap.data2.dataset2.lib.table.inmemory.InMemoryTableService;
 import io.cdap.cdap.data2.dataset2.lib.timeseries.EntityTable;
 import io.cdap.cdap.data2.dataset2.lib.timeseries.FactTable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
 
 /**
  *
@@ -39,6 +51,18 @@ public class DefaultCubeTest extends AbstractCubeTest {
   protected Cube getCube(String name, int[] resolutions, Map<String, ? extends Aggregation> aggregations,
                          int coarseLagFactor, int coarseRoundFactor) throws Exception {
 
+    return getCube(name, resolutions, aggregations, coarseLagFactor, coarseRoundFactor, 0L);
+  }
+
+  private Cube getCube(String name, int[] resolutions, Map<String, ? extends Aggregation> aggregations,
+                       int coarseLagFactor, int coarseRoundFactor, long queryCacheTTLMillis) {
+    return getCube(name, resolutions, aggregations, coarseLagFactor, coarseRoundFactor, queryCacheTTLMillis,
+                   Collections.emptySet());
+  }
+
+  private DefaultCube getCube(String name, int[] resolutions, Map<String, ? extends Aggregation> aggregations,
+                              int coarseLagFactor, int coarseRoundFactor, long queryCacheTTLMillis,
+                              Set<Integer> rollupResolutions) {
     FactTableSupplier supplier = (resolution, rollTime) -> {
       String entityTableName = "EntityTable-" + name;
       InMemoryTableService.create(entityTableName);
@@ -50,6 +74,108 @@ public class DefaultCubeTest extends AbstractCubeTest {
 
     };
 
-    return new DefaultCube(resolutions, supplier, aggregations, ImmutableMap.<String, AggregationAlias>of());
+    // query with parallel sub-scans, to cover it with the tests in AbstractCubeTest
+    return new DefaultCube(resolutions, supplier, aggregations, ImmutableMap.<String, AggregationAlias>of(),
+                           1, 2, queryCacheTTLMillis, rollupResolutions);
+  }
+
+  @Test
+  public void testParallelQuery() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1", "dim2"));
+    Cube cube = getCube("myParallelCube", new int[] {1}, ImmutableMap.of("agg", agg));
+
+    for (int i = 0; i < 5; i++) {
+      writeInc(cube, "metric" + i, 1, i + 1, "1", "1");
+      writeInc(cube, "metric" + i, 2, 10 * (i + 1), "1", "2");
+      writeInc(cube, "metric" + i, 2, 1, "1", "1");
+    }
+
+    Map<String, AggregationFunction> measurements = new HashMap<>();
+    for (int i = 0; i < 5; i++) {
+      measurements.put("metric" + i, AggregationFunction.SUM);
+    }
+    CubeQuery query = CubeQuery.builder()
+      .select()
+        .measurements(measurements)
+      .from("agg").resolution(1, TimeUnit.SECONDS)
+      .where()
+        .dimension("dim1", "1")
+        .timeRange(0, 10)
+      .groupBy()
+        .dimension("dim2")
+      .limit(100)
+      .build();
+
+    Set<TimeSeries> expected = new HashSet<>();
+    for (int i = 0; i < 5; i++) {
+      expected.add(new TimeSeries("metric" + i, ImmutableMap.of("dim2", "1"), timeValues(1, i + 1, 2, 1)));
+      expected.add(new TimeSeries("metric" + i, ImmutableMap.of("dim2", "2"), timeValues(2, 10 * (i + 1))));
+    }
+    Assert.assertEquals(expected, new HashSet<>(cube.query(query)));
+  }
+
+  @Test
+  public void testQueryCache() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1"));
+    int[] resolutions = {Integer.MAX_VALUE};
+    Cube cube = getCube("myCachedCube", resolutions, ImmutableMap.of("agg", agg), 10, 1, TimeUnit.HOURS.toMillis(1));
+    // another cube on the same tables, like a cube in another process
+    Cube otherCube = getCube("myCachedCube", resolutions, ImmutableMap.of("agg", agg), 10, 1, 0L);
+
+    writeInc(cube, "metric1", 1, 1, "1");
+    verifyCountQuery(cube, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, "metric1", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("metric1", new HashMap<>(), timeValues(0, 1))));
+
+    // writes from the other cube are not visible until the cached result expires
+    writeInc(otherCube, "metric1", 2, 2, "1");
+    verifyCountQuery(cube, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, "metric1", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("metric1", new HashMap<>(), timeValues(0, 1))));
+    verifyCountQuery(otherCube, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, "metric1", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("metric1", new HashMap<>(), timeValues(0, 3))));
+
+    // writing in the time range of the query invalidates the cached result
+    writeInc(cube, "metric1", 3, 3, "1");
+    verifyCountQuery(cube, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, "metric1", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("metric1", new HashMap<>(), timeValues(0, 6))));
+  }
+
+  @Test
+  public void testRollup() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1"));
+    DefaultCube cube = getCube("myRollupCube", new int[] {1, 60}, ImmutableMap.of("agg", agg), 10, 1, 0L,
+                               Collections.singleton(60));
+
+    writeInc(cube, "counter", 1, 1, "1");
+    writeInc(cube, "counter", 30, 2, "1");
+    writeInc(cube, "counter", 61, 4, "1");
+    writeInc(cube, "counter", 30, 8, "2");
+    writeGauge(cube, "gauge", 10, 5, "1");
+    writeGauge(cube, "gauge", 50, 3, "1");
+    writeGauge(cube, "gauge", 70, 7, "1");
+
+    // the rollup resolution is not written when adding facts
+    verifyCountQuery(cube, 0, 120, 60, "counter", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(), ImmutableList.of());
+    verifyCountQuery(cube, 0, 120, 1, "counter", AggregationFunction.SUM,
+                     ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                     ImmutableList.of(new TimeSeries("counter", new HashMap<>(), timeValues(1, 1, 30, 2, 61, 4))));
+
+    // rolling up the same window again overwrites the same values
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(5, cube.rollup(1, 60, 0, 120, "gauge"::equals));
+      verifyCountQuery(cube, 0, 120, 60, "counter", AggregationFunction.SUM,
+                       ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                       ImmutableList.of(new TimeSeries("counter", new HashMap<>(), timeValues(0, 3, 60, 4))));
+      verifyCountQuery(cube, 0, 120, 60, "counter", AggregationFunction.SUM,
+                       new HashMap<>(), new ArrayList<>(),
+                       ImmutableList.of(new TimeSeries("counter", new HashMap<>(), timeValues(0, 11, 60, 4))));
+      verifyCountQuery(cube, 0, 120, 60, "gauge", AggregationFunction.LATEST,
+                       ImmutableMap.of("dim1", "1"), new ArrayList<>(),
+                       ImmutableList.of(new TimeSeries("gauge", new HashMap<>(), timeValues(0, 3, 60, 7))));
+    }
   }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.cube;
+
+import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
+import io.cdap.cdap.api.dataset.lib.cube.TimeValue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TimeValueAggregator}.
+ */
+public class TimeValueAggregatorTest {
+
+  @Test
+  public void testAggregationFunctions() {
+    for (AggregationFunction function : AggregationFunction.values()) {
+      TimeValueAggregator aggregator = new TimeValueAggregator(function);
+      // Timestamps out of order and repeated, to cover sorting and combining
+      long[][] values = {{5, 3}, {1, 7}, {5, 9}, {3, 2}, {1, 4}, {5, 1}};
+      for (long[] value : values) {
+        aggregator.add(value[0], value[1]);
+      }
+
+      List<TimeValue> expected = new ArrayList<>();
+      switch (function) {
+        case SUM:
+          expected.add(new TimeValue(1, 11));
+          expected.add(new TimeValue(3, 2));
+          expected.add(new TimeValue(5, 13));
+          break;
+        case MAX:
+          expected.add(new TimeValue(1, 7));
+          expected.add(new TimeValue(3, 2));
+          expected.add(new TimeValue(5, 9));
+          break;
+        case MIN:
+          expected.add(new TimeValue(1, 4));
+          expected.add(new TimeValue(3, 2));
+          expected.add(new TimeValue(5, 1));
+          break;
+        case LATEST:
+          expected.add(new TimeValue(1, 4));
+          expected.add(new TimeValue(3, 2));
+          expected.add(new TimeValue(5, 1));
+          break;
+        default:
+          Assert.fail("Unknown aggregation function " + function);
+      }
+      Assert.assertEquals(expected, aggregator.getTimeValues());
+      Assert.assertEquals(3, aggregator.size());
+    }
+  }
+
+  @Test
+  public void testManyValues() {
+    Random random = new Random();
+    TimeValueAggregator sum = new TimeValueAggregator(AggregationFunction.SUM);
+    TimeValueAggregator latest = new TimeValueAggregator(AggregationFunction.LATEST);
+    Map<Long, Long> expectedSum = new TreeMap<>();
+    Map<Long, Long> expectedLatest = new TreeMap<>();
+    for (int i = 0; i < 100000; i++) {
+      // mostly increasing timestamps with repeats, like rows of different dimension values
+      long timestamp = i % 1000 + random.nextInt(10);
+      long value = random.nextInt(1000);
+      sum.add(timestamp, value);
+      latest.add(timestamp, value);
+      expectedSum.merge(timestamp, value, Long::sum);
+      expectedLatest.put(timestamp, value);
+    }
+    Assert.assertEquals(toTimeValues(expectedSum), sum.getTimeValues());
+    Assert.assertEquals(toTimeValues(expectedLatest), latest.getTimeValues());
+  }
+
+  @Test
+  public void testAddAll() {
+    TimeValueAggregator aggregator = new TimeValueAggregator(AggregationFunction.LATEST);
+    aggregator.add(1, 1);
+    aggregator.add(2, 2);
+    TimeValueAggregator other = new TimeValueAggregator(AggregationFunction.LATEST);
+    other.add(3, 3);
+    other.add(2, 4);
+
+    aggregator.addAll(other);
+    Assert.assertEquals(Arrays.asList(new TimeValue(1, 1), new TimeValue(2, 4), new TimeValue(3, 3)),
+                        aggregator.getTimeValues());
+  }
+
+  private List<TimeValue> toTimeValues(Map<Long, Long> values) {
+    List<TimeValue> result = new ArrayList<>();
+    values.forEach((timestamp, value) -> result.add(new TimeValue(timestamp, value)));
+    return result;
+  }
+}
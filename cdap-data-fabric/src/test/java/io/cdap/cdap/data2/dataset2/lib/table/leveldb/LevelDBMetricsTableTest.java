@@ -16,8 +16,10 @@
 
 package io.cdap.cdap.data2.dataset2.lib.table.leveldb;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.dataset.DatasetProperties;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
@@ -37,15 +39,28 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.security.auth.context.AuthenticationContextModules;
 import io.cdap.cdap.security.authorization.AuthorizationEnforcementModule;
 import io.cdap.cdap.security.authorization.AuthorizationTestModule;
+import io.cdap.cdap.test.SlowTests;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * metrics table test for levelDB.
  */
 public class LevelDBMetricsTableTest extends MetricsTableTest {
 
+  private static final Logger LOG = LoggerFactory.getLogger(LevelDBMetricsTableTest.class);
+
   private static DatasetFramework dsFramework;
 
   @ClassRule
@@ -77,4 +92,56 @@ public class LevelDBMetricsTableTest extends MetricsTableTest {
         .getOrCreateDataset(dsFramework, metricsDatasetInstanceId, MetricsTable.class.getName(),
             DatasetProperties.EMPTY, null);
   }
+
+  /**
+   * Measures the throughput of increments from many threads, each with its own table instance,
+   * either on distinct rows or all on the same row.
+   */
+  @Category(SlowTests.class)
+  @Test
+  public void testIncrementThroughput() throws Exception {
+    int rounds = 20000;
+    for (boolean sameRow : new boolean[] { false, true }) {
+      for (int threadCount : new int[] { 1, 2, 4, 8, 16 }) {
+        String tableName = "testIncrementThroughput" + threadCount + (sameRow ? "same" : "distinct");
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+          MetricsTable table = getTable(tableName);
+          byte[] row = Bytes.toBytes(sameRow ? 0 : i);
+          Map<byte[], Long> increments = ImmutableMap.of(X, 1L, Y, 2L);
+          threads.add(new Thread(() -> {
+            try {
+              startLatch.await();
+              for (int j = 0; j < rounds; j++) {
+                table.increment(row, increments);
+              }
+              table.close();
+            } catch (Exception e) {
+              LOG.error("Failed to increment", e);
+            }
+          }));
+        }
+
+        threads.forEach(Thread::start);
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        for (Thread thread : threads) {
+          thread.join();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        try (MetricsTable table = getTable(tableName)) {
+          for (int i = 0; i < (sameRow ? 1 : threadCount); i++) {
+            long expected = (long) rounds * (sameRow ? threadCount : 1);
+            Assert.assertEquals(expected, table.incrementAndGet(Bytes.toBytes(i), X, 0L));
+            Assert.assertEquals(expected * 2, table.incrementAndGet(Bytes.toBytes(i), Y, 0L));
+          }
+        }
+        LOG.info("{} threads on {} rows: {} increments/s", threadCount,
+                 sameRow ? "the same" : "distinct",
+                 (long) rounds * threadCount * TimeUnit.SECONDS.toNanos(1) / elapsed);
+      }
+    }
+  }
 }
@@ -19,9 +19,12 @@ package io.cdap.cdap.data2.dataset2.lib.table.leveldb;
 import com.google.common.base.Preconditions;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.dataset.DatasetContext;
 import io.cdap.cdap.api.dataset.DatasetProperties;
 import io.cdap.cdap.api.dataset.DatasetSpecification;
+import io.cdap.cdap.api.dataset.table.Scan;
+import io.cdap.cdap.api.dataset.table.Scanner;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.guice.ConfigModule;
@@ -29,6 +32,7 @@ import io.cdap.cdap.common.guice.InMemoryDiscoveryModule;
 import io.cdap.cdap.common.guice.NonCustomLocationUnitTestModule;
 import io.cdap.cdap.data.runtime.DataFabricLevelDBModule;
 import io.cdap.cdap.data.runtime.TransactionMetricsModule;
+import io.cdap.cdap.data2.dataset2.lib.table.BufferingTable;
 import io.cdap.cdap.data2.dataset2.lib.table.BufferingTableTest;
 import io.cdap.cdap.data2.dataset2.lib.table.inmemory.PrefixedNamespaces;
 import io.cdap.cdap.security.auth.context.AuthenticationContextModules;
@@ -36,6 +40,7 @@ import io.cdap.cdap.security.authorization.AuthorizationEnforcementModule;
 import io.cdap.cdap.security.authorization.AuthorizationTestModule;
 import java.io.IOException;
 import java.util.Map;
+import org.apache.tephra.Transaction;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -91,6 +96,63 @@ public class LevelDBTableTest extends BufferingTableTest<LevelDBTable> {
     return false;
   }
 
+  @Test
+  public void testPersistBufferBeforeCommit() throws Exception {
+    String tableName = "testPersistBufferBeforeCommit";
+    DatasetProperties props = DatasetProperties.builder()
+        .add(BufferingTable.PROPERTY_BUFFER_FLUSH_BYTES, "1024").build();
+    LevelDBTableAdmin admin = getTableAdmin(CONTEXT1, tableName, props);
+    admin.create();
+    try (LevelDBTable table = getTable(CONTEXT1, tableName, props)) {
+      // Changes are persisted before commit and undone on rollback
+      Transaction tx1 = txClient.startShort();
+      table.startTx(tx1);
+      writeRows(table, 100);
+      Assert.assertTrue(countRows(table.scanPersisted(new Scan(null, null))) > 0);
+      Assert.assertEquals(100, countRows(table.scan(null, null)));
+      Assert.assertEquals(100, table.getTxChanges().size());
+      Assert.assertTrue(table.rollbackTx());
+      txClient.abort(tx1);
+
+      Transaction tx2 = txClient.startShort();
+      table.startTx(tx2);
+      Assert.assertEquals(0, countRows(table.scan(null, null)));
+      writeRows(table, 100);
+      txClient.canCommitOrThrow(tx2, table.getTxChanges());
+      Assert.assertTrue(table.commitTx());
+      txClient.commitOrThrow(tx2);
+      table.postTxCommit();
+
+      Transaction tx3 = txClient.startShort();
+      table.startTx(tx3);
+      Assert.assertEquals(100, countRows(table.scan(null, null)));
+      Assert.assertArrayEquals(Bytes.toBytes("value"), table.get(Bytes.toBytes("row099"),
+                                                                  Bytes.toBytes("column")));
+      txClient.commitOrThrow(tx3);
+    } finally {
+      admin.drop();
+    }
+  }
+
+  private void writeRows(LevelDBTable table, int count) {
+    for (int i = 0; i < count; i++) {
+      table.put(Bytes.toBytes(String.format("row%03d", i)), Bytes.toBytes("column"),
+                Bytes.toBytes("value"));
+    }
+  }
+
+  private int countRows(Scanner scanner) {
+    int count = 0;
+    try {
+      while (scanner.next() != null) {
+        count++;
+      }
+    } finally {
+      scanner.close();
+    }
+    return count;
+  }
+
   @Test
   public void testTablesSurviveAcrossRestart() throws Exception {
     // todo make this test run for hbase, too - requires refactoring of their injection
@@ -26,6 +26,8 @@ import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import org.apache.twill.api.RunId;
 import org.junit.Assert;
@@ -135,6 +137,65 @@ public abstract class LineageTableTest {
     });
   }
 
+  @Test
+  public void testBatchedRelations() {
+    RunId runId1 = RunIds.generate(10000);
+    RunId runId2 = RunIds.generate(20000);
+
+    DatasetId datasetInstance1 = NamespaceId.DEFAULT.dataset("dataset1");
+    DatasetId datasetInstance2 = NamespaceId.DEFAULT.dataset("dataset2");
+    DatasetId datasetInstance3 = NamespaceId.DEFAULT.dataset("dataset3");
+
+    ProgramId program1 = NamespaceId.DEFAULT.app("app1").spark("spark1");
+    ProgramId program2 = NamespaceId.DEFAULT.app("app2").worker("worker2");
+    ProgramId program3 = NamespaceId.DEFAULT.app("app3").service("service3");
+
+    TransactionRunners.run(transactionRunner, context -> {
+      LineageTable lineageTable = LineageTable.create(context);
+      lineageTable.addAccess(program1.run(runId1.getId()), datasetInstance1, AccessType.READ, 10000);
+      lineageTable.addAccess(program1.run(runId1.getId()), datasetInstance2, AccessType.WRITE, 10000);
+      lineageTable.addAccess(program2.run(runId2.getId()), datasetInstance2, AccessType.READ, 20000);
+    });
+
+    Relation relation11 = new Relation(datasetInstance1, program1, AccessType.READ, runId1);
+    Relation relation21 = new Relation(datasetInstance2, program1, AccessType.WRITE, runId1);
+    Relation relation22 = new Relation(datasetInstance2, program2, AccessType.READ, runId2);
+
+    TransactionRunners.run(transactionRunner, context -> {
+      LineageTable lineageTable = LineageTable.create(context);
+      Map<DatasetId, Set<Relation>> expectedDatasetRelations = new HashMap<>();
+      expectedDatasetRelations.put(datasetInstance1, toSet(relation11));
+      expectedDatasetRelations.put(datasetInstance2, toSet(relation21, relation22));
+      expectedDatasetRelations.put(datasetInstance3, toSet());
+      Assert.assertEquals(expectedDatasetRelations,
+                          lineageTable.getDatasetRelations(ImmutableList.of(datasetInstance1, datasetInstance2,
+                                                                            datasetInstance3), 0, 100000, x -> true));
+
+      // Reduced time range and filter
+      expectedDatasetRelations.put(datasetInstance2, toSet(relation21));
+      Assert.assertEquals(expectedDatasetRelations,
+                          lineageTable.getDatasetRelations(ImmutableList.of(datasetInstance1, datasetInstance2,
+                                                                            datasetInstance3), 0, 15000, x -> true));
+      expectedDatasetRelations.put(datasetInstance1, toSet());
+      Assert.assertEquals(expectedDatasetRelations,
+                          lineageTable.getDatasetRelations(
+                            ImmutableList.of(datasetInstance1, datasetInstance2, datasetInstance3), 0, 15000,
+                            relation -> relation.getAccess() == AccessType.WRITE));
+
+      // Programs are matched regardless of the application version
+      ProgramId versionedProgram2 = NamespaceId.DEFAULT.app("app2", "1.0").worker("worker2");
+      Map<ProgramId, Set<Relation>> expectedProgramRelations = new HashMap<>();
+      expectedProgramRelations.put(program1, toSet(relation11, relation21));
+      expectedProgramRelations.put(versionedProgram2, toSet(relation22));
+      expectedProgramRelations.put(program3, toSet());
+      Assert.assertEquals(expectedProgramRelations,
+                          lineageTable.getProgramRelations(ImmutableList.of(program1, versionedProgram2, program3),
+                                                           0, 100000, x -> true));
+
+      Assert.assertTrue(lineageTable.getDatasetRelations(ImmutableList.of(), 0, 100000, x -> true).isEmpty());
+    });
+  }
+
   @SafeVarargs
   private static <T> Set<T> toSet(T... elements) {
     return ImmutableSet.copyOf(elements);
@@ -27,13 +27,17 @@ import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.metadata.lineage.ProgramRunOperations;
+import io.cdap.cdap.spi.data.table.field.Range;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
+import io.cdap.cdap.store.StoreDefinition;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.twill.api.RunId;
 import org.junit.Assert;
@@ -224,6 +228,71 @@ public abstract class FieldLineageTableTest {
     });
   }
 
+  @Test
+  public void testEndpointSummaries() {
+    ProgramId program = new ProgramId("default", "app1", ProgramType.WORKFLOW, "workflow1");
+    ProgramRunId programRun1 = program.run(RunIds.generate(10000).getId());
+    ProgramRunId programRun2 = program.run(RunIds.generate(11000).getId());
+
+    EndPoint source1 = EndPoint.of("ns1", "endpoint1");
+    EndPoint source2 = EndPoint.of("ns1", "endpoint2");
+    EndPoint destination = EndPoint.of("ns", "endpoint3");
+    List<Operation> operations = new ArrayList<>();
+    operations.add(new ReadOperation("read", "some read", source1, "offset", "body"));
+    operations.add(new WriteOperation("write", "some write", destination, InputField.of("read", "offset"),
+                                      InputField.of("read", "body")));
+    FieldLineageInfo info1 = new FieldLineageInfo(operations);
+    operations.add(new ReadOperation("anotherRead", "another read", source2, "offset", "body"));
+    operations.add(new WriteOperation("anotherWrite", "another write", destination,
+                                      InputField.of("anotherRead", "body")));
+    FieldLineageInfo info2 = new FieldLineageInfo(operations);
+
+    TransactionRunners.run(transactionRunner, context -> {
+      FieldLineageTable fieldLineageTable = FieldLineageTable.create(context);
+      fieldLineageTable.addFieldLineageInfo(programRun1, info1);
+      fieldLineageTable.addFieldLineageInfo(programRun2, info2);
+    });
+
+    Map<String, Set<EndPointField>> expectedIncoming = new HashMap<>();
+    expectedIncoming.put("offset", Collections.singleton(new EndPointField(source1, "offset")));
+    expectedIncoming.put("body", new HashSet<>(Arrays.asList(new EndPointField(source1, "body"),
+                                                             new EndPointField(source2, "body"))));
+    Map<String, Set<EndPointField>> expectedOutgoing = new HashMap<>();
+    expectedOutgoing.put("offset", Collections.singleton(new EndPointField(destination, "offset")));
+    expectedOutgoing.put("body", Collections.singleton(new EndPointField(destination, "body")));
+
+    TransactionRunners.run(transactionRunner, context -> {
+      FieldLineageTable fieldLineageTable = FieldLineageTable.create(context);
+      Assert.assertEquals(expectedIncoming, fieldLineageTable.getIncomingSummaries(destination, 0, 11001));
+      Assert.assertEquals(expectedOutgoing, fieldLineageTable.getOutgoingSummaries(source1, 0, 11001));
+      Assert.assertEquals(Collections.singletonMap("body", Collections.singleton(new EndPointField(destination,
+                                                                                                   "body"))),
+                          fieldLineageTable.getOutgoingSummaries(source2, 0, 11001));
+      // the offset of the second source is not written to the destination
+      Assert.assertEquals(Collections.singleton("body"), fieldLineageTable.getFields(source2, 0, 11001));
+
+      // only the first run is in the time range
+      Map<String, Set<EndPointField>> expectedFirstRun = new HashMap<>();
+      expectedFirstRun.put("offset", Collections.singleton(new EndPointField(source1, "offset")));
+      expectedFirstRun.put("body", Collections.singleton(new EndPointField(source1, "body")));
+      Assert.assertEquals(expectedFirstRun, fieldLineageTable.getIncomingSummaries(destination, 0, 10001));
+      Assert.assertTrue(fieldLineageTable.getOutgoingSummaries(source2, 0, 10001).isEmpty());
+    });
+
+    // lineage recorded without the endpoint summary table is read from the summary fields table
+    TransactionRunners.run(transactionRunner, context -> {
+      context.getTable(StoreDefinition.FieldLineageStore.ENDPOINT_SUMMARY_TABLE).deleteAll(Range.all());
+    });
+    TransactionRunners.run(transactionRunner, context -> {
+      FieldLineageTable fieldLineageTable = FieldLineageTable.create(context);
+      Assert.assertEquals(expectedIncoming, fieldLineageTable.getIncomingSummaries(destination, 0, 11001));
+      Assert.assertEquals(expectedOutgoing, fieldLineageTable.getOutgoingSummaries(source1, 0, 11001));
+      Assert.assertEquals(expectedIncoming.get("body"),
+                          fieldLineageTable.getIncomingSummary(new EndPointField(destination, "body"), 0, 11001));
+      Assert.assertEquals(Collections.singleton("body"), fieldLineageTable.getFields(source2, 0, 11001));
+    });
+  }
+
   private List<Operation> generateOperations(boolean addAditionalField) {
     // read: file -> (offset, body)
     // parse: (body) -> (first_name, last_name)
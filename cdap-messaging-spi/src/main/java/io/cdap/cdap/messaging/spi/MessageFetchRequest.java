@@ -40,4 +40,13 @@ public interface MessageFetchRequest {
 
   int getLimit();
 
+  /**
+   * Returns the maximum time in milliseconds to wait for new messages if there is no message
+   * available when the fetch is performed. A value of {@code 0} means return immediately.
+   * Implementations that don't support waiting for messages can ignore it and return immediately.
+   */
+  default long getPollTimeoutMillis() {
+    return 0L;
+  }
+
 }
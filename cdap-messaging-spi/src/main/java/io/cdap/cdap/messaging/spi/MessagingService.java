@@ -24,6 +24,9 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -148,4 +151,80 @@ public interface MessagingService {
    */
   CloseableIterator<RawMessage> fetch(MessageFetchRequest messageFetchRequest)
       throws TopicNotFoundException, IOException;
+
+  /**
+   * Fetches messages from multiple topics in one call. Each request is fetched from its own start
+   * position and with its own limit. Since all messages are returned in memory, callers should set
+   * a limit on each request. The poll timeout of the requests is ignored.
+   *
+   * This is the same as calling {@link #multiFetch(Collection, long)} without a maximum size.
+   *
+   * @param messageFetchRequests the requests for fetching messages. Each request must be for a
+   *     different topic.
+   * @return a {@link Map} from topic to the list of messages fetched from it. The map is ordered
+   *     the same way as the given requests and contains an entry for every request.
+   * @throws TopicNotFoundException if any of the topics does not exist
+   * @throws IOException if it fails to fetch messages
+   * @throws ServiceUnavailableException if the messaging service is not available
+   */
+  default Map<TopicId, List<RawMessage>> multiFetch(
+      Collection<? extends MessageFetchRequest> messageFetchRequests)
+      throws TopicNotFoundException, IOException {
+    return multiFetch(messageFetchRequests, Long.MAX_VALUE);
+  }
+
+  /**
+   * Fetches messages from multiple topics in one call, up to the given total size. Each request is
+   * fetched from its own start position and with its own limit. The topics are read in the order
+   * of the requests, and reading stops once the total size of the ids and payloads of the messages
+   * fetched reaches the maximum size. The messages left out can be fetched by the next call, which
+   * starts after the last message returned for each topic. The first message is always returned,
+   * even if it is larger than the maximum size. The poll timeout of the requests is ignored.
+   *
+   * The default implementation performs one {@link #fetch(MessageFetchRequest)} per request.
+   * Implementations that involve remote calls should override it to fetch all topics with a single
+   * call.
+   *
+   * @param messageFetchRequests the requests for fetching messages. Each request must be for a
+   *     different topic.
+   * @param maxSize the maximum total size in bytes of the ids and payloads of the messages
+   * @return a {@link Map} from topic to the list of messages fetched from it. The map is ordered
+   *     the same way as the given requests and contains an entry for every request.
+   * @throws TopicNotFoundException if any of the topics does not exist
+   * @throws IOException if it fails to fetch messages
+   * @throws ServiceUnavailableException if the messaging service is not available
+   */
+  default Map<TopicId, List<RawMessage>> multiFetch(
+      Collection<? extends MessageFetchRequest> messageFetchRequests, long maxSize)
+      throws TopicNotFoundException, IOException {
+    Map<TopicId, List<RawMessage>> result = new LinkedHashMap<>();
+    for (MessageFetchRequest request : messageFetchRequests) {
+      if (result.containsKey(request.getTopicId())) {
+        throw new IllegalArgumentException(
+            "Multiple fetch requests for the same topic " + request.getTopicId());
+      }
+      result.put(request.getTopicId(), new ArrayList<>());
+    }
+
+    long size = 0L;
+    for (MessageFetchRequest request : messageFetchRequests) {
+      if (size >= maxSize) {
+        break;
+      }
+      List<RawMessage> messages = result.get(request.getTopicId());
+      try (CloseableIterator<RawMessage> iterator = fetch(request)) {
+        while (iterator.hasNext()) {
+          RawMessage message = iterator.next();
+          long messageSize = message.getId().length + message.getPayload().length;
+          if (size > 0L && size + messageSize > maxSize) {
+            size = maxSize;
+            break;
+          }
+          size += messageSize;
+          messages.add(message);
+        }
+      }
+    }
+    return result;
+  }
 }
@@ -42,6 +42,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -73,18 +74,7 @@ public class SpannerStructuredTable implements StructuredTable {
 
   @Override
   public void upsert(Collection<Field<?>> fields) throws InvalidFieldException {
-    Map<String, Field<?>> fieldMap = fields.stream()
-        .collect(Collectors.toMap(Field::getName, Function.identity()));
-    List<Field<?>> primaryKeyFields = new ArrayList<>();
-
-    for (String key : schema.getPrimaryKeys()) {
-      Field<?> field = fieldMap.get(key);
-      if (field == null) {
-        throw new InvalidFieldException(schema.getTableId(), key,
-            "Missing primary key field " + key);
-      }
-      primaryKeyFields.add(field);
-    }
+    List<Field<?>> primaryKeyFields = getPrimaryKeyFields(fields);
 
     // Cloud Spanner doesn't support upsert. The best we can do is to read the existing row and update it if it exists
     // in the same transaction.
@@ -97,8 +87,54 @@ public class SpannerStructuredTable implements StructuredTable {
     }
   }
 
+  @Override
+  public void multiUpsert(Collection<? extends Collection<Field<?>>> multiFields)
+      throws InvalidFieldException {
+    if (multiFields.isEmpty()) {
+      return;
+    }
+
+    // Same as upsert, Cloud Spanner doesn't support upsert with DML. Instead of reading the rows one
+    // by one, find all the existing rows with one read, then execute the inserts and updates in one
+    // batch.
+    List<Key> keys = new ArrayList<>(multiFields.size());
+    KeySet.Builder keySet = KeySet.newBuilder();
+    for (Collection<Field<?>> fields : multiFields) {
+      Key key = getKey(getPrimaryKeyFields(fields));
+      keys.add(key);
+      keySet.addKey(key);
+    }
+
+    Set<Key> existingKeys = new HashSet<>();
+    try (ResultSet resultSet = transactionContext.read(schema.getTableId().getName(),
+        keySet.build(), schema.getPrimaryKeys())) {
+      while (resultSet.next()) {
+        existingKeys.add(getKey(
+            new SpannerStructuredRow(schema, resultSet.getCurrentRowAsStruct()).getPrimaryKeys()));
+      }
+    }
+
+    List<Statement> statements = new ArrayList<>(multiFields.size());
+    Iterator<Key> keyIterator = keys.iterator();
+    for (Collection<Field<?>> fields : multiFields) {
+      // Rows that appear more than once are inserted the first time and updated afterward
+      if (existingKeys.add(keyIterator.next())) {
+        statements.add(createInsertStatement(fields));
+      } else {
+        statements.add(createUpdateStatement(fields));
+      }
+    }
+    // Uses DML instead of mutations so that the writes are visible to reads in the same transaction
+    transactionContext.batchUpdate(statements);
+  }
+
   @Override
   public void update(Collection<Field<?>> fields) throws InvalidFieldException {
+    transactionContext.executeUpdate(createUpdateStatement(fields));
+  }
+
+  private Statement createUpdateStatement(Collection<Field<?>> fields)
+      throws InvalidFieldException {
     List<Field<?>> primaryKeyFields = new ArrayList<>();
     List<Field<?>> updateFields = new ArrayList<>();
     Set<String> fieldNames = new HashSet<>();
@@ -126,13 +162,11 @@ public class SpannerStructuredTable implements StructuredTable {
 
     LOG.trace("Updating row: {}", sql);
 
-    Statement statement = fields.stream()
+    return fields.stream()
         .reduce(Statement.newBuilder(sql),
             (builder, field) -> builder.bind(field.getName()).to(getValue(field)),
             (builder1, builder2) -> builder1)
         .build();
-
-    transactionContext.executeUpdate(statement);
   }
 
   @Override
@@ -360,18 +394,33 @@ public class SpannerStructuredTable implements StructuredTable {
 
   @Override
   public void delete(Collection<Field<?>> keys) throws InvalidFieldException {
+    transactionContext.executeUpdate(createDeleteStatement(keys));
+  }
+
+  @Override
+  public void multiDelete(Collection<? extends Collection<Field<?>>> multiKeys)
+      throws InvalidFieldException {
+    if (multiKeys.isEmpty()) {
+      return;
+    }
+    List<Statement> statements = new ArrayList<>(multiKeys.size());
+    for (Collection<Field<?>> keys : multiKeys) {
+      statements.add(createDeleteStatement(keys));
+    }
+    transactionContext.batchUpdate(statements);
+  }
+
+  private Statement createDeleteStatement(Collection<Field<?>> keys) throws InvalidFieldException {
     fieldValidator.validatePrimaryKeys(keys, false);
     String sql = "DELETE FROM " + escapeName(schema.getTableId().getName()) + " WHERE "
         + keys.stream().map(f -> escapeName(f.getName()) + " = @" + f.getName())
         .collect(Collectors.joining(" AND "));
 
-    Statement statement = keys.stream()
+    return keys.stream()
         .reduce(Statement.newBuilder(sql),
             (builder, field) -> builder.bind(field.getName()).to(getValue(field)),
             (builder1, builder2) -> builder1)
         .build();
-
-    transactionContext.executeUpdate(statement);
   }
 
   @Override
@@ -568,6 +617,11 @@ public class SpannerStructuredTable implements StructuredTable {
   }
 
   private void insert(Collection<Field<?>> fields) throws InvalidFieldException {
+    transactionContext.executeUpdate(createInsertStatement(fields));
+  }
+
+  private Statement createInsertStatement(Collection<Field<?>> fields)
+      throws InvalidFieldException {
     List<Field<?>> insertFields = new ArrayList<>();
     for (Field<?> field : fields) {
       fieldValidator.validateField(field);
@@ -582,13 +636,34 @@ public class SpannerStructuredTable implements StructuredTable {
 
     LOG.trace("Inserting row: {}", sql);
 
-    Statement statement = fields.stream()
+    return fields.stream()
         .reduce(Statement.newBuilder(sql),
             (builder, field) -> builder.bind(field.getName()).to(getValue(field)),
             (builder1, builder2) -> builder1)
         .build();
+  }
 
-    transactionContext.executeUpdate(statement);
+  /**
+   * Returns the primary key fields from the given fields, in the order of the primary keys in the
+   * table schema.
+   *
+   * @throws InvalidFieldException if any of the primary key fields is missing
+   */
+  private List<Field<?>> getPrimaryKeyFields(Collection<Field<?>> fields)
+      throws InvalidFieldException {
+    Map<String, Field<?>> fieldMap = fields.stream()
+        .collect(Collectors.toMap(Field::getName, Function.identity()));
+    List<Field<?>> primaryKeyFields = new ArrayList<>();
+
+    for (String key : schema.getPrimaryKeys()) {
+      Field<?> field = fieldMap.get(key);
+      if (field == null) {
+        throw new InvalidFieldException(schema.getTableId(), key,
+            "Missing primary key field " + key);
+      }
+      primaryKeyFields.add(field);
+    }
+    return primaryKeyFields;
   }
 
   private Key createKey(Collection<Field<?>> fields) {
@@ -156,6 +156,63 @@ public abstract class StructuredTableTest {
     Assert.assertEquals(Collections.emptyList(), actual);
   }
 
+  @Test
+  public void testMultiUpsertMultiDelete() throws Exception {
+    int max = 10;
+
+    // Write all rows in one call
+    List<Collection<Field<?>>> expected = new ArrayList<>(max);
+    for (int i = 0; i < max; i++) {
+      expected.add(createSimpleRow(i, ""));
+    }
+    getTransactionRunner().run(context -> {
+      StructuredTable table = context.getTable(SIMPLE_TABLE);
+      table.multiUpsert(expected);
+      // The writes should be visible in the same transaction
+      Assert.assertTrue(table.read(Arrays.asList(Fields.intField(KEY, 0), Fields.longField(KEY2, 0L),
+                                                 Fields.stringField(KEY3, "key3"))).isPresent());
+    });
+    Assert.assertEquals(expected, readSimpleStructuredRows(max));
+
+    // Replace existing rows together with new rows. For rows appearing more than once, the last one wins.
+    List<Collection<Field<?>>> updates = new ArrayList<>();
+    updates.add(createSimpleRow(0, "-first"));
+    updates.add(createSimpleRow(max, "-new"));
+    updates.add(createSimpleRow(0, "-updated"));
+    updates.add(createSimpleRow(max + 1, "-new"));
+    getTransactionRunner().run(context -> context.getTable(SIMPLE_TABLE).multiUpsert(updates));
+
+    expected.set(0, createSimpleRow(0, "-updated"));
+    expected.add(createSimpleRow(max, "-new"));
+    expected.add(createSimpleRow(max + 1, "-new"));
+    Assert.assertEquals(expected, readSimpleStructuredRows(max + 2));
+
+    // Delete the even rows in one call
+    List<Collection<Field<?>>> keys = new ArrayList<>();
+    for (int i = 0; i < max + 2; i += 2) {
+      keys.add(Arrays.asList(Fields.intField(KEY, i), Fields.longField(KEY2, (long) i),
+                             Fields.stringField(KEY3, "key3")));
+    }
+    getTransactionRunner().run(context -> context.getTable(SIMPLE_TABLE).multiDelete(keys));
+
+    List<Collection<Field<?>>> remaining = new ArrayList<>();
+    for (int i = 1; i < max + 2; i += 2) {
+      remaining.add(expected.get(i));
+    }
+    Assert.assertEquals(remaining, readSimpleStructuredRows(max + 2));
+
+    // Empty collections are no-op
+    getTransactionRunner().run(context -> {
+      StructuredTable table = context.getTable(SIMPLE_TABLE);
+      table.multiUpsert(Collections.emptyList());
+      table.multiDelete(Collections.emptyList());
+    });
+    Assert.assertEquals(remaining, readSimpleStructuredRows(max + 2));
+
+    // Delete the remaining rows
+    deleteSimpleStructuredRows(max + 2);
+  }
+
   @Test
   public void testMultiRead() throws Exception {
     int max = 100;
@@ -1917,6 +1974,16 @@ public abstract class StructuredTableTest {
     return expected;
   }
 
+  private List<Field<?>> createSimpleRow(int i, String suffix) {
+    return Arrays.asList(Fields.intField(KEY, i),
+                         Fields.longField(KEY2, (long) i),
+                         Fields.stringField(KEY3, "key3"),
+                         Fields.stringField(STRING_COL, VAL + i + suffix),
+                         Fields.doubleField(DOUBLE_COL, (double) i),
+                         Fields.floatField(FLOAT_COL, (float) i),
+                         Fields.bytesField(BYTES_COL, Bytes.toBytes("bytes-" + i)));
+  }
+
   private List<Collection<Field<?>>> writeSimpleStructuredRowsWithNullColumn(int max, String suffix) throws Exception {
     List<Collection<Field<?>>> expected = new ArrayList<>(max);
     // Write rows in reverse order to test sorting
@@ -30,6 +30,7 @@ public class DefaultMessageFetchRequest implements MessageFetchRequest {
 
   // by default there is virtually no limit
   private int limit = Integer.MAX_VALUE;
+  private long pollTimeoutMillis;
 
   private DefaultMessageFetchRequest(
       TopicId topicId,
@@ -37,13 +38,15 @@ public class DefaultMessageFetchRequest implements MessageFetchRequest {
       boolean includeStart,
       Long startTime,
       Transaction transaction,
-      int limit) {
+      int limit,
+      long pollTimeoutMillis) {
     this.topicId = topicId;
     this.startOffset = startOffset;
     this.includeStart = includeStart;
     this.startTime = startTime;
     this.transaction = transaction;
     this.limit = limit;
+    this.pollTimeoutMillis = pollTimeoutMillis;
   }
 
   @Override
@@ -76,6 +79,11 @@ public class DefaultMessageFetchRequest implements MessageFetchRequest {
     return limit;
   }
 
+  @Override
+  public long getPollTimeoutMillis() {
+    return pollTimeoutMillis;
+  }
+
   public static class Builder {
 
     private TopicId topicId;
@@ -86,6 +94,7 @@ public class DefaultMessageFetchRequest implements MessageFetchRequest {
 
     // by default there is virtually no limit
     private int limit = Integer.MAX_VALUE;
+    private long pollTimeoutMillis;
 
     public Builder setTopicId(TopicId topicId) {
       this.topicId = topicId;
@@ -152,9 +161,26 @@ public class DefaultMessageFetchRequest implements MessageFetchRequest {
       return this;
     }
 
+    /**
+     * Sets the maximum time to wait for new messages if there is no message available when the
+     * fetch is performed. By default, this is set to {@code 0}, meaning the fetch returns
+     * immediately.
+     *
+     * @param pollTimeoutMillis maximum time in milliseconds to wait for new messages
+     * @return this instance
+     */
+    public Builder setPollTimeoutMillis(long pollTimeoutMillis) {
+      if (pollTimeoutMillis < 0) {
+        throw new IllegalArgumentException(
+            "Invalid message fetching poll timeout. Poll timeout must be >= 0");
+      }
+      this.pollTimeoutMillis = pollTimeoutMillis;
+      return this;
+    }
+
     public MessageFetchRequest build() {
       return new DefaultMessageFetchRequest(
-          topicId, startOffset, includeStart, startTime, transaction, limit);
+          topicId, startOffset, includeStart, startTime, transaction, limit, pollTimeoutMillis);
     }
   }
 }
@@ -67,6 +67,22 @@ public final class Schemas {
 
       public static final Schema SCHEMA = loadSchema(ConsumeResponse.class);
     }
+
+    /**
+     * Contains schema for consume request of multiple topics.
+     */
+    public static final class MultiConsumeRequest {
+
+      public static final Schema SCHEMA = loadSchema(MultiConsumeRequest.class);
+    }
+
+    /**
+     * Contains schema for consume response of multiple topics.
+     */
+    public static final class MultiConsumeResponse {
+
+      public static final Schema SCHEMA = loadSchema(MultiConsumeResponse.class);
+    }
   }
 
   private Schemas() {
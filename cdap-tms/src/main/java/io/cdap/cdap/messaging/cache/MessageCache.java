@@ -71,6 +71,8 @@ public class MessageCache<T> {
   private static final String METRICS_ADD_REDUCE_WEIGHT = "cache.add.reduce.weight";
   private static final String METRICS_SCAN_REQUESTS = "cache.scan.requests";
   private static final String METRICS_SCAN_REDUCE_WEIGHT = "cache.scan.reduce.weight";
+  private static final String METRICS_SCAN_HITS = "cache.scan.hits";
+  private static final String METRICS_SCAN_MISSES = "cache.scan.misses";
 
   private final NavigableSet<CacheEntry<T>> cache;
   private final Comparator<T> comparator;
@@ -235,6 +237,16 @@ public class MessageCache<T> {
     };
   }
 
+  /**
+   * Records the outcome of a scan for metrics purpose. A scan is a hit if all entries needed by the
+   * caller were available in the cache, hence no read from the underlying storage was needed.
+   *
+   * @param hit {@code true} if the scan was a cache hit
+   */
+  public void recordScan(boolean hit) {
+    metricsContext.increment(hit ? METRICS_SCAN_HITS : METRICS_SCAN_MISSES, 1L);
+  }
+
   /**
    * Updates entries in the cache. Update to each entry shouldn't change the ordering of the entry
    * based on the {@link Comparator} provided to this cache.
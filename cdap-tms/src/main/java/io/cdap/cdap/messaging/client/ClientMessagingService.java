@@ -63,6 +63,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -101,6 +102,8 @@ public final class ClientMessagingService implements MessagingService {
   }.getType();
   private static final Type TOPIC_LIST_TYPE = new TypeToken<List<String>>() {
   }.getType();
+  // Extra time on top of the poll timeout to wait for the server response before timing out the read
+  private static final long POLL_READ_TIMEOUT_MARGIN_MILLIS = 10000L;
 
   private final RemoteClient remoteClient;
   private final boolean compressPayload;
@@ -423,9 +426,19 @@ public final class ClientMessagingService implements MessagingService {
     // The cask common http library doesn't support read streaming, and we don't want to buffer all
     // messages
     // in memory, hence we use the HttpURLConnection directly instead.
-    HttpURLConnection urlConn =
-        remoteClient.openConnection(
-            HttpMethod.POST, createTopicPath(messageFetchRequest.getTopicId()) + "/poll");
+    // If poll timeout is set, ask the server to wait for new messages if there is none available.
+    // Servers that don't support it ignore the query parameter and return immediately.
+    long pollTimeoutMillis = messageFetchRequest.getPollTimeoutMillis();
+    String pollPath = createTopicPath(messageFetchRequest.getTopicId()) + "/poll";
+    if (pollTimeoutMillis > 0L) {
+      pollPath += "?timeout=" + pollTimeoutMillis;
+    }
+    HttpURLConnection urlConn = remoteClient.openConnection(HttpMethod.POST, pollPath);
+    if (pollTimeoutMillis > 0L && urlConn.getReadTimeout() > 0
+        && urlConn.getReadTimeout() < pollTimeoutMillis + POLL_READ_TIMEOUT_MARGIN_MILLIS) {
+      urlConn.setReadTimeout((int) Math.min(Integer.MAX_VALUE,
+          pollTimeoutMillis + POLL_READ_TIMEOUT_MARGIN_MILLIS));
+    }
     urlConn.setRequestProperty(HttpHeaders.CONTENT_TYPE, "avro/binary");
     if (compressPayload) {
       urlConn.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
@@ -515,6 +528,120 @@ public final class ClientMessagingService implements MessagingService {
     };
   }
 
+  @Override
+  public Map<TopicId, List<RawMessage>> multiFetch(
+      Collection<? extends MessageFetchRequest> messageFetchRequests, long maxSize)
+      throws TopicNotFoundException, IOException {
+    // The server fetches multiple topics of the same namespace in one call
+    Map<String, List<MessageFetchRequest>> namespaceRequests = new LinkedHashMap<>();
+    for (MessageFetchRequest request : messageFetchRequests) {
+      namespaceRequests.computeIfAbsent(request.getTopicId().getNamespace(),
+          k -> new ArrayList<>()).add(request);
+    }
+
+    Map<TopicId, List<RawMessage>> result = new HashMap<>();
+    for (Map.Entry<String, List<MessageFetchRequest>> entry : namespaceRequests.entrySet()) {
+      result.putAll(multiFetch(new NamespaceId(entry.getKey()), entry.getValue(), maxSize));
+    }
+
+    // Returns the result in the same order as the requests, up to the maximum size. The server
+    // bounds the size of each response, hence the trimming only applies across namespaces.
+    Map<TopicId, List<RawMessage>> orderedResult = new LinkedHashMap<>();
+    long size = 0L;
+    for (MessageFetchRequest request : messageFetchRequests) {
+      List<RawMessage> messages = result.get(request.getTopicId());
+      int count = 0;
+      for (RawMessage message : messages) {
+        long messageSize = message.getId().length + message.getPayload().length;
+        if (size > 0L && size + messageSize > maxSize) {
+          size = maxSize;
+          break;
+        }
+        size += messageSize;
+        count++;
+      }
+      orderedResult.put(request.getTopicId(),
+          count == messages.size() ? messages : new ArrayList<>(messages.subList(0, count)));
+    }
+    return orderedResult;
+  }
+
+  /**
+   * Fetches messages from multiple topics in the given namespace with a single call to the server.
+   */
+  private Map<TopicId, List<RawMessage>> multiFetch(
+      NamespaceId namespaceId, List<MessageFetchRequest> messageFetchRequests, long maxSize)
+      throws TopicNotFoundException, IOException {
+    Schema requestSchema = Schemas.V1.MultiConsumeRequest.SCHEMA;
+    List<GenericRecord> records = new ArrayList<>(messageFetchRequests.size());
+    for (MessageFetchRequest messageFetchRequest : messageFetchRequests) {
+      GenericRecord record = new GenericData.Record(requestSchema.getElementType());
+      record.put("topic", messageFetchRequest.getTopicId().getTopic());
+      if (messageFetchRequest.getStartOffset() != null) {
+        record.put("startFrom", ByteBuffer.wrap(messageFetchRequest.getStartOffset()));
+      }
+      if (messageFetchRequest.getStartTime() != null) {
+        record.put("startFrom", messageFetchRequest.getStartTime());
+      }
+      record.put("inclusive", messageFetchRequest.isIncludeStart());
+      record.put("limit", messageFetchRequest.getLimit());
+      if (messageFetchRequest.getTransaction() != null) {
+        record.put(
+            "transaction",
+            ByteBuffer.wrap(TRANSACTION_CODEC.encode(messageFetchRequest.getTransaction())));
+      }
+      records.add(record);
+    }
+
+    ExposedByteArrayOutputStream os = new ExposedByteArrayOutputStream();
+    Encoder encoder = EncoderFactory.get().directBinaryEncoder(os, null);
+    DatumWriter<List<GenericRecord>> datumWriter = new GenericDatumWriter<>(requestSchema);
+    datumWriter.write(records, encoder);
+
+    HttpRequest httpRequest = remoteClient.requestBuilder(HttpMethod.POST,
+            namespaceId.getNamespace() + "/poll")
+        .addHeader(HttpHeaders.CONTENT_TYPE, "avro/binary")
+        .withBody(os.toByteBuffer())
+        .build();
+    HttpResponse response = remoteClient.execute(httpRequest);
+
+    if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+      // The server responds with the name of the missing topic
+      String topic = response.getResponseBodyAsString();
+      for (MessageFetchRequest messageFetchRequest : messageFetchRequests) {
+        if (messageFetchRequest.getTopicId().getTopic().equals(topic)) {
+          throw new TopicNotFoundException(namespaceId.getNamespace(), topic);
+        }
+      }
+      // Otherwise it is an older server that doesn't support multi-topic fetch
+      return MessagingService.super.multiFetch(messageFetchRequests, maxSize);
+    }
+    handleError(response, "Failed to fetch messages from topics in namespace " + namespaceId);
+    verifyContentType(response.getHeaders().asMap(), "avro/binary");
+
+    // Decode the response, which is an array of topic name and the messages of the topic
+    Map<TopicId, List<RawMessage>> result = new HashMap<>();
+    Decoder decoder = DecoderFactory.get().binaryDecoder(response.getResponseBody(), null);
+    DatumReader<GenericRecord> topicMessagesReader =
+        new GenericDatumReader<>(Schemas.V1.MultiConsumeResponse.SCHEMA.getElementType());
+    GenericRecord topicMessages = null;
+    for (long count = decoder.readArrayStart(); count > 0; count = decoder.arrayNext()) {
+      for (long i = 0; i < count; i++) {
+        topicMessages = topicMessagesReader.read(topicMessages, decoder);
+        List<RawMessage> messages = new ArrayList<>();
+        for (Object message : (Collection<?>) topicMessages.get("messages")) {
+          GenericRecord messageRecord = (GenericRecord) message;
+          messages.add(new RawMessage.Builder()
+              .setId(Bytes.toBytes((ByteBuffer) messageRecord.get("id")))
+              .setPayload(Bytes.toBytes((ByteBuffer) messageRecord.get("payload")))
+              .build());
+        }
+        result.put(namespaceId.topic(topicMessages.get("topic").toString()), messages);
+      }
+    }
+    return result;
+  }
+
   /**
    * Based on the given {@link HttpURLConnection} content encoding, optionally wrap the given {@link
    * InputStream} with either gzip or deflate decompression.
@@ -32,6 +32,7 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -95,6 +96,13 @@ public class DelegatingMessagingService implements MessagingService {
     return getDelegate().fetch(messageFetchRequest);
   }
 
+  @Override
+  public Map<TopicId, List<RawMessage>> multiFetch(
+      Collection<? extends MessageFetchRequest> messageFetchRequests, long maxSize)
+      throws TopicNotFoundException, IOException {
+    return getDelegate().multiFetch(messageFetchRequests, maxSize);
+  }
+
   @Override
   public List<TopicId> listTopics(NamespaceId namespaceId)
       throws IOException, UnauthorizedException {
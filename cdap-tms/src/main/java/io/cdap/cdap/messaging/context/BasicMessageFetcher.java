@@ -36,7 +36,7 @@ import org.apache.tephra.TransactionAware;
  * transaction will be used for fetching messages if there is one. Otherwise messages will be
  * fetched without transaction.
  */
-final class BasicMessageFetcher implements MessageFetcher, TransactionAware {
+final class BasicMessageFetcher implements PollingMessageFetcher, TransactionAware {
 
   private final MessagingService messagingService;
   private final String name;
@@ -67,10 +67,18 @@ final class BasicMessageFetcher implements MessageFetcher, TransactionAware {
   public CloseableIterator<Message> fetch(
       String namespace, String topic, int limit, @Nullable String afterMessageId)
       throws IOException, TopicNotFoundException {
+    return poll(namespace, topic, limit, afterMessageId, 0L);
+  }
+
+  @Override
+  public CloseableIterator<Message> poll(String namespace, String topic, int limit,
+      @Nullable String afterMessageId, long timeoutMillis)
+      throws IOException, TopicNotFoundException {
     DefaultMessageFetchRequest.Builder fetchRequestBuilder =
         new DefaultMessageFetchRequest.Builder()
             .setTopicId(new NamespaceId(namespace).topic(topic))
-            .setLimit(limit);
+            .setLimit(limit)
+            .setPollTimeoutMillis(timeoutMillis);
 
     if (afterMessageId != null) {
       fetchRequestBuilder.setStartMessage(Bytes.fromHexString(afterMessageId), false);
@@ -41,6 +41,7 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -178,6 +179,13 @@ public class LeaderElectionMessagingService extends AbstractIdleService implemen
     return getMessagingService().fetch(messageFetchRequest);
   }
 
+  @Override
+  public Map<TopicId, List<RawMessage>> multiFetch(
+      Collection<? extends MessageFetchRequest> messageFetchRequests, long maxSize)
+      throws TopicNotFoundException, IOException {
+    return getMessagingService().multiFetch(messageFetchRequests, maxSize);
+  }
+
   @Override
   @Nullable
   public RollbackDetail publish(StoreRequest request)
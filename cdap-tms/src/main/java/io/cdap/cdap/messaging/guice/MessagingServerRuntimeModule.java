@@ -32,23 +32,20 @@ import io.cdap.cdap.data2.util.hbase.HBaseTableUtil;
 import io.cdap.cdap.data2.util.hbase.HBaseTableUtilFactory;
 import io.cdap.cdap.gateway.handlers.CommonHandlers;
 import io.cdap.cdap.messaging.spi.MessagingService;
-import io.cdap.cdap.messaging.cache.MessageCache;
 import io.cdap.cdap.messaging.distributed.LeaderElectionMessagingService;
 import io.cdap.cdap.messaging.server.FetchHandler;
 import io.cdap.cdap.messaging.server.MessagingHttpService;
 import io.cdap.cdap.messaging.server.MetadataHandler;
 import io.cdap.cdap.messaging.server.StoreHandler;
 import io.cdap.cdap.messaging.service.CoreMessagingService;
-import io.cdap.cdap.messaging.store.MessageTable;
+import io.cdap.cdap.messaging.service.PublishNotifier;
 import io.cdap.cdap.messaging.store.TableFactory;
 import io.cdap.cdap.messaging.store.cache.CachingTableFactory;
 import io.cdap.cdap.messaging.store.cache.DefaultMessageTableCacheProvider;
 import io.cdap.cdap.messaging.store.cache.MessageTableCacheProvider;
 import io.cdap.cdap.messaging.store.hbase.HBaseTableFactory;
 import io.cdap.cdap.messaging.store.leveldb.LevelDBTableFactory;
-import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.http.HttpHandler;
-import javax.annotation.Nullable;
 
 /**
  * Provides Guice modules for the messaging server.
@@ -80,6 +77,9 @@ public class MessagingServerRuntimeModule extends RuntimeModule {
             .in(Scopes.SINGLETON);
         bind(TableFactory.class).to(CachingTableFactory.class);
 
+        // The notifier is shared between the messaging service and the fetch handler
+        bind(PublishNotifier.class).in(Scopes.SINGLETON);
+
         // Bind http handlers
         bindHandlers(binder(), Constants.MessagingSystem.HANDLER_BINDING_NAME);
 
@@ -107,21 +107,16 @@ public class MessagingServerRuntimeModule extends RuntimeModule {
 
     @Override
     protected void configure() {
-      // No caching in local mode
-      bind(MessageTableCacheProvider.class).toInstance(new MessageTableCacheProvider() {
-        @Nullable
-        @Override
-        public MessageCache<MessageTable.Entry> getMessageCache(TopicId topicId) {
-          return null;
-        }
-
-        @Override
-        public void clear() {
-          // no-op
-        }
-      });
-
-      bind(TableFactory.class).to(LevelDBTableFactory.class).in(Scopes.SINGLETON);
+      bind(LevelDBTableFactory.class).in(Scopes.SINGLETON);
+      bind(TableFactory.class)
+          .annotatedWith(Names.named(CachingTableFactory.DELEGATE_TABLE_FACTORY))
+          .to(LevelDBTableFactory.class);
+
+      // The cache must be in singleton scope
+      bind(MessageTableCacheProvider.class).to(DefaultMessageTableCacheProvider.class)
+          .in(Scopes.SINGLETON);
+      bind(TableFactory.class).to(CachingTableFactory.class).in(Scopes.SINGLETON);
+      bind(PublishNotifier.class).in(Scopes.SINGLETON);
       bind(MessagingService.class).to(CoreMessagingService.class).in(Scopes.SINGLETON);
       expose(MessagingService.class);
 
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.messaging.server;
+
+import io.cdap.cdap.messaging.Schemas;
+import io.cdap.cdap.messaging.spi.RawMessage;
+import io.netty.buffer.ByteBuf;
+import java.util.List;
+
+/**
+ * Encodes {@link RawMessage} directly into {@link ByteBuf} using the avro binary encoding of the
+ * {@link Schemas.V1.ConsumeResponse#SCHEMA}, which is an array of records with the {@code id} and
+ * {@code payload} bytes fields.
+ *
+ * Since the encoded size of each message can be computed upfront, callers can allocate a buffer of
+ * the exact size and have the messages written into it without intermediate copies or per message
+ * avro record objects.
+ *
+ * It also encodes the {@link Schemas.V1.MultiConsumeResponse#SCHEMA}, which is an array of records
+ * with the {@code topic} string field and the {@code messages} array of the same records as above.
+ */
+final class ConsumeResponseEncoder {
+
+  /**
+   * Returns the number of bytes needed to encode the given message as an array element.
+   */
+  static int encodedSize(RawMessage message) {
+    return encodedSize(message.getId()) + encodedSize(message.getPayload());
+  }
+
+  /**
+   * Returns the number of bytes needed to encode a block of array elements of the given count
+   * and total encoded size of the elements.
+   */
+  static int blockSize(int count, int elementsSize) {
+    return count == 0 ? 0 : sizeOfLong(count) + elementsSize;
+  }
+
+  /**
+   * Writes a block of array elements to the given {@link ByteBuf}.
+   */
+  static void writeBlock(ByteBuf buffer, List<RawMessage> messages) {
+    if (messages.isEmpty()) {
+      return;
+    }
+    writeLong(buffer, messages.size());
+    for (RawMessage message : messages) {
+      writeBytes(buffer, message.getId());
+      writeBytes(buffer, message.getPayload());
+    }
+  }
+
+  /**
+   * Returns the number of bytes needed to encode a record of topic name and messages as an element
+   * of the multi-topic response array. The messages are encoded in a single block.
+   *
+   * @param topic the UTF-8 encoded topic name
+   * @param messages the messages of the topic
+   */
+  static int topicMessagesSize(byte[] topic, List<RawMessage> messages) {
+    int size = 0;
+    for (RawMessage message : messages) {
+      size += encodedSize(message);
+    }
+    // One extra byte for the end of the messages array
+    return encodedSize(topic) + blockSize(messages.size(), size) + 1;
+  }
+
+  /**
+   * Writes the header of an array block with the given number of elements. Nothing is written if
+   * the count is zero.
+   */
+  static void writeBlockHeader(ByteBuf buffer, int count) {
+    if (count > 0) {
+      writeLong(buffer, count);
+    }
+  }
+
+  /**
+   * Writes a record of topic name and messages as an element of the multi-topic response array.
+   *
+   * @param topic the UTF-8 encoded topic name
+   * @param messages the messages of the topic
+   */
+  static void writeTopicMessages(ByteBuf buffer, byte[] topic, List<RawMessage> messages) {
+    // Avro string is encoded the same way as bytes
+    writeBytes(buffer, topic);
+    writeBlock(buffer, messages);
+    writeArrayEnd(buffer);
+  }
+
+  /**
+   * Writes the end of the array to the given {@link ByteBuf}. It takes one byte.
+   */
+  static void writeArrayEnd(ByteBuf buffer) {
+    buffer.writeByte(0);
+  }
+
+  private static int encodedSize(byte[] bytes) {
+    return sizeOfLong(bytes.length) + bytes.length;
+  }
+
+  private static void writeBytes(ByteBuf buffer, byte[] bytes) {
+    writeLong(buffer, bytes.length);
+    buffer.writeBytes(bytes);
+  }
+
+  /**
+   * Writes a long with zig-zag variable length encoding, which is the same as the avro {@code
+   * BinaryEncoder.writeLong}.
+   */
+  private static void writeLong(ByteBuf buffer, long value) {
+    long n = (value << 1) ^ (value >> 63);
+    while ((n & ~0x7FL) != 0) {
+      buffer.writeByte((int) ((n & 0x7F) | 0x80));
+      n >>>= 7;
+    }
+    buffer.writeByte((int) n);
+  }
+
+  /**
+   * Returns the number of bytes the zig-zag variable length encoding of the given value takes.
+   */
+  private static int sizeOfLong(long value) {
+    long n = (value << 1) ^ (value >> 63);
+    int size = 1;
+    while ((n & ~0x7FL) != 0) {
+      size++;
+      n >>>= 7;
+    }
+    return size;
+  }
+
+  private ConsumeResponseEncoder() {
+    // no-op
+  }
+}
@@ -28,17 +28,20 @@ import io.cdap.cdap.common.io.ByteBuffers;
 import io.cdap.cdap.common.logging.LogSamplers;
 import io.cdap.cdap.common.logging.Loggers;
 import io.cdap.cdap.messaging.DefaultMessageFetchRequest;
+import io.cdap.cdap.messaging.spi.MessageFetchRequest;
 import io.cdap.cdap.messaging.spi.MessagingService;
 import io.cdap.cdap.messaging.Schemas;
+import io.cdap.cdap.messaging.service.PublishNotifier;
 import io.cdap.cdap.messaging.spi.RawMessage;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.http.AbstractHttpHandler;
 import io.cdap.http.BodyProducer;
+import io.cdap.http.HandlerContext;
 import io.cdap.http.HttpResponder;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
@@ -48,31 +51,39 @@ import java.io.IOException;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
-import org.apache.avro.generic.GenericData;
+import javax.ws.rs.QueryParam;
 import org.apache.avro.generic.GenericDatumReader;
-import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
-import org.apache.avro.io.Encoder;
-import org.apache.avro.io.EncoderFactory;
 import org.apache.tephra.TransactionCodec;
+import org.apache.twill.common.Cancellable;
+import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A netty http handler for handling message fetching REST API for the messaging system.
  */
-@Path("/v1/namespaces/{namespace}/topics/{topic}")
+@Path("/v1/namespaces/{namespace}")
 public final class FetchHandler extends AbstractHttpHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(FetchHandler.class);
@@ -85,19 +96,56 @@ public final class FetchHandler extends AbstractHttpHandler {
   );
 
   private final MessagingService messagingService;
-  private int messageChunkSize;
+  private final PublishNotifier publishNotifier;
+  private final int messageChunkSize;
+  private final int longPollThreads;
+  private final long maxPollTimeoutMillis;
+  private final int maxMultiPollTopics;
+  private final int maxMultiPollLimit;
+  private final long maxMultiPollResponseSize;
+  private ScheduledExecutorService longPollExecutor;
 
   @Inject
-  FetchHandler(CConfiguration cConf, MessagingService messagingService) {
+  FetchHandler(CConfiguration cConf, MessagingService messagingService,
+      PublishNotifier publishNotifier) {
     this.messagingService = messagingService;
+    this.publishNotifier = publishNotifier;
     this.messageChunkSize = cConf.getInt(Constants.MessagingSystem.HTTP_SERVER_CONSUME_CHUNK_SIZE);
+    this.longPollThreads = cConf.getInt(Constants.MessagingSystem.HTTP_SERVER_LONG_POLL_THREADS);
+    this.maxPollTimeoutMillis = cConf.getLong(
+        Constants.MessagingSystem.HTTP_SERVER_LONG_POLL_MAX_TIMEOUT_MS);
+    this.maxMultiPollTopics = cConf.getInt(
+        Constants.MessagingSystem.HTTP_SERVER_MULTI_POLL_MAX_TOPICS);
+    this.maxMultiPollLimit = cConf.getInt(
+        Constants.MessagingSystem.HTTP_SERVER_MULTI_POLL_MAX_LIMIT);
+    this.maxMultiPollResponseSize = cConf.getLong(
+        Constants.MessagingSystem.HTTP_SERVER_MULTI_POLL_MAX_RESPONSE_SIZE_MB) * 1024 * 1024;
   }
 
+  @Override
+  public void init(HandlerContext context) {
+    super.init(context);
+    longPollExecutor = Executors.newScheduledThreadPool(
+        longPollThreads, Threads.createDaemonThreadFactory("messaging-long-poll-%d"));
+  }
+
+  @Override
+  public void destroy(HandlerContext context) {
+    longPollExecutor.shutdownNow();
+    super.destroy(context);
+  }
+
+  /**
+   * Fetches messages from a topic. If the {@code timeout} query parameter is larger than zero and
+   * there is no message available, the response is deferred until new messages are published to
+   * the topic or the timeout passed, whichever comes first.
+   */
   @POST
-  @Path("poll")
+  @Path("topics/{topic}/poll")
   public void poll(FullHttpRequest request, HttpResponder responder,
       @PathParam("namespace") String namespace,
-      @PathParam("topic") String topic) throws Exception {
+      @PathParam("topic") String topic,
+      @QueryParam("timeout") @DefaultValue("0") long timeoutMillis) throws Exception {
 
     TopicId topicId = new NamespaceId(namespace).topic(topic);
 
@@ -112,9 +160,124 @@ public final class FetchHandler extends AbstractHttpHandler {
     DatumReader<GenericRecord> datumReader = new GenericDatumReader<>(
         Schemas.V1.ConsumeRequest.SCHEMA);
 
-    // Fetch the messages
-    CloseableIterator<RawMessage> iterator = fetchMessages(datumReader.read(null, decoder),
-        topicId);
+    MessageFetchRequest fetchRequest = createFetchRequest(datumReader.read(null, decoder), topicId,
+        Math.min(timeoutMillis, maxPollTimeoutMillis), Integer.MAX_VALUE);
+    if (fetchRequest.getPollTimeoutMillis() <= 0L) {
+      sendMessages(responder, messagingService.fetch(fetchRequest));
+      return;
+    }
+    new LongPoll(fetchRequest, responder).start();
+  }
+
+  /**
+   * Fetches messages from multiple topics of a namespace. The request body is an array of consume
+   * requests, each with the topic name. The response contains the messages of every requested
+   * topic, in the same order as the requests. If any of the topics does not exist, the response is {@code
+   * 404} with the name of the missing topic as the body.
+   *
+   * The number of topics, the number of messages fetched from each topic and the size of the
+   * response are capped by configuration. Messages that don't fit in the response are left out, and
+   * are returned by the next request that starts after the last message returned.
+   */
+  @POST
+  @Path("poll")
+  public void multiPoll(FullHttpRequest request, HttpResponder responder,
+      @PathParam("namespace") String namespace) throws Exception {
+
+    NamespaceId namespaceId = new NamespaceId(namespace);
+
+    // Currently only support avro
+    if (!"avro/binary".equals(request.headers().get(HttpHeaderNames.CONTENT_TYPE))) {
+      throw new BadRequestException("Only avro/binary content type is supported.");
+    }
+
+    // Decode the array of poll requests
+    Decoder decoder = DecoderFactory.get()
+        .directBinaryDecoder(new ByteBufInputStream(request.content()), null);
+    DatumReader<GenericRecord> datumReader = new GenericDatumReader<>(
+        Schemas.V1.MultiConsumeRequest.SCHEMA.getElementType());
+
+    Set<TopicId> topicIds = new HashSet<>();
+    List<MessageFetchRequest> fetchRequests = new ArrayList<>();
+    for (long count = decoder.readArrayStart(); count > 0; count = decoder.arrayNext()) {
+      for (long i = 0; i < count; i++) {
+        GenericRecord record = datumReader.read(null, decoder);
+        TopicId topicId = namespaceId.topic(record.get("topic").toString());
+        if (!topicIds.add(topicId)) {
+          throw new BadRequestException("Multiple fetch requests for the same topic " + topicId);
+        }
+        if (topicIds.size() > maxMultiPollTopics) {
+          throw new BadRequestException("Cannot fetch from more than " + maxMultiPollTopics
+              + " topics in one request");
+        }
+        fetchRequests.add(createFetchRequest(record, topicId, 0L, maxMultiPollLimit));
+      }
+    }
+
+    Map<TopicId, List<RawMessage>> messages;
+    try {
+      // Bound the scan by the response size, so that it also bounds the memory used
+      messages = messagingService.multiFetch(fetchRequests, maxMultiPollResponseSize);
+    } catch (TopicNotFoundException e) {
+      responder.sendString(HttpResponseStatus.NOT_FOUND, e.getTopic());
+      return;
+    }
+
+    // All messages are already in memory, hence encode the whole response into one buffer, leaving
+    // out the messages that don't fit in the maximum response size
+    List<byte[]> topicNames = new ArrayList<>(messages.size());
+    List<List<RawMessage>> topicMessagesList = new ArrayList<>(messages.size());
+    long size = 0L;
+    boolean hasMessage = false;
+    for (Map.Entry<TopicId, List<RawMessage>> entry : messages.entrySet()) {
+      byte[] topicName = entry.getKey().getTopic().getBytes(StandardCharsets.UTF_8);
+      List<RawMessage> topicMessages = entry.getValue();
+      size += ConsumeResponseEncoder.topicMessagesSize(topicName, Collections.emptyList());
+      int count = 0;
+      for (RawMessage message : topicMessages) {
+        long messageSize = ConsumeResponseEncoder.encodedSize(message);
+        // Always include the first message, so that the consumer makes progress
+        if (hasMessage && size + messageSize > maxMultiPollResponseSize) {
+          break;
+        }
+        size += messageSize;
+        hasMessage = true;
+        count++;
+      }
+      topicNames.add(topicName);
+      topicMessagesList.add(count == topicMessages.size()
+          ? topicMessages : topicMessages.subList(0, count));
+    }
+
+    int contentSize = 1;
+    for (int i = 0; i < topicNames.size(); i++) {
+      contentSize += ConsumeResponseEncoder.topicMessagesSize(topicNames.get(i),
+          topicMessagesList.get(i));
+    }
+    contentSize = ConsumeResponseEncoder.blockSize(topicNames.size(), contentSize - 1) + 1;
+
+    ByteBuf content = ByteBufAllocator.DEFAULT.buffer(contentSize, contentSize);
+    try {
+      ConsumeResponseEncoder.writeBlockHeader(content, topicNames.size());
+      for (int i = 0; i < topicNames.size(); i++) {
+        ConsumeResponseEncoder.writeTopicMessages(content, topicNames.get(i),
+            topicMessagesList.get(i));
+      }
+      ConsumeResponseEncoder.writeArrayEnd(content);
+    } catch (Throwable t) {
+      content.release();
+      throw t;
+    }
+
+    responder.sendContent(HttpResponseStatus.OK, content,
+        new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE, "avro/binary"));
+  }
+
+  /**
+   * Sends messages from the given iterator as the response. The iterator will be closed when the
+   * response is completed.
+   */
+  private void sendMessages(HttpResponder responder, CloseableIterator<RawMessage> iterator) {
     try {
       responder.sendContent(HttpResponseStatus.OK,
           new MessagesBodyProducer(iterator, messageChunkSize),
@@ -125,9 +288,9 @@ public final class FetchHandler extends AbstractHttpHandler {
     }
   }
 
-  /** Creates a {@link CloseableIterator} of {@link RawMessage} based on the given fetch request. */
-  private CloseableIterator<RawMessage> fetchMessages(GenericRecord fetchRequest, TopicId topicId)
-      throws IOException, TopicNotFoundException {
+  /** Creates a {@link MessageFetchRequest} based on the given decoded fetch request. */
+  private MessageFetchRequest createFetchRequest(GenericRecord fetchRequest, TopicId topicId,
+      long pollTimeoutMillis, int maxLimit) {
     DefaultMessageFetchRequest.Builder fetchRequestBuilder =
         new DefaultMessageFetchRequest.Builder();
 
@@ -153,7 +316,9 @@ public final class FetchHandler extends AbstractHttpHandler {
 
     Integer limit = (Integer) fetchRequest.get("limit");
     if (limit != null) {
-      fetchRequestBuilder.setLimit(limit);
+      fetchRequestBuilder.setLimit(Math.min(limit, maxLimit));
+    } else if (maxLimit < Integer.MAX_VALUE) {
+      fetchRequestBuilder.setLimit(maxLimit);
     }
 
     ByteBuffer encodedTx = (ByteBuffer) fetchRequest.get("transaction");
@@ -162,47 +327,120 @@ public final class FetchHandler extends AbstractHttpHandler {
           TRANSACTION_CODEC.decode(ByteBuffers.getByteArray(encodedTx)));
     }
 
-    return messagingService.fetch(fetchRequestBuilder.build());
+    if (pollTimeoutMillis > 0L) {
+      fetchRequestBuilder.setPollTimeoutMillis(pollTimeoutMillis);
+    }
+
+    return fetchRequestBuilder.build();
+  }
+
+  /**
+   * Handles a fetch request that waits for new messages. A listener is added to the {@link
+   * PublishNotifier} before the first fetch, so that messages published after the first fetch
+   * always wake up the request. The response is sent from the long poll executor.
+   */
+  private final class LongPoll {
+
+    private final MessageFetchRequest fetchRequest;
+    private final HttpResponder responder;
+    private final AtomicBoolean completed;
+    private volatile Cancellable cancelListener;
+    private volatile ScheduledFuture<?> timeoutFuture;
+
+    LongPoll(MessageFetchRequest fetchRequest, HttpResponder responder) {
+      this.fetchRequest = fetchRequest;
+      this.responder = responder;
+      this.completed = new AtomicBoolean();
+    }
+
+    void start() throws Exception {
+      cancelListener = publishNotifier.addListener(fetchRequest.getTopicId(),
+          () -> longPollExecutor.execute(this::complete));
+
+      CloseableIterator<RawMessage> iterator;
+      try {
+        iterator = messagingService.fetch(fetchRequest);
+      } catch (Throwable t) {
+        cancelListener.cancel();
+        throw t;
+      }
+
+      boolean hasMessages;
+      try {
+        hasMessages = iterator.hasNext();
+      } catch (Throwable t) {
+        iterator.close();
+        cancelListener.cancel();
+        throw t;
+      }
+
+      if (hasMessages) {
+        if (completed.compareAndSet(false, true)) {
+          cancelListener.cancel();
+          sendMessages(responder, iterator);
+        } else {
+          iterator.close();
+        }
+        return;
+      }
+
+      iterator.close();
+      timeoutFuture = longPollExecutor.schedule(this::complete,
+          fetchRequest.getPollTimeoutMillis(), TimeUnit.MILLISECONDS);
+      // If the listener was triggered while scheduling the timeout, cancel the timeout
+      if (completed.get()) {
+        timeoutFuture.cancel(false);
+      }
+    }
+
+    /**
+     * Fetches the messages and sends them back to the client. This method is called either when new
+     * messages are published or when the timeout passed.
+     */
+    private void complete() {
+      if (!completed.compareAndSet(false, true)) {
+        return;
+      }
+      // The listener can be null if it was triggered before the start method returned.
+      // In that case, the listener was already removed from the notifier.
+      Cancellable listener = cancelListener;
+      if (listener != null) {
+        listener.cancel();
+      }
+      ScheduledFuture<?> future = timeoutFuture;
+      if (future != null) {
+        future.cancel(false);
+      }
+
+      try {
+        sendMessages(responder, messagingService.fetch(fetchRequest));
+      } catch (TopicNotFoundException e) {
+        responder.sendString(HttpResponseStatus.NOT_FOUND, e.getMessage());
+      } catch (Throwable t) {
+        LOG.warn("Failed to fetch messages from topic {}", fetchRequest.getTopicId(), t);
+        responder.sendString(HttpResponseStatus.INTERNAL_SERVER_ERROR,
+            "Failed to fetch messages from topic " + fetchRequest.getTopicId());
+      }
+    }
   }
 
   /**
    * A {@link BodyProducer} to encode and send back messages. Instead of using GenericDatumWriter,
    * we perform the array encoding manually so that we don't have to buffer all messages in memory
-   * before sending out.
+   * before sending out. Each chunk is encoded directly into a buffer from the pooled allocator, which
+   * is released by the channel after it is written.
    */
   private static class MessagesBodyProducer extends BodyProducer {
 
     private final CloseableIterator<RawMessage> iterator;
     private final List<RawMessage> messages;
     private final int messageChunkSize;
-    private final ByteBuf chunk;
-    private final Encoder encoder;
-    private final GenericRecord messageRecord;
-    private final DatumWriter<GenericRecord> messageWriter;
-    private boolean arrayStarted;
     private boolean arrayEnded;
 
     MessagesBodyProducer(CloseableIterator<RawMessage> iterator, int messageChunkSize) {
       this.iterator = iterator;
       this.messages = new ArrayList<>();
       this.messageChunkSize = messageChunkSize;
-      this.chunk = Unpooled.buffer(messageChunkSize);
-      this.encoder = EncoderFactory.get().directBinaryEncoder(new ByteBufOutputStream(chunk), null);
-
-      // These are for writing individual message (response is an array of messages)
-      this.messageRecord = new GenericData.Record(
-          Schemas.V1.ConsumeResponse.SCHEMA.getElementType());
-      this.messageWriter = new GenericDatumWriter<GenericRecord>(
-          Schemas.V1.ConsumeResponse.SCHEMA.getElementType()) {
-        @Override
-        protected void writeBytes(Object datum, Encoder out) throws IOException {
-          if (datum instanceof byte[]) {
-            out.writeBytes((byte[]) datum);
-          } else {
-            super.writeBytes(datum, out);
-          }
-        }
-      };
     }
 
     @Override
@@ -212,50 +450,39 @@ public final class FetchHandler extends AbstractHttpHandler {
         return Unpooled.EMPTY_BUFFER;
       }
 
-      chunk.clear();
-
-      if (!arrayStarted) {
-        arrayStarted = true;
-        encoder.writeArrayStart();
-      }
-
       // Try to buffer up to buffer size
       int size = 0;
       messages.clear();
       while (iterator.hasNext() && size < messageChunkSize) {
         RawMessage message = iterator.next();
         messages.add(message);
-
-        // Avro encodes bytes as (len + bytes), hence adding 8 to cater for the length of the id and payload
-        // Straightly speaking it can be up to 9 bytes each (hence 18 bytes),
-        // but we don't expect id and payload of such size
-        size += message.getId().length + message.getPayload().length + 8;
+        size += ConsumeResponseEncoder.encodedSize(message);
       }
 
-      encoder.setItemCount(messages.size());
-      for (RawMessage message : messages) {
-        encoder.startItem();
-
-        // Write individual message (array element) with DatumWrite.
-        // This provides greater flexibility on schema evolution.
-        // The response will likely always be an array, but the element schema can evolve.
-        messageRecord.put("id", message.getId());
-        messageRecord.put("payload", message.getPayload());
-        messageWriter.write(messageRecord, encoder);
-      }
+      // The response is an array of messages. The array start doesn't take any byte in avro binary encoding,
+      // and the array end takes one byte.
+      arrayEnded = !iterator.hasNext();
+      int chunkSize = ConsumeResponseEncoder.blockSize(messages.size(), size) + (arrayEnded ? 1 : 0);
 
-      if (!iterator.hasNext()) {
-        arrayEnded = true;
-        encoder.writeArrayEnd();
+      ByteBuf chunk = ByteBufAllocator.DEFAULT.buffer(chunkSize, chunkSize);
+      try {
+        ConsumeResponseEncoder.writeBlock(chunk, messages);
+        if (arrayEnded) {
+          ConsumeResponseEncoder.writeArrayEnd(chunk);
+        }
+      } catch (Throwable t) {
+        chunk.release();
+        throw t;
       }
 
-      return chunk.copy();
+      // Release the references to the messages as soon as possible
+      messages.clear();
+      return chunk;
     }
 
     @Override
     public void finished() throws Exception {
       iterator.close();
-      chunk.release();
     }
 
     @Override
@@ -30,7 +30,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -57,12 +60,23 @@ import javax.annotation.concurrent.ThreadSafe;
  *
  * The spin lock between step 2 to step 8 is necessary as it guarantees events enqueued by all
  * threads would eventually get written and flushed.
+ *
+ * When group commit is enabled, threads that fail to acquire the writer flag in step 3 park instead
+ * of spinning with {@link Thread#yield()}. The writer unparks the owner of each request it completes,
+ * and after releasing the writer flag, unparks the owner of the request at the head of the queue so
+ * that it can become the next writer. The writer can optionally linger for a short time before
+ * writing to collect a larger batch, and each write is bounded by a maximum number of requests.
  */
 @ThreadSafe
 final class ConcurrentMessageWriter implements Closeable {
 
+  // Upper bound on how long a waiting thread parks before re-checking the writer flag.
+  // Under normal operation, threads are woken up explicitly well before this timeout.
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
   private final StoreRequestWriter<?> messagesWriter;
   private final MetricsCollector metricsCollector;
+  private final boolean groupCommit;
   private final PendingStoreQueue pendingStoreQueue;
   private final AtomicBoolean writerFlag;
   private final AtomicBoolean closed;
@@ -84,9 +98,33 @@ final class ConcurrentMessageWriter implements Closeable {
    *     class.
    */
   ConcurrentMessageWriter(StoreRequestWriter<?> messagesWriter, MetricsCollector metricsCollector) {
+    this(messagesWriter, metricsCollector, false, Integer.MAX_VALUE, 0L);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param messagesWriter the {@link StoreRequestWriter} for persisting {@link StoreRequest}.
+   * @param metricsCollector the {@link MetricsCollector} for collecting metrics emitted by this
+   *     class.
+   * @param groupCommit {@code true} to have waiting threads park until their requests are
+   *     written; {@code false} to have them spin
+   * @param maxBatchSize the maximum number of {@link StoreRequest} to write in one batch when
+   *     group commit is enabled
+   * @param lingerMicros the maximum time in microseconds for the writer to wait for more
+   *     requests before writing a batch when group commit is enabled
+   */
+  ConcurrentMessageWriter(StoreRequestWriter<?> messagesWriter, MetricsCollector metricsCollector,
+      boolean groupCommit, int maxBatchSize, long lingerMicros) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Maximum batch size must be positive: " + maxBatchSize);
+    }
     this.messagesWriter = messagesWriter;
     this.metricsCollector = metricsCollector;
-    this.pendingStoreQueue = new PendingStoreQueue(metricsCollector);
+    this.groupCommit = groupCommit;
+    this.pendingStoreQueue = groupCommit
+        ? new PendingStoreQueue(metricsCollector, true, maxBatchSize, TimeUnit.MICROSECONDS.toNanos(lingerMicros))
+        : new PendingStoreQueue(metricsCollector, false, Integer.MAX_VALUE, 0L);
     this.writerFlag = new AtomicBoolean();
     this.closed = new AtomicBoolean();
   }
@@ -112,9 +150,13 @@ final class ConcurrentMessageWriter implements Closeable {
 
     metricsCollector.increment("persist.requested", 1L);
 
-    while (!pendingStoreRequest.isCompleted()) {
-      if (!tryWrite()) {
-        Thread.yield();
+    if (groupCommit) {
+      awaitGroupCommit(pendingStoreRequest);
+    } else {
+      while (!pendingStoreRequest.isCompleted()) {
+        if (!tryWrite()) {
+          Thread.yield();
+        }
       }
     }
 
@@ -134,6 +176,25 @@ final class ConcurrentMessageWriter implements Closeable {
     }
   }
 
+  /**
+   * Waits for the given {@link PendingStoreRequest} to complete in group commit mode. The calling
+   * thread either becomes the writer or parks until it is woken up by the writer.
+   */
+  private void awaitGroupCommit(PendingStoreRequest pendingStoreRequest) {
+    boolean interrupted = false;
+    while (!pendingStoreRequest.isCompleted()) {
+      if (!tryWrite()) {
+        LockSupport.parkNanos(this, MAX_PARK_NANOS);
+        // The request is already enqueued and will be written regardless, hence keep waiting and
+        // restore the interrupt flag at the end.
+        interrupted |= Thread.interrupted();
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * Tries to acquire the writer flag and persist the pending requests.
    *
@@ -149,6 +210,9 @@ final class ConcurrentMessageWriter implements Closeable {
     } finally {
       writerFlag.set(false);
     }
+    // Hand over the writer flag to the next waiting thread, if there is any.
+    // Requests enqueued after this check will find the writer flag released, hence no wakeup is needed for them.
+    pendingStoreQueue.wakeupNext();
     return true;
   }
 
@@ -160,9 +224,12 @@ final class ConcurrentMessageWriter implements Closeable {
     // Flush everything in the queue.
     // When this thread can grab the writer flag, all pending write requests must be completed since the closed
     // flag was already set to false.
-    while (!tryWrite()) {
-      Thread.yield();
-    }
+    // In group commit mode, each write persists at most one batch, hence keep writing until the queue is empty.
+    do {
+      while (!tryWrite()) {
+        Thread.yield();
+      }
+    } while (!pendingStoreQueue.isEmpty());
     messagesWriter.close();
   }
 
@@ -174,12 +241,22 @@ final class ConcurrentMessageWriter implements Closeable {
   private static final class PendingStoreQueue {
 
     private final MetricsCollector metricsCollector;
+    private final boolean wakeupWaiters;
+    private final int maxBatchSize;
+    private final long lingerNanos;
     private final Queue<PendingStoreRequest> writeQueue;
+    private final AtomicInteger queueSize;
     private final List<PendingStoreRequest> inflightRequests;
+    private volatile Thread lingeringWriter;
 
-    private PendingStoreQueue(MetricsCollector metricsCollector) {
+    private PendingStoreQueue(MetricsCollector metricsCollector, boolean wakeupWaiters,
+        int maxBatchSize, long lingerNanos) {
       this.metricsCollector = metricsCollector;
+      this.wakeupWaiters = wakeupWaiters;
+      this.maxBatchSize = maxBatchSize;
+      this.lingerNanos = lingerNanos;
       this.writeQueue = new ConcurrentLinkedQueue<>();
+      this.queueSize = new AtomicInteger();
       this.inflightRequests = new ArrayList<>(100);
     }
 
@@ -188,24 +265,77 @@ final class ConcurrentMessageWriter implements Closeable {
      */
     void enqueue(PendingStoreRequest storeRequest) {
       writeQueue.add(storeRequest);
+      if (queueSize.incrementAndGet() >= maxBatchSize) {
+        // Wake up the writer if it is lingering for a full batch
+        Thread writer = lingeringWriter;
+        if (writer != null) {
+          LockSupport.unpark(writer);
+        }
+      }
+    }
+
+    /**
+     * Returns {@code true} if there is no {@link PendingStoreRequest} in the queue.
+     */
+    boolean isEmpty() {
+      return writeQueue.isEmpty();
     }
 
     /**
-     * Persists all {@link PendingStoreRequest} currently in the queue with the given writer.
+     * Wakes up the thread that owns the request at the head of the queue.
+     */
+    void wakeupNext() {
+      if (!wakeupWaiters) {
+        return;
+      }
+      PendingStoreRequest request = writeQueue.peek();
+      if (request != null) {
+        LockSupport.unpark(request.getWaiter());
+      }
+    }
+
+    /**
+     * Waits until there are {@code maxBatchSize} requests in the queue or the linger time passed.
+     * This method must be called while holding the writer flag.
+     */
+    private void linger() {
+      if (lingerNanos <= 0L || queueSize.get() >= maxBatchSize) {
+        return;
+      }
+      lingeringWriter = Thread.currentThread();
+      try {
+        long deadline = System.nanoTime() + lingerNanos;
+        long remaining = lingerNanos;
+        while (remaining > 0L && queueSize.get() < maxBatchSize) {
+          LockSupport.parkNanos(this, remaining);
+          remaining = deadline - System.nanoTime();
+        }
+      } finally {
+        lingeringWriter = null;
+      }
+    }
+
+    /**
+     * Persists all {@link PendingStoreRequest} currently in the queue, up to the max batch size,
+     * with the given writer.
      */
     void persist(StoreRequestWriter<?> writer) {
+      linger();
+
       // Capture all current events.
       // The reason for capturing instead of using a live iterator is to avoid the possible case of infinite write
       // time. E.g. while generating the entry to write to the storage table, a new store request get enqueued.
       // The number of requests in the queue is bounded by the number of threads that call this method.
       // Since this method is expected to be called (indirectly) from a http handler thread, that is bounded by
       // the thread pool size used by the http service.
+      // In group commit mode, the batch is also bounded by the max batch size.
       inflightRequests.clear();
       PendingStoreRequest request = writeQueue.poll();
       while (request != null) {
         inflightRequests.add(request);
-        request = writeQueue.poll();
+        request = inflightRequests.size() < maxBatchSize ? writeQueue.poll() : null;
       }
+      queueSize.addAndGet(-inflightRequests.size());
 
       metricsCollector.gauge("persist.queue.size", inflightRequests.size());
 
@@ -223,8 +353,13 @@ final class ConcurrentMessageWriter implements Closeable {
      */
     void completeAll(@Nullable Throwable failureCause) {
       Iterator<PendingStoreRequest> iterator = inflightRequests.iterator();
+      Thread currentThread = Thread.currentThread();
       while (iterator.hasNext()) {
-        iterator.next().completed(failureCause);
+        PendingStoreRequest request = iterator.next();
+        request.completed(failureCause);
+        if (wakeupWaiters && request.getWaiter() != currentThread) {
+          LockSupport.unpark(request.getWaiter());
+        }
         iterator.remove();
       }
     }
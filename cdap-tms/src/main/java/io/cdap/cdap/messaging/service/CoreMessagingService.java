@@ -53,8 +53,11 @@ import io.cdap.cdap.messaging.store.TableFactory;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.TopicId;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -89,14 +92,23 @@ public class CoreMessagingService extends AbstractIdleService implements Messagi
   private final LoadingCache<TopicId, ConcurrentMessageWriter> payloadTableWriterCache;
   private final TimeProvider timeProvider;
   private final MetricsCollectionService metricsCollectionService;
+  private final PublishNotifier publishNotifier;
   private final long txMaxLifeTimeInMillis;
 
-  @Inject
   protected CoreMessagingService(
       CConfiguration cConf,
       TableFactory tableFactory,
       MetricsCollectionService metricsCollectionService) {
-    this(cConf, tableFactory, TimeProvider.SYSTEM_TIME, metricsCollectionService);
+    this(cConf, tableFactory, metricsCollectionService, new PublishNotifier());
+  }
+
+  @Inject
+  protected CoreMessagingService(
+      CConfiguration cConf,
+      TableFactory tableFactory,
+      MetricsCollectionService metricsCollectionService,
+      PublishNotifier publishNotifier) {
+    this(cConf, tableFactory, TimeProvider.SYSTEM_TIME, metricsCollectionService, publishNotifier);
   }
 
   @VisibleForTesting
@@ -105,6 +117,15 @@ public class CoreMessagingService extends AbstractIdleService implements Messagi
       TableFactory tableFactory,
       TimeProvider timeProvider,
       MetricsCollectionService metricsCollectionService) {
+    this(cConf, tableFactory, timeProvider, metricsCollectionService, new PublishNotifier());
+  }
+
+  private CoreMessagingService(
+      CConfiguration cConf,
+      TableFactory tableFactory,
+      TimeProvider timeProvider,
+      MetricsCollectionService metricsCollectionService,
+      PublishNotifier publishNotifier) {
     this.cConf = cConf;
     this.tableFactory = tableFactory;
     this.topicCache = createTopicCache();
@@ -123,6 +144,7 @@ public class CoreMessagingService extends AbstractIdleService implements Messagi
     //        messaging service ->
     //          "metrics collection"
     this.metricsCollectionService = metricsCollectionService;
+    this.publishNotifier = publishNotifier;
     this.txMaxLifeTimeInMillis =
         TimeUnit.SECONDS.toMillis(
             cConf.getLong(
@@ -188,7 +210,11 @@ public class CoreMessagingService extends AbstractIdleService implements Messagi
       if (request.isTransactional()) {
         ensureValidTxLifetime(request.getTransactionWritePointer());
       }
-      return messageTableWriterCache.get(request.getTopicId()).persist(request, metadata);
+      RollbackDetail rollbackDetail =
+          messageTableWriterCache.get(request.getTopicId()).persist(request, metadata);
+      // Wake up fetch requests that are waiting for new messages in the topic
+      publishNotifier.notifyPublished(request.getTopicId());
+      return rollbackDetail;
     } catch (ExecutionException e) {
       Throwable cause = Objects.firstNonNull(e.getCause(), e);
       Throwables.propagateIfPossible(cause, TopicNotFoundException.class, IOException.class);
@@ -399,7 +425,12 @@ public class CoreMessagingService extends AbstractIdleService implements Messagi
                             Constants.Metrics.Tag.TABLE,
                             messageTable ? "message" : "payload"));
 
-                return new ConcurrentMessageWriter(messagesWriter, metricsContext);
+                return new ConcurrentMessageWriter(
+                    messagesWriter,
+                    metricsContext,
+                    cConf.getBoolean(Constants.MessagingSystem.WRITER_GROUP_COMMIT_ENABLED),
+                    cConf.getInt(Constants.MessagingSystem.WRITER_GROUP_COMMIT_MAX_BATCH_SIZE),
+                    cConf.getLong(Constants.MessagingSystem.WRITER_GROUP_COMMIT_LINGER_MICROS));
               }
             });
   }
@@ -445,8 +476,54 @@ public class CoreMessagingService extends AbstractIdleService implements Messagi
   @Override
   public CloseableIterator<RawMessage> fetch(MessageFetchRequest messageFetchRequest)
       throws TopicNotFoundException, IOException {
-    TopicMetadata metadata = getTopic(messageFetchRequest.getTopicId());
+    return createMessageIterator(getTopic(messageFetchRequest.getTopicId()), messageFetchRequest);
+  }
 
+  @Override
+  public Map<TopicId, List<RawMessage>> multiFetch(
+      Collection<? extends MessageFetchRequest> messageFetchRequests, long maxSize)
+      throws TopicNotFoundException, IOException {
+    // Resolve the metadata of all topics first, so that no table is scanned if any topic is missing
+    Map<TopicId, TopicMetadata> topicMetadata = new HashMap<>();
+    Map<TopicId, List<RawMessage>> result = new LinkedHashMap<>();
+    for (MessageFetchRequest request : messageFetchRequests) {
+      if (topicMetadata.put(request.getTopicId(), getTopic(request.getTopicId())) != null) {
+        throw new IllegalArgumentException(
+            "Multiple fetch requests for the same topic " + request.getTopicId());
+      }
+      result.put(request.getTopicId(), new ArrayList<>());
+    }
+
+    // Stop scanning once the maximum size is reached, so that it also bounds the memory used
+    long size = 0L;
+    for (MessageFetchRequest request : messageFetchRequests) {
+      if (size >= maxSize) {
+        break;
+      }
+      TopicMetadata metadata = topicMetadata.get(request.getTopicId());
+      List<RawMessage> messages = result.get(request.getTopicId());
+      try (CloseableIterator<RawMessage> iterator = createMessageIterator(metadata, request)) {
+        while (iterator.hasNext()) {
+          RawMessage message = iterator.next();
+          long messageSize = message.getId().length + message.getPayload().length;
+          // Always include the first message, so that the consumer makes progress
+          if (size > 0L && size + messageSize > maxSize) {
+            size = maxSize;
+            break;
+          }
+          size += messageSize;
+          messages.add(message);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates a {@link CloseableIterator} for fetching messages from the given topic.
+   */
+  private CloseableIterator<RawMessage> createMessageIterator(TopicMetadata metadata,
+      MessageFetchRequest messageFetchRequest) throws IOException {
     MessageTable messageTable = createMessageTable(metadata);
     try {
       return new MessageCloseableIterator(
@@ -29,8 +29,9 @@ final class PendingStoreRequest extends DefaultStoreRequest {
 
   private final StoreRequest originalRequest;
   private final TopicMetadata metadata;
+  private final Thread waiter;
 
-  private boolean completed;
+  private volatile boolean completed;
   private long startTimestamp;
   private long endTimestamp;
   private int startSequenceId;
@@ -42,12 +43,20 @@ final class PendingStoreRequest extends DefaultStoreRequest {
         originalRequest.getTransactionWritePointer());
     this.originalRequest = originalRequest;
     this.metadata = topicMetadata;
+    this.waiter = Thread.currentThread();
   }
 
   TopicMetadata getTopicMetadata() {
     return metadata;
   }
 
+  /**
+   * Returns the {@link Thread} that created this request and is waiting for it to complete.
+   */
+  Thread getWaiter() {
+    return waiter;
+  }
+
   boolean isCompleted() {
     return completed;
   }
@@ -65,8 +74,9 @@ final class PendingStoreRequest extends DefaultStoreRequest {
   }
 
   void completed(@Nullable Throwable failureCause) {
-    completed = true;
+    // Set the failure cause before the volatile write to completed so that it is visible to the waiting thread
     this.failureCause = failureCause;
+    completed = true;
   }
 
   void setStartTimestamp(long startTimestamp) {
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.messaging.service;
+
+import io.cdap.cdap.proto.id.TopicId;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.twill.common.Cancellable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Notifies listeners when messages are published to a topic. It is used by the
+ * {@link CoreMessagingService} to wake up long-polling fetch requests.
+ *
+ * Listeners are one-shot. Each listener is called at most once, for the first publish to the topic
+ * after the listener was added. Listeners are called from the publishing thread, hence they should
+ * return quickly.
+ */
+@ThreadSafe
+public class PublishNotifier {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PublishNotifier.class);
+
+  private final ConcurrentMap<TopicId, Set<Runnable>> listeners = new ConcurrentHashMap<>();
+
+  /**
+   * Adds a listener to be called on the next publish to the given topic.
+   *
+   * @param topicId the topic to listen on
+   * @param listener the listener to call
+   * @return a {@link Cancellable} to remove the listener
+   */
+  public Cancellable addListener(TopicId topicId, Runnable listener) {
+    listeners.compute(topicId, (key, topicListeners) -> {
+      Set<Runnable> result = topicListeners == null ? ConcurrentHashMap.newKeySet() : topicListeners;
+      result.add(listener);
+      return result;
+    });
+
+    return () -> listeners.computeIfPresent(topicId, (key, topicListeners) -> {
+      topicListeners.remove(listener);
+      return topicListeners.isEmpty() ? null : topicListeners;
+    });
+  }
+
+  /**
+   * Notifies all listeners of the given topic that messages were published to it.
+   */
+  public void notifyPublished(TopicId topicId) {
+    // Fast path for topics without any listener
+    if (listeners.isEmpty()) {
+      return;
+    }
+    Set<Runnable> topicListeners = listeners.remove(topicId);
+    if (topicListeners == null) {
+      return;
+    }
+    for (Runnable listener : topicListeners) {
+      try {
+        listener.run();
+      } catch (Throwable t) {
+        LOG.warn("Exception raised when notifying listener of topic {}", topicId, t);
+      }
+    }
+  }
+}
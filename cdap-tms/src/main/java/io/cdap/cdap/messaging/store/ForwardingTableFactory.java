@@ -44,6 +44,11 @@ public abstract class ForwardingTableFactory implements TableFactory {
     return getDelegate().createPayloadTable(topicMetadata);
   }
 
+  @Override
+  public void init() throws IOException {
+    getDelegate().init();
+  }
+
   @Override
   public void close() throws IOException {
     getDelegate().close();
@@ -88,8 +88,10 @@ final class CachingMessageTable implements MessageTable {
         limit, createFilter(metadata, transaction));
 
     // No need to scan the table if there is no adjustment on the start time and the cache has everything needed
-    if (lookupEntry == adjustedEntry && cacheHasAllEntries(lookupEntry, scanner,
-        messageCache.getComparator())) {
+    boolean cacheHit = lookupEntry == adjustedEntry && cacheHasAllEntries(lookupEntry, scanner,
+        messageCache.getComparator());
+    messageCache.recordScan(cacheHit);
+    if (cacheHit) {
       return scanner;
     }
 
@@ -122,8 +124,10 @@ final class CachingMessageTable implements MessageTable {
         limit, createFilter(metadata, transaction));
 
     // No need to scan the table if there is no adjustment on the start messageId and the cache has everything needed
-    if (lookupEntry == adjustedEntry && cacheHasAllEntries(lookupEntry, scanner,
-        messageCache.getComparator())) {
+    boolean cacheHit = lookupEntry == adjustedEntry && cacheHasAllEntries(lookupEntry, scanner,
+        messageCache.getComparator());
+    messageCache.recordScan(cacheHit);
+    if (cacheHit) {
       return scanner;
     }
 
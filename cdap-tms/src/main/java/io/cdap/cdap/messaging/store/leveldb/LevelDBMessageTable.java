@@ -93,10 +93,11 @@ final class LevelDBMessageTable extends AbstractMessageTable {
     byte[] topic = MessagingUtils.toDataKeyPrefix(topicMetadata.getTopicId(),
         topicMetadata.getGeneration());
     MessageTableKey messageTableKey = MessageTableKey.fromTopic(topic);
+    // Decode the tx pointer and payload directly instead of going through decodeValue
+    // to avoid creating a map per message in the scan.
     BiFunction<byte[], byte[], RawMessageTableEntry> decodeFunction = (key, value) -> {
-      Map<String, byte[]> columns = decodeValue(value);
       messageTableKey.setFromRowKey(key);
-      return tableEntry.set(messageTableKey, columns.get(TX_COL), columns.get(PAYLOAD_COL));
+      return tableEntry.set(messageTableKey, decodeTxPtr(value), decodePayload(value));
     };
 
     return new PartitionedDBScanIterator<>(partitions.iterator(), scanRequest.getStartRow(),
@@ -213,17 +214,43 @@ final class LevelDBMessageTable extends AbstractMessageTable {
   private Map<String, byte[]> decodeValue(byte[] value) {
     Map<String, byte[]> data = new HashMap<>();
 
+    byte[] txPtr = decodeTxPtr(value);
+    if (txPtr != null) {
+      data.put(TX_COL, txPtr);
+    }
+    byte[] payload = decodePayload(value);
+    if (payload != null) {
+      data.put(PAYLOAD_COL, payload);
+    }
+    return data;
+  }
+
+  /**
+   * Decodes the transaction write pointer from the encoded value. Returns {@code null} for
+   * non-transactional message.
+   */
+  @Nullable
+  private byte[] decodeTxPtr(byte[] value) {
     if (value[0] == EncodeType.NON_TRANSACTIONAL.getType()) {
-      data.put(PAYLOAD_COL, Arrays.copyOfRange(value, 1, value.length));
-    } else {
-      data.put(TX_COL, Arrays.copyOfRange(value, 1, 1 + Bytes.SIZEOF_LONG));
+      return null;
+    }
+    return Arrays.copyOfRange(value, 1, 1 + Bytes.SIZEOF_LONG);
+  }
 
-      // Only transactional type has payload, otherwise payload should be null.
-      if (value[0] == EncodeType.TRANSACTIONAL.getType()) {
-        data.put(PAYLOAD_COL, Arrays.copyOfRange(value, 1 + Bytes.SIZEOF_LONG, value.length));
-      }
+  /**
+   * Decodes the payload from the encoded value. Returns {@code null} if the payload is stored in the
+   * payload table.
+   */
+  @Nullable
+  private byte[] decodePayload(byte[] value) {
+    if (value[0] == EncodeType.NON_TRANSACTIONAL.getType()) {
+      return Arrays.copyOfRange(value, 1, value.length);
     }
-    return data;
+    // Only transactional type has payload, otherwise payload should be null.
+    if (value[0] == EncodeType.TRANSACTIONAL.getType()) {
+      return Arrays.copyOfRange(value, 1 + Bytes.SIZEOF_LONG, value.length);
+    }
+    return null;
   }
 
 }
@@ -30,6 +30,7 @@ import io.cdap.cdap.common.logging.Loggers;
 import io.cdap.cdap.common.service.AbstractRetryableScheduledService;
 import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.common.utils.ImmutablePair;
+import io.cdap.cdap.messaging.context.PollingMessageFetcher;
 import io.cdap.cdap.messaging.data.MessageId;
 import io.cdap.cdap.proto.id.TopicId;
 import java.io.IOException;
@@ -117,6 +118,16 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
   protected abstract String processMessages(Iterable<ImmutablePair<String, T>> messages)
       throws Exception;
 
+  /**
+   * Returns the maximum time in milliseconds for each fetch to wait for new messages when there is
+   * no message available. It is only used if the {@link MessageFetcher} returned by the {@link
+   * #getMessagingContext()} is a {@link PollingMessageFetcher}. By default it returns {@code 0},
+   * meaning fetches always return immediately.
+   */
+  protected long getPollTimeoutMillis() {
+    return 0L;
+  }
+
   /**
    * Perform pre-processing before a batch of messages will be processed.
    */
@@ -172,9 +183,7 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
       throws TopicNotFoundException, IOException {
     List<Message> messages = new ArrayList<>();
     LOG.trace("Fetching from topic '{}' with messageId '{}'", topicId, messageId);
-    MessageFetcher messageFetcher = getMessagingContext().getMessageFetcher();
-    try (CloseableIterator<Message> iterator = messageFetcher.fetch(getTopicId().getNamespace(),
-        getTopicId().getTopic(), fetchSize, messageId)) {
+    try (CloseableIterator<Message> iterator = openFetch(messageId)) {
       while (iterator.hasNext() && state() == State.RUNNING) {
         messages.add(iterator.next());
       }
@@ -182,6 +191,22 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
     return messages;
   }
 
+  /**
+   * Opens a {@link CloseableIterator} for fetching messages from TMS. It waits for new messages if
+   * the poll timeout is set and the {@link MessageFetcher} supports it.
+   */
+  private CloseableIterator<Message> openFetch(@Nullable String messageId)
+      throws TopicNotFoundException, IOException {
+    MessageFetcher messageFetcher = getMessagingContext().getMessageFetcher();
+    long pollTimeoutMillis = getPollTimeoutMillis();
+    if (pollTimeoutMillis > 0L && messageFetcher instanceof PollingMessageFetcher) {
+      return ((PollingMessageFetcher) messageFetcher).poll(getTopicId().getNamespace(),
+          getTopicId().getTopic(), fetchSize, messageId, pollTimeoutMillis);
+    }
+    return messageFetcher.fetch(getTopicId().getNamespace(), getTopicId().getTopic(), fetchSize,
+        messageId);
+  }
+
   /**
    * The method has the main logic to perform one fetch from TMS and process the fetched messages.
    *
@@ -202,6 +227,7 @@ public abstract class AbstractMessagingPollingService<T> extends AbstractRetryab
     metricsContext.increment("tms.fetch.messages", messages.size());
 
     // Return if stopping or request to sleep for configured number of milliseconds if there is no message fetched.
+    // If the fetch waited for new messages, the time spent waiting is deducted from the delay.
     if (messages.isEmpty() || state() != State.RUNNING) {
       return Math.max(0L, emptyFetchDelayMillis - (System.currentTimeMillis() - startTime));
     }
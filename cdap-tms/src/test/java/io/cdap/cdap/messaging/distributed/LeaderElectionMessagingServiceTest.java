@@ -43,6 +43,7 @@ import io.cdap.cdap.messaging.spi.MessagingService;
 import io.cdap.cdap.messaging.client.StoreRequestBuilder;
 import io.cdap.cdap.messaging.spi.RawMessage;
 import io.cdap.cdap.messaging.guice.MessagingServerRuntimeModule;
+import io.cdap.cdap.messaging.service.PublishNotifier;
 import io.cdap.cdap.messaging.store.TableFactory;
 import io.cdap.cdap.messaging.store.cache.CachingTableFactory;
 import io.cdap.cdap.messaging.store.cache.DefaultMessageTableCacheProvider;
@@ -287,6 +288,7 @@ public class LeaderElectionMessagingServiceTest {
             bind(MessageTableCacheProvider.class).to(DefaultMessageTableCacheProvider.class)
                 .in(Scopes.SINGLETON);
             bind(TableFactory.class).to(CachingTableFactory.class);
+            bind(PublishNotifier.class).in(Scopes.SINGLETON);
 
             // Bind http handlers
             MessagingServerRuntimeModule
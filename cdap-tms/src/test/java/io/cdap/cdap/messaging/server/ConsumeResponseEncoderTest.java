@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.messaging.server;
+
+import com.google.common.base.Strings;
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.messaging.Schemas;
+import io.cdap.cdap.messaging.spi.RawMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConsumeResponseEncoder}.
+ */
+public class ConsumeResponseEncoderTest {
+
+  @Test
+  public void testSameAsAvroEncoding() throws Exception {
+    // Use payloads of different sizes to cover different length of the variable length encoding
+    List<RawMessage> messages = new ArrayList<>();
+    for (int size : new int[] { 0, 1, 63, 64, 127, 128, 8191, 8192, 100000 }) {
+      messages.add(new RawMessage.Builder()
+                     .setId(Bytes.toBytes(size))
+                     .setPayload(Bytes.toBytes(Strings.repeat("x", size)))
+                     .build());
+    }
+
+    // Encode with the avro GenericDatumWriter
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    Encoder encoder = EncoderFactory.get().directBinaryEncoder(os, null);
+    GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(
+      Schemas.V1.ConsumeResponse.SCHEMA.getElementType());
+    encoder.writeArrayStart();
+    encoder.setItemCount(messages.size());
+    for (RawMessage message : messages) {
+      encoder.startItem();
+      GenericRecord record = new GenericData.Record(Schemas.V1.ConsumeResponse.SCHEMA.getElementType());
+      record.put("id", ByteBuffer.wrap(message.getId()));
+      record.put("payload", ByteBuffer.wrap(message.getPayload()));
+      writer.write(record, encoder);
+    }
+    encoder.writeArrayEnd();
+
+    // Encode with the ConsumeResponseEncoder
+    int size = 0;
+    for (RawMessage message : messages) {
+      size += ConsumeResponseEncoder.encodedSize(message);
+    }
+    int expectedSize = ConsumeResponseEncoder.blockSize(messages.size(), size) + 1;
+    ByteBuf buffer = Unpooled.buffer(expectedSize);
+    ConsumeResponseEncoder.writeBlock(buffer, messages);
+    ConsumeResponseEncoder.writeArrayEnd(buffer);
+
+    Assert.assertEquals(expectedSize, buffer.readableBytes());
+    byte[] encoded = new byte[buffer.readableBytes()];
+    buffer.getBytes(buffer.readerIndex(), encoded);
+    Assert.assertArrayEquals(os.toByteArray(), encoded);
+
+    // Decode it with avro
+    Decoder decoder = DecoderFactory.get().directBinaryDecoder(new ByteBufInputStream(buffer), null);
+    GenericDatumReader<GenericData.Array<GenericRecord>> reader =
+      new GenericDatumReader<>(Schemas.V1.ConsumeResponse.SCHEMA);
+    GenericData.Array<GenericRecord> records = reader.read(null, decoder);
+    Assert.assertEquals(messages.size(), records.size());
+    for (int i = 0; i < messages.size(); i++) {
+      Assert.assertArrayEquals(messages.get(i).getId(), Bytes.toBytes((ByteBuffer) records.get(i).get("id")));
+      Assert.assertArrayEquals(messages.get(i).getPayload(),
+                               Bytes.toBytes((ByteBuffer) records.get(i).get("payload")));
+    }
+  }
+
+  @Test
+  public void testMultiTopicSameAsAvroEncoding() throws Exception {
+    Map<String, List<RawMessage>> topicMessages = new LinkedHashMap<>();
+    topicMessages.put("topic1", Arrays.asList(
+      new RawMessage.Builder().setId(Bytes.toBytes(1)).setPayload(Bytes.toBytes("a")).build(),
+      new RawMessage.Builder().setId(Bytes.toBytes(2)).setPayload(Bytes.toBytes(Strings.repeat("b", 200))).build()));
+    topicMessages.put("topic2", Collections.emptyList());
+    topicMessages.put(Strings.repeat("t", 100), Collections.singletonList(
+      new RawMessage.Builder().setId(Bytes.toBytes(3)).setPayload(Bytes.toBytes("c")).build()));
+
+    // Encode with the avro GenericDatumWriter
+    Schema topicMessagesSchema = Schemas.V1.MultiConsumeResponse.SCHEMA.getElementType();
+    Schema messagesSchema = topicMessagesSchema.getField("messages").schema();
+    List<GenericRecord> records = new ArrayList<>();
+    for (Map.Entry<String, List<RawMessage>> entry : topicMessages.entrySet()) {
+      List<GenericRecord> messageRecords = new ArrayList<>();
+      for (RawMessage message : entry.getValue()) {
+        GenericRecord messageRecord = new GenericData.Record(messagesSchema.getElementType());
+        messageRecord.put("id", ByteBuffer.wrap(message.getId()));
+        messageRecord.put("payload", ByteBuffer.wrap(message.getPayload()));
+        messageRecords.add(messageRecord);
+      }
+      GenericRecord record = new GenericData.Record(topicMessagesSchema);
+      record.put("topic", entry.getKey());
+      record.put("messages", messageRecords);
+      records.add(record);
+    }
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    Encoder encoder = EncoderFactory.get().directBinaryEncoder(os, null);
+    new GenericDatumWriter<List<GenericRecord>>(Schemas.V1.MultiConsumeResponse.SCHEMA).write(records, encoder);
+
+    // Encode with the ConsumeResponseEncoder
+    int size = 0;
+    for (Map.Entry<String, List<RawMessage>> entry : topicMessages.entrySet()) {
+      size += ConsumeResponseEncoder.topicMessagesSize(Bytes.toBytes(entry.getKey()), entry.getValue());
+    }
+    int expectedSize = ConsumeResponseEncoder.blockSize(topicMessages.size(), size) + 1;
+    ByteBuf buffer = Unpooled.buffer(expectedSize);
+    ConsumeResponseEncoder.writeBlockHeader(buffer, topicMessages.size());
+    for (Map.Entry<String, List<RawMessage>> entry : topicMessages.entrySet()) {
+      ConsumeResponseEncoder.writeTopicMessages(buffer, Bytes.toBytes(entry.getKey()), entry.getValue());
+    }
+    ConsumeResponseEncoder.writeArrayEnd(buffer);
+
+    Assert.assertEquals(expectedSize, buffer.readableBytes());
+    byte[] encoded = new byte[buffer.readableBytes()];
+    buffer.getBytes(buffer.readerIndex(), encoded);
+    Assert.assertArrayEquals(os.toByteArray(), encoded);
+  }
+
+  @Test
+  public void testEmptyBlock() {
+    Assert.assertEquals(0, ConsumeResponseEncoder.blockSize(0, 0));
+    ByteBuf buffer = Unpooled.buffer(1);
+    ConsumeResponseEncoder.writeBlock(buffer, Collections.<RawMessage>emptyList());
+    ConsumeResponseEncoder.writeArrayEnd(buffer);
+    Assert.assertEquals(1, buffer.readableBytes());
+    Assert.assertEquals(0, buffer.readByte());
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.messaging.server;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterators;
 import com.google.inject.AbstractModule;
@@ -59,8 +60,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.tephra.Transaction;
 import org.apache.tephra.TxConstants;
 import org.junit.After;
@@ -71,6 +78,8 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Tests for {@link MessagingHttpService}.
@@ -78,6 +87,8 @@ import org.junit.runners.Parameterized;
 @RunWith(Parameterized.class)
 public class MessagingHttpServiceTest {
 
+  private static final Logger LOG = LoggerFactory.getLogger(MessagingHttpServiceTest.class);
+
   @Parameterized.Parameters(name = "{index}: compressPayload = {0}")
   public static Collection<Object[]> parameters() {
     return Arrays.asList(new Object[][]{
@@ -93,6 +104,7 @@ public class MessagingHttpServiceTest {
   private CConfiguration cConf;
   private MessagingHttpService httpService;
   private MessagingService client;
+  private MessagingService messagingService;
 
   public MessagingHttpServiceTest(boolean compressPayload) {
     this.compressPayload = compressPayload;
@@ -109,6 +121,8 @@ public class MessagingHttpServiceTest {
     // Reduce the buffer size for the http request buffer to test "large" message request
     cConf.setInt(Constants.MessagingSystem.HTTP_SERVER_MAX_REQUEST_SIZE_MB, 1);
     cConf.setBoolean(Constants.MessagingSystem.HTTP_COMPRESS_PAYLOAD, compressPayload);
+    cConf.setInt(Constants.MessagingSystem.HTTP_SERVER_MULTI_POLL_MAX_TOPICS, 3);
+    cConf.setInt(Constants.MessagingSystem.HTTP_SERVER_MULTI_POLL_MAX_LIMIT, 2);
 
     Injector injector = Guice.createInjector(
       new ConfigModule(cConf),
@@ -126,6 +140,7 @@ public class MessagingHttpServiceTest {
     );
 
     httpService = injector.getInstance(MessagingHttpService.class);
+    messagingService = injector.getInstance(MessagingService.class);
     httpService.startAndWait();
     client = new ClientMessagingService(injector.getInstance(RemoteClientFactory.class), compressPayload);
   }
@@ -508,6 +523,183 @@ public class MessagingHttpServiceTest {
     client.deleteTopic(topicId);
   }
 
+  @Test
+  public void testLongPoll() throws Exception {
+    TopicId topicId = new NamespaceId("ns1").topic("testLongPoll");
+    client.createTopic(new DefaultTopicMetadata(topicId));
+
+    // Long poll on an empty topic should return empty after the timeout
+    Stopwatch stopwatch = new Stopwatch().start();
+    try (CloseableIterator<RawMessage> iterator =
+        client.fetch(new DefaultMessageFetchRequest.Builder()
+                       .setTopicId(topicId).setPollTimeoutMillis(500L).build())) {
+      Assert.assertFalse(iterator.hasNext());
+    }
+    Assert.assertTrue(stopwatch.elapsedMillis() >= 500L);
+
+    // Long poll should return as soon as a message is published
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<List<RawMessage>> future = executor.submit(() -> {
+        List<RawMessage> messages = new ArrayList<>();
+        try (CloseableIterator<RawMessage> iterator =
+            client.fetch(new DefaultMessageFetchRequest.Builder()
+                           .setTopicId(topicId).setPollTimeoutMillis(30000L).build())) {
+          Iterators.addAll(messages, iterator);
+        }
+        return messages;
+      });
+
+      // Wait a bit to make sure the poll request is waiting
+      TimeUnit.MILLISECONDS.sleep(500);
+      Assert.assertFalse(future.isDone());
+
+      stopwatch = new Stopwatch().start();
+      client.publish(StoreRequestBuilder.of(topicId).addPayload("message").build());
+      List<RawMessage> messages = future.get(10, TimeUnit.SECONDS);
+      Assert.assertTrue(stopwatch.elapsedMillis() < 10000L);
+      Assert.assertEquals(Collections.singletonList("message"),
+                          messages.stream()
+                            .map(RawMessage::getPayload)
+                            .map(Bytes::toString).collect(Collectors.toList()));
+
+      // Long poll with messages available should return immediately
+      stopwatch = new Stopwatch().start();
+      try (CloseableIterator<RawMessage> iterator =
+          client.fetch(new DefaultMessageFetchRequest.Builder()
+                         .setTopicId(topicId).setPollTimeoutMillis(30000L).build())) {
+        Assert.assertTrue(iterator.hasNext());
+      }
+      Assert.assertTrue(stopwatch.elapsedMillis() < 10000L);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    client.deleteTopic(topicId);
+  }
+
+  @Test
+  public void testMultiFetch() throws Exception {
+    TopicId topic1 = new NamespaceId("ns1").topic("testMultiFetch1");
+    TopicId topic2 = new NamespaceId("ns1").topic("testMultiFetch2");
+    TopicId topic3 = new NamespaceId("ns2").topic("testMultiFetch3");
+    for (TopicId topicId : Arrays.asList(topic1, topic2, topic3)) {
+      client.createTopic(new DefaultTopicMetadata(topicId));
+    }
+
+    client.publish(StoreRequestBuilder.of(topic1).addPayload("a0").addPayload("a1").addPayload("a2").build());
+    client.publish(StoreRequestBuilder.of(topic3).addPayload("c0").build());
+
+    // Fetch the first message of topic1 to get a start offset
+    byte[] startOffset;
+    try (CloseableIterator<RawMessage> iterator =
+        client.fetch(new DefaultMessageFetchRequest.Builder().setTopicId(topic1).setLimit(1).build())) {
+      startOffset = iterator.next().getId();
+    }
+
+    // Fetch all three topics, each from its own start position
+    Map<TopicId, List<RawMessage>> result = client.multiFetch(Arrays.asList(
+      new DefaultMessageFetchRequest.Builder().setTopicId(topic3).build(),
+      new DefaultMessageFetchRequest.Builder().setTopicId(topic1).setStartMessage(startOffset, false).build(),
+      new DefaultMessageFetchRequest.Builder().setTopicId(topic2).build()));
+
+    Assert.assertEquals(Arrays.asList(topic3, topic1, topic2), new ArrayList<>(result.keySet()));
+    Assert.assertEquals(Collections.singletonList("c0"), toPayloads(result.get(topic3)));
+    Assert.assertEquals(Arrays.asList("a1", "a2"), toPayloads(result.get(topic1)));
+    Assert.assertTrue(result.get(topic2).isEmpty());
+
+    // Limit is applied per topic
+    result = client.multiFetch(Arrays.asList(
+      new DefaultMessageFetchRequest.Builder().setTopicId(topic1).setLimit(2).build(),
+      new DefaultMessageFetchRequest.Builder().setTopicId(topic3).setLimit(2).build()));
+    Assert.assertEquals(Arrays.asList("a0", "a1"), toPayloads(result.get(topic1)));
+    Assert.assertEquals(Collections.singletonList("c0"), toPayloads(result.get(topic3)));
+
+    // The server caps the limit per topic
+    result = client.multiFetch(Collections.singletonList(
+      new DefaultMessageFetchRequest.Builder().setTopicId(topic1).setLimit(10).build()));
+    Assert.assertEquals(Arrays.asList("a0", "a1"), toPayloads(result.get(topic1)));
+
+    // The topics are read up to the maximum size, always including the first message
+    for (MessagingService service : Arrays.asList(messagingService, client)) {
+      result = service.multiFetch(Arrays.asList(
+        new DefaultMessageFetchRequest.Builder().setTopicId(topic1).build(),
+        new DefaultMessageFetchRequest.Builder().setTopicId(topic3).build()), 1L);
+      Assert.assertEquals(Arrays.asList(topic1, topic3), new ArrayList<>(result.keySet()));
+      Assert.assertEquals(Collections.singletonList("a0"), toPayloads(result.get(topic1)));
+      Assert.assertTrue(result.get(topic3).isEmpty());
+    }
+
+    // The server rejects requests with too many topics
+    try {
+      client.multiFetch(IntStream.range(0, 4)
+                          .mapToObj(i -> new DefaultMessageFetchRequest.Builder()
+                            .setTopicId(new NamespaceId("ns1").topic("testMultiFetch" + i)).build())
+                          .collect(Collectors.toList()));
+      Assert.fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    // Fetching a missing topic should fail with the missing topic
+    TopicId missingTopic = new NamespaceId("ns1").topic("testMultiFetchMissing");
+    try {
+      client.multiFetch(Arrays.asList(
+        new DefaultMessageFetchRequest.Builder().setTopicId(topic1).build(),
+        new DefaultMessageFetchRequest.Builder().setTopicId(missingTopic).build()));
+      Assert.fail("Expected TopicNotFoundException");
+    } catch (TopicNotFoundException e) {
+      Assert.assertEquals(missingTopic.getNamespace(), e.getNamespace());
+      Assert.assertEquals(missingTopic.getTopic(), e.getTopic());
+    }
+
+    for (TopicId topicId : Arrays.asList(topic1, topic2, topic3)) {
+      client.deleteTopic(topicId);
+    }
+  }
+
+  private List<String> toPayloads(List<RawMessage> messages) {
+    return messages.stream().map(RawMessage::getPayload).map(Bytes::toString).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testLargePollThroughput() throws Exception {
+    // Measures the throughput of fetching a large number of messages in one poll
+    TopicId topicId = new NamespaceId("ns1").topic("testLargePollThroughput");
+    client.createTopic(new DefaultTopicMetadata(topicId));
+
+    int messageCount = 10000;
+    String payload = Strings.repeat("x", 1024);
+    for (int i = 0; i < messageCount / 100; i++) {
+      StoreRequestBuilder builder = StoreRequestBuilder.of(topicId);
+      for (int j = 0; j < 100; j++) {
+        builder.addPayload(payload);
+      }
+      client.publish(builder.build());
+    }
+
+    for (int i = 0; i < 3; i++) {
+      Stopwatch stopwatch = new Stopwatch().start();
+      int count = 0;
+      long bytes = 0;
+      try (CloseableIterator<RawMessage> iterator =
+          client.fetch(new DefaultMessageFetchRequest.Builder()
+                         .setTopicId(topicId).setLimit(messageCount).build())) {
+        while (iterator.hasNext()) {
+          bytes += iterator.next().getPayload().length;
+          count++;
+        }
+      }
+      long elapsedMillis = stopwatch.elapsedMillis();
+      Assert.assertEquals(messageCount, count);
+      Assert.assertEquals((long) messageCount * payload.length(), bytes);
+      LOG.info("Polled {} messages of {} bytes in {} ms, throughput: {} messages/s",
+               count, payload.length(), elapsedMillis, count * 1000L / Math.max(1L, elapsedMillis));
+    }
+
+    client.deleteTopic(topicId);
+  }
+
   @Test
   public void testPayloadTable() throws Exception {
     // This test is to verify storing transaction messages to the payload table
@@ -22,6 +22,7 @@ import com.google.common.collect.ListMultimap;
 import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.metrics.MetricsCollector;
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
 import io.cdap.cdap.common.utils.TimeProvider;
 import io.cdap.cdap.messaging.DefaultTopicMetadata;
 import io.cdap.cdap.messaging.spi.StoreRequest;
@@ -31,6 +32,7 @@ import io.cdap.cdap.messaging.data.MessageId;
 import io.cdap.cdap.messaging.spi.RawMessage;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.TopicId;
+import io.cdap.cdap.test.SlowTests;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -46,6 +48,7 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -269,10 +272,131 @@ public class ConcurrentMessageWriterTest {
     }
   }
 
+  @Test
+  public void testGroupCommitConcurrentWrites() throws Exception {
+    int payloadsPerRequest = 200;
+    int threadCount = 20;
+    int requestPerThread = 20;
+
+    TopicId topicId = NamespaceId.DEFAULT.topic("t");
+    TopicMetadata metadata = new DefaultTopicMetadata(topicId, new HashMap<String, String>(), 1);
+    TestStoreRequestWriter testWriter = new TestStoreRequestWriter(new TimeProvider.IncrementalTimeProvider(), 5L);
+
+    // Use a small batch size and a linger time to have requests from multiple threads batched together
+    // while forcing multiple batches.
+    ConcurrentMessageWriter writer = new ConcurrentMessageWriter(testWriter, new NoopMetricsContext(), true, 4, 200L);
+    long elapsedMillis = publishConcurrently(writer, topicId, metadata, threadCount, requestPerThread,
+                                             payloadsPerRequest);
+    LOG.info("Total time passed with group commit: {} ms", elapsedMillis);
+
+    List<RawMessage> messages = testWriter.getMessages().get(topicId);
+    Assert.assertEquals(payloadsPerRequest * threadCount * requestPerThread, messages.size());
+
+    // The message id must be sorted
+    RawMessage lastMessage = null;
+    for (RawMessage message : messages) {
+      if (lastMessage != null) {
+        Assert.assertTrue(Bytes.compareTo(lastMessage.getId(), message.getId()) < 0);
+      }
+      lastMessage = message;
+    }
+  }
+
+  @Test
+  public void testGroupCommitFailure() throws Exception {
+    TopicId topicId = NamespaceId.DEFAULT.topic("t");
+    TopicMetadata metadata = new DefaultTopicMetadata(topicId, new HashMap<String, String>(), 1);
+    TimeProvider timeProvider = new TimeProvider.IncrementalTimeProvider();
+    StoreRequestWriter<TestEntry> failingWriter = new TestStoreRequestWriter(timeProvider) {
+      @Override
+      protected void doWrite(Iterator<TestEntry> entries) throws IOException {
+        throw new IOException("Write failure");
+      }
+    };
+
+    ConcurrentMessageWriter writer = new ConcurrentMessageWriter(failingWriter, new NoopMetricsContext(),
+                                                                 true, 16, 0L);
+    try {
+      writer.persist(new TestStoreRequest(topicId, Arrays.asList("1", "2", "3")), metadata);
+      Assert.fail("Expected IOException");
+    } catch (IOException e) {
+      Assert.assertEquals("Write failure", e.getMessage());
+    }
+  }
+
+  /**
+   * Compares the publish throughput of the spinning writer and the group commit writer.
+   * The timings are only logged, since they depend on the machine running the test.
+   */
+  @Test
+  @Category(SlowTests.class)
+  public void testPublishThroughput() throws Exception {
+    int payloadsPerRequest = 10;
+    int totalRequests = 5120;
+
+    TopicId topicId = NamespaceId.DEFAULT.topic("t");
+    TopicMetadata metadata = new DefaultTopicMetadata(topicId, new HashMap<String, String>(), 1);
+
+    for (int threadCount : new int[] { 1, 16, 256 }) {
+      int requestPerThread = totalRequests / threadCount;
+      for (boolean groupCommit : new boolean[] { false, true }) {
+        TestStoreRequestWriter testWriter = new TestStoreRequestWriter(new TimeProvider.IncrementalTimeProvider());
+        ConcurrentMessageWriter writer = new ConcurrentMessageWriter(testWriter, new NoopMetricsContext(),
+                                                                     groupCommit, 256, 0L);
+        long elapsedMillis = publishConcurrently(writer, topicId, metadata, threadCount, requestPerThread,
+                                                 payloadsPerRequest);
+        LOG.info("Publishers: {}, group commit: {}, requests: {}, time: {} ms, throughput: {} requests/s",
+                 threadCount, groupCommit, threadCount * requestPerThread, elapsedMillis,
+                 threadCount * requestPerThread * 1000L / Math.max(1L, elapsedMillis));
+        Assert.assertEquals(payloadsPerRequest * threadCount * requestPerThread,
+                            testWriter.getMessages().get(topicId).size());
+      }
+    }
+  }
+
+  /**
+   * Publishes to the given {@link ConcurrentMessageWriter} from multiple threads concurrently.
+   *
+   * @return the time in milliseconds taken for all threads to complete
+   */
+  private long publishConcurrently(final ConcurrentMessageWriter writer, final TopicId topicId,
+                                   final TopicMetadata metadata, int threadCount, final int requestPerThread,
+                                   int payloadsPerRequest) throws Exception {
+    final List<String> payload = new ArrayList<>(payloadsPerRequest);
+    for (int i = 0; i < payloadsPerRequest; i++) {
+      payload.add(Integer.toString(i));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    final CyclicBarrier barrier = new CyclicBarrier(threadCount + 1);
+    for (int i = 0; i < threadCount; i++) {
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            barrier.await();
+            for (int i = 0; i < requestPerThread; i++) {
+              writer.persist(new TestStoreRequest(topicId, payload), metadata);
+            }
+          } catch (Exception e) {
+            LOG.error("Exception raised when persisting.", e);
+          }
+        }
+      });
+    }
+
+    Stopwatch stopwatch = new Stopwatch();
+    barrier.await();
+    stopwatch.start();
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    return stopwatch.elapsedMillis();
+  }
+
   /**
    * A {@link StoreRequestWriter} that turns all payloads to {@link RawMessage} and stores it in a List.
    */
-  private static final class TestStoreRequestWriter extends StoreRequestWriter<TestEntry> {
+  private static class TestStoreRequestWriter extends StoreRequestWriter<TestEntry> {
 
     private final ListMultimap<TopicId, RawMessage> messages = ArrayListMultimap.create();
     private long writeDelayMillis;
@@ -40,6 +40,8 @@ import io.cdap.cdap.proto.id.TopicId;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.tephra.Transaction;
 import org.junit.Assert;
@@ -176,4 +178,63 @@ public class CachingMessageTableTest extends LevelDBMessageTableTest {
       Assert.assertTrue(iterator.next() instanceof CachingMessageTable.CacheMessageTableEntry);
     }
   }
+
+  @Test
+  public void testCacheHitMissMetrics() throws Exception {
+    TopicMetadata metadata =
+        new DefaultTopicMetadata(
+            NamespaceId.DEFAULT.topic("testHitMiss"),
+            DefaultTopicMetadata.GENERATION_KEY,
+            1,
+            DefaultTopicMetadata.TTL_KEY,
+            86400);
+
+    // A cache that records the metrics emitted by it
+    final Map<String, AtomicLong> metrics = new ConcurrentHashMap<>();
+    final MessageCache<MessageTable.Entry> messageCache = new MessageCache<>(
+      new MessageTableEntryComparator(), new MessageTableEntryWeigher(),
+      new MessageCache.Limits(500, 700, 1000), new NoopMetricsContext() {
+        @Override
+        public void increment(String metricName, long value) {
+          metrics.computeIfAbsent(metricName, k -> new AtomicLong()).addAndGet(value);
+        }
+      });
+    MessageTableCacheProvider provider = new MessageTableCacheProvider() {
+      @Override
+      public MessageCache<MessageTable.Entry> getMessageCache(TopicId topicId) {
+        return messageCache;
+      }
+
+      @Override
+      public void clear() {
+        messageCache.clear();
+      }
+    };
+
+    MessageTable messageTable = new CachingMessageTable(cConf, super.getMessageTable(metadata), provider);
+    for (int i = 1; i <= 5; i++) {
+      byte[] key = Bytes.concat(MessagingUtils.toDataKeyPrefix(metadata.getTopicId(), metadata.getGeneration()),
+                                Bytes.toBytes((long) i), Bytes.toBytes((short) 0));
+      messageTable.store(
+        Collections.singleton(new ImmutableMessageTableEntry(key, Bytes.toBytes("Payload " + i), null)).iterator());
+    }
+
+    // Fetch from a message that is in the cache should be a hit
+    byte[] rawId = new byte[MessageId.RAW_ID_SIZE];
+    MessageId.putRawId(3L, (short) 0, 0L, (short) 0, rawId, 0);
+    try (CloseableIterator<MessageTable.Entry> iter = messageTable.fetch(metadata, new MessageId(rawId),
+                                                                          false, 100, null)) {
+      Assert.assertEquals(2, Lists.newArrayList(iter).size());
+    }
+    Assert.assertEquals(1L, metrics.get("cache.scan.hits").get());
+    Assert.assertNull(metrics.get("cache.scan.misses"));
+
+    // Fetch from a time before the first cached entry needs to read from the table, hence a miss
+    try (CloseableIterator<MessageTable.Entry> iter = messageTable.fetch(metadata, 0L, 100, null)) {
+      Assert.assertEquals(5, Lists.newArrayList(iter).size());
+    }
+    Assert.assertEquals(1L, metrics.get("cache.scan.hits").get());
+    Assert.assertEquals(1L, metrics.get("cache.scan.misses").get());
+    messageTable.close();
+  }
 }
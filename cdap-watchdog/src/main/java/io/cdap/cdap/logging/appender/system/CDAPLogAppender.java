@@ -38,6 +38,8 @@ import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.CodecFactory;
 import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +62,7 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
   private String dirPermissions;
   private String filePermissions;
   private int syncIntervalBytes;
+  private String codec = "null";
   private long maxFileLifetimeMs;
   private long maxFileSizeInBytes;
   private ScheduledExecutorService scheduledExecutorService;
@@ -107,6 +110,14 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
     this.syncIntervalBytes = syncIntervalBytes;
   }
 
+  /**
+   * Sets the avro file compression codec, in the format accepted by
+   * {@link #createCodecFactory(String)}. This is called by the logback framework.
+   */
+  public void setCodec(String codec) {
+    this.codec = codec;
+  }
+
   /**
    * Sets the maximum lifetime of a file. This is called by the logback framework.
    */
@@ -157,12 +168,20 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
     Preconditions.checkState(logCleanupIntervalMins > 0,
         "Property logCleanupIntervalMins must be > 0");
     Preconditions.checkState(fileCleanupBatchSize > 0, "Property fileCleanupBatchSize must be > 0");
+    Preconditions.checkState(codec != null, "Property codec cannot be null");
+    CodecFactory codecFactory;
+    try {
+      codecFactory = createCodecFactory(codec);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Unsupported value for property codec: " + codec, e);
+    }
 
     if (context instanceof AppenderContext) {
       AppenderContext context = (AppenderContext) this.context;
       logFileManager = new LogFileManager(dirPermissions, filePermissions, maxFileLifetimeMs,
           maxFileSizeInBytes,
           syncIntervalBytes,
+          codecFactory,
           new FileMetaDataWriter(context.getTransactionRunner()),
           context.getLocationFactory());
       if (context.getInstanceId() == 0 && !disableLogCleanerForTest) {
@@ -305,4 +324,43 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
       return new LogPathIdentifier(namespaceId, application, program);
     }
   }
+
+  /**
+   * Creates the {@link CodecFactory} for the given codec, which is one of the names accepted by
+   * {@link CodecFactory#fromString(String)}. Deflate and xz can be followed by a compression level,
+   * such as {@code deflate-6} or {@code xz-3}.
+   *
+   * @throws IllegalArgumentException if the codec is not supported
+   */
+  @VisibleForTesting
+  static CodecFactory createCodecFactory(String codec) {
+    String name = codec.trim();
+    int idx = name.lastIndexOf('-');
+    if (idx < 0) {
+      try {
+        return CodecFactory.fromString(name);
+      } catch (AvroRuntimeException e) {
+        throw new IllegalArgumentException("Unsupported codec " + codec, e);
+      }
+    }
+
+    int level;
+    try {
+      level = Integer.parseInt(name.substring(idx + 1));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid compression level in codec " + codec, e);
+    }
+    switch (name.substring(0, idx)) {
+      case "deflate":
+        Preconditions.checkArgument(level >= 1 && level <= 9,
+            "Compression level of deflate must be between 1 and 9: %s", codec);
+        return CodecFactory.deflateCodec(level);
+      case "xz":
+        Preconditions.checkArgument(level >= 0 && level <= 9,
+            "Compression level of xz must be between 0 and 9: %s", codec);
+        return CodecFactory.xzCodec(level);
+      default:
+        throw new IllegalArgumentException("Codec does not support a compression level: " + codec);
+    }
+  }
 }
@@ -34,6 +34,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
+import org.apache.avro.file.CodecFactory;
 import org.apache.twill.filesystem.Location;
 import org.apache.twill.filesystem.LocationFactory;
 import org.slf4j.Logger;
@@ -50,6 +51,7 @@ public final class LogFileManager implements Flushable, Syncable {
   private final String dirPermissions;
   private final String filePermissions;
   private final int syncIntervalBytes;
+  private final CodecFactory codecFactory;
   private final long maxLifetimeMillis;
   private final long maxFileSizeInBytes;
   private final Map<LogPathIdentifier, LogFileOutputStream> outputStreamMap;
@@ -58,12 +60,14 @@ public final class LogFileManager implements Flushable, Syncable {
 
   LogFileManager(String dirPermissions, String filePermissions,
       long maxFileLifetimeMs, long maxFileSizeInBytes, int syncIntervalBytes,
-      FileMetaDataWriter fileMetaDataWriter, LocationFactory locationFactory) {
+      CodecFactory codecFactory, FileMetaDataWriter fileMetaDataWriter,
+      LocationFactory locationFactory) {
     this.dirPermissions = dirPermissions;
     this.filePermissions = filePermissions;
     this.maxLifetimeMillis = maxFileLifetimeMs;
     this.maxFileSizeInBytes = maxFileSizeInBytes;
     this.syncIntervalBytes = syncIntervalBytes;
+    this.codecFactory = codecFactory;
     this.fileMetaDataWriter = fileMetaDataWriter;
     this.logsDirectoryLocation = locationFactory.create("logs");
     this.outputStreamMap = new HashMap<>();
@@ -101,8 +105,8 @@ public final class LogFileManager implements Flushable, Syncable {
       long timestamp) throws IOException {
     TimeStampLocation location = createLocation(identifier);
     LogFileOutputStream logFileOutputStream = new LogFileOutputStream(
-        location.getLocation(), filePermissions, syncIntervalBytes, location.getTimeStamp(),
-        new Closeable() {
+        location.getLocation(), filePermissions, syncIntervalBytes, codecFactory,
+        location.getTimeStamp(), new Closeable() {
           @Override
           public void close() throws IOException {
             outputStreamMap.remove(identifier);
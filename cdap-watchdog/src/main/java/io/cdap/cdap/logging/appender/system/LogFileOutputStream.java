@@ -22,12 +22,15 @@ import io.cdap.cdap.common.io.ByteBuffers;
 import io.cdap.cdap.common.io.Syncable;
 import io.cdap.cdap.logging.serialize.LoggingEvent;
 import io.cdap.cdap.logging.serialize.LoggingEventSerializer;
+import io.cdap.cdap.logging.write.LogBlockSummary;
+import io.cdap.cdap.logging.write.LogFileIndex;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
@@ -40,13 +43,27 @@ import org.slf4j.LoggerFactory;
  *
  * Since there is no way to check the state of the underlying file on an exception, all methods of
  * this class assume that the file state is bad on any exception and close the file.
+ *
+ * A {@link LogFileIndex} is maintained for the file and written next to it whenever a new entry is
+ * added on flush, and when the file is closed. Each entry gets a {@link LogBlockSummary} of its
+ * region once the region is complete. Failure to write the index does not affect the log file,
+ * since readers fall back to scanning the file without it.
+ *
+ * Blocks of the file are compressed with the given Avro codec. The codec is recorded in the file
+ * header, hence readers handle files written with any codec, including uncompressed ones.
  */
 
 class LogFileOutputStream implements Closeable, Flushable, Syncable {
 
   private static final Logger LOG = LoggerFactory.getLogger(LogFileOutputStream.class);
 
+  // Maximum number of bytes between index entries, if the file is flushed often enough
+  private static final int MAX_INDEX_INTERVAL_BYTES = 1024 * 1024;
+
   private final Location location;
+  private final String filePermissions;
+  private final int indexIntervalBytes;
+  private final LogFileIndex index;
   private final long createTime;
   private final Closeable closeable;
   private final LoggingEventSerializer serializer;
@@ -54,10 +71,19 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
   private OutputStream outputStream;
   private DataFileWriter<GenericRecord> dataFileWriter;
   private long fileSize;
-
-  LogFileOutputStream(Location location, String filePermissions,
-      int syncIntervalBytes, long createTime, Closeable closeable) throws IOException {
+  private long firstTimestamp = -1L;
+  // Summary of the events appended since the last flush
+  private LogBlockSummary flushSummary = new LogBlockSummary();
+  // Summary of the events in the region of the last index entry
+  private LogBlockSummary regionSummary;
+  private boolean indexEnabled = true;
+
+  LogFileOutputStream(Location location, String filePermissions, int syncIntervalBytes,
+      CodecFactory codecFactory, long createTime, Closeable closeable) throws IOException {
     this.location = location;
+    this.filePermissions = filePermissions;
+    this.indexIntervalBytes = Math.min(syncIntervalBytes, MAX_INDEX_INTERVAL_BYTES);
+    this.index = new LogFileIndex();
     this.closeable = closeable;
     this.serializer = new LoggingEventSerializer();
 
@@ -67,6 +93,7 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
           filePermissions.isEmpty() ? location.getOutputStream()
               : location.getOutputStream(filePermissions);
       this.dataFileWriter = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema));
+      this.dataFileWriter.setCodec(codecFactory);
       this.dataFileWriter.create(schema, outputStream);
       this.dataFileWriter.setSyncInterval(syncIntervalBytes);
       this.createTime = createTime;
@@ -83,6 +110,10 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
   }
 
   void append(ILoggingEvent event) throws IOException {
+    if (firstTimestamp < 0) {
+      firstTimestamp = event.getTimeStamp();
+    }
+    flushSummary.add(event);
     // If the event is already a LoggingEvent, we don't need to re-encode.
     if (event instanceof LoggingEvent) {
       ByteBuffer encoded = ((LoggingEvent) event).getEncoded();
@@ -117,7 +148,26 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
 
   @Override
   public void flush() throws IOException {
+    // The events appended since the last flush start at the previous sync position
+    long position = fileSize;
     fileSize = dataFileWriter.sync();
+
+    if (firstTimestamp >= 0) {
+      if (index.size() == 0
+          || position - index.getPosition(index.size() - 1) >= indexIntervalBytes) {
+        // The region of the last entry is complete
+        if (index.size() > 0) {
+          index.setSummary(index.size() - 1, regionSummary);
+        }
+        index.add(firstTimestamp, position);
+        regionSummary = flushSummary;
+        writeIndex();
+      } else {
+        regionSummary.merge(flushSummary);
+      }
+      firstTimestamp = -1L;
+      flushSummary = new LogBlockSummary();
+    }
   }
 
   @Override
@@ -130,11 +180,39 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
     }
   }
 
+  /**
+   * Writes the index next to the log file. On failure, the index file is left as is, which is
+   * still valid since it only lacks the latest entries, and no further updates are attempted.
+   */
+  private void writeIndex() {
+    if (!indexEnabled) {
+      return;
+    }
+    Location indexLocation = LogFileIndex.getIndexLocation(location);
+    try (OutputStream os = filePermissions.isEmpty() ? indexLocation.getOutputStream()
+        : indexLocation.getOutputStream(filePermissions)) {
+      index.write(os);
+    } catch (IOException e) {
+      indexEnabled = false;
+      LOG.warn("Failed to write log file index {}. The index will not be updated for {}.",
+          indexLocation, location, e);
+    }
+  }
+
   @Override
   public void close() throws IOException {
     LOG.trace("Closing file {}", location);
     try {
-      dataFileWriter.close();
+      try {
+        flush();
+      } finally {
+        dataFileWriter.close();
+      }
+      // All events are summarized, hence the region of the last entry is complete
+      if (index.size() > 0) {
+        index.setSummary(index.size() - 1, regionSummary);
+        writeIndex();
+      }
     } finally {
       closeable.close();
     }
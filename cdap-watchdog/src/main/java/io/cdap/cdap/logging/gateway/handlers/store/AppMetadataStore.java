@@ -20,6 +20,7 @@ import com.google.gson.Gson;
 import io.cdap.cdap.api.dataset.lib.CloseableIterator;
 import io.cdap.cdap.common.app.RunIds;
 import io.cdap.cdap.internal.app.store.RunRecordDetail;
+import io.cdap.cdap.internal.app.store.RunRecordDetailCodec;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.ProgramId;
@@ -114,13 +115,17 @@ public class AppMetadataStore {
   }
 
   private static RunRecordDetail deserializeRunRecordMeta(StructuredRow row) {
-    RunRecordDetail existing =
-        GSON.fromJson(row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA),
-            RunRecordDetail.class);
+    ProgramId programId = getProgramIdFromRunRecordsPrimaryKeys(
+        new ArrayList(row.getPrimaryKeys()));
+    String data = row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    byte[] binaryData = row.getBytes(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA);
+    if (binaryData != null && RunRecordDetailCodec.isBinaryCurrent(data)) {
+      return RunRecordDetailCodec.decode(binaryData,
+          programId.run(row.getString(StoreDefinition.AppMetadataStore.RUN_FIELD)));
+    }
+    RunRecordDetail existing = GSON.fromJson(data, RunRecordDetail.class);
     return RunRecordDetail.builder(existing)
-        .setProgramRunId(
-            getProgramIdFromRunRecordsPrimaryKeys(new ArrayList(row.getPrimaryKeys())).run(
-                existing.getPid()))
+        .setProgramRunId(programId.run(existing.getPid()))
         .build();
   }
 
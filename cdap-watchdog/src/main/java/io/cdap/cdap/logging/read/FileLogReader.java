@@ -24,6 +24,8 @@ import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.dataset.lib.AbstractCloseableIterator;
 import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.logging.LoggingContext;
 import io.cdap.cdap.logging.context.LoggingContextHelper;
 import io.cdap.cdap.logging.filter.AndFilter;
@@ -31,25 +33,50 @@ import io.cdap.cdap.logging.filter.Filter;
 import io.cdap.cdap.logging.meta.FileMetaDataReader;
 import io.cdap.cdap.logging.write.LogLocation;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Reads log events from a file.
+ *
+ * If {@link Constants.LogQuery#READ_PARALLEL_FILES} is larger than one, multiple log files are read
+ * in parallel and their events are merged by timestamp.
  */
 public class FileLogReader implements LogReader {
 
   private static final Logger LOG = LoggerFactory.getLogger(FileLogReader.class);
 
   private final FileMetaDataReader fileMetadataReader;
+  private final int parallelism;
+  @Nullable
+  private final ExecutorService executor;
 
   @Inject
-  public FileLogReader(FileMetaDataReader fileMetadataReader) {
+  public FileLogReader(CConfiguration cConf, FileMetaDataReader fileMetadataReader) {
     this.fileMetadataReader = fileMetadataReader;
+    this.parallelism = Math.max(1, cConf.getInt(Constants.LogQuery.READ_PARALLEL_FILES, 1));
+    if (parallelism > 1) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(
+          parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          Threads.createDaemonThreadFactory("log-file-reader-%d"));
+      executor.allowCoreThreadTimeOut(true);
+      this.executor = executor;
+    } else {
+      this.executor = null;
+    }
   }
 
   @Override
@@ -77,6 +104,18 @@ public class FileLogReader implements LogReader {
         return;
       }
 
+      if (executor != null && sortedFilesInRange.size() > 1) {
+        try (CloseableIterator<LogEvent> events = new MergingLogIterator(
+            sortedFilesInRange,
+            file -> file.readLog(logFilter, fromTimeMs, Long.MAX_VALUE, maxEvents),
+            executor, parallelism)) {
+          while (callback.getCount() < maxEvents && events.hasNext()) {
+            callback.handle(events.next());
+          }
+        }
+        return;
+      }
+
       for (LogLocation file : sortedFilesInRange) {
         LOG.trace("Reading file {}", file);
         file.readLog(logFilter, fromTimeMs, Long.MAX_VALUE, maxEvents - callback.getCount(),
@@ -112,20 +151,12 @@ public class FileLogReader implements LogReader {
 
       LOG.trace("Using fromTimeMs={}, readRange={}", fromTimeMs, readRange);
       List<Collection<LogEvent>> logSegments = Lists.newLinkedList();
-      int count = 0;
-      for (LogLocation file : Lists.reverse(sortedFilesInRange)) {
-        try {
-          LOG.trace("Reading file {}", file);
-
-          Collection<LogEvent> events = file.readLogPrev(logFilter, fromTimeMs, maxEvents - count);
-          logSegments.add(events);
-          count += events.size();
-          if (count >= maxEvents) {
-            break;
-          }
-        } catch (IOException e) {
-          LOG.warn("Got exception reading log file {}", file, e);
-        }
+      if (executor != null && sortedFilesInRange.size() > 1) {
+        readLogPrevParallel(Lists.reverse(sortedFilesInRange), logFilter, fromTimeMs, maxEvents,
+            logSegments);
+      } else {
+        readLogPrev(Lists.reverse(sortedFilesInRange), logFilter, fromTimeMs, maxEvents,
+            logSegments);
       }
 
       for (LogEvent event : Iterables.concat(Lists.reverse(logSegments))) {
@@ -137,6 +168,74 @@ public class FileLogReader implements LogReader {
     }
   }
 
+  /**
+   * Reads the last events of the given files one after another, until the given number of events
+   * are read.
+   *
+   * @param files the files to read, from the latest to the earliest
+   * @param logSegments the list to add the events of each file to
+   */
+  private void readLogPrev(List<LogLocation> files, Filter logFilter, long fromTimeMs,
+      int maxEvents, List<Collection<LogEvent>> logSegments) {
+    int count = 0;
+    for (LogLocation file : files) {
+      try {
+        LOG.trace("Reading file {}", file);
+
+        Collection<LogEvent> events = file.readLogPrev(logFilter, fromTimeMs, maxEvents - count);
+        logSegments.add(events);
+        count += events.size();
+        if (count >= maxEvents) {
+          break;
+        }
+      } catch (IOException e) {
+        LOG.warn("Got exception reading log file {}", file, e);
+      }
+    }
+  }
+
+  /**
+   * Same as {@link #readLogPrev(List, Filter, long, int, List)}, but reads up to
+   * {@link #parallelism} files at a time. The events of each file are trimmed to give the same
+   * result as reading the files one after another.
+   */
+  private void readLogPrevParallel(List<LogLocation> files, Filter logFilter, long fromTimeMs,
+      int maxEvents, List<Collection<LogEvent>> logSegments) throws InterruptedException {
+    int count = 0;
+    for (int i = 0; i < files.size() && count < maxEvents; i += parallelism) {
+      List<LogLocation> batch = files.subList(i, Math.min(i + parallelism, files.size()));
+      List<Future<Collection<LogEvent>>> futures = new ArrayList<>(batch.size());
+      for (LogLocation file : batch) {
+        LOG.trace("Reading file {}", file);
+        futures.add(executor.submit(() -> file.readLogPrev(logFilter, fromTimeMs, maxEvents)));
+      }
+
+      for (int j = 0; j < futures.size(); j++) {
+        Collection<LogEvent> events;
+        try {
+          events = futures.get(j).get();
+        } catch (ExecutionException e) {
+          if (!(e.getCause() instanceof IOException)) {
+            throw Throwables.propagate(e.getCause());
+          }
+          LOG.warn("Got exception reading log file {}", batch.get(j), e.getCause());
+          continue;
+        }
+        if (count >= maxEvents) {
+          continue;
+        }
+        // Only keep the latest events that are needed
+        int needed = maxEvents - count;
+        if (events.size() > needed) {
+          List<LogEvent> list = new ArrayList<>(events);
+          events = list.subList(list.size() - needed, list.size());
+        }
+        logSegments.add(events);
+        count += events.size();
+      }
+    }
+  }
+
   @Override
   public CloseableIterator<LogEvent> getLog(LoggingContext loggingContext, final long fromTimeMs,
       final long toTimeMs,
@@ -166,6 +265,13 @@ public class FileLogReader implements LogReader {
         };
       }
 
+      if (executor != null && sortedFilesInRange.size() > 1) {
+        return new MergingLogIterator(
+            sortedFilesInRange,
+            file -> file.readLog(logFilter, fromTimeMs, toTimeMs, Integer.MAX_VALUE),
+            executor, parallelism);
+      }
+
       final Iterator<LogLocation> filesIter = sortedFilesInRange.iterator();
 
       CloseableIterator<CloseableIterator<LogEvent>> closeableIterator =
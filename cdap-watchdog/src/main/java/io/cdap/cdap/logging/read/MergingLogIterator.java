@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.logging.read;
+
+import com.google.common.base.Throwables;
+import io.cdap.cdap.api.dataset.lib.AbstractCloseableIterator;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.logging.write.LogLocation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CloseableIterator} which reads log events from multiple log files in parallel and merges
+ * them by timestamp with a k-way merge.
+ *
+ * Log files are read in chunks of events by tasks submitted to an executor. At most the given
+ * parallelism of files are open at any time, which bounds the memory used and the open file
+ * handles. A file being merged always has its next chunk read ahead, and the first chunks of the
+ * next files are read ahead too, one for each free slot. The tasks never wait for the consumer,
+ * hence a bounded executor cannot deadlock.
+ *
+ * The log files must be sorted by {@link LogLocation#getEventTimeMs()}, which is used as the lower
+ * bound of the event timestamps in a file. A file only joins the merge once the merge reaches its
+ * start time and a slot is free. Events with the same timestamp are returned in the order of the
+ * files, which is the same order as reading the files one after another. If more files than the
+ * parallelism overlap in time, the events of a file that waits for a slot are returned after the
+ * later events of the files being merged, like when reading the files one after another.
+ */
+final class MergingLogIterator extends AbstractCloseableIterator<LogEvent> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MergingLogIterator.class);
+
+  static final int CHUNK_SIZE = 1024;
+
+  private final List<FileSource> sources;
+  private final PriorityQueue<FileSource> heap;
+  private final ExecutorService executor;
+  private final int parallelism;
+  private int nextSource;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param files the log files to read, sorted by start time
+   * @param reader function to open a log file for reading
+   * @param executor the executor for reading the log files
+   * @param parallelism maximum number of files to read at the same time
+   */
+  MergingLogIterator(List<LogLocation> files,
+      Function<LogLocation, CloseableIterator<LogEvent>> reader,
+      ExecutorService executor, int parallelism) {
+    this.sources = new ArrayList<>(files.size());
+    for (int i = 0; i < files.size(); i++) {
+      sources.add(new FileSource(i, files.get(i), reader));
+    }
+    this.heap = new PriorityQueue<>(Math.max(files.size(), 1),
+        Comparator.comparingLong(FileSource::getTimestamp).thenComparingInt(s -> s.order));
+    this.executor = executor;
+    this.parallelism = Math.max(parallelism, 1);
+  }
+
+  @Override
+  protected LogEvent computeNext() {
+    // Add the files that may have events not later than the current smallest event to the merge,
+    // as long as there is a free slot
+    while (nextSource < sources.size() && heap.size() < parallelism
+        && (heap.isEmpty()
+        || sources.get(nextSource).file.getEventTimeMs() <= heap.peek().getTimestamp())) {
+      FileSource source = sources.get(nextSource++);
+      if (source.peek() != null) {
+        heap.add(source);
+      } else {
+        source.close();
+      }
+    }
+
+    // Read ahead the next files in the free slots
+    int freeSlots = parallelism - heap.size();
+    for (int i = nextSource; i < sources.size() && i < nextSource + freeSlots; i++) {
+      sources.get(i).prefetch();
+    }
+
+    FileSource source = heap.poll();
+    if (source == null) {
+      return endOfData();
+    }
+    LogEvent event = source.next();
+    if (source.peek() != null) {
+      heap.add(source);
+    } else {
+      source.close();
+    }
+    return event;
+  }
+
+  @Override
+  public void close() {
+    for (FileSource source : sources) {
+      source.close();
+    }
+    heap.clear();
+  }
+
+  /**
+   * A log file being read in chunks.
+   */
+  private final class FileSource {
+
+    private final int order;
+    private final LogLocation file;
+    private final Function<LogLocation, CloseableIterator<LogEvent>> reader;
+
+    private CloseableIterator<LogEvent> iterator;
+    private Future<List<LogEvent>> pending;
+    private List<LogEvent> chunk = Collections.emptyList();
+    private int chunkIdx;
+    private boolean exhausted;
+    private boolean closed;
+
+    FileSource(int order, LogLocation file,
+        Function<LogLocation, CloseableIterator<LogEvent>> reader) {
+      this.order = order;
+      this.file = file;
+      this.reader = reader;
+    }
+
+    /**
+     * Starts reading the next chunk in the background, if it is not already being read.
+     */
+    void prefetch() {
+      if (pending == null && !exhausted && !closed) {
+        pending = executor.submit(this::readChunk);
+      }
+    }
+
+    /**
+     * Returns the next event without consuming it, or {@code null} if there is no more event.
+     */
+    @Nullable
+    LogEvent peek() {
+      if (chunkIdx >= chunk.size()) {
+        if (exhausted || closed) {
+          return null;
+        }
+        prefetch();
+        chunk = getPending();
+        chunkIdx = 0;
+        // Read the next chunk ahead while this one is consumed
+        prefetch();
+        if (chunk.isEmpty()) {
+          return null;
+        }
+      }
+      return chunk.get(chunkIdx);
+    }
+
+    LogEvent next() {
+      LogEvent event = peek();
+      chunkIdx++;
+      return event;
+    }
+
+    long getTimestamp() {
+      LogEvent event = peek();
+      return event == null ? Long.MAX_VALUE : event.getLoggingEvent().getTimeStamp();
+    }
+
+    void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        // Wait for the read in progress, since the iterator cannot be closed concurrently
+        if (pending != null) {
+          getPending();
+        }
+      } catch (Exception e) {
+        LOG.debug("Exception while reading log file {}", file.getLocation(), e);
+      } finally {
+        if (iterator != null) {
+          iterator.close();
+        }
+      }
+    }
+
+    private List<LogEvent> getPending() {
+      try {
+        return pending.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+        throw Throwables.propagate(e.getCause());
+      } finally {
+        pending = null;
+      }
+    }
+
+    private List<LogEvent> readChunk() {
+      if (iterator == null) {
+        LOG.trace("Reading file {}", file);
+        iterator = reader.apply(file);
+      }
+      List<LogEvent> events = new ArrayList<>(CHUNK_SIZE);
+      while (events.size() < CHUNK_SIZE && iterator.hasNext()) {
+        events.add(iterator.next());
+      }
+      if (events.size() < CHUNK_SIZE) {
+        exhausted = true;
+      }
+      return events;
+    }
+  }
+}
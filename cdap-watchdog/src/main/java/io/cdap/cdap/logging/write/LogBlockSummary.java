@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.logging.write;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.cdap.cdap.logging.filter.AndFilter;
+import io.cdap.cdap.logging.filter.Filter;
+import io.cdap.cdap.logging.filter.LogLevelExpression;
+import io.cdap.cdap.logging.filter.MdcExpression;
+import io.cdap.cdap.logging.filter.OrFilter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Summary of the log events in a block of a log file, which are the time range, the range of log
+ * levels and the set of MDC keys of the events. It is used to skip blocks that cannot contain any
+ * event matching a {@link Filter}.
+ */
+public final class LogBlockSummary {
+
+  private long minTimestamp = Long.MAX_VALUE;
+  private long maxTimestamp = Long.MIN_VALUE;
+  private int minLevel = Integer.MAX_VALUE;
+  private int maxLevel = Integer.MIN_VALUE;
+  // null if the MDC keys are unknown
+  private Set<String> mdcKeys;
+
+  /**
+   * Creates an empty summary.
+   */
+  public LogBlockSummary() {
+    this.mdcKeys = new HashSet<>();
+  }
+
+  /**
+   * Creates a summary with the given values.
+   *
+   * @param mdcKeys the MDC keys or {@code null} if they are unknown
+   */
+  LogBlockSummary(long minTimestamp, long maxTimestamp, int minLevel, int maxLevel,
+      @Nullable Set<String> mdcKeys) {
+    this.minTimestamp = minTimestamp;
+    this.maxTimestamp = maxTimestamp;
+    this.minLevel = minLevel;
+    this.maxLevel = maxLevel;
+    this.mdcKeys = mdcKeys == null ? null : new HashSet<>(mdcKeys);
+  }
+
+  /**
+   * Adds the given event to this summary.
+   */
+  public void add(ILoggingEvent event) {
+    long timestamp = event.getTimeStamp();
+    minTimestamp = Math.min(minTimestamp, timestamp);
+    maxTimestamp = Math.max(maxTimestamp, timestamp);
+
+    int level = event.getLevel().toInt();
+    minLevel = Math.min(minLevel, level);
+    maxLevel = Math.max(maxLevel, level);
+
+    Map<String, String> mdc = event.getMDCPropertyMap();
+    if (mdcKeys != null && mdc != null) {
+      mdcKeys.addAll(mdc.keySet());
+    }
+  }
+
+  /**
+   * Adds all the events summarized by the given summary to this summary.
+   */
+  public void merge(LogBlockSummary other) {
+    minTimestamp = Math.min(minTimestamp, other.minTimestamp);
+    maxTimestamp = Math.max(maxTimestamp, other.maxTimestamp);
+    minLevel = Math.min(minLevel, other.minLevel);
+    maxLevel = Math.max(maxLevel, other.maxLevel);
+    if (mdcKeys != null) {
+      if (other.mdcKeys == null) {
+        mdcKeys = null;
+      } else {
+        mdcKeys.addAll(other.mdcKeys);
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if no event was added to this summary.
+   */
+  public boolean isEmpty() {
+    return minTimestamp > maxTimestamp;
+  }
+
+  public long getMinTimestamp() {
+    return minTimestamp;
+  }
+
+  public long getMaxTimestamp() {
+    return maxTimestamp;
+  }
+
+  /**
+   * Returns the smallest {@link ch.qos.logback.classic.Level} integer value of the events.
+   */
+  public int getMinLevel() {
+    return minLevel;
+  }
+
+  /**
+   * Returns the largest {@link ch.qos.logback.classic.Level} integer value of the events.
+   */
+  public int getMaxLevel() {
+    return maxLevel;
+  }
+
+  /**
+   * Returns the MDC keys of the events, or {@code null} if they are unknown.
+   */
+  @Nullable
+  public Set<String> getMdcKeys() {
+    return mdcKeys == null ? null : Collections.unmodifiableSet(mdcKeys);
+  }
+
+  /**
+   * Returns {@code false} if none of the summarized events can match the given {@link Filter}.
+   * Filters other than the ones created by {@link io.cdap.cdap.logging.filter.FilterParser} and
+   * {@link io.cdap.cdap.logging.context.LoggingContextHelper} are assumed to match.
+   */
+  public boolean mayMatch(Filter filter) {
+    if (isEmpty()) {
+      return false;
+    }
+    if (filter instanceof LogLevelExpression) {
+      return ((LogLevelExpression) filter).getLevel().toInt() <= maxLevel;
+    }
+    if (filter instanceof MdcExpression) {
+      return mdcKeys == null || mdcKeys.contains(((MdcExpression) filter).getKey());
+    }
+    if (filter instanceof AndFilter) {
+      for (Filter expression : ((AndFilter) filter).getExpressions()) {
+        if (!mayMatch(expression)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (filter instanceof OrFilter) {
+      for (Filter expression : ((OrFilter) filter).getExpressions()) {
+        if (mayMatch(expression)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "LogBlockSummary{"
+        + "minTimestamp=" + minTimestamp
+        + ", maxTimestamp=" + maxTimestamp
+        + ", minLevel=" + minLevel
+        + ", maxLevel=" + maxLevel
+        + ", mdcKeys=" + mdcKeys
+        + '}';
+  }
+}
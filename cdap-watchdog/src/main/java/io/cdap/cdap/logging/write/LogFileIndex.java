@@ -0,0 +1,343 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.logging.write;
+
+import io.cdap.cdap.common.io.Locations;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.twill.filesystem.Location;
+
+/**
+ * Index of an Avro log file, which maps event timestamps to sync positions in the file. It is
+ * stored in a small sidecar file next to the log file, so that readers can seek directly to the
+ * block containing a given timestamp instead of scanning the file.
+ *
+ * Each entry is the sync position of the start of a region of the log file, together with the
+ * timestamp of the first event in that region. A region extends to the position of the next entry,
+ * with the last region extending to the end of the file. Entries are added in increasing position
+ * order, hence an index written before the log file is closed is still valid for the whole file.
+ *
+ * An entry can also have a {@link LogBlockSummary} of the events in its region, which is only set
+ * once the region is complete. The MDC keys of the summaries are dictionary encoded, with up to
+ * {@link #MAX_MDC_KEYS} distinct keys in a file. A summary with other keys is written with unknown
+ * MDC keys.
+ */
+public final class LogFileIndex {
+
+  /**
+   * The suffix appended to the log file name to get the index file name.
+   */
+  public static final String SUFFIX = ".idx";
+
+  /**
+   * The maximum number of distinct MDC keys in the summaries of an index file.
+   */
+  public static final int MAX_MDC_KEYS = Long.SIZE;
+
+  private static final int MAGIC = 0x4c494458;
+  // Version 1 has no summary
+  private static final int VERSION_1 = 1;
+  private static final int VERSION_2 = 2;
+
+  private long[] timestamps;
+  private long[] positions;
+  private LogBlockSummary[] summaries;
+  private int size;
+
+  /**
+   * Returns the {@link Location} of the index file for the given log file.
+   */
+  public static Location getIndexLocation(Location logLocation) {
+    Location parent = Locations.getParent(logLocation);
+    if (parent == null) {
+      throw new IllegalArgumentException("Log file cannot be the root location: " + logLocation);
+    }
+    return parent.append(logLocation.getName() + SUFFIX);
+  }
+
+  /**
+   * Reads an index written by {@link #write(OutputStream)}, ignoring entries with a position at or
+   * beyond the given file length, since they are not readable yet.
+   *
+   * @param is the stream to read from
+   * @param fileLength the length of the log file
+   * @return the index
+   * @throws IOException if failed to read or if the stream does not contain a valid index
+   */
+  public static LogFileIndex read(InputStream is, long fileLength) throws IOException {
+    DataInputStream input = new DataInputStream(is);
+    if (input.readInt() != MAGIC) {
+      throw new IOException("Not a log file index");
+    }
+    int version = input.readInt();
+    if (version != VERSION_1 && version != VERSION_2) {
+      throw new IOException("Unsupported log file index version " + version);
+    }
+
+    List<String> mdcKeys = new ArrayList<>();
+    if (version == VERSION_2) {
+      int mdcKeysCount = input.readInt();
+      if (mdcKeysCount < 0 || mdcKeysCount > MAX_MDC_KEYS) {
+        throw new IOException("Invalid log file index MDC keys size " + mdcKeysCount);
+      }
+      for (int i = 0; i < mdcKeysCount; i++) {
+        mdcKeys.add(input.readUTF());
+      }
+    }
+
+    int count = input.readInt();
+    if (count < 0) {
+      throw new IOException("Invalid log file index size " + count);
+    }
+
+    // Don't trust the count for the initial capacity, in case the index is corrupted
+    LogFileIndex index = new LogFileIndex(Math.min(count, 1024));
+    for (int i = 0; i < count; i++) {
+      long timestamp = input.readLong();
+      long position = input.readLong();
+      LogBlockSummary summary = version == VERSION_2 ? readSummary(input, mdcKeys) : null;
+      if (position < fileLength) {
+        index.add(timestamp, position);
+        if (summary != null) {
+          index.setSummary(index.size() - 1, summary);
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Creates an empty index.
+   */
+  public LogFileIndex() {
+    this(16);
+  }
+
+  private LogFileIndex(int capacity) {
+    this.timestamps = new long[Math.max(capacity, 1)];
+    this.positions = new long[Math.max(capacity, 1)];
+    this.summaries = new LogBlockSummary[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Adds an entry without a summary to the index.
+   *
+   * @param timestamp the timestamp of the first event at the given position
+   * @param position the sync position in the log file, which must be larger than the position of
+   *     the last entry
+   */
+  public void add(long timestamp, long position) {
+    if (size > 0 && position <= positions[size - 1]) {
+      throw new IllegalArgumentException(String.format(
+          "Position %d must be larger than the last position %d", position, positions[size - 1]));
+    }
+    if (size == positions.length) {
+      timestamps = Arrays.copyOf(timestamps, size * 2);
+      positions = Arrays.copyOf(positions, size * 2);
+      summaries = Arrays.copyOf(summaries, size * 2);
+    }
+    timestamps[size] = timestamp;
+    positions[size] = position;
+    size++;
+  }
+
+  /**
+   * Returns the number of entries in the index.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the sync position of the entry at the given index.
+   */
+  public long getPosition(int idx) {
+    if (idx < 0 || idx >= size) {
+      throw new IndexOutOfBoundsException("Index " + idx + " out of bounds, size is " + size);
+    }
+    return positions[idx];
+  }
+
+  /**
+   * Returns the timestamp of the entry at the given index.
+   */
+  public long getTimestamp(int idx) {
+    if (idx < 0 || idx >= size) {
+      throw new IndexOutOfBoundsException("Index " + idx + " out of bounds, size is " + size);
+    }
+    return timestamps[idx];
+  }
+
+  /**
+   * Returns the summary of the region of the entry at the given index, or {@code null} if the
+   * region has no summary.
+   */
+  @Nullable
+  public LogBlockSummary getSummary(int idx) {
+    if (idx < 0 || idx >= size) {
+      throw new IndexOutOfBoundsException("Index " + idx + " out of bounds, size is " + size);
+    }
+    return summaries[idx];
+  }
+
+  /**
+   * Sets the summary of the region of the entry at the given index. It should only be set once all
+   * the events of the region are summarized.
+   */
+  public void setSummary(int idx, LogBlockSummary summary) {
+    if (idx < 0 || idx >= size) {
+      throw new IndexOutOfBoundsException("Index " + idx + " out of bounds, size is " + size);
+    }
+    summaries[idx] = summary;
+  }
+
+  /**
+   * Returns the index of the entry of the region to start reading from to find all events with
+   * timestamps greater than or equal to the given timestamp. This is the last entry with a
+   * timestamp smaller than the given timestamp, or the first entry if there is none.
+   */
+  public int findStart(long timestamp) {
+    return Math.max(binarySearch(timestamp, false) - 1, 0);
+  }
+
+  /**
+   * Returns the index of the first entry with a timestamp larger than the given timestamp, or
+   * {@link #size()} if there is none. The regions before the returned index contain all events with
+   * timestamps smaller than or equal to the given timestamp.
+   */
+  public int findEnd(long timestamp) {
+    return binarySearch(timestamp, true);
+  }
+
+  /**
+   * Writes this index to the given stream.
+   */
+  public void write(OutputStream os) throws IOException {
+    // Assign ids to the MDC keys, up to the maximum number of keys
+    Map<String, Integer> mdcKeyIds = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      Set<String> keys = summaries[i] == null ? null : summaries[i].getMdcKeys();
+      if (keys == null) {
+        continue;
+      }
+      for (String key : keys) {
+        if (mdcKeyIds.size() < MAX_MDC_KEYS && !mdcKeyIds.containsKey(key)) {
+          mdcKeyIds.put(key, mdcKeyIds.size());
+        }
+      }
+    }
+
+    DataOutputStream output = new DataOutputStream(os);
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION_2);
+    output.writeInt(mdcKeyIds.size());
+    for (String key : mdcKeyIds.keySet()) {
+      output.writeUTF(key);
+    }
+    output.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      output.writeLong(timestamps[i]);
+      output.writeLong(positions[i]);
+      writeSummary(output, summaries[i], mdcKeyIds);
+    }
+    output.flush();
+  }
+
+  private static void writeSummary(DataOutputStream output, @Nullable LogBlockSummary summary,
+      Map<String, Integer> mdcKeyIds) throws IOException {
+    output.writeBoolean(summary != null);
+    if (summary == null) {
+      return;
+    }
+    output.writeLong(summary.getMinTimestamp());
+    output.writeLong(summary.getMaxTimestamp());
+    output.writeInt(summary.getMinLevel());
+    output.writeInt(summary.getMaxLevel());
+
+    // Encode the MDC keys as a bit mask of the key ids
+    Set<String> keys = summary.getMdcKeys();
+    long mask = 0L;
+    boolean knownKeys = keys != null;
+    if (keys != null) {
+      for (String key : keys) {
+        Integer id = mdcKeyIds.get(key);
+        if (id == null) {
+          knownKeys = false;
+          break;
+        }
+        mask |= 1L << id;
+      }
+    }
+    output.writeBoolean(knownKeys);
+    if (knownKeys) {
+      output.writeLong(mask);
+    }
+  }
+
+  @Nullable
+  private static LogBlockSummary readSummary(DataInputStream input,
+      List<String> mdcKeys) throws IOException {
+    if (!input.readBoolean()) {
+      return null;
+    }
+    long minTimestamp = input.readLong();
+    long maxTimestamp = input.readLong();
+    int minLevel = input.readInt();
+    int maxLevel = input.readInt();
+
+    Set<String> keys = null;
+    if (input.readBoolean()) {
+      long mask = input.readLong();
+      keys = new HashSet<>();
+      for (int i = 0; i < mdcKeys.size(); i++) {
+        if ((mask & (1L << i)) != 0) {
+          keys.add(mdcKeys.get(i));
+        }
+      }
+    }
+    return new LogBlockSummary(minTimestamp, maxTimestamp, minLevel, maxLevel, keys);
+  }
+
+  /**
+   * Returns the index of the first entry with a timestamp larger than (if {@code inclusive}) or
+   * larger than or equal to (if not {@code inclusive}) the given timestamp.
+   */
+  private int binarySearch(long timestamp, boolean inclusive) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] < timestamp || (inclusive && timestamps[mid] == timestamp)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -35,6 +35,7 @@ import io.cdap.cdap.logging.serialize.LoggingEvent;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.security.impersonation.Impersonator;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
@@ -42,6 +43,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
+import javax.annotation.Nullable;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.SeekableInput;
 import org.apache.avro.generic.GenericDatumReader;
@@ -167,45 +169,52 @@ public class LogLocation {
           return ImmutableList.of();
         }
 
-        // Calculate skipLen based on fileLength
         long length = location.length();
         LOG.trace("File length {} {}", location, length);
-        long skipLen = length / 10;
-        if (skipLen > DEFAULT_SKIP_LEN || skipLen <= 0) {
-          skipLen = DEFAULT_SKIP_LEN;
-        }
-
-        // For open file, endPosition sync marker is unknown so start from file length and read up to the actual EOF
-        dataFileReader.sync(length);
-        long finalSync = dataFileReader.previousSync();
-        List<LogEvent> logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs,
-            -1);
-
-        if (!logSegment.isEmpty()) {
-          logSegments.addFirst(logSegment);
-          count = count + logSegment.size();
-        }
 
-        LOG.trace("Read log events {} from position {}", count, finalSync);
-
-        long startPosition = finalSync;
-        long endPosition = startPosition;
-        long currentSync;
+        LogFileIndex index = readIndex(length);
+        if (index != null) {
+          count = readPrevIndexed(dataFileReader, index, logFilter, fromTimeMs, maxEvents,
+              logSegments);
+        } else {
+          // Calculate skipLen based on fileLength
+          long skipLen = length / 10;
+          if (skipLen > DEFAULT_SKIP_LEN || skipLen <= 0) {
+            skipLen = DEFAULT_SKIP_LEN;
+          }
 
-        while (startPosition > 0 && count < maxEvents) {
-          // Skip to sync position less than current sync position
-          startPosition = skipToPosition(dataFileReader, startPosition, endPosition, skipLen);
-          currentSync = dataFileReader.previousSync();
-          logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs, endPosition);
+          // For open file, endPosition sync marker is unknown so start from file length and read up to the actual EOF
+          dataFileReader.sync(length);
+          long finalSync = dataFileReader.previousSync();
+          List<LogEvent> logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs,
+              -1);
 
           if (!logSegment.isEmpty()) {
             logSegments.addFirst(logSegment);
             count = count + logSegment.size();
           }
-          LOG.trace("Read log events {} from position {} to endPosition {}", count, currentSync,
-              endPosition);
 
-          endPosition = currentSync;
+          LOG.trace("Read log events {} from position {}", count, finalSync);
+
+          long startPosition = finalSync;
+          long endPosition = startPosition;
+          long currentSync;
+
+          while (startPosition > 0 && count < maxEvents) {
+            // Skip to sync position less than current sync position
+            startPosition = skipToPosition(dataFileReader, startPosition, endPosition, skipLen);
+            currentSync = dataFileReader.previousSync();
+            logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs, endPosition);
+
+            if (!logSegment.isEmpty()) {
+              logSegments.addFirst(logSegment);
+              count = count + logSegment.size();
+            }
+            LOG.trace("Read log events {} from position {} to endPosition {}", count, currentSync,
+                endPosition);
+
+            endPosition = currentSync;
+          }
         }
       }
     } catch (IOException e) {
@@ -216,6 +225,53 @@ public class LogLocation {
     return Lists.newArrayList(Iterables.skip(Iterables.concat(logSegments), skip));
   }
 
+  /**
+   * Reads the regions of the log file given by the {@link LogFileIndex}, from the region containing
+   * fromTimeMs backwards, until at least maxEvents are read or the start of the file is reached.
+   * Regions with a summary that cannot match the filter are skipped.
+   *
+   * @return the number of log events added to logSegments
+   */
+  private int readPrevIndexed(DataFileReader<GenericRecord> dataFileReader, LogFileIndex index,
+      Filter logFilter, long fromTimeMs, int maxEvents,
+      Deque<Collection<LogEvent>> logSegments) throws IOException {
+    int count = 0;
+    // Regions starting from the first entry after fromTimeMs only contain later events
+    int end = index.findEnd(fromTimeMs);
+    long endPosition = end == index.size() ? -1 : index.getPosition(end);
+
+    for (int i = end - 1; i >= 0 && count < maxEvents; i--) {
+      long startPosition = index.getPosition(i);
+      if (!mayMatch(index, i, logFilter)) {
+        LOG.trace("Skipping indexed position {} to endPosition {}", startPosition, endPosition);
+        endPosition = startPosition;
+        continue;
+      }
+      dataFileReader.seek(startPosition);
+      List<LogEvent> logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs,
+          endPosition);
+
+      if (!logSegment.isEmpty()) {
+        logSegments.addFirst(logSegment);
+        count = count + logSegment.size();
+      }
+      LOG.trace("Read log events {} from indexed position {} to endPosition {}", count,
+          startPosition, endPosition);
+
+      endPosition = startPosition;
+    }
+    return count;
+  }
+
+  /**
+   * Returns {@code false} if the region of the given index entry has a summary which shows that
+   * none of its events can match the given filter.
+   */
+  private static boolean mayMatch(LogFileIndex index, int idx, Filter logFilter) {
+    LogBlockSummary summary = index.getSummary(idx);
+    return summary == null || summary.mayMatch(logFilter);
+  }
+
   /**
    * Read current block in Avro file from current block sync marker to next block sync marker
    */
@@ -229,8 +285,8 @@ public class LogLocation {
     // or read until endSyncPosition has been reached
     while (dataFileReader.hasNext() && (endSyncPosition == -1 || (currentSyncPosition
         < endSyncPosition))) {
+      // The event is decoded lazily, so that only the fields needed by the filter are decoded
       ILoggingEvent loggingEvent = new LoggingEvent(dataFileReader.next());
-      loggingEvent.prepareForDeferredProcessing();
 
       // Stop when reached fromTimeMs
       if (loggingEvent.getTimeStamp() > fromTimeMs) {
@@ -238,6 +294,7 @@ public class LogLocation {
       }
 
       if (logFilter.match(loggingEvent)) {
+        loggingEvent.prepareForDeferredProcessing();
         logSegment.add(new LogEvent(loggingEvent,
             new LogOffset(LogOffset.INVALID_KAFKA_OFFSET, loggingEvent.getTimeStamp())));
       }
@@ -279,6 +336,12 @@ public class LogLocation {
     private int count;
     private long prevTimestamp = -1;
 
+    // The index of the log file and the current indexed region, if the file has an index
+    private LogFileIndex index;
+    private int region;
+    private long regionEnd = -1L;
+    private boolean exhausted;
+
     private LogEvent next;
 
     LogEventIterator(Filter logFilter, long fromTimeMs, long toTimeMs, long maxEvents) {
@@ -289,10 +352,13 @@ public class LogLocation {
 
       try {
         dataFileReader = createReader();
-        if (dataFileReader.hasNext()) {
+        index = readIndex(location.length());
+        if (index != null) {
+          // Seek directly to the region which may contain the first event at or after fromTimeMs
+          seekRegion(index.findStart(fromTimeMs));
+        } else if (dataFileReader.hasNext()) {
           datum = dataFileReader.next();
           loggingEvent = new LoggingEvent(datum);
-          loggingEvent.prepareForDeferredProcessing();
 
           long prevPrevSyncPos = 0;
           long prevSyncPos = 0;
@@ -306,7 +372,6 @@ public class LogLocation {
             dataFileReader.sync(curPos);
             if (dataFileReader.hasNext()) {
               loggingEvent = new LoggingEvent(dataFileReader.next(datum));
-              loggingEvent.prepareForDeferredProcessing();
             }
           }
 
@@ -328,9 +393,19 @@ public class LogLocation {
     private void computeNext() {
       try {
         // read events from file
-        while (next == null && dataFileReader.hasNext()) {
+        while (next == null && !exhausted) {
+          // Move to the next region that may match once the current one is read
+          if (regionEnd >= 0 && dataFileReader.previousSync() >= regionEnd
+              && !seekRegion(region + 1)) {
+            break;
+          }
+          if (!dataFileReader.hasNext()) {
+            break;
+          }
+
+          // The event is decoded lazily, so that only the fields needed by the filter are decoded.
+          // Matching events are fully decoded since the datum is reused.
           loggingEvent = new LoggingEvent(dataFileReader.next(datum));
-          loggingEvent.prepareForDeferredProcessing();
 
           if (loggingEvent.getTimeStamp() >= fromTimeMs && logFilter.match(loggingEvent)) {
             ++count;
@@ -338,6 +413,7 @@ public class LogLocation {
                 && loggingEvent.getTimeStamp() != prevTimestamp) {
               break;
             }
+            loggingEvent.prepareForDeferredProcessing();
             next = new LogEvent(loggingEvent,
                 new LogOffset(LogOffset.INVALID_KAFKA_OFFSET, loggingEvent.getTimeStamp()));
           }
@@ -351,6 +427,38 @@ public class LogLocation {
       }
     }
 
+    /**
+     * Seeks to the first indexed region, starting from the given one, that may contain events
+     * matching the filter at or after fromTimeMs.
+     *
+     * @return {@code false} if there is no such region
+     */
+    private boolean seekRegion(int start) throws IOException {
+      region = start;
+      while (region < index.size() && !mayMatchRegion(region)) {
+        region++;
+      }
+      if (region >= index.size()) {
+        exhausted = true;
+        return false;
+      }
+
+      long position = index.getPosition(region);
+      // No need to seek if already at the start of the region
+      if (position != dataFileReader.previousSync()) {
+        LOG.trace("Seeking to indexed pos {}", position);
+        dataFileReader.seek(position);
+      }
+      regionEnd = region + 1 < index.size() ? index.getPosition(region + 1) : -1L;
+      return true;
+    }
+
+    private boolean mayMatchRegion(int idx) {
+      LogBlockSummary summary = index.getSummary(idx);
+      return summary == null
+          || (summary.getMaxTimestamp() >= fromTimeMs && summary.mayMatch(logFilter));
+    }
+
     @Override
     public void close() {
       try {
@@ -384,6 +492,34 @@ public class LogLocation {
     }
   }
 
+  /**
+   * Reads the {@link LogFileIndex} of the log file.
+   *
+   * @param fileLength the length of the log file
+   * @return the index or {@code null} if the log file has no index or it cannot be read
+   */
+  @Nullable
+  private LogFileIndex readIndex(long fileLength) {
+    // Log files written by the old framework never have an index
+    if (getFrameworkVersion().equals(VERSION_0)) {
+      return null;
+    }
+    Location indexLocation = LogFileIndex.getIndexLocation(location);
+    try {
+      if (!indexLocation.exists()) {
+        return null;
+      }
+      try (InputStream is = indexLocation.getInputStream()) {
+        LogFileIndex index = LogFileIndex.read(is, fileLength);
+        return index.size() == 0 ? null : index;
+      }
+    } catch (IOException e) {
+      // The index may be being rewritten. Fall back to scanning the log file.
+      LOG.debug("Failed to read log file index {}", indexLocation, e);
+      return null;
+    }
+  }
+
   private DataFileReader<GenericRecord> createReader() throws IOException {
     boolean shouldImpersonate = this.getFrameworkVersion().equals(VERSION_0);
     return new DataFileReader<>(
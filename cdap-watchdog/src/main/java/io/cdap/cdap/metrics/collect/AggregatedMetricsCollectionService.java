@@ -15,13 +15,12 @@
  */
 package io.cdap.cdap.metrics.collect;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.AbstractIterator;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.AbstractExecutionThreadService;
 import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.api.metrics.MetricType;
@@ -33,6 +32,8 @@ import io.cdap.cdap.common.conf.Constants;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -50,8 +51,8 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
       AggregatedMetricsCollectionService.class);
   private static final long CACHE_EXPIRE_MINUTES = 1;
 
-  private final LoadingCache<Map<String, String>, MetricsContext> collectors;
-  private final LoadingCache<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>> emitters;
+  private final LoadingCache<TagSet, MetricsContext> collectors;
+  private final LoadingCache<TagSet, LoadingCache<String, AggregatedMetricsEmitter>> emitters;
   // maximum number of milliseconds to sleep between each publish
   private final long publishIntervalInMillis;
   private final CountDownLatch shutdownLatch;
@@ -72,9 +73,9 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
         // there wont be any loss of emitter entries.
         .expireAfterAccess(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
         .build(
-            new CacheLoader<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>>() {
+            new CacheLoader<TagSet, LoadingCache<String, AggregatedMetricsEmitter>>() {
               @Override
-              public LoadingCache<String, AggregatedMetricsEmitter> load(Map<String, String> tags)
+              public LoadingCache<String, AggregatedMetricsEmitter> load(TagSet tags)
                   throws Exception {
                 return CacheBuilder.newBuilder()
                     .expireAfterAccess(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES).
@@ -162,7 +163,7 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
 
   @Override
   public final MetricsContext getContext(final Map<String, String> tags) {
-    return collectors.getUnchecked(tags);
+    return collectors.getUnchecked(TagSet.of(tags));
   }
 
   @Override
@@ -179,18 +180,19 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
   private Iterator<MetricValues> getMetrics(final long timestamp) {
     // NOTE : emitters.asMap does not reset the access time in cache,
     // so it's the preferred way to access the cache entries. as we access and emit metrics every second.
-    final Iterator<Map.Entry<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>>> iterator =
+    final Iterator<Map.Entry<TagSet, LoadingCache<String, AggregatedMetricsEmitter>>> iterator =
         emitters.asMap().entrySet().iterator();
     return new AbstractIterator<MetricValues>() {
       @Override
       protected MetricValues computeNext() {
         while (iterator.hasNext()) {
-          Map.Entry<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>> entry = iterator.next();
+          Map.Entry<TagSet, LoadingCache<String, AggregatedMetricsEmitter>> entry = iterator.next();
           Map<String, AggregatedMetricsEmitter> metricEmitters = entry.getValue().asMap();
           // +1 because we add extra metric about how many metric values did we emit in this context (see below)
           List<MetricValue> metricValues = Lists.newArrayListWithCapacity(
               metricEmitters.size() + 1);
           for (Map.Entry<String, AggregatedMetricsEmitter> emitterEntry : metricEmitters.entrySet()) {
+            // Emit takes a snapshot of the aggregated value and resets it without blocking writers
             MetricValue metricValue = emitterEntry.getValue().emit();
             // skip increment by 0
             if (metricValue.getType() == MetricType.COUNTER && metricValue.getValue() == 0) {
@@ -214,17 +216,17 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
               metricValues.size() + 1));
 
           LOG.trace("Emit metric {}", metricValues);
-          return new MetricValues(entry.getKey(), timestamp, metricValues);
+          return new MetricValues(entry.getKey().getTags(), timestamp, metricValues);
         }
         return endOfData();
       }
     };
   }
 
-  private CacheLoader<Map<String, String>, MetricsContext> createCollectorLoader() {
-    return new CacheLoader<Map<String, String>, MetricsContext>() {
+  private CacheLoader<TagSet, MetricsContext> createCollectorLoader() {
+    return new CacheLoader<TagSet, MetricsContext>() {
       @Override
-      public MetricsContext load(final Map<String, String> collectorKey) throws Exception {
+      public MetricsContext load(TagSet collectorKey) throws Exception {
         return new MetricsContextImpl(collectorKey);
       }
     };
@@ -232,37 +234,53 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
 
   private final class MetricsContextImpl implements MetricsContext {
 
-    private final Map<String, String> tags;
+    private final TagSet tagSet;
+    // Child contexts created through childContext(String, String), keyed by tag name and then by
+    // tag value. It avoids building and hashing the tags map of the child on every call.
+    private final ConcurrentMap<String, Cache<String, MetricsContext>> children;
 
-    private MetricsContextImpl(final Map<String, String> tags) {
-      this.tags = ImmutableMap.copyOf(tags);
+    private MetricsContextImpl(TagSet tagSet) {
+      this.tagSet = tagSet;
+      this.children = new ConcurrentHashMap<>();
     }
 
     @Override
     public void increment(String metricName, long value) {
-      emitters.getUnchecked(tags).getUnchecked(metricName).increment(value);
+      getEmitter(metricName).increment(value);
     }
 
     @Override
     public void gauge(String metricName, long value) {
-      emitters.getUnchecked(tags).getUnchecked(metricName).gauge(value);
+      getEmitter(metricName).gauge(value);
     }
 
     @Override
     public MetricsContext childContext(String tagName, String tagValue) {
-      ImmutableMap<String, String> allTags = ImmutableMap.<String, String>builder()
-          .putAll(tags).put(tagName, tagValue).build();
-      return collectors.getUnchecked(allTags);
+      Cache<String, MetricsContext> tagChildren = children.get(tagName);
+      if (tagChildren == null) {
+        tagChildren = CacheBuilder.newBuilder()
+            .expireAfterAccess(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+            .build();
+        Cache<String, MetricsContext> existing = children.putIfAbsent(tagName, tagChildren);
+        tagChildren = existing == null ? tagChildren : existing;
+      }
+
+      MetricsContext child = tagChildren.getIfPresent(tagValue);
+      if (child == null) {
+        child = collectors.getUnchecked(tagSet.with(tagName, tagValue));
+        tagChildren.put(tagValue, child);
+      }
+      return child;
     }
 
     @Override
     public Map<String, String> getTags() {
-      return tags;
+      return tagSet.getTags();
     }
 
     @Override
     public void event(String metricName, long value) {
-      emitters.getUnchecked(tags).getUnchecked(metricName).event(value);
+      getEmitter(metricName).event(value);
     }
 
     @Override
@@ -271,10 +289,13 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
         return this;
       }
       // todo: may be warn when duplicate tag is provided? for now ok
-      Map<String, String> allTags = Maps.newHashMap();
-      allTags.putAll(this.tags);
-      allTags.putAll(tags);
-      return collectors.getUnchecked(allTags);
+      return collectors.getUnchecked(tagSet.withAll(tags));
+    }
+
+    private AggregatedMetricsEmitter getEmitter(String metricName) {
+      // Always go through the emitters cache instead of holding on to the emitter, so that the
+      // access time of the cache entries is refreshed and emitters in use are never expired.
+      return emitters.getUnchecked(tagSet).getUnchecked(metricName);
     }
   }
 }
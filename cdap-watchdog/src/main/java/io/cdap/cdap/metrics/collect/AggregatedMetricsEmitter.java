@@ -17,21 +17,36 @@ package io.cdap.cdap.metrics.collect;
 
 import io.cdap.cdap.api.metrics.MetricType;
 import io.cdap.cdap.api.metrics.MetricValue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * {@link MetricsEmitter} that aggregates  values for a metric during collection and emit the
  * aggregated value when emit.
+ *
+ * The {@link #increment(long)}, {@link #gauge(long)} and {@link #event(long)} methods are
+ * lock-free, so that many threads can update the same metric without contention. Counters and
+ * distribution buckets are kept in {@link LongAdder}s, which are never reset. Instead, the
+ * {@link #emit()} method remembers the values it last emitted and returns the difference, so that
+ * no concurrent update is lost. Updates that race with {@link #emit()} are included in either the
+ * current or the next emitted value.
  */
 public final class AggregatedMetricsEmitter implements MetricsEmitter {
   private static final Logger LOG = LoggerFactory.getLogger(AggregatedMetricsEmitter.class);
 
   private final String name;
-  private long value;
+  private final LongAdder counter;
+  private final AtomicLong gaugeValue;
+  private final AtomicReference<MetricType> metricType;
+  private final AtomicReference<StripedDistribution> distribution;
 
-  private MetricType metricType = MetricType.COUNTER;
-  private Distribution distribution;
+  // Only accessed by emit, which is synchronized
+  private long emittedCount;
 
   public AggregatedMetricsEmitter(String name) {
     if (name == null || name.isEmpty()) {
@@ -39,44 +54,133 @@ public final class AggregatedMetricsEmitter implements MetricsEmitter {
     }
 
     this.name = name;
+    this.counter = new LongAdder();
+    this.gaugeValue = new AtomicLong();
+    this.metricType = new AtomicReference<>(MetricType.COUNTER);
+    this.distribution = new AtomicReference<>();
   }
 
-  public synchronized void increment(long incrementValue) {
-    this.value += incrementValue;
-    this.metricType = MetricType.COUNTER;
+  public void increment(long incrementValue) {
+    counter.add(incrementValue);
+    setMetricType(MetricType.COUNTER);
   }
 
+  /**
+   * Returns the value aggregated since the last call and resets the aggregation. Concurrent calls
+   * to the update methods are not blocked. This method is expected to be called from a single
+   * thread; concurrent calls are serialized.
+   */
   @Override
   public synchronized MetricValue emit() {
-    if (metricType == MetricType.DISTRIBUTION) {
-      Distribution oldVal;
-      // TODO emit maybe made faster using CAS inside Distribution.
-      // https://cdap.atlassian.net/browse/CDAP-18792 has more context
-      oldVal = distribution;
-      distribution = null;
-      if (oldVal != null) {
-        LOG.trace("Emitting distribution metric: {}", oldVal.toString());
-        return oldVal.getMetricValue(name);
+    MetricType type = metricType.get();
+    if (type == MetricType.DISTRIBUTION) {
+      StripedDistribution dist = distribution.get();
+      if (dist == null) {
+        return new Distribution().getMetricValue(name);
       }
-      return new Distribution().getMetricValue(name);
+      MetricValue metricValue = dist.emit(name);
+      LOG.trace("Emitting distribution metric: {}", metricValue);
+      return metricValue;
+    }
+
+    // Reset the type before reading the gauge value, so that a gauge set concurrently is either
+    // emitted now or on the next call.
+    if (type == MetricType.GAUGE
+        && metricType.compareAndSet(MetricType.GAUGE, MetricType.COUNTER)) {
+      return new MetricValue(name, MetricType.GAUGE, gaugeValue.get());
     }
 
-    MetricValue returnVal = new MetricValue(name, metricType, this.value);
-    this.value = 0;
-    this.metricType = MetricType.COUNTER;
+    long count = counter.sum();
+    MetricValue returnVal = new MetricValue(name, MetricType.COUNTER, count - emittedCount);
+    emittedCount = count;
     return returnVal;
   }
 
-  public synchronized void gauge(long value) {
-    this.value = value;
-    this.metricType = MetricType.GAUGE;
+  public void gauge(long value) {
+    gaugeValue.set(value);
+    setMetricType(MetricType.GAUGE);
+  }
+
+  public void event(long value) {
+    StripedDistribution dist = distribution.get();
+    if (dist == null) {
+      distribution.compareAndSet(null, new StripedDistribution());
+      dist = distribution.get();
+    }
+    dist.add(value);
+    setMetricType(MetricType.DISTRIBUTION);
   }
 
-  public synchronized void event(long value) {
-    if (distribution == null) {
-      distribution = new Distribution();
+  /**
+   * Sets the metric type. The type is only written if it changes, which avoids writing to the
+   * shared field on every update.
+   */
+  private void setMetricType(MetricType type) {
+    if (metricType.get() != type) {
+      metricType.set(type);
+    }
+  }
+
+  /**
+   * A thread-safe version of {@link Distribution} that uses the same buckets, with a lazily
+   * created {@link LongAdder} for each bucket.
+   */
+  private static final class StripedDistribution {
+
+    private final AtomicReferenceArray<LongAdder> buckets;
+    private final DoubleAdder sum;
+    // Only accessed by emit
+    private final long[] emittedBuckets;
+
+    StripedDistribution() {
+      this.buckets = new AtomicReferenceArray<>(Long.SIZE);
+      this.sum = new DoubleAdder();
+      this.emittedBuckets = new long[Long.SIZE];
+    }
+
+    void add(long value) {
+      int bucket = Distribution.findBucketNumber(value);
+      LongAdder bucketCount = buckets.get(bucket);
+      if (bucketCount == null) {
+        buckets.compareAndSet(bucket, null, new LongAdder());
+        bucketCount = buckets.get(bucket);
+      }
+      bucketCount.increment();
+      sum.add(value);
+    }
+
+    /**
+     * Returns a {@link MetricValue} of the values added since the last call.
+     */
+    MetricValue emit(String name) {
+      long bucketMask = 0;
+      long[] counts = new long[Long.SIZE];
+      int numBuckets = 0;
+      for (int i = 0; i < Long.SIZE; i++) {
+        LongAdder bucketCount = buckets.get(i);
+        if (bucketCount == null) {
+          continue;
+        }
+        long count = bucketCount.sum();
+        long delta = count - emittedBuckets[i];
+        emittedBuckets[i] = count;
+        if (delta > 0) {
+          bucketMask |= 1L << i;
+          counts[numBuckets++] = delta;
+        }
+      }
+
+      if (numBuckets == 0) {
+        // Keep the sum of a racing add for the next call, which will have its bucket count
+        return new MetricValue(name, new long[0], 0L, 0d);
+      }
+
+      long[] bucketCounts = new long[numBuckets];
+      System.arraycopy(counts, 0, bucketCounts, 0, numBuckets);
+
+      // Reset the sum instead of keeping a running total, which would lose the precision of small
+      // deltas over time
+      return new MetricValue(name, bucketCounts, bucketMask, sum.sumThenReset());
     }
-    distribution.add(value);
-    this.metricType = MetricType.DISTRIBUTION;
   }
 }
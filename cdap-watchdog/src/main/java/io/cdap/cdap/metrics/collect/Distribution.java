@@ -78,7 +78,11 @@ public class Distribution {
     bucketCounts[i][j] += 1;
   }
 
-  private int findBucketNumber(long value) {
+  /**
+   * Returns the bucket number of the given value. The bucket number is in the range of {@code [0,
+   * Long.SIZE)}.
+   */
+  static int findBucketNumber(long value) {
     // negative values map to bucket 0
     if (value < 0) {
       return 0;
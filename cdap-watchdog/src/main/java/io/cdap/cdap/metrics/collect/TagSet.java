@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.collect;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable set of metrics tags with a precomputed hash code. It is used by the
+ * {@link AggregatedMetricsCollectionService} as the key for looking up metrics contexts and
+ * emitters, so that the tags map doesn't need to be hashed on every metric call.
+ *
+ * Each metrics context holds on to the {@link TagSet} instance it was created with, hence lookups
+ * from the same context are resolved by the identity check in {@link #equals(Object)}.
+ */
+final class TagSet {
+
+  private final Map<String, String> tags;
+  private final int hashCode;
+
+  /**
+   * Creates a {@link TagSet} from the given tags.
+   */
+  static TagSet of(Map<String, String> tags) {
+    return new TagSet(ImmutableMap.copyOf(tags));
+  }
+
+  private TagSet(ImmutableMap<String, String> tags) {
+    this.tags = tags;
+    this.hashCode = tags.hashCode();
+  }
+
+  /**
+   * Returns a new {@link TagSet} with the given tag added.
+   *
+   * @throws IllegalArgumentException if the tag name already exists in this set
+   */
+  TagSet with(String tagName, String tagValue) {
+    return new TagSet(ImmutableMap.<String, String>builder()
+        .putAll(tags).put(tagName, tagValue).build());
+  }
+
+  /**
+   * Returns a new {@link TagSet} with the given tags added. Existing tags with the same names are
+   * replaced.
+   */
+  TagSet withAll(Map<String, String> newTags) {
+    Map<String, String> allTags = new HashMap<>(tags);
+    allTags.putAll(newTags);
+    return of(allTags);
+  }
+
+  /**
+   * Returns the tags as an immutable {@link Map}.
+   */
+  Map<String, String> getTags() {
+    return tags;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TagSet other = (TagSet) o;
+    return hashCode == other.hashCode && tags.equals(other.tags);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return tags.toString();
+  }
+}
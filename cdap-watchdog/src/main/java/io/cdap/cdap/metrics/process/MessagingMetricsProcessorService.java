@@ -99,7 +99,13 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
   private final String processMetricName;
   private final String metricsPrefixForDelayMetrics;
   private final int instanceId;
+  private final long coalesceWindowMillis;
+  // Non-null if metrics are coalesced before writing.
+  // It is only accessed by the thread that is persisting.
+  private final MetricsCoalescer coalescer;
   private long metricsProcessedCount;
+  private long lastCoalesceFlushTime;
+  private Map<MetricsMetaKey, TopicProcessMeta> coalescedTopicProcessMeta;
   private AtomicLong lastPersistedTime;
   private MetricsConsumerMetaTable metaTable;
   private volatile boolean stopping;
@@ -170,6 +176,15 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
     this.metricsMetaKeyProvider = metricsMetaKeyProvider;
     this.instanceId = instanceId;
     this.limitWriteFrequency = shouldLimitWriteFrequency(metricsWriter, cConf);
+    this.coalesceWindowMillis = cConf.getLong(Constants.Metrics.PROCESSOR_COALESCE_WINDOW_MS, 0L);
+    if (coalesceWindowMillis > 0) {
+      // Align to the finest resolution of the metrics store, which is at most 60 seconds
+      int resolution = Math.min(60,
+          cConf.getInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS, 1));
+      this.coalescer = new MetricsCoalescer(Math.max(1, resolution));
+    } else {
+      this.coalescer = null;
+    }
   }
 
   private MetricsConsumerMetaTable getMetaTable() {
@@ -220,6 +235,7 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
     // Initialize the last persisted time with current time.
     // This will give time for the threads to populate some metrics before persisting
     lastPersistedTime = new AtomicLong(System.currentTimeMillis());
+    lastCoalesceFlushTime = lastPersistedTime.get();
     for (ProcessMetricsThread thread : processMetricsThreads) {
       thread.start();
     }
@@ -235,7 +251,11 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
 
     // Persist metricsFromAllTopics and messageId's after all ProcessMetricsThread's complete.
     // No need to make a copy of metricsFromAllTopics and topicProcessMetaMap because no thread is writing to them
-    persistMetricsAndTopicProcessMeta(metricsFromAllTopics, metadataHandler.getCache());
+    if (coalescer == null) {
+      persistMetricsAndTopicProcessMeta(metricsFromAllTopics, metadataHandler.getCache());
+    } else {
+      coalesceAndPersist(metricsFromAllTopics, metadataHandler.getCache(), true);
+    }
   }
 
   private long resolveProcessingInterval(CConfiguration cConf, MetricsWriter metricsWriter,
@@ -276,7 +296,7 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
       Map<MetricsMetaKey, TopicProcessMeta> topicProcessMetaMap) {
     try {
       if (!metricValues.isEmpty()) {
-        persistMetrics(metricValues);
+        persistMetrics(metricValues, metricValues.size());
       }
       metadataHandler.saveCache(topicProcessMetaMap);
     } catch (Exception e) {
@@ -284,13 +304,48 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
     }
   }
 
+  /**
+   * Adds metrics to the {@link MetricsCoalescer} and persists the coalesced metrics and the
+   * messageId's of the last coalesced metrics if the coalesce window has passed or the coalescer is
+   * full. The messageId's are only persisted after the coalesced metrics are written.
+   *
+   * @param metricValues a deque of {@link MetricValues}
+   * @param topicProcessMetaMap a map with each key {@link MetricsMetaKey} representing a key
+   *     and {@link TopicProcessMeta} which has info on messageId and processing stats. It must
+   *     not contain messageId's of metrics that are not yet added to the coalescer.
+   * @param force {@code true} to persist regardless of the coalesce window
+   */
+  private void coalesceAndPersist(Deque<MetricValues> metricValues,
+      Map<MetricsMetaKey, TopicProcessMeta> topicProcessMetaMap, boolean force) {
+    coalescer.addAll(metricValues);
+    coalescedTopicProcessMeta = topicProcessMetaMap;
+
+    long now = System.currentTimeMillis();
+    if (!force && now - lastCoalesceFlushTime < coalesceWindowMillis
+        && coalescer.getValueCount() < queueSize) {
+      return;
+    }
+    lastCoalesceFlushTime = now;
+
+    try {
+      if (!coalescer.isEmpty()) {
+        int count = coalescer.getMetricValuesCount();
+        persistMetrics(coalescer.flush(), count);
+      }
+      metadataHandler.saveCache(coalescedTopicProcessMeta);
+    } catch (Exception e) {
+      LOG.warn("Failed to persist metrics.", e);
+    }
+  }
+
 
   /**
    * Persist metrics into metric store
    *
    * @param metricValues a non-empty deque of {@link MetricValues}
+   * @param processedCount number of {@link MetricValues} fetched from TMS that are being persisted
    */
-  private void persistMetrics(Deque<MetricValues> metricValues) {
+  private void persistMetrics(Deque<MetricValues> metricValues, int processedCount) {
     long now = System.currentTimeMillis();
     long lastMetricTime = metricValues.peekLast().getTimestamp();
     List<MetricValue> topicLevelDelays = new ArrayList<>();
@@ -306,15 +361,16 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
     }
     List<MetricValue> processorMetrics = new ArrayList<>(topicLevelDelays);
     processorMetrics.add(
-        new MetricValue(processMetricName, MetricType.COUNTER, metricValues.size()));
+        new MetricValue(processMetricName, MetricType.COUNTER, processedCount));
 
     long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(now);
     metricValues.add(new MetricValues(metricsContextMap, nowSeconds, processorMetrics));
     metricsWriter.write(metricValues);
-    metricsProcessedCount += metricValues.size();
+    metricsProcessedCount += processedCount;
     PROGRESS_LOG.debug(
-        "{}(+{}) metrics persisted with {}. Last metric's timestamp: {} (lag {} seconds)",
-        metricsProcessedCount, metricValues.size(), metricsWriter.getID(),
+        "{}(+{}) metrics persisted with {} as {} entries. "
+            + "Last metric's timestamp: {} (lag {} seconds)",
+        metricsProcessedCount, processedCount, metricsWriter.getID(), metricValues.size(),
         lastMetricTime, nowSeconds - lastMetricTime);
   }
 
@@ -483,8 +539,11 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
           iterator.remove();
         }
         // Persist the copy of metrics and MessageId's
-
-        persistMetricsAndTopicProcessMeta(metricsCopy, topicProcessMetaMapCopy);
+        if (coalescer == null) {
+          persistMetricsAndTopicProcessMeta(metricsCopy, topicProcessMetaMapCopy);
+        } else {
+          coalesceAndPersist(metricsCopy, topicProcessMetaMapCopy, false);
+        }
       } catch (Exception e) {
         LOG.warn("Failed to persist metrics. Will be retried in next iteration.", e);
       } finally {
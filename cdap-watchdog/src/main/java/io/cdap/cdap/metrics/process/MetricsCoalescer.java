@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.process;
+
+import io.cdap.cdap.api.metrics.MetricType;
+import io.cdap.cdap.api.metrics.MetricValue;
+import io.cdap.cdap.api.metrics.MetricValues;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Pre-aggregates {@link MetricValues} in memory, so that each cell of the metrics store,
+ * identified by the tags, the metric name and the timestamp at the given resolution, is written
+ * once instead of once per emitted value.
+ *
+ * <ul>
+ *   <li>Counters of the same cell are summed up</li>
+ *   <li>Gauges of the same cell keep the latest value. A counter added after a gauge increments the
+ *   gauge value, which is the same as writing them one by one</li>
+ *   <li>Distributions of the same cell have their bucket counts and sums added up</li>
+ * </ul>
+ */
+@NotThreadSafe
+final class MetricsCoalescer {
+
+  private final int resolutionSeconds;
+  private final Map<Cell, Map<String, Aggregate>> cells;
+  private int valueCount;
+  private int metricValuesCount;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param resolutionSeconds the resolution in seconds to align the metrics timestamp to
+   */
+  MetricsCoalescer(int resolutionSeconds) {
+    if (resolutionSeconds <= 0) {
+      throw new IllegalArgumentException("Resolution must be positive: " + resolutionSeconds);
+    }
+    this.resolutionSeconds = resolutionSeconds;
+    this.cells = new LinkedHashMap<>();
+  }
+
+  /**
+   * Adds all the given {@link MetricValues}.
+   */
+  void addAll(Iterable<MetricValues> metricValues) {
+    for (MetricValues values : metricValues) {
+      add(values);
+    }
+  }
+
+  /**
+   * Adds the given {@link MetricValues}.
+   */
+  void add(MetricValues metricValues) {
+    long timestamp = metricValues.getTimestamp();
+    Cell cell = new Cell(metricValues.getTags(), timestamp - (timestamp % resolutionSeconds));
+    Map<String, Aggregate> aggregates = cells.computeIfAbsent(cell, k -> new LinkedHashMap<>());
+
+    for (MetricValue value : metricValues.getMetrics()) {
+      Aggregate aggregate = aggregates.get(value.getName());
+      if (aggregate == null) {
+        aggregates.put(value.getName(), new Aggregate(value));
+        valueCount++;
+      } else {
+        aggregate.add(value);
+      }
+    }
+    metricValuesCount++;
+  }
+
+  /**
+   * Returns {@code true} if there is nothing to flush.
+   */
+  boolean isEmpty() {
+    return metricValuesCount == 0;
+  }
+
+  /**
+   * Returns the number of coalesced metric values that will be written by the next flush.
+   */
+  int getValueCount() {
+    return valueCount;
+  }
+
+  /**
+   * Returns the number of {@link MetricValues} added since the last flush.
+   */
+  int getMetricValuesCount() {
+    return metricValuesCount;
+  }
+
+  /**
+   * Returns the coalesced {@link MetricValues}, one per tags and aligned timestamp, and resets this
+   * instance.
+   */
+  Deque<MetricValues> flush() {
+    Deque<MetricValues> result = new ArrayDeque<>(cells.size());
+    for (Map.Entry<Cell, Map<String, Aggregate>> entry : cells.entrySet()) {
+      List<MetricValue> values = new ArrayList<>(entry.getValue().size());
+      for (Map.Entry<String, Aggregate> aggregate : entry.getValue().entrySet()) {
+        values.add(aggregate.getValue().toMetricValue(aggregate.getKey()));
+      }
+      Cell cell = entry.getKey();
+      result.add(new MetricValues(cell.tags, cell.timestamp, values));
+    }
+    cells.clear();
+    valueCount = 0;
+    metricValuesCount = 0;
+    return result;
+  }
+
+  /**
+   * Key of a set of metrics with the same tags and timestamp.
+   */
+  private static final class Cell {
+
+    private final Map<String, String> tags;
+    private final long timestamp;
+    private final int hashCode;
+
+    private Cell(Map<String, String> tags, long timestamp) {
+      this.tags = tags;
+      this.timestamp = timestamp;
+      this.hashCode = Objects.hash(tags, timestamp);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Cell other = (Cell) o;
+      return timestamp == other.timestamp && tags.equals(other.tags);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * Aggregated value of a metric in a {@link Cell}.
+   */
+  private static final class Aggregate {
+
+    private MetricType type;
+    private long value;
+    private long[] bucketCounts;
+    private double sum;
+
+    private Aggregate(MetricValue metricValue) {
+      type = metricValue.getType();
+      if (type == MetricType.DISTRIBUTION) {
+        bucketCounts = metricValue.getAllBucketCounts();
+        sum = metricValue.getSum();
+      } else {
+        value = metricValue.getValue();
+      }
+    }
+
+    private void add(MetricValue metricValue) {
+      if (type == MetricType.DISTRIBUTION || metricValue.getType() == MetricType.DISTRIBUTION) {
+        if (type != metricValue.getType()) {
+          // Distribution cannot be combined with counter or gauge. Keep the latest one.
+          replace(metricValue);
+          return;
+        }
+        long[] counts = metricValue.getAllBucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+          bucketCounts[i] += counts[i];
+        }
+        sum += metricValue.getSum();
+        return;
+      }
+
+      if (metricValue.getType() == MetricType.GAUGE) {
+        type = MetricType.GAUGE;
+        value = metricValue.getValue();
+      } else {
+        value += metricValue.getValue();
+      }
+    }
+
+    private void replace(MetricValue metricValue) {
+      Aggregate aggregate = new Aggregate(metricValue);
+      type = aggregate.type;
+      value = aggregate.value;
+      bucketCounts = aggregate.bucketCounts;
+      sum = aggregate.sum;
+    }
+
+    private MetricValue toMetricValue(String name) {
+      if (type != MetricType.DISTRIBUTION) {
+        return new MetricValue(name, type, value);
+      }
+      // Only keep the non-zero buckets, with the mask indicating which buckets are kept
+      long mask = 0;
+      int nonZero = 0;
+      for (int i = 0; i < bucketCounts.length; i++) {
+        if (bucketCounts[i] != 0) {
+          mask |= 1L << i;
+          nonZero++;
+        }
+      }
+      long[] counts = new long[nonZero];
+      int idx = 0;
+      for (long count : bucketCounts) {
+        if (count != 0) {
+          counts[idx++] = count;
+        }
+      }
+      return new MetricValue(name, counts, mask, sum);
+    }
+  }
+}
@@ -17,8 +17,13 @@
 package io.cdap.cdap.metrics.process;
 
 import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.dataset.table.Row;
+import io.cdap.cdap.api.dataset.table.Scanner;
 import io.cdap.cdap.data2.dataset2.lib.table.MetricsTable;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import javax.annotation.Nullable;
@@ -35,6 +40,12 @@ public class MetricsConsumerMetaTable {
   private static final byte[] LAST_PROCESS_TIMESTAMP = Bytes.toBytes("lpt");
   private static final byte[] PROCESS_TIMESTAMP_LATEST = Bytes.toBytes("ptl");
 
+  // row of the rollup checkpoints, with a column per rollup resolution
+  private static final byte[] ROLLUP_CHECKPOINT_ROW = Bytes.toBytes("rollup.checkpoint");
+  // row of the gauge measure names, with a column per measure name
+  private static final byte[] ROLLUP_GAUGES_ROW = Bytes.toBytes("rollup.gauges");
+  private static final byte[] TRUE = {1};
+
   private final MetricsTable metaTable;
 
   public MetricsConsumerMetaTable(MetricsTable metaTable) {
@@ -81,6 +92,60 @@ public class MetricsConsumerMetaTable {
   }
 
 
+  /**
+   * Returns the end time in seconds of the time windows rolled up for the given resolution, or
+   * {@code null} if there was no rollup for the resolution.
+   */
+  @Nullable
+  public Long getRollupCheckpoint(int resolution) {
+    byte[] value = metaTable.get(ROLLUP_CHECKPOINT_ROW, Bytes.toBytes(resolution));
+    return value == null ? null : Bytes.toLong(value);
+  }
+
+  /**
+   * Saves the end time in seconds of the time windows rolled up for the given resolution.
+   */
+  public void saveRollupCheckpoint(int resolution, long endTs) {
+    SortedMap<byte[], byte[]> columns = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    columns.put(Bytes.toBytes(resolution), Bytes.toBytes(endTs));
+    SortedMap<byte[], SortedMap<byte[], byte[]>> updates = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    updates.put(ROLLUP_CHECKPOINT_ROW, columns);
+    metaTable.putBytes(updates);
+  }
+
+  /**
+   * Records the given measure names as gauges, which are rolled up by taking their latest values
+   * instead of summing them.
+   */
+  public void addGaugeMeasures(Collection<String> measureNames) {
+    SortedMap<byte[], byte[]> columns = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    for (String measureName : measureNames) {
+      columns.put(Bytes.toBytes(measureName), TRUE);
+    }
+    SortedMap<byte[], SortedMap<byte[], byte[]>> updates = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    updates.put(ROLLUP_GAUGES_ROW, columns);
+    metaTable.putBytes(updates);
+  }
+
+  /**
+   * Returns the measure names recorded by {@link #addGaugeMeasures(Collection)}.
+   */
+  public Set<String> getGaugeMeasures() {
+    Set<String> result = new HashSet<>();
+    try (Scanner scanner = metaTable.scan(ROLLUP_GAUGES_ROW,
+        Bytes.stopKeyForPrefix(ROLLUP_GAUGES_ROW), null)) {
+      Row row;
+      while ((row = scanner.next()) != null) {
+        if (Bytes.equals(ROLLUP_GAUGES_ROW, row.getRow())) {
+          for (byte[] column : row.getColumns().keySet()) {
+            result.add(Bytes.toString(column));
+          }
+        }
+      }
+    }
+    return result;
+  }
+
   private synchronized long getLong(byte[] rowKey, byte[] column) {
     byte[] result = metaTable.get(rowKey, column);
     if (result == null) {
@@ -24,7 +24,6 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
-import io.cdap.cdap.api.dataset.lib.cube.Cube;
 import io.cdap.cdap.api.dataset.lib.cube.CubeDeleteQuery;
 import io.cdap.cdap.api.dataset.lib.cube.CubeExploreQuery;
 import io.cdap.cdap.api.dataset.lib.cube.CubeFact;
@@ -62,8 +61,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
@@ -75,6 +78,8 @@ public class DefaultMetricStore implements MetricStore {
   public static final Map<String, Aggregation> AGGREGATIONS;
 
   private static final int TOTALS_RESOLUTION = Integer.MAX_VALUE;
+  // max number of time windows to rollup for each resolution in a rollup run
+  private static final int MAX_ROLLUP_WINDOWS = 60;
   private static final String BY_NAMESPACE = "namespace";
   private static final String BY_APP = "app";
   private static final String BY_MAPREDUCE = "mapreduce";
@@ -93,11 +98,16 @@ public class DefaultMetricStore implements MetricStore {
           new AggregationAlias(ImmutableMap.of(Constants.Metrics.Tag.RUN_ID,
               Constants.Metrics.Tag.WORKFLOW_RUN_ID)));
 
-  private final Supplier<Cube> cube;
+  private final Supplier<DefaultCube> cube;
   private final Supplier<MetricsConsumerMetaTable> metaTableSupplier;
   private MetricsContext metricsContext;
   private final List<TopicId> metricsTopics;
   private final Map<Integer, Long> resolutionTTLMap;
+  // rollup resolution -> resolution to rollup from, in increasing order of resolution
+  private final Map<Integer, Integer> rollupSources;
+  private final long rollupLagSeconds;
+  // gauge measure names already recorded for rollup
+  private final Set<String> knownGauges;
 
 
   static {
@@ -224,6 +234,8 @@ public class DefaultMetricStore implements MetricStore {
   @Inject
   DefaultMetricStore(MetricDatasetFactory dsFactory, CConfiguration cConf) {
     int writeParallelism = cConf.getInt(Constants.Metrics.METRICS_TABLE_WRITE_PARRALELISM);
+    int queryParallelism = cConf.getInt(Constants.Metrics.METRICS_QUERY_PARALLELISM);
+    long queryCacheTTLMillis = cConf.getLong(Constants.Metrics.METRICS_QUERY_CACHE_TTL_MS);
     int minimumResolution = cConf.getInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS);
     int[] resolutions = minimumResolution < 60
         ? new int[]{minimumResolution, 60, 3600, TOTALS_RESOLUTION}
@@ -242,17 +254,28 @@ public class DefaultMetricStore implements MetricStore {
           cConf.getLong(Constants.Metrics.MINIMUM_RESOLUTION_RETENTION_SECONDS));
     }
     this.resolutionTTLMap = builder.build();
+    this.rollupSources = new LinkedHashMap<>();
+    if (cConf.getBoolean(Constants.Metrics.ROLLUP_ENABLED)) {
+      // each resolution is rolled up from the next finer one, the totals are always written
+      for (int i = 1; i < resolutions.length; i++) {
+        if (resolutions[i] != TOTALS_RESOLUTION) {
+          rollupSources.put(resolutions[i], resolutions[i - 1]);
+        }
+      }
+    }
+    this.rollupLagSeconds = cConf.getLong(Constants.Metrics.ROLLUP_LAG_SECONDS);
+    this.knownGauges = ConcurrentHashMap.newKeySet();
     FactTableSupplier factTableSupplier = (resolution, ignoredRollTime) -> {
       // roll time will be taken from configuration
       // TODO: remove roll time from the supplier api, https://issues.cask.co/browse/CDAP-14730
       return dsFactory.getOrCreateFactTable(resolution);
     };
-    this.cube = Suppliers.memoize(new Supplier<Cube>() {
+    this.cube = Suppliers.memoize(new Supplier<DefaultCube>() {
       @Override
-      public Cube get() {
+      public DefaultCube get() {
         DefaultCube cube = new DefaultCube(resolutions, factTableSupplier, AGGREGATIONS,
             AGGREGATIONS_ALIAS_DIMENSIONS,
-            writeParallelism);
+            writeParallelism, queryParallelism, queryCacheTTLMillis, rollupSources.keySet());
         cube.setMetricsCollector(metricsContext);
         return cube;
       }
@@ -280,6 +303,7 @@ public class DefaultMetricStore implements MetricStore {
   @Override
   public void add(Collection<? extends MetricValues> metricValues) {
     List<CubeFact> facts = Lists.newArrayListWithCapacity(metricValues.size());
+    Set<String> newGauges = new HashSet<>();
     for (MetricValues metricValue : metricValues) {
       String scope = metricValue.getTags().get(Constants.Metrics.Tag.SCOPE);
       List<Measurement> metrics = Lists.newArrayList();
@@ -293,6 +317,10 @@ public class DefaultMetricStore implements MetricStore {
         }
         MeasureType type =
             metric.getType() == MetricType.COUNTER ? MeasureType.COUNTER : MeasureType.GAUGE;
+        if (type == MeasureType.GAUGE && !rollupSources.isEmpty()
+            && !knownGauges.contains(measureName)) {
+          newGauges.add(measureName);
+        }
         metrics.add(new Measurement(measureName, type, metric.getValue()));
       }
 
@@ -301,9 +329,62 @@ public class DefaultMetricStore implements MetricStore {
           .addMeasurements(metrics);
       facts.add(fact);
     }
+    // gauges are recorded before they are written, so that the rollup knows about them
+    if (!newGauges.isEmpty()) {
+      metaTableSupplier.get().addGaugeMeasures(newGauges);
+      knownGauges.addAll(newGauges);
+    }
     cube.get().add(facts);
   }
 
+  /**
+   * Returns {@code true} if the coarser resolutions are computed by {@link #rollup(long)}.
+   */
+  boolean isRollupEnabled() {
+    return !rollupSources.isEmpty();
+  }
+
+  /**
+   * Rolls up the metrics of the time windows completed before the given time to the rollup
+   * resolutions. The finest resolution is complete up to the rollup lag before the given time, and
+   * a rollup resolution is complete up to its checkpoint. Each resolution rolls up at most {@link
+   * #MAX_ROLLUP_WINDOWS} time windows, so that a long backlog is processed over multiple calls.
+   *
+   * @param currentTime current time in seconds
+   */
+  void rollup(long currentTime) {
+    MetricsConsumerMetaTable metaTable = metaTableSupplier.get();
+    Set<String> gauges = metaTable.getGaugeMeasures();
+    for (Map.Entry<Integer, Integer> entry : rollupSources.entrySet()) {
+      int resolution = entry.getKey();
+      int sourceResolution = entry.getValue();
+      Long sourceEndTs = rollupSources.containsKey(sourceResolution)
+          ? metaTable.getRollupCheckpoint(sourceResolution)
+          : Long.valueOf(currentTime - rollupLagSeconds);
+      if (sourceEndTs == null) {
+        continue;
+      }
+      long endTs = sourceEndTs / resolution * resolution;
+
+      // Without a checkpoint, start from the last completed window, which may have been partially
+      // written at ingestion before the rollup was enabled
+      Long checkpoint = metaTable.getRollupCheckpoint(resolution);
+      long startTs = checkpoint == null ? endTs - resolution : checkpoint;
+      // windows with expired source metrics cannot be rolled up completely
+      Long sourceTTL = resolutionTTLMap.get(sourceResolution);
+      if (sourceTTL != null && sourceTTL > 0) {
+        startTs = Math.max(startTs,
+            (currentTime - sourceTTL) / resolution * resolution + resolution);
+      }
+
+      for (int i = 0; i < MAX_ROLLUP_WINDOWS && startTs < endTs; i++, startTs += resolution) {
+        cube.get().rollup(sourceResolution, resolution, startTs, startTs + resolution,
+            gauges::contains);
+        metaTable.saveRollupCheckpoint(resolution, startTs + resolution);
+      }
+    }
+  }
+
   @Override
   public Collection<MetricTimeSeries> query(MetricDataQuery query) {
     Collection<TimeSeries> cubeResult = cube.get().query(buildCubeQuery(query));
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.store;
+
+import com.google.common.util.concurrent.AbstractScheduledService;
+import com.google.inject.Inject;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.twill.common.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The metrics rollup service that periodically computes the coarser resolution metrics tables
+ * from the finer ones, when {@link Constants.Metrics#ROLLUP_ENABLED} is set. The progress is
+ * checkpointed per resolution, so that each completed time window is rolled up once.
+ */
+public class MetricsRollupService extends AbstractScheduledService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsRollupService.class);
+
+  private final DefaultMetricStore metricStore;
+  private final long rollupInterval;
+  private ScheduledExecutorService executor;
+
+  @Inject
+  MetricsRollupService(DefaultMetricStore metricStore, CConfiguration cConf) {
+    this.metricStore = metricStore;
+    this.rollupInterval = cConf.getLong(Constants.Metrics.ROLLUP_INTERVAL_SECONDS);
+  }
+
+  @Override
+  protected final ScheduledExecutorService executor() {
+    executor = Executors.newSingleThreadScheduledExecutor(
+        Threads.createDaemonThreadFactory("metrics-rollup"));
+    return executor;
+  }
+
+  @Override
+  protected void runOneIteration() {
+    if (!metricStore.isRollupEnabled()) {
+      return;
+    }
+    try {
+      metricStore.rollup(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+    } catch (Exception e) {
+      // the rollup will continue from the last checkpoint in the next iteration
+      LOG.warn("Failed to rollup metrics, will be retried", e);
+    }
+  }
+
+  @Override
+  protected Scheduler scheduler() {
+    return Scheduler.newFixedDelaySchedule(1, rollupInterval, TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -319,6 +319,22 @@ public class CDAPLogAppenderTest {
     }
   }
 
+  @Test
+  public void testCodecs() {
+    Assert.assertEquals("null", CDAPLogAppender.createCodecFactory("null").toString());
+    Assert.assertEquals("deflate-6", CDAPLogAppender.createCodecFactory(" deflate-6 ").toString());
+    Assert.assertEquals("xz-3", CDAPLogAppender.createCodecFactory("xz-3").toString());
+
+    for (String codec : new String[] { "lz4", "snappy-1", "deflate-", "deflate-x", "deflate-10", "xz--1" }) {
+      try {
+        CDAPLogAppender.createCodecFactory(codec);
+        Assert.fail("Expected codec " + codec + " to be rejected");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
   private void assertLogEventDetails(LoggingEvent expectedLoggingEvent, LogLocation logLocation) throws IOException {
     Assert.assertEquals(LogLocation.VERSION_1, logLocation.getFrameworkVersion());
     Assert.assertTrue(logLocation.getLocation().exists());
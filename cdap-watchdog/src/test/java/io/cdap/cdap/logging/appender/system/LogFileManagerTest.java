@@ -47,6 +47,7 @@ import io.cdap.cdap.spi.data.StructuredTableAdmin;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.store.StoreDefinition;
 import java.util.concurrent.TimeUnit;
+import org.apache.avro.file.CodecFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.tephra.TransactionManager;
@@ -114,7 +115,7 @@ public class LogFileManagerTest {
     long maxFileSizeInBytes = 104857600;
     FileMetaDataWriter fileMetaDataWriter = new FileMetaDataWriter(injector.getInstance(TransactionRunner.class));
     LogFileManager logFileManager = new LogFileManager("700", "600", maxLifeTimeMs, maxFileSizeInBytes, syncInterval,
-                                                       fileMetaDataWriter,
+                                                       CodecFactory.nullCodec(), fileMetaDataWriter,
                                                        injector.getInstance(LocationFactory.class));
     LogPathIdentifier logPathIdentifier = new LogPathIdentifier("test", "testApp", "testFlow");
     long timestamp = System.currentTimeMillis();
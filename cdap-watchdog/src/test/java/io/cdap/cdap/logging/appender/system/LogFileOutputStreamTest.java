@@ -0,0 +1,310 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.logging.appender.system;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.logging.filter.AndFilter;
+import io.cdap.cdap.logging.filter.Filter;
+import io.cdap.cdap.logging.filter.LogLevelExpression;
+import io.cdap.cdap.logging.filter.MdcExpression;
+import io.cdap.cdap.logging.filter.OrFilter;
+import io.cdap.cdap.logging.read.LogEvent;
+import io.cdap.cdap.logging.write.LogBlockSummary;
+import io.cdap.cdap.logging.write.LogFileIndex;
+import io.cdap.cdap.logging.write.LogLocation;
+import io.cdap.cdap.test.SlowTests;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.file.CodecFactory;
+import org.apache.twill.filesystem.LocalLocationFactory;
+import org.apache.twill.filesystem.Location;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link LogFileOutputStream} and reading the log files it writes with the
+ * {@link LogFileIndex}.
+ */
+public class LogFileOutputStreamTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LogFileOutputStreamTest.class);
+
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testIndexedRead() throws IOException {
+    Location dir = new LocalLocationFactory(TMP_FOLDER.newFolder()).create("logs");
+    Assert.assertTrue(dir.mkdirs());
+    Location location = dir.append("1000.avro");
+
+    // Write 1000 events with increasing timestamps, flushing after every 10 events
+    try (LogFileOutputStream os = new LogFileOutputStream(location, "", 1024, CodecFactory.nullCodec(),
+                                                          1000L, () -> { })) {
+      os.flush();
+      for (int i = 0; i < 100; i++) {
+        for (int j = 0; j < 10; j++) {
+          os.append(createEvent(i * 10 + j, Level.INFO, Collections.emptyMap()));
+        }
+        os.flush();
+      }
+    }
+
+    Location indexLocation = LogFileIndex.getIndexLocation(location);
+    Assert.assertTrue(indexLocation.exists());
+    LogFileIndex index;
+    try (InputStream is = indexLocation.getInputStream()) {
+      index = LogFileIndex.read(is, location.length());
+    }
+    Assert.assertTrue(index.size() > 1);
+    Assert.assertEquals(0L, index.getTimestamp(0));
+
+    LogLocation logLocation = new LogLocation(LogLocation.VERSION_1, 0L, 1000L, location,
+                                              "default", null);
+
+    List<Long> forward = readLog(logLocation, Filter.EMPTY_FILTER, 505, 600, 1000);
+    List<Long> fromStart = readLog(logLocation, Filter.EMPTY_FILTER, 0, 1000, 10);
+    List<Long> prev = readLogPrev(logLocation, Filter.EMPTY_FILTER, 504, 20);
+    List<Long> last = readLogPrev(logLocation, Filter.EMPTY_FILTER, 5000, 25);
+    List<Long> all = readLogPrev(logLocation, Filter.EMPTY_FILTER, 5000, 5000);
+
+    Assert.assertEquals(range(505, 600), forward);
+    Assert.assertEquals(0L, (long) fromStart.get(0));
+    Assert.assertEquals(range(485, 505), prev);
+    Assert.assertEquals(range(975, 1000), last);
+    Assert.assertEquals(range(0, 1000), all);
+
+    // Without the index, reads should fall back to scanning and give the same result
+    Assert.assertTrue(indexLocation.delete());
+    Assert.assertEquals(forward, readLog(logLocation, Filter.EMPTY_FILTER, 505, 600, 1000));
+    Assert.assertEquals(fromStart, readLog(logLocation, Filter.EMPTY_FILTER, 0, 1000, 10));
+    Assert.assertEquals(prev, readLogPrev(logLocation, Filter.EMPTY_FILTER, 504, 20));
+    Assert.assertEquals(last, readLogPrev(logLocation, Filter.EMPTY_FILTER, 5000, 25));
+    Assert.assertEquals(all, readLogPrev(logLocation, Filter.EMPTY_FILTER, 5000, 5000));
+  }
+
+  @Test
+  public void testBlockSkipping() throws IOException {
+    Location dir = new LocalLocationFactory(TMP_FOLDER.newFolder()).create("logs");
+    Assert.assertTrue(dir.mkdirs());
+    Location location = dir.append("1000.avro");
+
+    // Only events 333 and 777 are errors, and only events 500 to 509 have the user MDC key
+    try (LogFileOutputStream os = new LogFileOutputStream(location, "", 1024, CodecFactory.nullCodec(),
+                                                          1000L, () -> { })) {
+      os.flush();
+      for (int i = 0; i < 100; i++) {
+        for (int j = 0; j < 10; j++) {
+          long timestamp = i * 10 + j;
+          Level level = timestamp == 333 || timestamp == 777 ? Level.ERROR : Level.INFO;
+          os.append(createEvent(timestamp, level, i == 50 ? ImmutableMap.of("MDC:user", "bob")
+                                                          : Collections.emptyMap()));
+        }
+        os.flush();
+      }
+    }
+
+    LogFileIndex index;
+    try (InputStream is = LogFileIndex.getIndexLocation(location).getInputStream()) {
+      index = LogFileIndex.read(is, location.length());
+    }
+    // All regions are summarized once the file is closed
+    int errorRegions = 0;
+    for (int i = 0; i < index.size(); i++) {
+      LogBlockSummary summary = index.getSummary(i);
+      Assert.assertNotNull(summary);
+      Assert.assertEquals(index.getTimestamp(i), summary.getMinTimestamp());
+      if (summary.getMaxLevel() >= Level.ERROR_INT) {
+        errorRegions++;
+      }
+    }
+    Assert.assertEquals(2, errorRegions);
+
+    LogLocation logLocation = new LogLocation(LogLocation.VERSION_1, 0L, 1000L, location,
+                                              "default", null);
+    Filter errorFilter = new LogLevelExpression("ERROR");
+    Filter userFilter = new MdcExpression("MDC:user", "bob");
+    Filter orFilter = new OrFilter(ImmutableList.of(errorFilter, userFilter));
+    Filter andFilter = new AndFilter(ImmutableList.of(errorFilter, userFilter));
+
+    Assert.assertEquals(ImmutableList.of(333L, 777L), readLog(logLocation, errorFilter, 0, 1000, 100));
+    Assert.assertEquals(ImmutableList.of(777L), readLog(logLocation, errorFilter, 400, 1000, 100));
+    Assert.assertEquals(ImmutableList.of(333L), readLogPrev(logLocation, errorFilter, 700, 100));
+    Assert.assertEquals(ImmutableList.of(333L, 777L), readLogPrev(logLocation, errorFilter, 5000, 100));
+    Assert.assertEquals(range(500, 510), readLog(logLocation, userFilter, 0, 1000, 100));
+    Assert.assertEquals(range(500, 510), readLogPrev(logLocation, userFilter, 5000, 100));
+    Assert.assertEquals(11, readLog(logLocation, orFilter, 400, 1000, 100).size());
+    Assert.assertTrue(readLog(logLocation, andFilter, 0, 1000, 100).isEmpty());
+    Assert.assertTrue(readLogPrev(logLocation, andFilter, 5000, 100).isEmpty());
+
+    // Without the index, reads should fall back to scanning and give the same result
+    Assert.assertTrue(LogFileIndex.getIndexLocation(location).delete());
+    Assert.assertEquals(ImmutableList.of(333L, 777L), readLog(logLocation, errorFilter, 0, 1000, 100));
+    Assert.assertEquals(ImmutableList.of(333L), readLogPrev(logLocation, errorFilter, 700, 100));
+    Assert.assertEquals(range(500, 510), readLog(logLocation, userFilter, 0, 1000, 100));
+    Assert.assertEquals(11, readLog(logLocation, orFilter, 400, 1000, 100).size());
+  }
+
+  @Test
+  public void testCodecs() throws IOException {
+    Location dir = new LocalLocationFactory(TMP_FOLDER.newFolder()).create("logs");
+    Assert.assertTrue(dir.mkdirs());
+
+    long uncompressedSize = 0L;
+    for (String codec : new String[] { "null", "deflate", "snappy", "deflate-1", "xz-3" }) {
+      Location location = dir.append(codec + ".avro");
+      try (LogFileOutputStream os = new LogFileOutputStream(location, "", 1024,
+                                                            CDAPLogAppender.createCodecFactory(codec),
+                                                            1000L, () -> { })) {
+        os.flush();
+        for (int i = 0; i < 100; i++) {
+          for (int j = 0; j < 10; j++) {
+            os.append(createEvent(i * 10 + j, Level.INFO, ImmutableMap.of("MDC:user", "bob")));
+          }
+          os.flush();
+        }
+      }
+      if (uncompressedSize == 0L) {
+        uncompressedSize = location.length();
+      } else {
+        Assert.assertTrue(location.length() < uncompressedSize);
+      }
+
+      // Files written with any codec are read the same way, with or without the index
+      LogLocation logLocation = new LogLocation(LogLocation.VERSION_1, 0L, 1000L, location,
+                                                "default", null);
+      Assert.assertEquals(range(505, 600), readLog(logLocation, Filter.EMPTY_FILTER, 505, 600, 1000));
+      Assert.assertEquals(range(485, 505), readLogPrev(logLocation, Filter.EMPTY_FILTER, 504, 20));
+      Assert.assertTrue(LogFileIndex.getIndexLocation(location).delete());
+      Assert.assertEquals(range(505, 600), readLog(logLocation, Filter.EMPTY_FILTER, 505, 600, 1000));
+      Assert.assertEquals(range(485, 505), readLogPrev(logLocation, Filter.EMPTY_FILTER, 504, 20));
+    }
+  }
+
+  /**
+   * Measures the size and the read throughput of a synthetic log corpus written with each codec.
+   */
+  @Category(SlowTests.class)
+  @Test
+  public void testCodecThroughput() throws IOException {
+    Location dir = new LocalLocationFactory(TMP_FOLDER.newFolder()).create("logs");
+    Assert.assertTrue(dir.mkdirs());
+
+    int eventCount = 500000;
+    String[] loggers = new String[20];
+    for (int i = 0; i < loggers.length; i++) {
+      loggers[i] = "io.cdap.cdap.internal.app.runtime.component" + i + ".SomeService";
+    }
+    for (String codec : new String[] { "null", "deflate", "snappy", "xz" }) {
+      Location location = dir.append(codec + ".avro");
+      long startTime = System.nanoTime();
+      try (LogFileOutputStream os = new LogFileOutputStream(location, "", 10 * 1024 * 1024,
+                                                            CodecFactory.fromString(codec),
+                                                            1000L, () -> { })) {
+        os.flush();
+        for (int i = 0; i < eventCount; i++) {
+          LoggingEvent event = createEvent(i, i % 100 == 0 ? Level.WARN : Level.INFO,
+                                           ImmutableMap.of(".namespaceId", "default",
+                                                           ".applicationId", "app" + (i % 5),
+                                                           ".runId", "run-" + (i % 7)));
+          event.setLoggerName(loggers[i % loggers.length]);
+          event.setThreadName("executor-thread-" + (i % 8));
+          os.append(event);
+          if (i % 1000 == 999) {
+            os.flush();
+          }
+        }
+      }
+      long writeTime = System.nanoTime() - startTime;
+
+      LogLocation logLocation = new LogLocation(LogLocation.VERSION_1, 0L, 1000L, location,
+                                                "default", null);
+      startTime = System.nanoTime();
+      int count = 0;
+      try (CloseableIterator<LogEvent> iterator = logLocation.readLog(Filter.EMPTY_FILTER, 0,
+                                                                       Long.MAX_VALUE,
+                                                                       Integer.MAX_VALUE)) {
+        while (iterator.hasNext()) {
+          iterator.next().getLoggingEvent().getFormattedMessage();
+          count++;
+        }
+      }
+      long readTime = System.nanoTime() - startTime;
+      Assert.assertEquals(eventCount, count);
+
+      LOG.info("Codec {}: {} bytes, write {} events/s, read {} events/s", codec, location.length(),
+               eventCount * TimeUnit.SECONDS.toNanos(1) / writeTime,
+               eventCount * TimeUnit.SECONDS.toNanos(1) / readTime);
+    }
+  }
+
+  private List<Long> readLog(LogLocation logLocation, Filter filter, long fromTimeMs,
+                             long toTimeMs, int maxEvents) {
+    List<Long> timestamps = new ArrayList<>();
+    try (CloseableIterator<LogEvent> iterator = logLocation.readLog(filter, fromTimeMs, toTimeMs,
+                                                                     maxEvents)) {
+      while (iterator.hasNext()) {
+        timestamps.add(iterator.next().getLoggingEvent().getTimeStamp());
+      }
+    }
+    return timestamps;
+  }
+
+  private List<Long> readLogPrev(LogLocation logLocation, Filter filter, long fromTimeMs,
+                                 int maxEvents) throws IOException {
+    Collection<LogEvent> events = logLocation.readLogPrev(filter, fromTimeMs, maxEvents);
+    List<Long> timestamps = new ArrayList<>();
+    for (LogEvent event : events) {
+      timestamps.add(event.getLoggingEvent().getTimeStamp());
+    }
+    return timestamps;
+  }
+
+  private List<Long> range(long from, long to) {
+    List<Long> result = new ArrayList<>();
+    for (long i = from; i < to; i++) {
+      result.add(i);
+    }
+    return result;
+  }
+
+  private LoggingEvent createEvent(long timestamp, Level level, Map<String, String> mdc) {
+    LoggingEvent event = new LoggingEvent();
+    event.setLevel(level);
+    event.setLoggerName("test.logger");
+    event.setMessage("Log message " + timestamp);
+    event.setThreadName("test-thread");
+    event.setTimeStamp(timestamp);
+    event.setMDCPropertyMap(mdc);
+    return event;
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.logging.read;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import io.cdap.cdap.api.dataset.lib.AbstractCloseableIterator;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.logging.write.LogLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.twill.filesystem.LocalLocationFactory;
+import org.apache.twill.filesystem.LocationFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link MergingLogIterator}.
+ */
+public class MergingLogIteratorTest {
+
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  private static LocationFactory locationFactory;
+  private static ExecutorService executor;
+
+  @BeforeClass
+  public static void init() throws IOException {
+    locationFactory = new LocalLocationFactory(TMP_FOLDER.newFolder());
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterClass
+  public static void finish() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testMerge() {
+    // Files with overlapping time ranges, each larger than a chunk
+    int size = MergingLogIterator.CHUNK_SIZE * 2 + 10;
+    List<long[]> files = Arrays.asList(range(0, size, 2), range(1, size, 2), range(size, 100, 1),
+                                       new long[0], range(size + 50, 10, 1));
+    FakeFiles fakeFiles = new FakeFiles(files);
+
+    // Up to four non-empty files overlap
+    List<LogEvent> events = new ArrayList<>();
+    try (CloseableIterator<LogEvent> iterator = new MergingLogIterator(fakeFiles.locations,
+                                                                       fakeFiles, executor, 4)) {
+      iterator.forEachRemaining(events::add);
+    }
+
+    Assert.assertEquals(size * 2 + 100 + 10, events.size());
+    for (int i = 1; i < events.size(); i++) {
+      LogEvent previous = events.get(i - 1);
+      LogEvent current = events.get(i);
+      long previousTime = previous.getLoggingEvent().getTimeStamp();
+      long currentTime = current.getLoggingEvent().getTimeStamp();
+      Assert.assertTrue(previousTime <= currentTime);
+      // Events with the same timestamp are in file order
+      if (previousTime == currentTime) {
+        Assert.assertTrue(previous.getOffset().getKafkaOffset()
+                            < current.getOffset().getKafkaOffset());
+      }
+    }
+    Assert.assertEquals(fakeFiles.opened, fakeFiles.closed);
+    Assert.assertEquals(files.size(), fakeFiles.closed.size());
+  }
+
+  @Test
+  public void testBoundedOpenFiles() {
+    // Files that all overlap in time
+    int size = MergingLogIterator.CHUNK_SIZE * 2 + 10;
+    List<long[]> files = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      files.add(range(i, size, 10));
+    }
+    FakeFiles fakeFiles = new FakeFiles(files);
+
+    int count = 0;
+    try (CloseableIterator<LogEvent> iterator = new MergingLogIterator(fakeFiles.locations,
+                                                                       fakeFiles, executor, 3)) {
+      while (iterator.hasNext()) {
+        iterator.next();
+        count++;
+      }
+    }
+
+    // All the events are read, with at most three files open at the same time
+    Assert.assertEquals(size * files.size(), count);
+    Assert.assertEquals(3, fakeFiles.maxOpen.get());
+    Assert.assertEquals(fakeFiles.opened, fakeFiles.closed);
+    Assert.assertEquals(files.size(), fakeFiles.closed.size());
+  }
+
+  @Test
+  public void testCloseEarly() {
+    int size = MergingLogIterator.CHUNK_SIZE * 3;
+    FakeFiles fakeFiles = new FakeFiles(Arrays.asList(range(0, size, 1), range(10, size, 1),
+                                                      range(size * 2, size, 1)));
+    try (CloseableIterator<LogEvent> iterator = new MergingLogIterator(fakeFiles.locations,
+                                                                       fakeFiles, executor, 3)) {
+      for (int i = 0; i < 100; i++) {
+        Assert.assertTrue(iterator.hasNext());
+        iterator.next();
+      }
+    }
+    // All files opened, including the prefetched ones, are closed
+    Assert.assertFalse(fakeFiles.opened.isEmpty());
+    Assert.assertEquals(fakeFiles.opened, fakeFiles.closed);
+  }
+
+  @Test
+  public void testReadFailure() {
+    FakeFiles fakeFiles = new FakeFiles(Arrays.asList(range(0, 10, 1), range(5, 10, 1)));
+    Function<LogLocation, CloseableIterator<LogEvent>> reader = location -> {
+      if (location.getEventTimeMs() == 5) {
+        throw new IllegalStateException("Failed to read");
+      }
+      return fakeFiles.apply(location);
+    };
+
+    try (CloseableIterator<LogEvent> iterator = new MergingLogIterator(fakeFiles.locations,
+                                                                       reader, executor, 2)) {
+      while (iterator.hasNext()) {
+        iterator.next();
+      }
+      Assert.fail("Expected read failure");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("Failed to read", e.getMessage());
+    }
+    Assert.assertEquals(fakeFiles.opened, fakeFiles.closed);
+  }
+
+  private static long[] range(long start, int count, int step) {
+    long[] result = new long[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = start + (long) i * step;
+    }
+    return result;
+  }
+
+  /**
+   * Function to read fake log files with the given event timestamps, which keeps track of the files
+   * opened and closed.
+   */
+  private static final class FakeFiles implements Function<LogLocation, CloseableIterator<LogEvent>> {
+
+    private final List<LogLocation> locations = new ArrayList<>();
+    private final Map<LogLocation, Integer> fileIds = new HashMap<>();
+    private final List<long[]> timestamps;
+    private final Set<Integer> opened = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> closed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger maxOpen = new AtomicInteger();
+
+    FakeFiles(List<long[]> timestamps) {
+      this.timestamps = timestamps;
+      for (int i = 0; i < timestamps.size(); i++) {
+        long[] fileTimestamps = timestamps.get(i);
+        long eventTimeMs = fileTimestamps.length == 0 ? 0L : fileTimestamps[0];
+        LogLocation location = new LogLocation(LogLocation.VERSION_1, eventTimeMs, eventTimeMs,
+                                               locationFactory.create(i + ".avro"), "default",
+                                               null);
+        locations.add(location);
+        fileIds.put(location, i);
+      }
+      // Files are sorted by event time, with the empty file in the order given
+      Collections.sort(locations, (l1, l2) -> Long.compare(l1.getEventTimeMs(),
+                                                           l2.getEventTimeMs()));
+    }
+
+    @Override
+    public CloseableIterator<LogEvent> apply(LogLocation location) {
+      int fileId = fileIds.get(location);
+      opened.add(fileId);
+      maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+      Iterator<Long> iterator = Arrays.stream(timestamps.get(fileId)).iterator();
+      return new AbstractCloseableIterator<LogEvent>() {
+        @Override
+        protected LogEvent computeNext() {
+          if (!iterator.hasNext()) {
+            return endOfData();
+          }
+          LoggingEvent event = new LoggingEvent();
+          event.setTimeStamp(iterator.next());
+          return new LogEvent(event, new LogOffset(fileId, event.getTimeStamp()));
+        }
+
+        @Override
+        public void close() {
+          if (closed.add(fileId)) {
+            open.decrementAndGet();
+          }
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.logging.write;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.logging.filter.AndFilter;
+import io.cdap.cdap.logging.filter.Filter;
+import io.cdap.cdap.logging.filter.FilterParser;
+import io.cdap.cdap.logging.filter.LogLevelExpression;
+import io.cdap.cdap.logging.filter.MdcExpression;
+import io.cdap.cdap.logging.filter.OrFilter;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LogBlockSummary}.
+ */
+public class LogBlockSummaryTest {
+
+  @Test
+  public void testAddAndMerge() {
+    LogBlockSummary summary = new LogBlockSummary();
+    Assert.assertTrue(summary.isEmpty());
+    Assert.assertFalse(summary.mayMatch(Filter.EMPTY_FILTER));
+
+    summary.add(createEvent(20L, Level.INFO, ImmutableMap.of(".namespaceId", "default")));
+    summary.add(createEvent(10L, Level.DEBUG, ImmutableMap.of("MDC:user", "bob")));
+    Assert.assertFalse(summary.isEmpty());
+    Assert.assertEquals(10L, summary.getMinTimestamp());
+    Assert.assertEquals(20L, summary.getMaxTimestamp());
+    Assert.assertEquals(Level.DEBUG_INT, summary.getMinLevel());
+    Assert.assertEquals(Level.INFO_INT, summary.getMaxLevel());
+    Assert.assertEquals(ImmutableSet.of(".namespaceId", "MDC:user"), summary.getMdcKeys());
+
+    LogBlockSummary other = new LogBlockSummary();
+    other.add(createEvent(30L, Level.ERROR, ImmutableMap.of("MDC:other", "value")));
+    summary.merge(other);
+    Assert.assertEquals(10L, summary.getMinTimestamp());
+    Assert.assertEquals(30L, summary.getMaxTimestamp());
+    Assert.assertEquals(Level.ERROR_INT, summary.getMaxLevel());
+    Assert.assertEquals(ImmutableSet.of(".namespaceId", "MDC:user", "MDC:other"),
+                        summary.getMdcKeys());
+
+    // Merging with unknown MDC keys makes the keys unknown
+    summary.merge(new LogBlockSummary(40L, 40L, Level.INFO_INT, Level.INFO_INT, null));
+    Assert.assertNull(summary.getMdcKeys());
+    Assert.assertTrue(summary.mayMatch(new MdcExpression("MDC:missing", "value")));
+  }
+
+  @Test
+  public void testMayMatch() {
+    LogBlockSummary summary = new LogBlockSummary(10L, 20L, Level.DEBUG_INT, Level.WARN_INT,
+                                                  ImmutableSet.of(".namespaceId", "MDC:user"));
+    Filter error = new LogLevelExpression("ERROR");
+    Filter warn = new LogLevelExpression("WARN");
+    Filter user = new MdcExpression("MDC:user", "bob");
+    Filter missing = new MdcExpression("MDC:missing", "value");
+
+    Assert.assertTrue(summary.mayMatch(Filter.EMPTY_FILTER));
+    Assert.assertFalse(summary.mayMatch(error));
+    Assert.assertTrue(summary.mayMatch(warn));
+    Assert.assertTrue(summary.mayMatch(user));
+    Assert.assertFalse(summary.mayMatch(missing));
+
+    Assert.assertTrue(summary.mayMatch(new AndFilter(ImmutableList.of(warn, user))));
+    Assert.assertFalse(summary.mayMatch(new AndFilter(ImmutableList.of(warn, missing))));
+    Assert.assertTrue(summary.mayMatch(new OrFilter(ImmutableList.of(error, user))));
+    Assert.assertFalse(summary.mayMatch(new OrFilter(ImmutableList.of(error, missing))));
+
+    Assert.assertFalse(summary.mayMatch(FilterParser.parse("loglevel=ERROR AND MDC:user=bob")));
+    Assert.assertTrue(summary.mayMatch(FilterParser.parse("loglevel=ERROR OR MDC:user=bob")));
+
+    // Unknown filters may always match
+    Assert.assertTrue(summary.mayMatch(event -> false));
+  }
+
+  private LoggingEvent createEvent(long timestamp, Level level, Map<String, String> mdc) {
+    LoggingEvent event = new LoggingEvent();
+    event.setLevel(level);
+    event.setLoggerName("test.logger");
+    event.setMessage("Log message");
+    event.setTimeStamp(timestamp);
+    event.setMDCPropertyMap(mdc);
+    return event;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.logging.write;
+
+import ch.qos.logback.classic.Level;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LogFileIndex}.
+ */
+public class LogFileIndexTest {
+
+  @Test
+  public void testFind() {
+    LogFileIndex index = new LogFileIndex();
+    // Timestamps 10, 20, 20, 30 at positions 100, 200, 300, 400
+    index.add(10L, 100L);
+    index.add(20L, 200L);
+    index.add(20L, 300L);
+    index.add(30L, 400L);
+
+    Assert.assertEquals(0, index.findStart(5L));
+    Assert.assertEquals(0, index.findStart(10L));
+    Assert.assertEquals(0, index.findStart(20L));
+    Assert.assertEquals(2, index.findStart(25L));
+    Assert.assertEquals(2, index.findStart(30L));
+    Assert.assertEquals(3, index.findStart(35L));
+
+    Assert.assertEquals(0, index.findEnd(5L));
+    Assert.assertEquals(1, index.findEnd(10L));
+    Assert.assertEquals(3, index.findEnd(20L));
+    Assert.assertEquals(4, index.findEnd(30L));
+  }
+
+  @Test
+  public void testReadWrite() throws IOException {
+    LogFileIndex index = new LogFileIndex();
+    for (int i = 0; i < 100; i++) {
+      index.add(i * 10L, i * 1000L + 50L);
+    }
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    index.write(os);
+    byte[] bytes = os.toByteArray();
+
+    LogFileIndex result = LogFileIndex.read(new ByteArrayInputStream(bytes), Long.MAX_VALUE);
+    Assert.assertEquals(100, result.size());
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i * 10L, result.getTimestamp(i));
+      Assert.assertEquals(i * 1000L + 50L, result.getPosition(i));
+    }
+
+    // Entries beyond the file length are dropped
+    result = LogFileIndex.read(new ByteArrayInputStream(bytes), 5050L);
+    Assert.assertEquals(5, result.size());
+
+    // Truncated index cannot be read
+    try {
+      LogFileIndex.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)),
+                        Long.MAX_VALUE);
+      Assert.fail("Expected failure on truncated index");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSummaries() throws IOException {
+    LogFileIndex index = new LogFileIndex();
+    index.add(10L, 100L);
+    index.setSummary(0, new LogBlockSummary(10L, 19L, Level.DEBUG_INT, Level.WARN_INT,
+                                            ImmutableSet.of(".namespaceId", "MDC:user")));
+    index.add(20L, 200L);
+    index.setSummary(1, new LogBlockSummary(20L, 29L, Level.INFO_INT, Level.INFO_INT, null));
+    // Region without summary
+    index.add(30L, 300L);
+
+    LogFileIndex result = readWrite(index);
+    Assert.assertEquals(3, result.size());
+    LogBlockSummary summary = result.getSummary(0);
+    Assert.assertNotNull(summary);
+    Assert.assertEquals(10L, summary.getMinTimestamp());
+    Assert.assertEquals(19L, summary.getMaxTimestamp());
+    Assert.assertEquals(Level.DEBUG_INT, summary.getMinLevel());
+    Assert.assertEquals(Level.WARN_INT, summary.getMaxLevel());
+    Assert.assertEquals(ImmutableSet.of(".namespaceId", "MDC:user"), summary.getMdcKeys());
+
+    summary = result.getSummary(1);
+    Assert.assertNotNull(summary);
+    Assert.assertEquals(Level.INFO_INT, summary.getMaxLevel());
+    Assert.assertNull(summary.getMdcKeys());
+    Assert.assertNull(result.getSummary(2));
+  }
+
+  @Test
+  public void testTooManyMdcKeys() throws IOException {
+    LogFileIndex index = new LogFileIndex();
+    Set<String> keys = new HashSet<>();
+    for (int i = 0; i < LogFileIndex.MAX_MDC_KEYS; i++) {
+      keys.add("key" + i);
+    }
+    index.add(10L, 100L);
+    index.setSummary(0, new LogBlockSummary(10L, 10L, Level.INFO_INT, Level.INFO_INT, keys));
+    index.add(20L, 200L);
+    index.setSummary(1, new LogBlockSummary(20L, 20L, Level.INFO_INT, Level.INFO_INT,
+                                            ImmutableSet.of("key0", "other")));
+
+    // The second summary has a key beyond the maximum number of keys, hence its keys are unknown
+    LogFileIndex result = readWrite(index);
+    Assert.assertEquals(keys, result.getSummary(0).getMdcKeys());
+    Assert.assertNull(result.getSummary(1).getMdcKeys());
+  }
+
+  @Test
+  public void testVersion1() throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(os);
+    output.writeInt(0x4c494458);
+    output.writeInt(1);
+    output.writeInt(2);
+    output.writeLong(10L);
+    output.writeLong(100L);
+    output.writeLong(20L);
+    output.writeLong(200L);
+
+    LogFileIndex result = LogFileIndex.read(new ByteArrayInputStream(os.toByteArray()),
+                                            Long.MAX_VALUE);
+    Assert.assertEquals(2, result.size());
+    Assert.assertEquals(200L, result.getPosition(1));
+    Assert.assertNull(result.getSummary(0));
+    Assert.assertNull(result.getSummary(1));
+  }
+
+  private LogFileIndex readWrite(LogFileIndex index) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    index.write(os);
+    return LogFileIndex.read(new ByteArrayInputStream(os.toByteArray()), Long.MAX_VALUE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPositionNotIncreasing() {
+    LogFileIndex index = new LogFileIndex();
+    index.add(10L, 100L);
+    index.add(20L, 100L);
+  }
+}
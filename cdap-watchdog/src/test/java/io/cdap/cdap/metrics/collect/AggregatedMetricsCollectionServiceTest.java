@@ -23,6 +23,8 @@ import io.cdap.cdap.api.metrics.MetricValues;
 import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.test.SlowTests;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -33,8 +35,11 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -42,6 +47,8 @@ import org.junit.experimental.categories.Category;
  */
 public class AggregatedMetricsCollectionServiceTest {
 
+  private static final Logger LOG = LoggerFactory.getLogger(AggregatedMetricsCollectionServiceTest.class);
+
   private static final HashMap<String, String> EMPTY_TAGS = new HashMap<>();
   private static final String NAMESPACE = "testnamespace";
   private static final String APP = "testapp";
@@ -274,4 +281,79 @@ public class AggregatedMetricsCollectionServiceTest {
     Assert.assertNull(published.poll());
   }
 
+
+  @Test
+  public void testContextLookup() {
+    AggregatedMetricsCollectionService service = new AggregatedMetricsCollectionService(1000L) {
+      @Override
+      protected void publish(Iterator<MetricValues> metrics) {
+        // no-op
+      }
+    };
+
+    Map<String, String> baseTags = ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, NAMESPACE,
+                                                   Constants.Metrics.Tag.APP, APP);
+    MetricsContext baseContext = service.getContext(baseTags);
+    Assert.assertSame(baseContext, service.getContext(new HashMap<>(baseTags)));
+    Assert.assertEquals(baseTags, baseContext.getTags());
+
+    // Child contexts with the same tags should be the same instance, regardless of how they are created
+    MetricsContext child = baseContext.childContext(Constants.Metrics.Tag.HANDLER, HANDLER);
+    Assert.assertSame(child, baseContext.childContext(Constants.Metrics.Tag.HANDLER, HANDLER));
+    Assert.assertSame(child, baseContext.childContext(ImmutableMap.of(Constants.Metrics.Tag.HANDLER, HANDLER)));
+    Assert.assertSame(child, service.getContext(child.getTags()));
+    Assert.assertEquals(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, NAMESPACE,
+                                        Constants.Metrics.Tag.APP, APP,
+                                        Constants.Metrics.Tag.HANDLER, HANDLER), child.getTags());
+    Assert.assertNotSame(child, baseContext.childContext(Constants.Metrics.Tag.HANDLER, "other"));
+
+    // Child context with the map can override existing tags
+    Assert.assertEquals(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, NAMESPACE,
+                                        Constants.Metrics.Tag.APP, "otherApp"),
+                        baseContext.childContext(ImmutableMap.of(Constants.Metrics.Tag.APP, "otherApp")).getTags());
+  }
+
+  /**
+   * Measures the number of bytes allocated per metric call on a child context. The result is logged
+   * such that it can be compared across changes.
+   */
+  @Category(SlowTests.class)
+  @Test
+  public void testAllocationPerCall() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) threadMXBean;
+    Assume.assumeTrue(mxBean.isThreadAllocatedMemorySupported());
+    mxBean.setThreadAllocatedMemoryEnabled(true);
+
+    AggregatedMetricsCollectionService service = new AggregatedMetricsCollectionService(1000L) {
+      @Override
+      protected void publish(Iterator<MetricValues> metrics) {
+        // no-op
+      }
+    };
+
+    MetricsContext baseContext = service.getContext(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, NAMESPACE,
+                                                                     Constants.Metrics.Tag.APP, APP,
+                                                                     Constants.Metrics.Tag.SERVICE, SERVICE,
+                                                                     Constants.Metrics.Tag.RUN_ID, RUNID));
+    int iterations = 1000000;
+    long threadId = Thread.currentThread().getId();
+
+    // Warm up, which also creates the child contexts and emitters
+    for (int i = 0; i < iterations; i++) {
+      baseContext.childContext(Constants.Metrics.Tag.HANDLER, HANDLER).increment(METRIC, 1);
+    }
+
+    long startBytes = mxBean.getThreadAllocatedBytes(threadId);
+    long startTime = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      baseContext.childContext(Constants.Metrics.Tag.HANDLER, HANDLER).increment(METRIC, 1);
+    }
+    long elapsedNanos = System.nanoTime() - startTime;
+    long allocatedBytes = mxBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    LOG.info("Child context increment: {} bytes allocated per call, {} ops/sec",
+             (double) allocatedBytes / iterations, iterations * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+  }
 }
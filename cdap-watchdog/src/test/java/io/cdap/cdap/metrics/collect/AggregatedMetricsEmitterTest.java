@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.cdap.cdap.metrics.collect;
+package io.cdap.cdap.metrics.collect;
+
+import io.cdap.cdap.api.metrics.MetricType;
+import io.cdap.cdap.api.metrics.MetricValue;
+import io.cdap.cdap.test.SlowTests;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unit tests for {@link AggregatedMetricsEmitter}.
+ */
+public class AggregatedMetricsEmitterTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AggregatedMetricsEmitterTest.class);
+
+  @Test
+  public void testCounter() {
+    AggregatedMetricsEmitter emitter = new AggregatedMetricsEmitter("counter");
+    emitter.increment(3);
+    emitter.increment(4);
+    assertMetricValue(emitter.emit(), MetricType.COUNTER, 7);
+
+    // The counter is reset after emit
+    assertMetricValue(emitter.emit(), MetricType.COUNTER, 0);
+    emitter.increment(-2);
+    assertMetricValue(emitter.emit(), MetricType.COUNTER, -2);
+  }
+
+  @Test
+  public void testGauge() {
+    AggregatedMetricsEmitter emitter = new AggregatedMetricsEmitter("gauge");
+    emitter.gauge(10);
+    emitter.gauge(5);
+    assertMetricValue(emitter.emit(), MetricType.GAUGE, 5);
+
+    // Gauge is only emitted once after it is set
+    assertMetricValue(emitter.emit(), MetricType.COUNTER, 0);
+    emitter.gauge(8);
+    assertMetricValue(emitter.emit(), MetricType.GAUGE, 8);
+  }
+
+  @Test
+  public void testDistribution() {
+    AggregatedMetricsEmitter emitter = new AggregatedMetricsEmitter("distribution");
+    emitter.event(0);
+    emitter.event(2);
+    emitter.event(2);
+    emitter.event(100);
+
+    MetricValue metricValue = emitter.emit();
+    Assert.assertEquals(MetricType.DISTRIBUTION, metricValue.getType());
+    Assert.assertEquals(2L + 8L + 256L, metricValue.getBucketMask());
+    Assert.assertArrayEquals(new long[] { 1, 2, 1 }, metricValue.getBucketCounts());
+    Assert.assertEquals(104d, metricValue.getSum(), 0.0001d);
+
+    // Only the events added after the last emit are emitted
+    Assert.assertEquals(0, emitter.emit().getBucketCounts().length);
+    emitter.event(100);
+    metricValue = emitter.emit();
+    Assert.assertEquals(256L, metricValue.getBucketMask());
+    Assert.assertArrayEquals(new long[] { 1 }, metricValue.getBucketCounts());
+    Assert.assertEquals(100d, metricValue.getSum(), 0.0001d);
+  }
+
+  @Test
+  public void testConcurrentIncrement() throws InterruptedException {
+    AggregatedMetricsEmitter emitter = new AggregatedMetricsEmitter("counter");
+    AtomicBoolean end = new AtomicBoolean();
+    LongAdder totalAdds = new LongAdder();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      threads.add(new Thread(() -> {
+        while (!end.get()) {
+          emitter.increment(1);
+          totalAdds.increment();
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+
+    // Emit concurrently with the writers. No increment should be lost.
+    long totalEmitted = 0;
+    for (int i = 0; i < 10; i++) {
+      TimeUnit.MILLISECONDS.sleep(50);
+      totalEmitted += emitter.emit().getValue();
+    }
+    end.set(true);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    totalEmitted += emitter.emit().getValue();
+
+    Assert.assertEquals(totalAdds.sum(), totalEmitted);
+  }
+
+  /**
+   * Measures the increment throughput of a single emitter shared by different number of threads.
+   */
+  @Category(SlowTests.class)
+  @Test
+  public void testIncrementThroughput() throws InterruptedException {
+    for (int threadCount : new int[] { 1, 2, 4, 8, 16, 32, 64 }) {
+      AggregatedMetricsEmitter emitter = new AggregatedMetricsEmitter("counter");
+      AtomicBoolean end = new AtomicBoolean();
+      CountDownLatch startLatch = new CountDownLatch(1);
+      LongAdder totalAdds = new LongAdder();
+
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < threadCount; i++) {
+        threads.add(new Thread(() -> {
+          try {
+            startLatch.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          long count = 0;
+          while (!end.get()) {
+            emitter.increment(1);
+            count++;
+          }
+          totalAdds.add(count);
+        }));
+      }
+      threads.forEach(Thread::start);
+
+      long startTime = System.nanoTime();
+      startLatch.countDown();
+      TimeUnit.MILLISECONDS.sleep(500);
+      end.set(true);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      long elapsedNanos = System.nanoTime() - startTime;
+
+      Assert.assertEquals(totalAdds.sum(), emitter.emit().getValue());
+      LOG.info("Increment throughput with {} threads: {} ops/sec", threadCount,
+               totalAdds.sum() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+    }
+  }
+
+  private void assertMetricValue(MetricValue metricValue, MetricType type, long value) {
+    Assert.assertEquals(type, metricValue.getType());
+    Assert.assertEquals(value, metricValue.getValue());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2024 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.process;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.metrics.MetricType;
+import io.cdap.cdap.api.metrics.MetricValue;
+import io.cdap.cdap.api.metrics.MetricValues;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MetricsCoalescer}.
+ */
+public class MetricsCoalescerTest {
+
+  private static final Map<String, String> TAGS = ImmutableMap.of("ns", "default", "app", "test");
+  private static final Map<String, String> OTHER_TAGS = ImmutableMap.of("ns", "default");
+
+  @Test
+  public void testCounterAndGauge() {
+    MetricsCoalescer coalescer = new MetricsCoalescer(1);
+    Assert.assertTrue(coalescer.isEmpty());
+
+    for (int i = 0; i < 100; i++) {
+      coalescer.add(new MetricValues(TAGS, 10, ImmutableList.of(
+          new MetricValue("count", MetricType.COUNTER, 1),
+          new MetricValue("gauge", MetricType.GAUGE, i))));
+      // Use a new map each time to make sure tags are compared by value
+      coalescer.add(new MetricValues(new HashMap<>(OTHER_TAGS), 10, ImmutableList.of(
+          new MetricValue("count", MetricType.COUNTER, 2))));
+    }
+    coalescer.add(new MetricValues(TAGS, 11, ImmutableList.of(
+        new MetricValue("count", MetricType.COUNTER, 5))));
+
+    Assert.assertFalse(coalescer.isEmpty());
+    Assert.assertEquals(201, coalescer.getMetricValuesCount());
+    Assert.assertEquals(4, coalescer.getValueCount());
+
+    List<MetricValues> result = new ArrayList<>(coalescer.flush());
+    Assert.assertTrue(coalescer.isEmpty());
+    Assert.assertEquals(0, coalescer.getValueCount());
+    Assert.assertEquals(3, result.size());
+
+    assertMetricValues(result.get(0), TAGS, 10, ImmutableMap.of("count", 100L, "gauge", 99L));
+    assertMetricValues(result.get(1), OTHER_TAGS, 10, ImmutableMap.of("count", 200L));
+    assertMetricValues(result.get(2), TAGS, 11, ImmutableMap.of("count", 5L));
+  }
+
+  @Test
+  public void testGaugeThenCounter() {
+    MetricsCoalescer coalescer = new MetricsCoalescer(1);
+    coalescer.add(new MetricValues(TAGS, "metric", 10, 3, MetricType.COUNTER));
+    coalescer.add(new MetricValues(TAGS, "metric", 10, 10, MetricType.GAUGE));
+    coalescer.add(new MetricValues(TAGS, "metric", 10, 5, MetricType.COUNTER));
+
+    // Same as writing the counter, then set to the gauge value, then increment by the counter
+    MetricValue value = coalescer.flush().getFirst().getMetrics().iterator().next();
+    Assert.assertEquals(MetricType.GAUGE, value.getType());
+    Assert.assertEquals(15L, value.getValue());
+  }
+
+  @Test
+  public void testResolution() {
+    MetricsCoalescer coalescer = new MetricsCoalescer(60);
+    for (int i = 0; i < 180; i++) {
+      coalescer.add(new MetricValues(TAGS, "metric", 60 + i, 1, MetricType.COUNTER));
+    }
+
+    List<MetricValues> result = new ArrayList<>(coalescer.flush());
+    Assert.assertEquals(3, result.size());
+    for (int i = 0; i < 3; i++) {
+      assertMetricValues(result.get(i), TAGS, 60 * (i + 1), ImmutableMap.of("metric", 60L));
+    }
+  }
+
+  @Test
+  public void testDistribution() {
+    // Bucket 1 and 3 for the first value, bucket 3 and 5 for the second
+    MetricValue first = new MetricValue("dist", new long[] { 2, 3 }, 0b1010, 20.0d);
+    MetricValue second = new MetricValue("dist", new long[] { 4, 1 }, 0b101000, 30.0d);
+
+    MetricsCoalescer coalescer = new MetricsCoalescer(1);
+    coalescer.add(new MetricValues(TAGS, 10, ImmutableList.of(first)));
+    coalescer.add(new MetricValues(TAGS, 10, ImmutableList.of(second)));
+
+    MetricValue value = coalescer.flush().getFirst().getMetrics().iterator().next();
+    Assert.assertEquals(MetricType.DISTRIBUTION, value.getType());
+    Assert.assertEquals(0b101010, value.getBucketMask());
+    Assert.assertArrayEquals(new long[] { 2, 7, 1 }, value.getBucketCounts());
+    Assert.assertEquals(50.0d, value.getSum(), 0.0001d);
+
+    long[] expected = new long[MetricValue.NUM_FINITE_BUCKETS + 2];
+    expected[1] = 2;
+    expected[3] = 7;
+    expected[5] = 1;
+    Assert.assertTrue(Arrays.equals(expected, value.getAllBucketCounts()));
+  }
+
+  private void assertMetricValues(MetricValues metricValues, Map<String, String> tags,
+                                  long timestamp, Map<String, Long> expected) {
+    Assert.assertEquals(tags, metricValues.getTags());
+    Assert.assertEquals(timestamp, metricValues.getTimestamp());
+    Map<String, Long> actual = new HashMap<>();
+    for (MetricValue value : metricValues.getMetrics()) {
+      actual.put(value.getName(), value.getValue());
+    }
+    Assert.assertEquals(expected, actual);
+  }
+}